@@ -0,0 +1,159 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Creates the input files of the {@link ParserBenchmark}. An input file is created by repeating one or all of the
+ * test resources of the parsers until the requested size has been reached. The content of an XML resource is
+ * repeated within its root element, so the input file is still a well-formed report of the same format. The files
+ * are created in the temporary directory and reused by later runs.
+ *
+ * @author Ulli Hafner
+ */
+final class BenchmarkInput {
+    /** Name of the input that contains all text resources of the parser tests. */
+    static final String CORPUS = "corpus";
+    /** Name of the input that consists of the test resource of the benchmarked parser. */
+    static final String FIXTURE = "fixture";
+
+    private static final long MEGA_BYTE = 1024 * 1024;
+    /** Preserves all bytes of a resource, the markup of XML resources consists of ASCII characters only. */
+    private static final String ENCODING = "ISO-8859-1";
+
+    /**
+     * Returns an input file of the specified size. XML resources are repeated as a whole, so the size of the file
+     * is a multiple of the repeated content that is at least the requested size.
+     *
+     * @param input
+     *            the name of the test resource to repeat, or {@link #CORPUS} to use all text resources
+     * @param megaBytes
+     *            the size of the file in megabytes
+     * @return the input file
+     * @throws IOException
+     *             if the file could not be created
+     */
+    static File create(final String input, final int megaBytes) throws IOException {
+        long size = megaBytes * MEGA_BYTE;
+        File file = new File(FileUtils.getTempDirectory(),
+                "warnings-benchmark-" + input.replace('/', '-') + "-" + megaBytes + "MB.txt");
+        if (file.isFile()) {
+            return file;
+        }
+
+        byte[] content = readContent(input);
+        File temp = new File(file.getPath() + ".tmp");
+        OutputStream output = new BufferedOutputStream(new FileOutputStream(temp));
+        try {
+            if (isDocument(input, content)) {
+                writeDocument(output, new String(content, ENCODING), size);
+            }
+            else {
+                for (long written = 0; written < size; written += content.length) {
+                    output.write(content, 0, (int)Math.min(content.length, size - written));
+                }
+            }
+        }
+        finally {
+            output.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Can't rename " + temp + " to " + file);
+        }
+        return file;
+    }
+
+    private static boolean isDocument(final String input, final byte[] content) throws IOException {
+        return input.endsWith(".xml") && getRootElement(new String(content, ENCODING)) >= 0;
+    }
+
+    /**
+     * Writes the prolog and the root element of the specified document and repeats the content of the root element
+     * until the requested size has been reached.
+     */
+    private static void writeDocument(final OutputStream output, final String document, final long size)
+            throws IOException {
+        int start = document.indexOf('>', getRootElement(document)) + 1;
+        int end = document.lastIndexOf("</");
+        if (end < start) { // root element without content
+            end = start;
+        }
+        byte[] prolog = document.substring(0, start).getBytes(ENCODING);
+        byte[] body = document.substring(start, end).getBytes(ENCODING);
+        byte[] epilog = document.substring(end).getBytes(ENCODING);
+
+        output.write(prolog);
+        long written = prolog.length + epilog.length;
+        do {
+            output.write(body);
+            written += body.length;
+        } while (written < size && body.length > 0);
+        output.write(epilog);
+    }
+
+    /**
+     * Returns the position of the start tag of the root element, i.e. the first tag that is neither a processing
+     * instruction, nor a comment, nor a document type declaration.
+     */
+    private static int getRootElement(final String document) {
+        for (int index = document.indexOf('<'); index >= 0 && index + 1 < document.length();
+                index = document.indexOf('<', index + 1)) {
+            char next = document.charAt(index + 1);
+            if (next != '?' && next != '!') {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] readContent(final String input) throws IOException {
+        if (!CORPUS.equals(input)) {
+            return IOUtils.toByteArray(ParserBenchmark.class.getResourceAsStream(input));
+        }
+
+        byte[] content = new byte[0];
+        for (File resource : getTextResources()) {
+            byte[] bytes = FileUtils.readFileToByteArray(resource);
+            int length = content.length;
+            content = Arrays.copyOf(content, length + bytes.length + 1);
+            System.arraycopy(bytes, 0, content, length, bytes.length);
+            content[content.length - 1] = '\n';
+        }
+        return content;
+    }
+
+    private static List<File> getTextResources() throws IOException {
+        URL all = ParserBenchmark.class.getResource("all.txt");
+        try {
+            File[] files = new File(all.toURI()).getParentFile().listFiles();
+            List<File> resources = Lists.newArrayList();
+            for (File file : files) {
+                if (file.getName().endsWith(".txt") || file.getName().endsWith(".log")) {
+                    resources.add(file);
+                }
+            }
+            Collections.sort(resources);
+            return resources;
+        }
+        catch (URISyntaxException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    private BenchmarkInput() {
+        // prevents instantiation
+    }
+}
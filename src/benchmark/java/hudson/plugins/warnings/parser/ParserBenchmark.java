@@ -0,0 +1,278 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.Lists;
+
+import net.java.sezpoz.Index;
+import net.java.sezpoz.IndexItem;
+
+import hudson.Extension;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Measures the throughput of the warnings parsers. Every parser that is registered as an extension (and therefore is
+ * provided by the {@link ParserRegistry}) as well as a {@link DynamicParser} and a {@link DynamicDocumentParser}
+ * parse input files of the sizes that are given by the system property {@code benchmark.sizes} (in megabytes,
+ * defaults to {@code 1,100,1024}). By default, the input file of a parser consists of the test resource of its parser
+ * test (see {@link ParserTester#getWarningsFile()}), so each parser reads input of its own format, e.g. XML parsers
+ * read XML reports. Parsers without a test read all text resources of the parser tests. Another input can be set
+ * for all parsers with the system property {@code benchmark.input}, see {@link BenchmarkInput}.
+ * <p>
+ * Besides the number of parsed files per second, the benchmark reports the number of warnings and megabytes per
+ * second and the allocation rate of each parser. Run the benchmark using
+ * {@code mvn -Pbenchmark test-compile exec:exec}. The parsers can be restricted with the system property
+ * {@code benchmark.parsers} (simple class names, separated by commas).
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParserBenchmark {
+    private static final String DYNAMIC_PARSER = "DynamicParser";
+    private static final String DYNAMIC_DOCUMENT_PARSER = "DynamicDocumentParser";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final double MEGA_BYTE = 1024 * 1024;
+    private static final String DEFAULT_SIZES = "1,100,1024";
+    /** Input of the {@link DynamicDocumentParser}, the regular expression matches the warnings of Eclipse. */
+    private static final String MULTI_LINE_INPUT = "eclipse.txt";
+
+    private static final String SINGLE_LINE_REGEXP = "^\\s*(.*):(\\d+):(.*):\\s*(.*)$";
+    private static final String SINGLE_LINE_SCRIPT = "import hudson.plugins.warnings.parser.Warning\n"
+            + "return new Warning(matcher.group(1), Integer.parseInt(matcher.group(2)), \"Dynamic Parser\", "
+            + "matcher.group(3), matcher.group(4))\n";
+    private static final String MULTI_LINE_REGEXP = "(WARNING|ERROR)\\s*in\\s*(.*)\\(at line\\s*(\\d+)\\)"
+            + ".*(?:\\r?\\n[^\\^]*)+(?:\\r?\\n.*[\\^]+.*)\\r?\\n(?:\\s*\\[.*\\]\\s*)?(.*)";
+    private static final String MULTI_LINE_SCRIPT = "import hudson.plugins.warnings.parser.Warning\n"
+            + "return new Warning(matcher.group(2), Integer.parseInt(matcher.group(3)), \"Dynamic Parser\", "
+            + "matcher.group(1), matcher.group(4))\n";
+
+    // CHECKSTYLE:OFF
+    /** The simple class name of the parser to benchmark. */
+    @Param(DYNAMIC_PARSER)
+    public String parser;
+    /** The size of the input in megabytes. */
+    @Param({"1", "100", "1024"})
+    public int megaBytes;
+    /** The test resource to use as input. */
+    @Param(BenchmarkInput.FIXTURE)
+    public String input;
+    // CHECKSTYLE:ON
+
+    private AbstractWarningsParser warningsParser;
+    private File file;
+    private double fileSize;
+
+    /**
+     * Creates the parser and the input file.
+     *
+     * @throws IOException
+     *             if the input file could not be created
+     */
+    @Setup(Level.Trial)
+    public void createParserAndInput() throws IOException {
+        warningsParser = createParser(parser);
+        file = BenchmarkInput.create(BenchmarkInput.FIXTURE.equals(input) ? getFixture(parser, warningsParser) : input,
+                megaBytes);
+        fileSize = file.length() / MEGA_BYTE;
+    }
+
+    /**
+     * Parses the input file.
+     *
+     * @param counters
+     *            the counters of the found warnings and the parsed megabytes
+     * @return the number of found warnings
+     * @throws IOException
+     *             if the file could not be parsed
+     */
+    @Benchmark
+    public int parse(final Counters counters) throws IOException {
+        Collection<FileAnnotation> warnings;
+        MappedFileReader reader = new MappedFileReader(file, UTF_8);
+        try {
+            warnings = warningsParser.parse(reader);
+        }
+        finally {
+            reader.close();
+        }
+
+        counters.warnings += warnings.size();
+        counters.megaBytes += fileSize;
+
+        return warnings.size();
+    }
+
+    /**
+     * Counts the warnings and megabytes that have been parsed per second.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        // CHECKSTYLE:OFF
+        /** The number of found warnings. */
+        public long warnings;
+        /** The number of parsed megabytes. */
+        public double megaBytes;
+        // CHECKSTYLE:ON
+
+        /**
+         * Resets the counters before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            warnings = 0;
+            megaBytes = 0;
+        }
+    }
+
+    private static AbstractWarningsParser createParser(final String name) {
+        if (DYNAMIC_PARSER.equals(name)) {
+            return new DynamicParser(name, SINGLE_LINE_REGEXP, SINGLE_LINE_SCRIPT, name, name);
+        }
+        if (DYNAMIC_DOCUMENT_PARSER.equals(name)) {
+            return new DynamicDocumentParser(name, MULTI_LINE_REGEXP, MULTI_LINE_SCRIPT, name, name);
+        }
+        for (Class<? extends AbstractWarningsParser> type : getParserClasses()) {
+            if (type.getSimpleName().equals(name)) {
+                try {
+                    return type.newInstance();
+                }
+                catch (InstantiationException exception) {
+                    throw new IllegalArgumentException(exception);
+                }
+                catch (IllegalAccessException exception) {
+                    throw new IllegalArgumentException(exception);
+                }
+            }
+        }
+        throw new IllegalArgumentException("No such parser: " + name);
+    }
+
+    /**
+     * Returns the test resource of the test of the specified parser. The test is either in the package of the parser
+     * or in the package of this benchmark.
+     *
+     * @param name
+     *            the simple class name of the parser
+     * @param warningsParser
+     *            the parser
+     * @return the test resource of the parser, or {@link BenchmarkInput#CORPUS} if there is no parser test
+     */
+    private static String getFixture(final String name, final AbstractWarningsParser warningsParser) {
+        if (DYNAMIC_PARSER.equals(name)) {
+            return BenchmarkInput.CORPUS;
+        }
+        if (DYNAMIC_DOCUMENT_PARSER.equals(name)) {
+            return MULTI_LINE_INPUT;
+        }
+        Class<?> type = warningsParser.getClass();
+        for (String test : new String[] {type.getName() + "Test",
+                ParserBenchmark.class.getPackage().getName() + "." + type.getSimpleName() + "Test"}) {
+            try {
+                Object tester = Class.forName(test).newInstance();
+                if (tester instanceof ParserTester) {
+                    Method getWarningsFile = ParserTester.class.getDeclaredMethod("getWarningsFile");
+                    getWarningsFile.setAccessible(true);
+                    return (String)getWarningsFile.invoke(tester);
+                }
+            }
+            catch (ReflectiveOperationException exception) {
+                // try the next package
+            }
+        }
+        return BenchmarkInput.CORPUS;
+    }
+
+    /**
+     * Returns the classes of all parsers that are registered as extensions. Since the benchmark runs without a
+     * Jenkins instance, the classes are read from the extension index that Jenkins uses to create the extensions.
+     *
+     * @return the parser classes
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Class<? extends AbstractWarningsParser>> getParserClasses() {
+        List<Class<? extends AbstractWarningsParser>> parsers = Lists.newArrayList();
+        for (IndexItem<Extension, Object> item : Index.load(Extension.class, Object.class,
+                ParserBenchmark.class.getClassLoader())) {
+            try {
+                AnnotatedElement element = item.element();
+                if (element instanceof Class && AbstractWarningsParser.class.isAssignableFrom((Class<?>)element)
+                        && !Modifier.isAbstract(((Class<?>)element).getModifiers())) {
+                    parsers.add((Class<? extends AbstractWarningsParser>)element);
+                }
+            }
+            catch (InstantiationException exception) {
+                // skip extensions of other plug-ins that can't be loaded
+            }
+        }
+        return parsers;
+    }
+
+    private static String[] getParserNames() {
+        String selected = System.getProperty("benchmark.parsers");
+        if (StringUtils.isNotBlank(selected)) {
+            return selected.split(",");
+        }
+        List<String> names = Lists.newArrayList(DYNAMIC_PARSER, DYNAMIC_DOCUMENT_PARSER);
+        for (Class<? extends AbstractWarningsParser> type : getParserClasses()) {
+            names.add(type.getSimpleName());
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Runs the benchmark for all parsers and writes the results to {@code target/benchmark.csv}.
+     *
+     * @param args
+     *            not used
+     * @throws RunnerException
+     *             if the benchmark failed
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParserBenchmark.class.getSimpleName())
+                .param("parser", getParserNames())
+                .param("megaBytes", StringUtils.defaultIfBlank(System.getProperty("benchmark.sizes"), DEFAULT_SIZES)
+                        .split(","))
+                .param("input", StringUtils.defaultIfBlank(System.getProperty("benchmark.input"),
+                        BenchmarkInput.FIXTURE))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result("target/benchmark.csv")
+                .build()).run();
+    }
+}
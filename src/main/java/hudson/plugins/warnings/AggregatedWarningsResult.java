@@ -1,5 +1,10 @@
 package hudson.plugins.warnings;
 
+import java.io.File;
+
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
 import com.thoughtworks.xstream.XStream;
 
 import hudson.model.Run;
@@ -7,7 +12,10 @@ import hudson.plugins.analysis.core.BuildHistory;
 import hudson.plugins.analysis.core.BuildResult;
 import hudson.plugins.analysis.core.ParserResult;
 import hudson.plugins.analysis.core.ResultAction;
+import hudson.plugins.analysis.views.DetailFactory;
+import hudson.plugins.warnings.parser.StringPool;
 import hudson.plugins.warnings.parser.Warning;
+import hudson.util.XStream2;
 
 /**
  * Represents the aggregated results of all warnings parsers. One instance of this class is persisted for each build via
@@ -18,6 +26,10 @@ import hudson.plugins.warnings.parser.Warning;
  */
 public class AggregatedWarningsResult extends BuildResult {
     private static final long serialVersionUID = 4572019928324067680L;
+    /** Determines whether the annotations are written in the binary format. */
+    private transient boolean useBinaryFormat;
+    /** Provides the warnings of the detail views page by page. */
+    private transient PagedAnnotationStore pagedStore;
 
     /**
      * Creates a new instance of {@link AggregatedWarningsResult}.
@@ -33,14 +45,26 @@ public class AggregatedWarningsResult extends BuildResult {
      */
     public AggregatedWarningsResult(final Run<?, ?> build, final BuildHistory history, final ParserResult result,
                                     final String defaultEncoding) {
+        this(build, history, result, defaultEncoding, BinaryAnnotationsConverter.isEnabledGlobally());
+    }
+
+    AggregatedWarningsResult(final Run<?, ?> build, final BuildHistory history, final ParserResult result,
+                             final String defaultEncoding, final boolean useBinaryFormat) {
         super(build, history, result, defaultEncoding);
 
+        this.useBinaryFormat = useBinaryFormat;
+        StringPool.intern(result.getAnnotations());
         serializeAnnotations(result.getAnnotations());
+        if (useBinaryFormat) {
+            getPagedStore().store(result.getAnnotations());
+        }
     }
 
     @Override
     protected void configure(final XStream xstream) {
         xstream.alias("warning", Warning.class);
+        StringPool.configure(xstream);
+        BinaryAnnotationsConverter.configure(xstream, useBinaryFormat);
     }
 
     @Override
@@ -62,6 +86,37 @@ public class AggregatedWarningsResult extends BuildResult {
         return createDefaultDeltaMessage(getUrl(), getNumberOfNewWarnings(), getNumberOfFixedWarnings());
     }
 
+    /**
+     * Returns the detail view of the specified link. If the warnings have been stored in pages, then the views of
+     * the warnings of a module, package, file, category, type or priority read only the pages of these warnings.
+     *
+     * @param link
+     *            the link to the detail view
+     * @param request
+     *            Stapler request
+     * @param response
+     *            Stapler response
+     * @return the detail view
+     */
+    @Override
+    public Object getDynamic(final String link, final StaplerRequest request, final StaplerResponse response) {
+        Object details = getPagedStore().getDetails(link, this, DetailFactory.create(getResultActionType()));
+        if (details == null) {
+            return super.getDynamic(link, request, response);
+        }
+        return details;
+    }
+
+    private synchronized PagedAnnotationStore getPagedStore() {
+        if (pagedStore == null) {
+            XStream xstream = new XStream2();
+            configure(xstream);
+            pagedStore = new PagedAnnotationStore(new File(getOwner().getRootDir(), getSerializationFileName()),
+                    xstream);
+        }
+        return pagedStore;
+    }
+
     @Override
     protected String getSerializationFileName() {
         return "aggregated-warnings.xml";
@@ -0,0 +1,275 @@
+package hudson.plugins.warnings;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.Maps;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Index of the annotations that are persisted by a {@link PagedAnnotationStore}. For each value of the indexed
+ * {@link Property properties} the index provides the number of annotations and the pages that contain these
+ * annotations. So views can show the totals and load the annotations of a single file, module, package, category,
+ * type or priority without reading all annotations.
+ *
+ * @author Ulli Hafner
+ */
+public class AnnotationIndex {
+    /**
+     * The indexed properties of an annotation.
+     */
+    public enum Property {
+        /** The file name. */
+        FILE {
+            @Override
+            String getValue(final FileAnnotation annotation) {
+                return annotation.getFileName();
+            }
+        },
+        /** The module name. */
+        MODULE {
+            @Override
+            String getValue(final FileAnnotation annotation) {
+                return annotation.getModuleName();
+            }
+        },
+        /** The package name. */
+        PACKAGE {
+            @Override
+            String getValue(final FileAnnotation annotation) {
+                return annotation.getPackageName();
+            }
+        },
+        /** The category. */
+        CATEGORY {
+            @Override
+            String getValue(final FileAnnotation annotation) {
+                return annotation.getCategory();
+            }
+        },
+        /** The type. */
+        TYPE {
+            @Override
+            String getValue(final FileAnnotation annotation) {
+                return annotation.getType();
+            }
+        },
+        /** The priority. */
+        PRIORITY {
+            @Override
+            String getValue(final FileAnnotation annotation) {
+                return annotation.getPriority().name();
+            }
+        };
+
+        /**
+         * Returns the value of this property for the specified annotation.
+         *
+         * @param annotation
+         *            the annotation
+         * @return the value of the property, never {@code null}
+         */
+        abstract String getValue(FileAnnotation annotation);
+
+        /**
+         * Returns whether the specified annotation has the specified value of this property.
+         *
+         * @param annotation
+         *            the annotation
+         * @param value
+         *            the value
+         * @return {@code true} if the annotation has the value, {@code false} otherwise
+         */
+        boolean matches(final FileAnnotation annotation, final String value) {
+            return StringUtils.defaultString(getValue(annotation)).equals(value);
+        }
+    }
+
+    private final int size;
+    private final int pageSize;
+    private final long[] pageOffsets;
+    private final Map<Property, Map<String, Entry>> entries;
+
+    /**
+     * Creates a new index for the specified annotations.
+     *
+     * @param annotations
+     *            the annotations in the order of the pages
+     * @param pageSize
+     *            the number of annotations per page
+     * @param pageOffsets
+     *            the offsets of the pages in the file, the last element contains the end of the last page
+     * @return the index
+     */
+    static AnnotationIndex create(final List<FileAnnotation> annotations, final int pageSize,
+            final long[] pageOffsets) {
+        Map<Property, Map<String, Entry>> entries = new EnumMap<Property, Map<String, Entry>>(Property.class);
+        for (Property property : Property.values()) {
+            Map<String, Entry> values = Maps.newTreeMap();
+            for (int i = 0; i < annotations.size(); i++) {
+                String value = StringUtils.defaultString(property.getValue(annotations.get(i)));
+                Entry entry = values.get(value);
+                if (entry == null) {
+                    entry = new Entry();
+                    values.put(value, entry);
+                }
+                entry.add(i / pageSize);
+            }
+            entries.put(property, values);
+        }
+        return new AnnotationIndex(annotations.size(), pageSize, pageOffsets, entries);
+    }
+
+    /**
+     * Reads an index that has been written using {@link #write(DataOutput)}.
+     *
+     * @param input
+     *            the input to read the index from
+     * @return the index
+     * @throws IOException
+     *             if the index could not be read
+     */
+    static AnnotationIndex read(final DataInput input) throws IOException {
+        int size = input.readInt();
+        int pageSize = input.readInt();
+        long[] pageOffsets = new long[input.readInt()];
+        for (int i = 0; i < pageOffsets.length; i++) {
+            pageOffsets[i] = input.readLong();
+        }
+        Map<Property, Map<String, Entry>> entries = new EnumMap<Property, Map<String, Entry>>(Property.class);
+        for (Property property : Property.values()) {
+            Map<String, Entry> values = Maps.newTreeMap();
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String value = input.readUTF();
+                Entry entry = new Entry();
+                entry.count = input.readInt();
+                entry.pages = new int[input.readInt()];
+                for (int page = 0; page < entry.pages.length; page++) {
+                    entry.pages[page] = input.readInt();
+                }
+                values.put(value, entry);
+            }
+            entries.put(property, values);
+        }
+        return new AnnotationIndex(size, pageSize, pageOffsets, entries);
+    }
+
+    private AnnotationIndex(final int size, final int pageSize, final long[] pageOffsets,
+            final Map<Property, Map<String, Entry>> entries) {
+        this.size = size;
+        this.pageSize = pageSize;
+        this.pageOffsets = pageOffsets;
+        this.entries = entries;
+    }
+
+    /**
+     * Writes this index to the specified output.
+     *
+     * @param output
+     *            the output to write the index to
+     * @throws IOException
+     *             if the index could not be written
+     */
+    void write(final DataOutput output) throws IOException {
+        output.writeInt(size);
+        output.writeInt(pageSize);
+        output.writeInt(pageOffsets.length);
+        for (long offset : pageOffsets) {
+            output.writeLong(offset);
+        }
+        for (Property property : Property.values()) {
+            Map<String, Entry> values = entries.get(property);
+            output.writeInt(values.size());
+            for (Map.Entry<String, Entry> value : values.entrySet()) {
+                output.writeUTF(value.getKey());
+                output.writeInt(value.getValue().count);
+                output.writeInt(value.getValue().pages.length);
+                for (int page : value.getValue().pages) {
+                    output.writeInt(page);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the total number of annotations.
+     *
+     * @return the number of annotations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values of the specified property.
+     *
+     * @param property
+     *            the property
+     * @return the values in ascending order
+     */
+    public Set<String> getValues(final Property property) {
+        return Collections.unmodifiableSet(entries.get(property).keySet());
+    }
+
+    /**
+     * Returns the number of annotations that have the specified value of the specified property.
+     *
+     * @param property
+     *            the property
+     * @param value
+     *            the value
+     * @return the number of annotations
+     */
+    public int getCount(final Property property, final String value) {
+        Entry entry = entries.get(property).get(value);
+        return entry == null ? 0 : entry.count;
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    int getNumberOfPages() {
+        return pageOffsets.length - 1;
+    }
+
+    long getPageOffset(final int page) {
+        return pageOffsets[page];
+    }
+
+    int getPageLength(final int page) {
+        return (int)(pageOffsets[page + 1] - pageOffsets[page]);
+    }
+
+    int[] getPages(final Property property, final String value) {
+        Entry entry = entries.get(property).get(value);
+        return entry == null ? new int[0] : entry.pages.clone();
+    }
+
+    /**
+     * The number of annotations with a given value and the pages that contain these annotations.
+     */
+    private static class Entry {
+        private int count;
+        private int[] pages = new int[0];
+
+        void add(final int page) {
+            count++;
+            if (pages.length == 0 || pages[pages.length - 1] != page) {
+                pages = Arrays.copyOf(pages, pages.length + 1);
+                pages[pages.length - 1] = page;
+            }
+        }
+    }
+}
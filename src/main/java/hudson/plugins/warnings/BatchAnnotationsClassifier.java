@@ -0,0 +1,145 @@
+package hudson.plugins.warnings;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import jenkins.MasterToSlaveFileCallable;
+
+import hudson.plugins.analysis.core.AnnotationsClassifier;
+import hudson.plugins.analysis.core.ParserResult;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.warnings.parser.ContextHashCalculator;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Computes the context hash codes of the annotations of a parser result on the agent. In contrast to the
+ * {@link AnnotationsClassifier} the annotations are grouped by their source file first, so each source file is read
+ * only once for all of its annotations, see {@link ContextHashCalculator}. The files are processed in parallel on a
+ * bounded pool of worker threads. Source files that can't be read are skipped, other failures of a worker are
+ * propagated to the caller.
+ * <p>
+ * The number of worker threads can be set on the agent with the system property
+ * {@code hudson.plugins.warnings.BatchAnnotationsClassifier.parallelism} (defaults to the number of available
+ * processors, a value of 1 disables the parallel mode).
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class BatchAnnotationsClassifier extends MasterToSlaveFileCallable<ParserResult> {
+    private static final long serialVersionUID = -6432402578245436129L;
+    private static final Logger LOGGER = Logger.getLogger(BatchAnnotationsClassifier.class.getName());
+
+    private final ParserResult result;
+    private final String defaultEncoding;
+
+    /**
+     * Creates a new instance of {@link BatchAnnotationsClassifier}.
+     *
+     * @param result
+     *            the annotations to classify
+     * @param defaultEncoding
+     *            the encoding of the source files
+     */
+    BatchAnnotationsClassifier(final ParserResult result, final String defaultEncoding) {
+        super();
+
+        this.result = result;
+        this.defaultEncoding = defaultEncoding;
+    }
+
+    @Override
+    public ParserResult invoke(final File workspace, final VirtualChannel channel)
+            throws IOException, InterruptedException {
+        Map<String, List<FileAnnotation>> annotationsByFile = Maps.newHashMap();
+        for (FileAnnotation annotation : result.getAnnotations()) {
+            if (annotation.getPrimaryLineNumber() > 0) {
+                List<FileAnnotation> annotations = annotationsByFile.get(annotation.getFileName());
+                if (annotations == null) {
+                    annotations = Lists.newArrayList();
+                    annotationsByFile.put(annotation.getFileName(), annotations);
+                }
+                annotations.add(annotation);
+            }
+        }
+
+        ContextHashCalculator calculator = new ContextHashCalculator(defaultEncoding);
+        int parallelism = Integer.getInteger(BatchAnnotationsClassifier.class.getName() + ".parallelism",
+                Runtime.getRuntime().availableProcessors());
+        if (parallelism <= 1 || annotationsByFile.size() <= 1) {
+            for (Map.Entry<String, List<FileAnnotation>> file : annotationsByFile.entrySet()) {
+                new FileClassification(calculator, file.getKey(), file.getValue()).run();
+            }
+        }
+        else {
+            classifyInParallel(calculator, annotationsByFile, Math.min(parallelism, annotationsByFile.size()));
+        }
+        return result;
+    }
+
+    private void classifyInParallel(final ContextHashCalculator calculator,
+            final Map<String, List<FileAnnotation>> annotationsByFile, final int parallelism)
+            throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> classifications = Lists.newArrayList();
+            for (Map.Entry<String, List<FileAnnotation>> file : annotationsByFile.entrySet()) {
+                FileClassification classification = new FileClassification(calculator, file.getKey(), file.getValue());
+                classifications.add(executor.submit(classification));
+            }
+            for (Future<?> classification : classifications) {
+                classification.get();
+            }
+        }
+        catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException("Can't compute context hash codes", cause);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the context hash codes of the annotations of a single source file.
+     */
+    private static class FileClassification implements Runnable {
+        private final ContextHashCalculator calculator;
+        private final String fileName;
+        private final Collection<FileAnnotation> annotations;
+
+        FileClassification(final ContextHashCalculator calculator, final String fileName,
+                final Collection<FileAnnotation> annotations) {
+            this.calculator = calculator;
+            this.fileName = fileName;
+            this.annotations = annotations;
+        }
+
+        @Override
+        public void run() {
+            try {
+                calculator.setContextHashCodes(new File(fileName), annotations);
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.FINE, "Can't read source file " + fileName, exception);
+            }
+        }
+    }
+}
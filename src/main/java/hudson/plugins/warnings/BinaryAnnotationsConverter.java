@@ -0,0 +1,620 @@
+package hudson.plugins.warnings;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.ConversionException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.converters.collections.ArrayConverter;
+import com.thoughtworks.xstream.converters.reflection.SerializationMethodInvoker;
+import com.thoughtworks.xstream.core.util.Base64Encoder;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.LineRange;
+import hudson.plugins.analysis.util.model.LineRangeList;
+import hudson.plugins.analysis.util.model.Priority;
+import hudson.plugins.warnings.parser.StringPool;
+import hudson.util.TreeString;
+import hudson.util.TreeStringBuilder;
+
+/**
+ * Converts the arrays of annotations that are persisted by the results of this plug-in. Depending on the
+ * configuration, the annotations are written either as XML (one element per annotation) or in a compact binary
+ * columnar format. The binary format is embedded in the XML file of the result, so both formats are read
+ * transparently.
+ * <p>
+ * The binary format stores the values of each field of all annotations of the same class in a column: strings are
+ * stored as references into a table of unique strings (so repeated file names, categories and types are stored only
+ * once, file names that are stored as {@link TreeString} share their prefixes again when they are read), numbers and line ranges as variable length integers that contain the difference to the previous value of
+ * the column, priorities and other enumerations by their ordinal or name. The whole block is compressed and Base64
+ * encoded. Annotations with fields of other types are always written as XML.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class BinaryAnnotationsConverter implements Converter {
+    /** System property that enables the binary format for all results. */
+    static final String BINARY_FORMAT_PROPERTY = BinaryAnnotationsConverter.class.getName() + ".enabled";
+
+    private static final String FORMAT_ATTRIBUTE = "format";
+    private static final String BINARY_FORMAT = "binary";
+    private static final int MAGIC = 0x57524e31;
+
+    private static final int BOOLEAN = 0;
+    private static final int INTEGER = 1;
+    private static final int STRING = 2;
+    private static final int ENUM = 3;
+    private static final int LINE_RANGES = 4;
+    private static final int PRIORITY = 5;
+    private static final int TREE_STRING = 6;
+    private static final int UNSUPPORTED = -1;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final XStream xstream;
+    private final Converter xmlConverter;
+    private final boolean writeBinary;
+    private final Map<Class<?>, List<Field>> fieldsByClass = Maps.newHashMap();
+
+    /**
+     * Registers a converter for arrays of annotations in the specified {@link XStream} instance.
+     *
+     * @param xstream
+     *            the XStream instance to configure
+     * @param writeBinary
+     *            determines whether to write the binary format, annotations in both formats are read in any case
+     */
+    static void configure(final XStream xstream, final boolean writeBinary) {
+        xstream.registerConverter(new BinaryAnnotationsConverter(xstream, writeBinary), XStream.PRIORITY_NORMAL + 1);
+    }
+
+    /**
+     * Returns whether the binary format has been enabled for all results using the system property {@link
+     * #BINARY_FORMAT_PROPERTY}.
+     *
+     * @return {@code true} if the binary format should be written by all results
+     */
+    static boolean isEnabledGlobally() {
+        return Boolean.getBoolean(BINARY_FORMAT_PROPERTY);
+    }
+
+    /**
+     * Creates a new instance of {@link BinaryAnnotationsConverter}.
+     *
+     * @param xstream
+     *            the XStream instance that uses this converter
+     * @param writeBinary
+     *            determines whether to write the binary format
+     */
+    BinaryAnnotationsConverter(final XStream xstream, final boolean writeBinary) {
+        this.xstream = xstream;
+        this.writeBinary = writeBinary;
+
+        xmlConverter = new ArrayConverter(xstream.getMapper());
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean canConvert(final Class type) {
+        return type != null && type.isArray() && FileAnnotation.class.isAssignableFrom(type.getComponentType());
+    }
+
+    @Override
+    public void marshal(final Object source, final HierarchicalStreamWriter writer, final MarshallingContext context) {
+        if (writeBinary) {
+            try {
+                byte[] binary = write((Object[])source);
+                if (binary != null) {
+                    writer.addAttribute(FORMAT_ATTRIBUTE, BINARY_FORMAT);
+                    writer.setValue(new Base64Encoder().encode(binary));
+                    return;
+                }
+            }
+            catch (IOException exception) {
+                throw new ConversionException("Can't write annotations in binary format", exception);
+            }
+            catch (IllegalAccessException exception) {
+                throw new ConversionException("Can't write annotations in binary format", exception);
+            }
+        }
+        xmlConverter.marshal(source, writer, context);
+    }
+
+    @Override
+    public Object unmarshal(final HierarchicalStreamReader reader, final UnmarshallingContext context) {
+        if (BINARY_FORMAT.equals(reader.getAttribute(FORMAT_ATTRIBUTE))) {
+            try {
+                return read(new Base64Encoder().decode(reader.getValue()),
+                        context.getRequiredType().getComponentType());
+            }
+            catch (IOException exception) {
+                throw new ConversionException("Can't read annotations in binary format", exception);
+            }
+            catch (IllegalAccessException exception) {
+                throw new ConversionException("Can't read annotations in binary format", exception);
+            }
+            catch (InstantiationException exception) {
+                throw new ConversionException("Can't read annotations in binary format", exception);
+            }
+        }
+        return xmlConverter.unmarshal(reader, context);
+    }
+
+    /**
+     * Writes the specified annotations in the binary format.
+     *
+     * @param annotations
+     *            the annotations to write
+     * @return the compressed binary representation, or {@code null} if an annotation has a field that can't be
+     *         written in the binary format
+     * @throws IOException
+     *             if the annotations could not be written
+     * @throws IllegalAccessException
+     *             if a field could not be read
+     */
+    byte[] write(final Object[] annotations) throws IOException, IllegalAccessException {
+        StringTable strings = new StringTable();
+        Map<Class<?>, List<Object>> rowsByClass = Maps.newLinkedHashMap();
+        for (Object annotation : annotations) {
+            List<Object> rows = rowsByClass.get(annotation.getClass());
+            if (rows == null) {
+                rows = Lists.newArrayList();
+                rowsByClass.put(annotation.getClass(), rows);
+            }
+            rows.add(annotation);
+        }
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        ByteArrayOutputStream columnBytes = new ByteArrayOutputStream();
+        DataOutputStream columns = new DataOutputStream(columnBytes);
+
+        List<Class<?>> classes = Lists.newArrayList(rowsByClass.keySet());
+        Map<Class<?>, int[]> kindsByClass = Maps.newHashMap();
+        for (Class<?> type : classes) {
+            List<Field> fields = getFields(type);
+            int[] kinds = new int[fields.size()];
+            for (int i = 0; i < kinds.length; i++) {
+                kinds[i] = getKind(fields.get(i), rowsByClass.get(type));
+                if (kinds[i] == UNSUPPORTED) {
+                    return null;
+                }
+            }
+            kindsByClass.put(type, kinds);
+        }
+
+        writeVarint(header, annotations.length);
+        writeVarint(header, classes.size());
+        for (Class<?> type : classes) {
+            writeVarint(header, strings.add(type.getName()));
+        }
+        for (Object annotation : annotations) {
+            writeVarint(header, classes.indexOf(annotation.getClass()));
+        }
+        for (Class<?> type : classes) {
+            List<Object> rows = rowsByClass.get(type);
+            List<Field> fields = getFields(type);
+            int[] kinds = kindsByClass.get(type);
+            writeVarint(header, fields.size());
+            for (int i = 0; i < kinds.length; i++) {
+                writeVarint(header, strings.add(fields.get(i).getName()));
+                writeVarint(header, kinds[i]);
+                writeColumn(columns, kinds[i], fields.get(i), rows, strings);
+            }
+        }
+        header.flush();
+        columns.flush();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(bytes));
+        output.writeInt(MAGIC);
+        strings.write(output);
+        headerBytes.writeTo(output);
+        columnBytes.writeTo(output);
+        output.close();
+
+        return bytes.toByteArray();
+    }
+
+    private int getKind(final Field field, final List<Object> rows) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (type == boolean.class) {
+            return BOOLEAN;
+        }
+        if (type == int.class || type == long.class || type == short.class || type == byte.class
+                || type == char.class) {
+            return INTEGER;
+        }
+        if (type == String.class) {
+            return STRING;
+        }
+        if (type == TreeString.class) {
+            return TREE_STRING;
+        }
+        if (type == Priority.class) {
+            return PRIORITY;
+        }
+        if (type.isEnum()) {
+            return ENUM;
+        }
+        if (isLineRangeColumn(field, rows)) {
+            return LINE_RANGES;
+        }
+        return UNSUPPORTED;
+    }
+
+    /**
+     * Returns whether the specified field contains collections of line ranges that can be created again when the
+     * annotations are read.
+     */
+    private boolean isLineRangeColumn(final Field field, final List<Object> rows) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (!Collection.class.isAssignableFrom(type)) {
+            return false;
+        }
+        if (Modifier.isAbstract(type.getModifiers()) && !type.isAssignableFrom(LineRangeList.class)) {
+            return false;
+        }
+        for (Object row : rows) {
+            Object value = field.get(row);
+            if (value != null) {
+                for (Object range : (Collection<?>)value) {
+                    if (!(range instanceof LineRange)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void writeColumn(final DataOutputStream output, final int kind, final Field field,
+            final List<Object> rows, final StringTable strings) throws IOException, IllegalAccessException {
+        long previous = 0;
+        for (Object row : rows) {
+            switch (kind) {
+                case BOOLEAN:
+                    output.writeBoolean(field.getBoolean(row));
+                    break;
+                case INTEGER:
+                    long value = field.getLong(row);
+                    writeSignedVarint(output, value - previous);
+                    previous = value;
+                    break;
+                case STRING:
+                    writeVarint(output, strings.add((String)field.get(row)));
+                    break;
+                case ENUM:
+                    Enum<?> constant = (Enum<?>)field.get(row);
+                    writeVarint(output, strings.add(constant == null ? null : constant.name()));
+                    break;
+                case TREE_STRING:
+                    Object treeString = field.get(row);
+                    writeVarint(output, strings.add(treeString == null ? null : treeString.toString()));
+                    break;
+                case PRIORITY:
+                    Priority priority = (Priority)field.get(row);
+                    writeVarint(output, priority == null ? 0 : priority.ordinal() + 1);
+                    break;
+                default:
+                    previous = writeLineRanges(output, (Collection<?>)field.get(row), previous);
+                    break;
+            }
+        }
+    }
+
+    private long writeLineRanges(final DataOutputStream output, final Collection<?> ranges, final long previous)
+            throws IOException {
+        if (ranges == null) {
+            writeVarint(output, 0);
+            return previous;
+        }
+        writeVarint(output, ranges.size() + 1);
+        long start = previous;
+        for (Object element : ranges) {
+            LineRange range = (LineRange)element;
+            writeSignedVarint(output, range.getStart() - start);
+            writeSignedVarint(output, range.getEnd() - range.getStart());
+            start = range.getStart();
+        }
+        return start;
+    }
+
+    /**
+     * Reads annotations that have been written by {@link #write(Object[])}.
+     *
+     * @param data
+     *            the compressed binary representation
+     * @param componentType
+     *            the component type of the array to create
+     * @return the annotations
+     * @throws IOException
+     *             if the annotations could not be read
+     * @throws IllegalAccessException
+     *             if a field could not be written
+     * @throws InstantiationException
+     *             if a line range list could not be created
+     */
+    Object read(final byte[] data, final Class<?> componentType)
+            throws IOException, IllegalAccessException, InstantiationException {
+        DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)));
+        try {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("No binary annotations");
+            }
+            String[] strings = StringTable.read(input);
+            TreeStringBuilder treeStrings = new TreeStringBuilder();
+
+            int size = readVarint(input);
+            Object[] annotations = (Object[])Array.newInstance(componentType, size);
+            Class<?>[] classes = new Class<?>[readVarint(input)];
+            for (int i = 0; i < classes.length; i++) {
+                classes[i] = xstream.getMapper().realClass(strings[readVarint(input)]);
+            }
+            int[] classOfRow = new int[size];
+            for (int row = 0; row < size; row++) {
+                classOfRow[row] = readVarint(input);
+                annotations[row] = xstream.getReflectionProvider().newInstance(classes[classOfRow[row]]);
+            }
+
+            List<List<Field>> fields = Lists.newArrayList();
+            List<int[]> kinds = Lists.newArrayList();
+            for (Class<?> type : classes) {
+                Map<String, Field> fieldsByName = Maps.newHashMap();
+                for (Field field : getFields(type)) {
+                    fieldsByName.put(field.getName(), field);
+                }
+                int count = readVarint(input);
+                List<Field> storedFields = Lists.newArrayList();
+                int[] storedKinds = new int[count];
+                for (int i = 0; i < count; i++) {
+                    storedFields.add(fieldsByName.get(strings[readVarint(input)]));
+                    storedKinds[i] = readVarint(input);
+                }
+                fields.add(storedFields);
+                kinds.add(storedKinds);
+            }
+            for (int index = 0; index < classes.length; index++) {
+                List<Object> rows = Lists.newArrayList();
+                for (int row = 0; row < size; row++) {
+                    if (classOfRow[row] == index) {
+                        rows.add(annotations[row]);
+                    }
+                }
+                for (int i = 0; i < fields.get(index).size(); i++) {
+                    readColumn(input, kinds.get(index)[i], fields.get(index).get(i), rows, strings, treeStrings);
+                }
+            }
+            treeStrings.dedup();
+
+            SerializationMethodInvoker invoker = new SerializationMethodInvoker();
+            for (int row = 0; row < size; row++) {
+                annotations[row] = invoker.callReadResolve(annotations[row]);
+            }
+            return annotations;
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void readColumn(final DataInputStream input, final int kind, final Field field,
+            final List<Object> rows, final String[] strings, final TreeStringBuilder treeStrings)
+            throws IOException, IllegalAccessException, InstantiationException {
+        long previous = 0;
+        for (Object row : rows) {
+            Object value;
+            switch (kind) {
+                case BOOLEAN:
+                    value = input.readBoolean();
+                    break;
+                case INTEGER:
+                    previous += readSignedVarint(input);
+                    value = previous;
+                    break;
+                case STRING:
+                    String string = strings[readVarint(input)];
+                    value = field != null && StringPool.isInterned(field) ? StringPool.intern(string) : string;
+                    break;
+                case TREE_STRING:
+                    String treeString = strings[readVarint(input)];
+                    value = treeString == null ? null : treeStrings.intern(treeString);
+                    break;
+                case ENUM:
+                    String name = strings[readVarint(input)];
+                    value = name == null || field == null ? null : Enum.valueOf((Class<Enum>)field.getType(), name);
+                    break;
+                case LINE_RANGES:
+                    int count = readVarint(input) - 1;
+                    Collection<LineRange> ranges = null;
+                    if (count >= 0 && field != null) {
+                        ranges = createLineRanges(field.getType());
+                    }
+                    for (int i = 0; i < count; i++) {
+                        previous += readSignedVarint(input);
+                        LineRange range = new LineRange((int)previous, (int)(previous + readSignedVarint(input)));
+                        if (ranges != null) {
+                            ranges.add(range);
+                        }
+                    }
+                    value = ranges;
+                    break;
+                case PRIORITY:
+                    int ordinal = readVarint(input);
+                    if (ordinal > PRIORITIES.length) {
+                        throw new IOException("Unknown priority " + ordinal);
+                    }
+                    value = ordinal == 0 ? null : PRIORITIES[ordinal - 1];
+                    break;
+                default:
+                    throw new IOException("Unknown column type " + kind);
+            }
+            if (field != null) {
+                setField(field, row, value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<LineRange> createLineRanges(final Class<?> type)
+            throws IllegalAccessException, InstantiationException {
+        if (Modifier.isAbstract(type.getModifiers())) {
+            return new LineRangeList();
+        }
+        return (Collection<LineRange>)type.newInstance();
+    }
+
+    private void setField(final Field field, final Object row, final Object value) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            field.setInt(row, ((Long)value).intValue());
+        }
+        else if (type == long.class) {
+            field.setLong(row, (Long)value);
+        }
+        else if (type == short.class) {
+            field.setShort(row, ((Long)value).shortValue());
+        }
+        else if (type == byte.class) {
+            field.setByte(row, ((Long)value).byteValue());
+        }
+        else if (type == char.class) {
+            field.setChar(row, (char)((Long)value).intValue());
+        }
+        else {
+            field.set(row, value);
+        }
+    }
+
+    /**
+     * Returns the persistent fields of the specified class, i.e. all fields that are neither static nor transient.
+     */
+    private List<Field> getFields(final Class<?> type) {
+        List<Field> fields = fieldsByClass.get(type);
+        if (fields == null) {
+            fields = Lists.newArrayList();
+            for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                            && !hasField(fields, field.getName())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            fieldsByClass.put(type, fields);
+        }
+        return fields;
+    }
+
+    private boolean hasField(final List<Field> fields, final String name) {
+        for (Field field : fields) {
+            if (field.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeVarint(final DataOutputStream output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    private static void writeSignedVarint(final DataOutputStream output, final long value) throws IOException {
+        long remaining = (value << 1) ^ (value >> 63);
+        while ((remaining & ~0x7FL) != 0) {
+            output.writeByte((int)(remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte((int)remaining);
+    }
+
+    private static int readVarint(final DataInputStream input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int current = input.readUnsignedByte();
+            value |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    private static long readSignedVarint(final DataInputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int current = input.readUnsignedByte();
+            value |= (long)(current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return (value >>> 1) ^ -(value & 1);
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    /**
+     * Table of the unique strings of a binary block. The index 0 represents {@code null}.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> indices = Maps.newHashMap();
+        private final List<String> values = Lists.newArrayList();
+
+        int add(final String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer index = indices.get(value);
+            if (index == null) {
+                values.add(value);
+                index = values.size();
+                indices.put(value, index);
+            }
+            return index;
+        }
+
+        void write(final DataOutputStream output) throws IOException {
+            writeVarint(output, values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes("UTF-8");
+                writeVarint(output, bytes.length);
+                output.write(bytes);
+            }
+        }
+
+        static String[] read(final DataInputStream input) throws IOException {
+            String[] strings = new String[readVarint(input) + 1];
+            for (int i = 1; i < strings.length; i++) {
+                byte[] bytes = new byte[readVarint(input)];
+                input.readFully(bytes);
+                strings[i] = new String(bytes, "UTF-8");
+            }
+            return strings;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.regex.PatternSyntaxException;
 import org.apache.commons.lang.StringUtils;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import jenkins.model.Jenkins;
@@ -22,12 +23,14 @@ import hudson.plugins.warnings.parser.DynamicDocumentParser;
 import hudson.plugins.warnings.parser.DynamicParser;
 import hudson.plugins.warnings.parser.GroovyExpressionMatcher;
 import hudson.plugins.warnings.parser.Warning;
+import hudson.plugins.warnings.parser.WarningMapping;
 import hudson.util.FormValidation;
 import hudson.util.FormValidation.Kind;
 
 /**
  * Defines the properties of a warnings parser that uses a Groovy script to
- * parse the warnings log.
+ * parse the warnings log. If there is no script, then the warnings are created
+ * from the named groups of the regular expression, see {@link WarningMapping}.
  *
  * @author Ulli Hafner
  */
@@ -43,6 +46,8 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
     private String linkName;
     /** Trend report name. @since 4.0 */
     private String trendName;
+    /** Lookup table of the named groups if there is no script. @since 4.65 */
+    private String lookupTable;
     @CheckForNull
     private transient AbstractWarningsParser parser;
 
@@ -106,6 +111,42 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
         return this;
     }
 
+    /**
+     * Sets the lookup table that replaces the values of the named groups of the regular expression. The table is
+     * used if there is no script, see {@link WarningMapping}.
+     *
+     * @param lookupTable
+     *            the lookup table
+     */
+    @DataBoundSetter
+    public void setLookupTable(final String lookupTable) {
+        this.lookupTable = lookupTable;
+        parser = createParser();
+    }
+
+    /**
+     * Returns the lookup table that replaces the values of the named groups of the regular expression.
+     *
+     * @return the lookup table
+     */
+    public String getLookupTable() {
+        return StringUtils.defaultString(lookupTable);
+    }
+
+    /**
+     * Returns whether the warnings are created from the named groups of the regular expression rather than by the
+     * script.
+     *
+     * @return {@code true} if the warnings are created without script, {@code false} otherwise
+     */
+    public boolean usesNamedGroups() {
+        return isNamedGroupMapping(script, regexp);
+    }
+
+    private static boolean isNamedGroupMapping(final String script, final String regexp) {
+        return StringUtils.isBlank(script) && WarningMapping.hasNamedGroups(regexp);
+    }
+
     /**
      * Validates this instance.
      *
@@ -118,7 +159,8 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
 
     private boolean canCreateParser() {
         DescriptorImpl d = new DescriptorImpl();
-        return d.doCheckScript(script).kind == FormValidation.Kind.OK
+        return d.doCheckScript(script, regexp).kind == FormValidation.Kind.OK
+                && d.doCheckLookupTable(lookupTable).kind == FormValidation.Kind.OK
                 && d.doCheckRegexp(regexp).kind == FormValidation.Kind.OK
                 && d.validate(name, Messages.Warnings_GroovyParser_Error_Name_isEmpty()).kind == FormValidation.Kind.OK;
     }
@@ -195,18 +237,22 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
     @CheckForNull
     private AbstractWarningsParser createParser() {
         if (canCreateParser()) {
-            if (hasMultiLineSupport()) {
-                return new DynamicDocumentParser(name, regexp, script, linkName, trendName);
-            }
-            else {
-                return new DynamicParser(name, regexp, script, linkName, trendName);
-            }
+            return instantiateParser();
         }
         else {
             return null;
         }
     }
 
+    private AbstractWarningsParser instantiateParser() {
+        if (hasMultiLineSupport()) {
+            return new DynamicDocumentParser(name, regexp, script, getLookupTable(), linkName, trendName);
+        }
+        else {
+            return new DynamicParser(name, regexp, script, getLookupTable(), linkName, trendName);
+        }
+    }
+
     /**
      * Returns a valid parser instance. If this parsers configuration is not valid, then <code>null</code> is returned.
      *
@@ -217,6 +263,21 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
         return parser;
     }
 
+    /**
+     * Creates a new parser instance that is not shared with other parses. In contrast to {@link #getParser()} the
+     * parser does not keep the state of a previous parse. If this parsers configuration is not valid, then
+     * <code>null</code> is returned.
+     *
+     * @return a new parser instance or <code>null</code> if this parsers configuration is not valid.
+     */
+    @CheckForNull
+    public AbstractWarningsParser newParser() {
+        if (isValid()) {
+            return instantiateParser();
+        }
+        return null;
+    }
+
     /**
      * Descriptor to validate {@link GroovyParser}.
      *
@@ -290,21 +351,27 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
         }
 
         /**
-         * Performs on-the-fly validation on the Groovy script.
+         * Performs on-the-fly validation on the Groovy script. The script may be empty if the regular expression
+         * contains named groups.
          *
          * @param script
          *            the script
+         * @param regexp
+         *            the regular expression
          * @return the validation result
          */
-        public FormValidation doCheckScript(@QueryParameter(required = true) final String script) {
+        public FormValidation doCheckScript(@QueryParameter(required = true) final String script,
+                @QueryParameter final String regexp) {
+            if (StringUtils.isBlank(script)) {
+                if (WarningMapping.hasNamedGroups(regexp)) {
+                    return FormValidation.ok();
+                }
+                return FormValidation.error(Messages.Warnings_GroovyParser_Error_Script_isEmpty());
+            }
             if (!canRunScripts()) {
                 return NO_RUN_SCRIPT_PERMISSION_WARNING;
             }
             try {
-                if (StringUtils.isBlank(script)) {
-                    return FormValidation.error(Messages.Warnings_GroovyParser_Error_Script_isEmpty());
-                }
-
                 GroovyExpressionMatcher matcher = new GroovyExpressionMatcher(script, null);
                 matcher.compile();
 
@@ -315,6 +382,25 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
             }
         }
 
+        /**
+         * Performs on-the-fly validation on the lookup table of the named groups.
+         *
+         * @param lookupTable
+         *            the lookup table
+         * @return the validation result
+         */
+        public FormValidation doCheckLookupTable(@QueryParameter final String lookupTable) {
+            try {
+                new WarningMapping(StringUtils.EMPTY, lookupTable, StringUtils.EMPTY);
+
+                return FormValidation.ok();
+            }
+            catch (IllegalArgumentException exception) {
+                return FormValidation.error(Messages.Warnings_GroovyParser_Error_LookupTable_invalid(
+                        exception.getMessage()));
+            }
+        }
+
         private boolean canRunScripts() {
             return Jenkins.getInstance().getACL().hasPermission(Jenkins.RUN_SCRIPTS);
         }
@@ -328,15 +414,20 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
          *            the regular expression
          * @param script
          *            the script
+         * @param lookupTable
+         *            the lookup table of the named groups
          * @return the validation result
          */
         public FormValidation doCheckExample(@QueryParameter final String example,
-                @QueryParameter final String regexp, @QueryParameter final String script) {
-            if (!canRunScripts()) {
+                @QueryParameter final String regexp, @QueryParameter final String script,
+                @QueryParameter final String lookupTable) {
+            boolean namedGroups = isNamedGroupMapping(script, regexp);
+            if (!namedGroups && !canRunScripts()) {
                 return NO_RUN_SCRIPT_PERMISSION_WARNING;
             }
-            if (StringUtils.isNotBlank(example) && StringUtils.isNotBlank(regexp) && StringUtils.isNotBlank(script)) {
-                FormValidation response = parseExample(script, example, regexp, containsNewline(regexp));
+            if (StringUtils.isNotBlank(example) && StringUtils.isNotBlank(regexp)
+                    && (namedGroups || StringUtils.isNotBlank(script))) {
+                FormValidation response = parseExample(script, lookupTable, example, regexp, containsNewline(regexp));
                 if (example.length() <= MAX_EXAMPLE_SIZE) {
                     return response;
                 }
@@ -352,7 +443,9 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
          * {@link Kind#OK} if a warning has been found.
          *
          * @param script
-         *            the script that parses the expression
+         *            the script that parses the expression, or an empty script to use the named groups
+         * @param lookupTable
+         *            the lookup table of the named groups
          * @param example
          *            example text that will be matched by the regular expression
          * @param regexp
@@ -361,7 +454,8 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
          *            determines whether multi-lines support is activated
          * @return a result of {@link Kind#OK} if a warning has been found
          */
-        private FormValidation parseExample(final String script, final String example, final String regexp, final boolean hasMultiLineSupport) {
+        private FormValidation parseExample(final String script, final String lookupTable, final String example,
+                final String regexp, final boolean hasMultiLineSupport) {
             Pattern pattern;
             if (hasMultiLineSupport) {
                 pattern = Pattern.compile(regexp, Pattern.MULTILINE);
@@ -371,10 +465,14 @@ public class GroovyParser extends AbstractDescribableImpl<GroovyParser> {
             }
             Matcher matcher = pattern.matcher(example);
             if (matcher.find()) {
-                GroovyExpressionMatcher checker = new GroovyExpressionMatcher(script, null);
                 Object result = null;
                 try {
-                    result = checker.run(matcher, 0);
+                    if (isNamedGroupMapping(script, regexp)) {
+                        result = new WarningMapping(regexp, lookupTable, StringUtils.EMPTY).createWarning(matcher);
+                    }
+                    else {
+                        result = new GroovyExpressionMatcher(script, null).run(matcher, 0);
+                    }
                 }
                 catch (Exception exception) { // NOCHECKSTYLE: catch all exceptions of the Groovy script
                     return FormValidation.error(
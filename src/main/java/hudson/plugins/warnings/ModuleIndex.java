@@ -0,0 +1,505 @@
+package hudson.plugins.warnings;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import hudson.plugins.analysis.util.FileInputStreamFactory;
+import hudson.plugins.analysis.util.ModuleDetector;
+import hudson.plugins.warnings.parser.StringPool;
+
+/**
+ * Maps the files of a workspace to the modules of the workspace. A module is a directory that contains a Maven POM
+ * ({@code pom.xml}), an Ant project ({@code build.xml}) or an OSGi manifest ({@code META-INF/MANIFEST.MF}). The
+ * module of a file is the module of the nearest enclosing module directory. The module directories are stored in
+ * a trie of path segments, so the module of a file is found with a single walk over the segments of its path. The
+ * module name of a descriptor is read by the {@link ModuleDetector} of analysis-core, so the names are the same as
+ * the names of the modules of report files.
+ * <p>
+ * Scanning the directory tree of a large workspace takes a lot of time. So the index remembers the modification
+ * time and the sub directories of each directory, and the modification time and the module name of each module
+ * descriptor. On a refresh only the directories that have been modified since the last scan are listed again and
+ * only the descriptors that have been modified are read again. The index of a workspace is kept in memory for the
+ * following builds and is stored in the temporary directory of the workspace ({@code <workspace>@tmp}), so it
+ * survives restarts.
+ * </p>
+ * <p>
+ * Symbolic links to directories are not followed and each directory is scanned only once, so links or junctions
+ * that point to a parent directory do not result in an endless scan. The number of workspaces that are kept in
+ * memory can be set with the system property {@code hudson.plugins.warnings.ModuleIndex.cachedWorkspaces}
+ * (defaults to 8), the number of directories of a workspace that are scanned can be set with the system property
+ * {@code hudson.plugins.warnings.ModuleIndex.maxDirectories} (defaults to 100000).
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+final class ModuleIndex implements Serializable {
+    private static final long serialVersionUID = -2541862744350302455L;
+    private static final Logger LOGGER = Logger.getLogger(ModuleIndex.class.getName());
+
+    /** Version of the format of the stored index, needs to be changed if the format changes. */
+    private static final int FORMAT_VERSION = 2;
+    private static final String INDEX_FILE = "warnings-modules.index";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CACHED_WORKSPACES = Math.max(0,
+            Integer.getInteger(ModuleIndex.class.getName() + ".cachedWorkspaces", 8));
+    private static final int MAX_DIRECTORIES = Math.max(1,
+            Integer.getInteger(ModuleIndex.class.getName() + ".maxDirectories", 100000));
+    /**
+     * Directories or files that have been modified within this interval before they have been scanned might be
+     * modified again without a change of their modification time. They are scanned again in the next refresh.
+     */
+    private static final long RACY_INTERVAL = 2000;
+    private static final long UNKNOWN = -1;
+
+    private static final String MAVEN_POM = "pom.xml";
+    private static final String ANT_PROJECT = "build.xml";
+    private static final String OSGI_MANIFEST = "MANIFEST.MF";
+    private static final String META_INF = "META-INF";
+    private static final String OSGI_BUNDLE = META_INF + '/' + OSGI_MANIFEST;
+    private static final Set<String> SKIPPED_DIRECTORIES = ImmutableSet.of(".git", ".svn", ".hg", ".bzr", "CVS",
+            "SCCS", "RCS", "_darcs");
+
+    private static final Map<String, ModuleIndex> INDEXES = new LinkedHashMap<String, ModuleIndex>(16, 0.75f,
+            true) {
+        private static final long serialVersionUID = 7064451398221339296L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ModuleIndex> eldest) {
+            return size() > CACHED_WORKSPACES;
+        }
+    };
+
+    /**
+     * Returns the up-to-date index of the specified workspace.
+     *
+     * @param workspace
+     *            the workspace
+     * @return the index of the workspace
+     */
+    static ModuleIndex get(final File workspace) {
+        String key = workspace.getAbsolutePath();
+        ModuleIndex index;
+        synchronized (INDEXES) {
+            index = INDEXES.get(key);
+        }
+        if (index == null) {
+            index = load(workspace);
+        }
+        synchronized (index) {
+            if (index.refresh()) {
+                index.save(getIndexFile(workspace));
+            }
+        }
+        synchronized (INDEXES) {
+            INDEXES.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Removes all indexes from memory.
+     */
+    static void clearCache() {
+        synchronized (INDEXES) {
+            INDEXES.clear();
+        }
+    }
+
+    private static File getIndexFile(final File workspace) {
+        return new File(new File(workspace.getParentFile(), workspace.getName() + "@tmp"), INDEX_FILE);
+    }
+
+    private static ModuleIndex load(final File workspace) {
+        File file = getIndexFile(workspace);
+        if (file.isFile()) {
+            ObjectInputStream input = null;
+            try {
+                input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+                if (input.readInt() == FORMAT_VERSION) {
+                    ModuleIndex index = (ModuleIndex)input.readObject();
+                    if (index.root.equals(workspace.getAbsolutePath())) {
+                        return index;
+                    }
+                }
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.FINE, "Discarding invalid module index " + file, exception);
+            }
+            catch (ClassNotFoundException exception) {
+                LOGGER.log(Level.FINE, "Discarding invalid module index " + file, exception);
+            }
+            catch (ClassCastException exception) {
+                LOGGER.log(Level.FINE, "Discarding invalid module index " + file, exception);
+            }
+            finally {
+                IOUtils.closeQuietly(input);
+            }
+        }
+        return new ModuleIndex(workspace);
+    }
+
+    private final String root;
+    /** The scanned directories, mapped by their path relative to the root. */
+    private Map<String, Directory> directories = Maps.newHashMap();
+    /** The module descriptors, mapped by their path relative to the root. */
+    private Map<String, Descriptor> descriptors = Maps.newHashMap();
+    private transient volatile Node modules;
+
+    /**
+     * Creates a new, empty instance of {@link ModuleIndex}.
+     *
+     * @param workspace
+     *            the workspace to index
+     */
+    ModuleIndex(final File workspace) {
+        root = workspace.getAbsolutePath();
+    }
+
+    /**
+     * Scans the workspace for new, modified and removed module descriptors. At most {@link #MAX_DIRECTORIES}
+     * directories are scanned.
+     *
+     * @return {@code true} if the index has been changed, {@code false} if the index is still up-to-date
+     */
+    boolean refresh() {
+        Map<String, Directory> scannedDirectories = Maps.newHashMap();
+        Map<String, Descriptor> scannedDescriptors = Maps.newHashMap();
+        Set<String> visited = Sets.newHashSet();
+        boolean isChanged = false;
+
+        Deque<String> pending = new ArrayDeque<String>();
+        pending.push(StringUtils.EMPTY);
+        while (!pending.isEmpty()) {
+            String path = pending.pop();
+            File file = getFile(path);
+            if (!visited.add(getCanonicalPath(file))) {
+                continue;
+            }
+            if (scannedDirectories.size() >= MAX_DIRECTORIES) {
+                LOGGER.log(Level.WARNING, "Skipping the remaining directories of " + root + ", the module index is "
+                        + "limited to " + MAX_DIRECTORIES + " directories");
+                break;
+            }
+            long lastModified = file.lastModified();
+            Directory directory = directories.get(path);
+            if (directory == null || directory.lastModified != lastModified) {
+                directory = new Directory(file, lastModified);
+                isChanged = true;
+            }
+            scannedDirectories.put(path, directory);
+
+            for (String name : directory.descriptors) {
+                isChanged |= scanDescriptor(path, name, scannedDescriptors);
+            }
+            for (String name : directory.subdirectories) {
+                pending.push(getChild(path, name));
+            }
+        }
+        isChanged |= scannedDescriptors.size() != descriptors.size();
+
+        directories = scannedDirectories;
+        descriptors = scannedDescriptors;
+        if (isChanged || modules == null) {
+            modules = createModules();
+        }
+        return isChanged;
+    }
+
+    private boolean scanDescriptor(final String directory, final String name,
+            final Map<String, Descriptor> scannedDescriptors) {
+        String path = getChild(directory, name);
+        File file = getFile(path);
+        Descriptor descriptor = descriptors.get(path);
+        boolean isChanged = false;
+        if (descriptor == null || !descriptor.isValid(file)) {
+            if (OSGI_MANIFEST.equals(name)) {
+                String moduleDirectory = getParent(directory);
+                descriptor = new Descriptor(file, moduleDirectory, getFile(moduleDirectory), OSGI_BUNDLE);
+            }
+            else {
+                descriptor = new Descriptor(file, directory, getFile(directory), name);
+            }
+            isChanged = true;
+        }
+        scannedDescriptors.put(path, descriptor);
+        return isChanged;
+    }
+
+    private Node createModules() {
+        Node node = new Node();
+        for (Descriptor descriptor : descriptors.values()) {
+            if (StringUtils.isNotBlank(descriptor.moduleName)) {
+                node.add(descriptor.moduleDirectory, descriptor.moduleName, descriptor.precedence);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the name of the module that contains the specified file.
+     *
+     * @param fileName
+     *            the absolute file name, or the file name relative to the workspace
+     * @return the name of the module, or an empty string if the file is not part of a module
+     */
+    String guessModuleName(final String fileName) {
+        Node node = modules;
+        if (node == null || StringUtils.isBlank(fileName)) {
+            return StringUtils.EMPTY;
+        }
+        String path = fileName.replace('\\', '/');
+        String prefix = root.replace('\\', '/') + '/';
+        if (path.startsWith(prefix)) {
+            path = path.substring(prefix.length());
+        }
+        else if (new File(fileName).isAbsolute()) {
+            return StringUtils.EMPTY;
+        }
+        return node.find(path);
+    }
+
+    private File getFile(final String path) {
+        if (path.isEmpty()) {
+            return new File(root);
+        }
+        return new File(root, path);
+    }
+
+    private static String getCanonicalPath(final File file) {
+        try {
+            return file.getCanonicalPath();
+        }
+        catch (IOException exception) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static String getChild(final String path, final String name) {
+        if (path.isEmpty()) {
+            return name;
+        }
+        return path + '/' + name;
+    }
+
+    private static String getParent(final String path) {
+        int separator = path.lastIndexOf('/');
+        if (separator < 0) {
+            return StringUtils.EMPTY;
+        }
+        return path.substring(0, separator);
+    }
+
+    private void save(final File file) {
+        File directory = file.getParentFile();
+        File temp = new File(directory, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                throw new IOException("Can't create directory " + directory);
+            }
+            ObjectOutputStream output = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE));
+            try {
+                output.writeInt(FORMAT_VERSION);
+                output.writeObject(this);
+            }
+            finally {
+                output.close();
+            }
+            if (!file.delete() && file.exists()) {
+                throw new IOException("Can't replace " + file);
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Can't rename " + temp + " to " + file);
+            }
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.FINE, "Can't store module index in " + file, exception);
+        }
+        finally {
+            if (temp.exists() && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Returns the modification time of the specified file, or {@link #UNKNOWN} if the file has been modified so
+     * recently that another modification might not change the modification time.
+     */
+    private static long getStableLastModified(final long lastModified) {
+        if (System.currentTimeMillis() - lastModified < RACY_INTERVAL) {
+            return UNKNOWN;
+        }
+        return lastModified;
+    }
+
+    /**
+     * A scanned directory: its sub directories and the module descriptors it contains. Symbolic links to
+     * directories are skipped.
+     */
+    private static final class Directory implements Serializable {
+        private static final long serialVersionUID = 6340167285573606337L;
+        private static final String[] NONE = new String[0];
+
+        private final long lastModified;
+        private final String[] subdirectories;
+        private final String[] descriptors;
+
+        Directory(final File directory, final long lastModified) {
+            this.lastModified = getStableLastModified(lastModified);
+
+            File[] files = directory.listFiles();
+            if (files == null) {
+                subdirectories = NONE;
+                descriptors = NONE;
+            }
+            else {
+                List<String> directoryNames = Lists.newArrayList();
+                List<String> descriptorNames = Lists.newArrayList();
+                boolean isMetaInf = META_INF.equals(directory.getName());
+                for (File file : files) {
+                    String name = file.getName();
+                    if (file.isDirectory()) {
+                        if (!SKIPPED_DIRECTORIES.contains(name) && !Files.isSymbolicLink(file.toPath())) {
+                            directoryNames.add(StringPool.intern(name));
+                        }
+                    }
+                    else if (MAVEN_POM.equals(name) || ANT_PROJECT.equals(name)
+                            || (isMetaInf && OSGI_MANIFEST.equals(name))) {
+                        descriptorNames.add(StringPool.intern(name));
+                    }
+                }
+                subdirectories = directoryNames.toArray(new String[directoryNames.size()]);
+                descriptors = descriptorNames.toArray(new String[descriptorNames.size()]);
+            }
+        }
+    }
+
+    /**
+     * A module descriptor and the name of the module it describes.
+     */
+    private static final class Descriptor implements Serializable {
+        private static final long serialVersionUID = -3010563806011596624L;
+
+        private static final int ANT = 0;
+        private static final int MAVEN = 1;
+        private static final int OSGI = 2;
+
+        private final long lastModified;
+        private final long length;
+        private final String moduleDirectory;
+        private final String moduleName;
+        /** Determines which module name is used if a directory contains several descriptors. */
+        private final int precedence;
+
+        Descriptor(final File file, final String moduleDirectory, final File module, final String descriptor) {
+            lastModified = getStableLastModified(file.lastModified());
+            length = file.length();
+            this.moduleDirectory = moduleDirectory;
+
+            if (descriptor.endsWith(MAVEN_POM)) {
+                precedence = MAVEN;
+            }
+            else if (descriptor.endsWith(ANT_PROJECT)) {
+                precedence = ANT;
+            }
+            else {
+                precedence = OSGI;
+            }
+            ModuleDetector detector = new ModuleDetector(module, new DescriptorFactory(descriptor));
+            moduleName = StringPool.intern(detector.guessModuleName(new File(module, descriptor).getAbsolutePath()));
+        }
+
+        boolean isValid(final File file) {
+            return lastModified != UNKNOWN && lastModified == file.lastModified() && length == file.length();
+        }
+    }
+
+    /**
+     * Provides a single module descriptor to a {@link ModuleDetector}, so the detector does not scan the directory
+     * tree of the module again.
+     */
+    private static final class DescriptorFactory implements FileInputStreamFactory {
+        private final String descriptor;
+
+        DescriptorFactory(final String descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public InputStream create(final String fileName) throws FileNotFoundException {
+            return new FileInputStream(fileName);
+        }
+
+        @Override
+        public String[] find(final File root, final String pattern) {
+            return new String[] {descriptor};
+        }
+    }
+
+    /**
+     * A node of the trie of module directories. Each node represents a path segment.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = Maps.newHashMap();
+        private String moduleName;
+        private int precedence = -1;
+
+        void add(final String path, final String name, final int namePrecedence) {
+            Node node = this;
+            if (!path.isEmpty()) {
+                for (String segment : StringUtils.split(path, '/')) {
+                    Node child = node.children.get(segment);
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(segment, child);
+                    }
+                    node = child;
+                }
+            }
+            if (namePrecedence > node.precedence) {
+                node.moduleName = name;
+                node.precedence = namePrecedence;
+            }
+        }
+
+        String find(final String path) {
+            String[] segments = StringUtils.split(path, '/');
+            Node node = this;
+            String name = StringUtils.defaultString(moduleName);
+            for (int i = 0; i < segments.length - 1 && node != null; i++) {
+                node = node.children.get(segments[i]);
+                if (node != null && node.moduleName != null) {
+                    name = node.moduleName;
+                }
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package hudson.plugins.warnings;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.thoughtworks.xstream.XStream;
+
+import hudson.plugins.analysis.core.BuildResult;
+import hudson.plugins.analysis.util.model.DefaultAnnotationContainer;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
+import hudson.plugins.analysis.views.DetailFactory;
+import hudson.plugins.warnings.AnnotationIndex.Property;
+
+/**
+ * Persists annotations in pages of the {@link BinaryAnnotationsConverter binary format} together with an {@link
+ * AnnotationIndex}. The annotations are sorted by file name and line number, so the annotations of a file are stored
+ * in consecutive pages. The detail views of a result, e.g. the warnings of a module or of a priority, read only the
+ * pages that contain their annotations instead of all annotations of the build, see
+ * {@link #getDetails(String, BuildResult, DetailFactory)}.
+ * <p>
+ * The pages are stored in a single file next to the XML file of the result: the pages are followed by the index and
+ * the offset of the index.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class PagedAnnotationStore {
+    private static final Logger LOGGER = Logger.getLogger(PagedAnnotationStore.class.getName());
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final String SUFFIX = ".pages";
+    private static final Map<String, Property> LINK_PREFIXES = ImmutableMap.of("module.", Property.MODULE,
+            "package.", Property.PACKAGE, "file.", Property.FILE, "category.", Property.CATEGORY,
+            "type.", Property.TYPE);
+
+    private final File file;
+    private final BinaryAnnotationsConverter converter;
+    private AnnotationIndex index;
+
+    /**
+     * Creates a new instance of {@link PagedAnnotationStore}.
+     *
+     * @param resultFile
+     *            the XML file of the result the annotations belong to
+     * @param xstream
+     *            the XStream instance of the result
+     */
+    PagedAnnotationStore(final File resultFile, final XStream xstream) {
+        file = new File(resultFile.getParentFile(), StringUtils.removeEnd(resultFile.getName(), ".xml") + SUFFIX);
+        converter = new BinaryAnnotationsConverter(xstream, true);
+    }
+
+    /**
+     * Returns whether the annotations have been stored.
+     *
+     * @return {@code true} if the annotations have been stored, {@code false} otherwise
+     */
+    boolean exists() {
+        return file.canRead();
+    }
+
+    /**
+     * Stores the specified annotations. The annotations are first written to a temporary file that replaces an
+     * existing file after all annotations have been written.
+     *
+     * @param annotations
+     *            the annotations to store
+     * @throws IOException
+     *             if the annotations could not be written
+     */
+    void write(final Collection<FileAnnotation> annotations) throws IOException {
+        write(annotations, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Stores the specified annotations.
+     *
+     * @param annotations
+     *            the annotations to store
+     * @param pageSize
+     *            the number of annotations per page
+     * @throws IOException
+     *             if the annotations could not be written
+     */
+    void write(final Collection<FileAnnotation> annotations, final int pageSize) throws IOException {
+        List<FileAnnotation> sorted = sort(annotations);
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            int pages = (sorted.size() + pageSize - 1) / pageSize;
+            long[] offsets = new long[pages + 1];
+            for (int page = 0; page < pages; page++) {
+                List<FileAnnotation> content = sorted.subList(page * pageSize,
+                        Math.min(sorted.size(), (page + 1) * pageSize));
+                byte[] bytes = converter.write(content.toArray());
+                output.write(bytes);
+                offsets[page + 1] = offsets[page] + bytes.length;
+            }
+            AnnotationIndex.create(sorted, pageSize, offsets).write(output);
+            output.writeLong(offsets[pages]);
+            output.close();
+
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Can't replace " + file);
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Can't rename " + temp + " to " + file);
+            }
+            index = null;
+        }
+        catch (IllegalAccessException exception) {
+            throw new IOException(exception);
+        }
+        finally {
+            output.close();
+            if (temp.exists() && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Stores the specified annotations. Failures are logged, the views read all annotations of the result if the
+     * pages are missing.
+     *
+     * @param annotations
+     *            the annotations to store
+     */
+    void store(final Collection<FileAnnotation> annotations) {
+        try {
+            write(annotations);
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't store warnings in pages", exception);
+        }
+    }
+
+    /**
+     * Returns the detail view of the specified link, e.g. the view of the warnings of a module. The view is created
+     * with the annotations of the pages that contain the annotations of the view, so the other annotations of the
+     * result are not read.
+     *
+     * @param link
+     *            the link to the detail view
+     * @param result
+     *            the result the annotations belong to
+     * @param factory
+     *            the factory of the detail views of the result
+     * @return the detail view, or {@code null} if the view of this link can't be created from the pages, e.g.
+     *         because the annotations have not been stored in pages or the link refers to new or fixed warnings
+     */
+    @CheckForNull
+    Object getDetails(final String link, final BuildResult result, final DetailFactory factory) {
+        if (!exists()) {
+            return null;
+        }
+        try {
+            List<FileAnnotation> annotations = readDetails(link);
+            if (annotations == null) {
+                return null;
+            }
+            return factory.createDetails(link, result.getOwner(), new DefaultAnnotationContainer(annotations),
+                    result.getDefaultEncoding(), result.getDisplayName());
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't read warnings " + file, exception);
+        }
+        catch (NoSuchElementException exception) {
+            LOGGER.log(Level.FINE, "No warnings of " + link + " in " + file, exception);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the annotations of the detail view of the specified link. Supported are the links to the warnings of a
+     * priority and of a module, package, file, category or type. These links contain the hash code of the name of
+     * the module, package, etc.
+     *
+     * @param link
+     *            the link to the detail view
+     * @return the annotations of the view, or {@code null} if the link is not supported
+     * @throws IOException
+     *             if the annotations could not be read
+     */
+    @CheckForNull
+    List<FileAnnotation> readDetails(final String link) throws IOException {
+        for (Priority priority : Priority.values()) {
+            if (priority.name().equals(link)) {
+                return read(Property.PRIORITY, link);
+            }
+        }
+        for (Map.Entry<String, Property> prefix : LINK_PREFIXES.entrySet()) {
+            if (link.startsWith(prefix.getKey())) {
+                try {
+                    int hashCode = Integer.parseInt(link.substring(prefix.getKey().length()));
+                    List<FileAnnotation> annotations = Lists.newArrayList();
+                    for (String value : getIndex().getValues(prefix.getValue())) {
+                        if (value.hashCode() == hashCode) {
+                            annotations.addAll(read(prefix.getValue(), value));
+                        }
+                    }
+                    return annotations;
+                }
+                catch (NumberFormatException exception) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<FileAnnotation> sort(final Collection<FileAnnotation> annotations) {
+        List<FileAnnotation> sorted = Lists.newArrayList(annotations);
+        Collections.sort(sorted, new FileAndLineComparator());
+        return sorted;
+    }
+
+    /**
+     * Returns the index of the stored annotations.
+     *
+     * @return the index
+     * @throws IOException
+     *             if the index could not be read
+     */
+    synchronized AnnotationIndex getIndex() throws IOException {
+        if (index == null) {
+            RandomAccessFile input = new RandomAccessFile(file, "r");
+            try {
+                input.seek(input.length() - 8);
+                input.seek(input.readLong());
+                index = AnnotationIndex.read(input);
+            }
+            finally {
+                input.close();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Reads the annotations in the specified range of the sort order (file name and line number).
+     *
+     * @param from
+     *            the index of the first annotation (inclusive)
+     * @param to
+     *            the index of the last annotation (exclusive)
+     * @return the annotations in the specified range
+     * @throws IOException
+     *             if the annotations could not be read
+     */
+    List<FileAnnotation> read(final int from, final int to) throws IOException {
+        AnnotationIndex pages = getIndex();
+        int start = Math.max(0, from);
+        int end = Math.min(pages.size(), to);
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        int firstPage = start / pages.getPageSize();
+        int lastPage = (end - 1) / pages.getPageSize();
+        int[] range = new int[lastPage - firstPage + 1];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = firstPage + i;
+        }
+        List<FileAnnotation> annotations = readPages(pages, range);
+        int offset = firstPage * pages.getPageSize();
+
+        return Lists.newArrayList(annotations.subList(start - offset, end - offset));
+    }
+
+    /**
+     * Reads the annotations that have the specified value of the specified property.
+     *
+     * @param property
+     *            the property
+     * @param value
+     *            the value
+     * @return the annotations with the specified value
+     * @throws IOException
+     *             if the annotations could not be read
+     */
+    List<FileAnnotation> read(final Property property, final String value) throws IOException {
+        AnnotationIndex pages = getIndex();
+        List<FileAnnotation> annotations = Lists.newArrayList();
+        for (FileAnnotation annotation : readPages(pages, pages.getPages(property, value))) {
+            if (property.matches(annotation, value)) {
+                annotations.add(annotation);
+            }
+        }
+        return annotations;
+    }
+
+    private List<FileAnnotation> readPages(final AnnotationIndex pages, final int[] numbers) throws IOException {
+        List<FileAnnotation> annotations = Lists.newArrayList();
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            for (int page : numbers) {
+                byte[] bytes = new byte[pages.getPageLength(page)];
+                input.seek(pages.getPageOffset(page));
+                input.readFully(bytes);
+                annotations.addAll(Arrays.asList((FileAnnotation[])converter.read(bytes, FileAnnotation.class)));
+            }
+        }
+        catch (IllegalAccessException exception) {
+            throw new IOException(exception);
+        }
+        catch (InstantiationException exception) {
+            throw new IOException(exception);
+        }
+        finally {
+            input.close();
+        }
+        return annotations;
+    }
+
+    /**
+     * Sorts annotations by file name and line number.
+     */
+    private static class FileAndLineComparator implements Comparator<FileAnnotation> {
+        @Override
+        public int compare(final FileAnnotation left, final FileAnnotation right) {
+            int result = StringUtils.defaultString(left.getFileName()).compareTo(
+                    StringUtils.defaultString(right.getFileName()));
+            if (result == 0) {
+                return left.getPrimaryLineNumber() - right.getPrimaryLineNumber();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package hudson.plugins.warnings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.Lists;
+
+import jenkins.MasterToSlaveFileCallable;
+
+import hudson.plugins.analysis.core.FilesParser;
+import hudson.plugins.analysis.core.ParserResult;
+import hudson.plugins.analysis.util.FileFinder;
+import hudson.plugins.warnings.parser.FileWarningsParser;
+import hudson.plugins.warnings.parser.ParserStatistics;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Parses the files that match a pattern in parallel on the agent. The matching files are handed over to the {@link
+ * FileWarningsParser} that parses them on a bounded pool of worker threads, a few files ahead of the {@link
+ * FilesParser}. The {@link FilesParser} processes the files one by one as before: it uses the warnings that have
+ * been found in parallel, so the module names, the log messages and the order of the results do not change. Report files that did not change since a
+ * previous build are not parsed again, see {@link FileWarningsParser#enableCache(File)}.
+ * <p>
+ * The number of worker threads can be set on the agent with the system property
+ * {@code hudson.plugins.warnings.ParallelFilesParser.parallelism} (defaults to the number of available processors, a
+ * value of 1 disables the parallel mode).
+ * </p>
+ * <p>
+ * Besides the warnings, the performance figures of the parsers are returned to the controller.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class ParallelFilesParser extends MasterToSlaveFileCallable<ParallelFilesParser.Result> {
+    private static final long serialVersionUID = 2818470683411285631L;
+
+    private final FilesParser filesParser;
+    private final FileWarningsParser parser;
+    private final String filePattern;
+
+    /**
+     * Creates a new instance of {@link ParallelFilesParser}.
+     *
+     * @param filesParser
+     *            the parser that processes the files one by one
+     * @param parser
+     *            the parser of the individual files, needs to be the parser that is used by {@code filesParser}
+     * @param filePattern
+     *            ant file-set pattern to scan for files to parse
+     */
+    ParallelFilesParser(final FilesParser filesParser, final FileWarningsParser parser, final String filePattern) {
+        super();
+
+        this.filesParser = filesParser;
+        this.parser = parser;
+        this.filePattern = filePattern;
+    }
+
+    @Override
+    public Result invoke(final File workspace, final VirtualChannel channel)
+            throws IOException, InterruptedException {
+        parser.enableCache(workspace);
+
+        int parallelism = Integer.getInteger(ParallelFilesParser.class.getName() + ".parallelism",
+                Runtime.getRuntime().availableProcessors());
+        if (parallelism > 1 && StringUtils.isNotBlank(filePattern)) {
+            parser.parseInParallel(findFiles(workspace), parallelism);
+        }
+        try {
+            ParserResult result = filesParser.invoke(workspace, channel);
+            return new Result(result, parser.getStatistics());
+        }
+        finally {
+            parser.stopParallel();
+        }
+    }
+
+    private List<File> findFiles(final File workspace) {
+        List<File> files = Lists.newArrayList();
+        for (String fileName : new FileFinder(filePattern).find(workspace)) {
+            File file = new File(fileName);
+            if (!file.isAbsolute()) {
+                file = new File(workspace, fileName);
+            }
+            if (file.canRead() && file.length() > 0) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * The warnings and the performance figures of the parsers.
+     */
+    static class Result implements Serializable {
+        private static final long serialVersionUID = -3189306467127373622L;
+
+        private final ParserResult parserResult;
+        private final List<ParserStatistics> statistics;
+
+        Result(final ParserResult parserResult, final List<ParserStatistics> statistics) {
+            this.parserResult = parserResult;
+            this.statistics = Lists.newArrayList(statistics);
+        }
+
+        ParserResult getParserResult() {
+            return parserResult;
+        }
+
+        List<ParserStatistics> getStatistics() {
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package hudson.plugins.warnings;
+
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of warnings parsers that run at the same time on the controller. Each parse needs a permit
+ * before it starts. A permit is granted if the number of running parses is below the configured maximum and, if a
+ * memory budget has been configured, the estimated memory of all running parses (including the new one) fits into
+ * this budget. The input is scanned as a stream, so the memory of a parse is estimated from the bounded working set
+ * of the scanners: the sliding window of the document parsers and the found warnings. Parses that can't start yet
+ * wait in a queue and are started in the order of their requests, so a large parse is not starved by a series of
+ * small ones. A single parse that exceeds the budget on its own is started when no other parse is running.
+ *
+ * @author Ulli Hafner
+ */
+public final class ParseScheduler {
+    /**
+     * Estimated heap of the sliding window of the scanners: twice the default maximum record span of the document
+     * parsers (1 MB) in decoded characters of 2 bytes.
+     */
+    static final long WINDOW_MEMORY = 4 * 1024 * 1024;
+    /** Estimated number of bytes of input per byte of heap of the found warnings. */
+    static final int INPUT_BYTES_PER_WARNINGS_BYTE = 16;
+
+    private static final long MEGA_BYTE = 1024 * 1024;
+    private static final ParseScheduler INSTANCE = new ParseScheduler();
+
+    /**
+     * Returns the scheduler of the controller.
+     *
+     * @return the scheduler
+     */
+    public static ParseScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    private final LinkedList<Permit> queue = new LinkedList<Permit>();
+
+    private int maximumParses;
+    private long memoryBudget;
+
+    private int running;
+    private long reserved;
+    private long scheduled;
+    private long totalWaitTime;
+    private long maximumWaitTime;
+
+    /**
+     * Creates a new instance of {@link ParseScheduler} with the default limits.
+     */
+    ParseScheduler() {
+        configure(0, 0);
+    }
+
+    /**
+     * Sets the limits of this scheduler.
+     *
+     * @param maximumConcurrentParses
+     *            the maximum number of parses that run at the same time, 0 uses the number of available processors
+     * @param memoryBudgetInMegaBytes
+     *            the estimated heap that all running parses may use in megabytes, 0 disables the memory limit
+     */
+    public synchronized void configure(final int maximumConcurrentParses, final int memoryBudgetInMegaBytes) {
+        if (maximumConcurrentParses > 0) {
+            maximumParses = maximumConcurrentParses;
+        }
+        else {
+            maximumParses = Runtime.getRuntime().availableProcessors();
+        }
+        memoryBudget = Math.max(0, memoryBudgetInMegaBytes) * MEGA_BYTE;
+        notifyAll();
+    }
+
+    /**
+     * Waits until a parse of the specified input may start.
+     *
+     * @param inputSize
+     *            the size of the input in bytes
+     * @return the permit to start the parse, needs to be released after the parse has been finished
+     * @throws InterruptedException
+     *             if the thread has been interrupted while waiting
+     */
+    public synchronized Permit acquire(final long inputSize) throws InterruptedException {
+        Permit permit = new Permit(estimateMemory(Math.max(0, inputSize)));
+        queue.add(permit);
+        try {
+            while (queue.getFirst() != permit || !canStart(permit)) {
+                wait();
+            }
+        }
+        catch (InterruptedException exception) {
+            queue.remove(permit);
+            notifyAll();
+
+            throw exception;
+        }
+        queue.removeFirst();
+        running++;
+        reserved += permit.memory;
+
+        permit.waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - permit.requested);
+        scheduled++;
+        totalWaitTime += permit.waitTime;
+        maximumWaitTime = Math.max(maximumWaitTime, permit.waitTime);
+
+        notifyAll();
+
+        return permit;
+    }
+
+    /**
+     * Estimates the heap of a parse of the specified input: the window of the scanners, which is never larger than
+     * the decoded input, and the found warnings.
+     */
+    private long estimateMemory(final long inputSize) {
+        return Math.min(WINDOW_MEMORY, 2 * inputSize) + inputSize / INPUT_BYTES_PER_WARNINGS_BYTE;
+    }
+
+    private boolean canStart(final Permit permit) {
+        if (running == 0) {
+            return true;
+        }
+        if (running >= maximumParses) {
+            return false;
+        }
+        return memoryBudget == 0 || reserved + permit.memory <= memoryBudget;
+    }
+
+    private synchronized void release(final Permit permit) {
+        running--;
+        reserved -= permit.memory;
+        notifyAll();
+    }
+
+    /**
+     * Returns the number of parses that wait for a permit.
+     *
+     * @return the number of waiting parses
+     */
+    public synchronized int getQueueLength() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of running parses.
+     *
+     * @return the number of running parses
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the estimated heap of the running parses in megabytes.
+     *
+     * @return the reserved memory
+     */
+    public synchronized long getReservedMegaBytes() {
+        return reserved / MEGA_BYTE;
+    }
+
+    /**
+     * Returns the estimated heap that all running parses may use in megabytes.
+     *
+     * @return the memory budget, 0 if the memory is not limited
+     */
+    public synchronized long getMemoryBudgetMegaBytes() {
+        return memoryBudget / MEGA_BYTE;
+    }
+
+    /**
+     * Returns the maximum number of parses that run at the same time.
+     *
+     * @return the maximum number of parses
+     */
+    public synchronized int getMaximumParses() {
+        return maximumParses;
+    }
+
+    /**
+     * Returns the average time the started parses waited for their permit.
+     *
+     * @return the average wait time in milliseconds
+     */
+    public synchronized long getAverageWaitTime() {
+        return scheduled == 0 ? 0 : totalWaitTime / scheduled;
+    }
+
+    /**
+     * Returns the longest time a started parse waited for its permit.
+     *
+     * @return the maximum wait time in milliseconds
+     */
+    public synchronized long getMaximumWaitTime() {
+        return maximumWaitTime;
+    }
+
+    /**
+     * Permit to run a parse.
+     */
+    public final class Permit {
+        private final long memory;
+        private final long requested = System.nanoTime();
+        private long waitTime;
+        private boolean released;
+
+        private Permit(final long memory) {
+            this.memory = memory;
+        }
+
+        /**
+         * Returns the time the parse waited for this permit.
+         *
+         * @return the wait time in milliseconds
+         */
+        public long getWaitTime() {
+            return waitTime;
+        }
+
+        /**
+         * Releases this permit, so that waiting parses may start. Releasing a permit a second time has no effect.
+         */
+        public void release() {
+            synchronized (ParseScheduler.this) {
+                if (!released) {
+                    released = true;
+                    ParseScheduler.this.release(this);
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ public class WarningsAnnotationsAggregator extends MatrixAggregator {
     private final Map<String, ParserResult> totalsPerParser = Maps.newHashMap();
     private final boolean usePreviousBuildAsReference;
     private final boolean useStableBuildAsReference;
+    private boolean useBinaryFormat = BinaryAnnotationsConverter.isEnabledGlobally();
 
     /**
      * Creates a new instance of {@link WarningsAnnotationsAggregator}.
@@ -64,6 +65,17 @@ public class WarningsAnnotationsAggregator extends MatrixAggregator {
         this.useStableBuildAsReference = useStableBuildAsReference;
     }
 
+    /**
+     * Determines whether the aggregated warnings should be stored in the compact binary format.
+     *
+     * @param useBinaryFormat
+     *            {@code true} if the warnings should be stored in the binary format, {@code false} if the warnings
+     *            should be stored as XML
+     */
+    void setUseBinaryFormat(final boolean useBinaryFormat) {
+        this.useBinaryFormat = useBinaryFormat;
+    }
+
     @Override
     public boolean endRun(final MatrixRun run) throws InterruptedException, IOException {
         List<WarningsResultAction> actions = run.getActions(WarningsResultAction.class);
@@ -116,7 +128,8 @@ public class WarningsAnnotationsAggregator extends MatrixAggregator {
         }
         BuildHistory history = new BuildHistory((Run<?, ?>)build, AggregatedWarningsResultAction.class,
                 usePreviousBuildAsReference, useStableBuildAsReference);
-        AggregatedWarningsResult result = new AggregatedWarningsResult(build, history, totals, defaultEncoding);
+        AggregatedWarningsResult result = new AggregatedWarningsResult(build, history, totals, defaultEncoding,
+                useBinaryFormat);
         build.addAction(new AggregatedWarningsResultAction(build, result));
     }
 
@@ -125,7 +138,8 @@ public class WarningsAnnotationsAggregator extends MatrixAggregator {
         for (String parser : totalsPerParser.keySet()) {
             WarningsBuildHistory history = new WarningsBuildHistory(build, parser,
                     usePreviousBuildAsReference, useStableBuildAsReference);
-            WarningsResult result = new WarningsResult(build, history, totalsPerParser.get(parser), defaultEncoding, parser);
+            WarningsResult result = new WarningsResult(build, history, totalsPerParser.get(parser), defaultEncoding,
+                    parser, true, useBinaryFormat);
             build.addAction(new WarningsResultAction(build, healthDescriptor, result, parser));
         }
         createTotalsAction();
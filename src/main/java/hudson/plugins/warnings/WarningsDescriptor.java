@@ -44,6 +44,10 @@ public final class WarningsDescriptor extends PluginDescriptor implements Staple
     public static final String LARGE_ICON_URL = IMAGE_PREFIX + "warnings-48x48.png";
 
     private final CopyOnWriteList<GroovyParser> groovyParsers = new CopyOnWriteList<GroovyParser>();
+    /** Maximum number of builds that parse warnings at the same time, 0 for the number of processors. */
+    private int maximumConcurrentParses;
+    /** Estimated heap in megabytes that may be used by parsers at the same time, 0 for no limit. */
+    private int parseMemoryBudget;
 
     /**
      * Returns the URL of the warning results for the specified parser.
@@ -121,6 +125,8 @@ public final class WarningsDescriptor extends PluginDescriptor implements Staple
 
         if (loadConfiguration) {
             load();
+            ParserRegistry.invalidate();
+            configureScheduler();
         }
     }
 
@@ -161,6 +167,7 @@ public final class WarningsDescriptor extends PluginDescriptor implements Staple
      */
     public void addGroovyParser(final GroovyParser parser) {
         groovyParsers.add(parser);
+        ParserRegistry.invalidate();
         save();
     }
 
@@ -171,6 +178,7 @@ public final class WarningsDescriptor extends PluginDescriptor implements Staple
      */
     public void addGroovyParsers(final Collection<GroovyParser> parsers) {
         groovyParsers.addAll(parsers);
+        ParserRegistry.invalidate();
         save();
     }
 
@@ -181,11 +189,69 @@ public final class WarningsDescriptor extends PluginDescriptor implements Staple
      */
     public void replaceGroovyParsers(final Collection<GroovyParser> parsers) {
         groovyParsers.replaceBy(parsers);
+        ParserRegistry.invalidate();
         save();
     }
 
+    /**
+     * Returns the maximum number of builds that parse warnings at the same time.
+     *
+     * @return the maximum number of parses, 0 for the number of available processors
+     */
+    public int getMaximumConcurrentParses() {
+        return maximumConcurrentParses;
+    }
+
+    /**
+     * Sets the maximum number of builds that parse warnings at the same time.
+     *
+     * @param maximumConcurrentParses
+     *            the maximum number of parses, 0 for the number of available processors
+     */
+    public void setMaximumConcurrentParses(final int maximumConcurrentParses) {
+        this.maximumConcurrentParses = Math.max(0, maximumConcurrentParses);
+        configureScheduler();
+    }
+
+    /**
+     * Returns the estimated heap that may be used by parsers at the same time.
+     *
+     * @return the memory budget in megabytes, 0 for no limit
+     */
+    public int getParseMemoryBudget() {
+        return parseMemoryBudget;
+    }
+
+    /**
+     * Sets the estimated heap that may be used by parsers at the same time.
+     *
+     * @param parseMemoryBudget
+     *            the memory budget in megabytes, 0 for no limit
+     */
+    public void setParseMemoryBudget(final int parseMemoryBudget) {
+        this.parseMemoryBudget = Math.max(0, parseMemoryBudget);
+        configureScheduler();
+    }
+
+    /**
+     * Returns the scheduler that limits the parses on the controller. Shows the queue of waiting parses in the
+     * global configuration.
+     *
+     * @return the scheduler
+     */
+    public ParseScheduler getParseScheduler() {
+        return ParseScheduler.getInstance();
+    }
+
+    private void configureScheduler() {
+        ParseScheduler.getInstance().configure(maximumConcurrentParses, parseMemoryBudget);
+    }
+
     @Override
     public boolean configure(final StaplerRequest req, final JSONObject formData) {
+        maximumConcurrentParses = Math.max(0, formData.optInt("maximumConcurrentParses"));
+        parseMemoryBudget = Math.max(0, formData.optInt("parseMemoryBudget"));
+        configureScheduler();
         replaceGroovyParsers(req.bindJSONToList(GroovyParser.class, formData.get("parsers")));
         return true;
     }
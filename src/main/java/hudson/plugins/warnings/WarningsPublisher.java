@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
@@ -27,20 +28,22 @@ import hudson.model.Action;
 import hudson.model.BuildListener;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.plugins.analysis.core.AnnotationsClassifier;
 import hudson.plugins.analysis.core.BuildHistory;
 import hudson.plugins.analysis.core.BuildResult;
 import hudson.plugins.analysis.core.FilesParser;
 import hudson.plugins.analysis.core.HealthAwarePublisher;
 import hudson.plugins.analysis.core.NullBuildHistory;
 import hudson.plugins.analysis.core.ParserResult;
-import hudson.plugins.analysis.util.ModuleDetector;
-import hudson.plugins.analysis.util.NullModuleDetector;
+import hudson.plugins.analysis.util.NullLogger;
 import hudson.plugins.analysis.util.PluginLogger;
 import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.warnings.ParseScheduler.Permit;
+import hudson.plugins.warnings.parser.AbstractWarningsParser;
 import hudson.plugins.warnings.parser.FileWarningsParser;
 import hudson.plugins.warnings.parser.ParserRegistry;
+import hudson.plugins.warnings.parser.ParserStatistics;
 import hudson.plugins.warnings.parser.ParsingCanceledException;
+import hudson.plugins.warnings.parser.StringPool;
 import hudson.plugins.warnings.parser.WarningsFilter;
 
 /**
@@ -66,6 +69,8 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
     private Integer warningsUnstableThreshold;
     /** number of warnings required to mark build as FAILURE -1 to disable*/
     private Integer warningsFailureThreshold;
+    /** Determines whether the warnings should be stored in the compact binary format. */
+    private boolean useBinaryFormat;
 	
     /** File pattern and parser configurations. @since 3.19 */
     @SuppressFBWarnings("SE")
@@ -224,6 +229,34 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
         return this.warningsFailureThreshold;
     }
 
+    /**
+     * Returns whether the warnings should be stored in the compact binary format.
+     *
+     * @return {@code true} if the warnings should be stored in the binary format, {@code false} if the warnings
+     *         should be stored as XML
+     */
+    public boolean isUseBinaryFormat() {
+        return useBinaryFormat;
+    }
+
+    /**
+     * Determines whether the warnings should be stored in the compact binary format. The binary format is used
+     * for all jobs if the system property
+     * {@code hudson.plugins.warnings.BinaryAnnotationsConverter.enabled} is set.
+     *
+     * @param useBinaryFormat
+     *            {@code true} if the warnings should be stored in the binary format, {@code false} if the warnings
+     *            should be stored as XML
+     */
+    @DataBoundSetter
+    public void setUseBinaryFormat(final boolean useBinaryFormat) {
+        this.useBinaryFormat = useBinaryFormat;
+    }
+
+    private boolean writesBinaryFormat() {
+        return useBinaryFormat || BinaryAnnotationsConverter.isEnabledGlobally();
+    }
+
     /**
      * Upgrade for release 4.5 or older.
      *
@@ -335,7 +368,10 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
             }
 
             List<ParserResult> fileResults = parseFiles(run, workspace, logger);
-            List<ParserResult> consoleResults = parseConsoleLog(run, workspace, logger);
+            List<ParserResult> consoleResults = Lists.newArrayList();
+            if (hasConsoleParsers()) {
+                consoleResults = parseConsoleLog(run, workspace, logger);
+            }
 
             ParserResult totals = new ParserResult();
             add(totals, consoleResults);
@@ -343,7 +379,8 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
 
             BuildHistory history = new BuildHistory(run, AggregatedWarningsResultAction.class,
                     usePreviousBuildAsReference(), useOnlyStableBuildsAsReference());
-            AggregatedWarningsResult result = new AggregatedWarningsResult(run, history, totals, getDefaultEncoding());
+            AggregatedWarningsResult result = new AggregatedWarningsResult(run, history, totals, getDefaultEncoding(),
+                    writesBinaryFormat());
             run.addAction(new AggregatedWarningsResultAction(run, result));
 
             return result;
@@ -356,6 +393,21 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
         }
     }
 
+    /**
+     * Waits until the controller wide {@link ParseScheduler} permits to scan the console log of this build. The
+     * memory of the scan is estimated from the size of the console log. The permit covers the scan only: report
+     * files are parsed on the agent, and the found warnings are annotated and blamed without a permit.
+     */
+    private Permit acquirePermit(final Run<?, ?> run, final PluginLogger logger) throws InterruptedException {
+        ParseScheduler scheduler = ParseScheduler.getInstance();
+        Permit permit = scheduler.acquire(run.getLogFile().length());
+        if (permit.getWaitTime() > 0) {
+            logger.log(String.format("Waited %d ms to start parsing (%d builds still waiting).",
+                    permit.getWaitTime(), scheduler.getQueueLength()));
+        }
+        return permit;
+    }
+
     private BuildResult emptyBuildResult(final Run<?, ?> run, final PluginLogger logger, final Exception exception) {
         logger.log(exception.getMessage());
 
@@ -388,20 +440,50 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
 
     private List<ParserResult> parseConsoleLog(final Run<?, ?> run, final FilePath workspace, final PluginLogger logger)
             throws IOException, InterruptedException {
+        ConsoleParser[] consoleParsers = getConsoleParsers();
+        List<List<AbstractWarningsParser>> parsersOfGroup = Lists.newArrayList();
+        Set<AbstractWarningsParser> allParsers = Sets.newLinkedHashSet();
+        for (ConsoleParser parser : consoleParsers) {
+            logger.log("Parsing warnings in console log with parser " + parser.getParserName());
+
+            List<AbstractWarningsParser> parsers = ParserRegistry.getParsers(parser.getParserName());
+            parsersOfGroup.add(parsers);
+            allParsers.addAll(parsers);
+        }
+
         List<ParserResult> results = Lists.newArrayList();
-        for (ConsoleParser parser : getConsoleParsers()) {
-            String parserName = parser.getParserName();
-            logger.log("Parsing warnings in console log with parser " + parserName);
+        if (allParsers.isEmpty()) {
+            return results;
+        }
+        ParserRegistry registry = new ParserRegistry(Lists.newArrayList(allParsers), getDefaultEncoding());
+        Map<AbstractWarningsParser, Collection<FileAnnotation>> warningsOfParser;
+        Permit permit = acquirePermit(run, logger);
+        try {
+            warningsOfParser = registry.parseSeparately(run.getLogFile(), new NullLogger());
+        }
+        finally {
+            permit.release();
+        }
 
-            Collection<FileAnnotation> warnings = new ParserRegistry(ParserRegistry.getParsers(parserName),
-                    getDefaultEncoding()).parse(run.getLogFile());
+        ModuleIndex modules = null;
+        for (int i = 0; i < consoleParsers.length; i++) {
+            String parserName = consoleParsers[i].getParserName();
+            Set<FileAnnotation> warnings = Sets.newHashSet();
+            for (AbstractWarningsParser parser : parsersOfGroup.get(i)) {
+                warnings.addAll(warningsOfParser.get(parser));
+            }
             if (!workspace.isRemote()) {
-                guessModuleNames(workspace, warnings);
+                if (modules == null && shouldDetectModules() && !warnings.isEmpty()) {
+                    modules = ModuleIndex.get(new File(workspace.getRemote()));
+                }
+                guessModuleNames(modules, warnings);
             }
             ParserResult project = new ParserResult(workspace, canResolveRelativePaths());
             project.addAnnotations(warnings);
 
-            results.add(annotate(run, workspace, filterWarnings(project, logger), parserName));
+            List<ParserStatistics> statistics = registry.getStatistics(parsersOfGroup.get(i));
+            logStatistics(logger, statistics);
+            results.add(annotate(run, workspace, filterWarnings(project, logger), parserName, statistics));
         }
         return results;
     }
@@ -416,11 +498,20 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
         return project;
     }
 
-    private void guessModuleNames(final FilePath workspace, final Collection<FileAnnotation> warnings) {
-        ModuleDetector detector = createModuleDetector(workspace.getRemote());
+    /**
+     * Sets the module names of the specified warnings. The modules of the workspace are read from the
+     * {@link ModuleIndex} of the workspace, which is shared by all console parsers of a build and reused in the
+     * following builds.
+     *
+     * @param modules
+     *            the modules of the workspace, {@code null} if modules should not be detected
+     * @param warnings
+     *            the warnings to set the module names for
+     */
+    private void guessModuleNames(final ModuleIndex modules, final Collection<FileAnnotation> warnings) {
         for (FileAnnotation annotation : warnings) {
-            String module = detector.guessModuleName(annotation.getFileName());
-            annotation.setModuleName(module);
+            String module = modules == null ? StringUtils.EMPTY : modules.guessModuleName(annotation.getFileName());
+            annotation.setModuleName(StringPool.intern(module));
         }
     }
 
@@ -433,22 +524,35 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
 
             logger.log("Parsing warnings in files '" + filePattern + "' with parser " + parserName);
 
-            FilesParser parser = new FilesParser(PLUGIN_NAME, filePattern,
-                    new FileWarningsParser(ParserRegistry.getParsers(parserName), getDefaultEncoding()),
+            FileWarningsParser fileParser = new FileWarningsParser(ParserRegistry.getParsers(parserName),
+                    getDefaultEncoding());
+            FilesParser parser = new FilesParser(PLUGIN_NAME, filePattern, fileParser,
                     shouldDetectModules(), isMavenBuild(run), canResolveRelativePaths());
-            ParserResult project = workspace.act(parser);
+            ParallelFilesParser.Result parsed = workspace.act(new ParallelFilesParser(parser, fileParser, filePattern));
+            ParserResult project = parsed.getParserResult();
             logger.logLines(project.getLogMessages());
+            logStatistics(logger, parsed.getStatistics());
 
             returnIfCanceled();
 
-            results.add(annotate(run, workspace, filterWarnings(project, logger), configuration.getParserName()));
+            results.add(annotate(run, workspace, filterWarnings(project, logger), configuration.getParserName(),
+                    parsed.getStatistics()));
         }
         return results;
     }
 
-    private ParserResult annotate(final Run<?, ?> run, final FilePath workspace, final ParserResult input, final String parserName)
+    private void logStatistics(final PluginLogger logger, final List<ParserStatistics> statistics) {
+        if (!statistics.isEmpty()) {
+            for (String row : ParserStatistics.formatTable(statistics)) {
+                logger.log(row);
+            }
+        }
+    }
+
+    private ParserResult annotate(final Run<?, ?> run, final FilePath workspace, final ParserResult input,
+            final String parserName, final List<ParserStatistics> statistics)
             throws IOException, InterruptedException {
-        ParserResult output = workspace.act(new AnnotationsClassifier(input, getDefaultEncoding()));
+        ParserResult output = workspace.act(new BatchAnnotationsClassifier(input, getDefaultEncoding()));
         for (FileAnnotation annotation : output.getAnnotations()) {
             annotation.setPathName(workspace.getRemote());
         }
@@ -457,21 +561,13 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
 
         blame(output.getAnnotations(), run, workspace);
 
-        WarningsResult result = new WarningsResult(run, history, output, getDefaultEncoding(), parserName);
-        run.addAction(new WarningsResultAction(run, this, result, parserName));
+        WarningsResult result = new WarningsResult(run, history, output, getDefaultEncoding(), parserName,
+                true, writesBinaryFormat());
+        run.addAction(new WarningsResultAction(run, this, result, parserName, statistics));
 
         return output;
     }
 
-    private ModuleDetector createModuleDetector(final String workspace) {
-        if (shouldDetectModules()) {
-            return new ModuleDetector(new File(workspace));
-        }
-        else {
-            return new NullModuleDetector();
-        }
-    }
-
     @Override
     public WarningsDescriptor getDescriptor() {
         return (WarningsDescriptor)super.getDescriptor();
@@ -479,8 +575,10 @@ public class WarningsPublisher extends HealthAwarePublisher implements SimpleBui
 
     @Override
     public MatrixAggregator createAggregator(final MatrixBuild run, final Launcher launcher, final BuildListener listener) {
-        return new WarningsAnnotationsAggregator(run, launcher, listener, this, getDefaultEncoding(),
-                usePreviousBuildAsReference(), useOnlyStableBuildsAsReference());
+        WarningsAnnotationsAggregator aggregator = new WarningsAnnotationsAggregator(run, launcher, listener, this,
+                getDefaultEncoding(), usePreviousBuildAsReference(), useOnlyStableBuildsAsReference());
+        aggregator.setUseBinaryFormat(writesBinaryFormat());
+        return aggregator;
     }
 
     /** Name of parsers to use for scanning the logs. */
@@ -2,6 +2,9 @@ package hudson.plugins.warnings; // NOPMD
 
 import java.io.File;
 
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
 import com.thoughtworks.xstream.XStream;
 
 import hudson.model.Run;
@@ -9,8 +12,11 @@ import hudson.plugins.analysis.core.BuildHistory;
 import hudson.plugins.analysis.core.BuildResult;
 import hudson.plugins.analysis.core.ParserResult;
 import hudson.plugins.analysis.core.ResultAction;
+import hudson.plugins.analysis.views.DetailFactory;
 import hudson.plugins.warnings.parser.ParserRegistry;
+import hudson.plugins.warnings.parser.StringPool;
 import hudson.plugins.warnings.parser.Warning;
+import hudson.util.XStream2;
 
 /**
  * Represents the results of the warning analysis. One instance of this class is persisted for
@@ -26,6 +32,10 @@ public class WarningsResult extends BuildResult {
     private static final long serialVersionUID = -137460587767210579L;
     /** The group of the parser. @since 4.0 */
     private final String group;
+    /** Determines whether the annotations are written in the binary format. */
+    private transient boolean useBinaryFormat;
+    /** Provides the warnings of the detail views page by page. */
+    private transient PagedAnnotationStore pagedStore;
 
     /**
      * Creates a new instance of {@link WarningsResult}.
@@ -49,11 +59,23 @@ public class WarningsResult extends BuildResult {
     WarningsResult(final Run<?, ?> build, final BuildHistory history,
                    final ParserResult result, final String defaultEncoding,
                    final String group, final boolean canSerialize) {
+        this(build, history, result, defaultEncoding, group, canSerialize,
+                BinaryAnnotationsConverter.isEnabledGlobally());
+    }
+
+    WarningsResult(final Run<?, ?> build, final BuildHistory history,
+                   final ParserResult result, final String defaultEncoding,
+                   final String group, final boolean canSerialize, final boolean useBinaryFormat) {
         super(build, history, result, defaultEncoding);
 
         this.group = group;
+        this.useBinaryFormat = useBinaryFormat;
         if (canSerialize) {
+            StringPool.intern(result.getAnnotations());
             serializeAnnotations(result.getAnnotations());
+            if (useBinaryFormat) {
+                getPagedStore().store(result.getAnnotations());
+            }
         }
     }
 
@@ -65,6 +87,8 @@ public class WarningsResult extends BuildResult {
     @Override
     protected void configure(final XStream xstream) {
         xstream.alias("warning", Warning.class);
+        StringPool.configure(xstream);
+        BinaryAnnotationsConverter.configure(xstream, useBinaryFormat);
     }
 
     @Override
@@ -87,6 +111,37 @@ public class WarningsResult extends BuildResult {
         return WarningsDescriptor.getResultUrl(group);
     }
 
+    /**
+     * Returns the detail view of the specified link. If the warnings have been stored in pages, then the views of
+     * the warnings of a module, package, file, category, type or priority read only the pages of these warnings.
+     *
+     * @param link
+     *            the link to the detail view
+     * @param request
+     *            Stapler request
+     * @param response
+     *            Stapler response
+     * @return the detail view
+     */
+    @Override
+    public Object getDynamic(final String link, final StaplerRequest request, final StaplerResponse response) {
+        Object details = getPagedStore().getDetails(link, this, DetailFactory.create(getResultActionType()));
+        if (details == null) {
+            return super.getDynamic(link, request, response);
+        }
+        return details;
+    }
+
+    private synchronized PagedAnnotationStore getPagedStore() {
+        if (pagedStore == null) {
+            XStream xstream = new XStream2();
+            configure(xstream);
+            pagedStore = new PagedAnnotationStore(new File(getOwner().getRootDir(), getSerializationFileName()),
+                    xstream);
+        }
+        return pagedStore;
+    }
+
     @Override
     protected String getSerializationFileName() {
         FileChecker fileChecker = new FileChecker(getOwner().getRootDir());
@@ -1,6 +1,8 @@
 package hudson.plugins.warnings;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.jvnet.localizer.Localizable;
 import org.kohsuke.stapler.export.Exported;
@@ -13,6 +15,7 @@ import hudson.plugins.analysis.core.AbstractResultAction;
 import hudson.plugins.analysis.core.HealthDescriptor;
 import hudson.plugins.analysis.core.PluginDescriptor;
 import hudson.plugins.warnings.parser.ParserRegistry;
+import hudson.plugins.warnings.parser.ParserStatistics;
 
 /**
  * Controls the live cycle of the warnings results. This action persists the
@@ -27,6 +30,8 @@ import hudson.plugins.warnings.parser.ParserRegistry;
  */
 public class WarningsResultAction extends AbstractResultAction<WarningsResult> {
     private final String parserName;
+    /** Performance figures of the parsers of this result, {@code null} in results of older releases. */
+    private final List<ParserStatistics> statistics;
 
     /**
      * Creates a new instance of <code>WarningsResultAction</code>.
@@ -40,9 +45,28 @@ public class WarningsResultAction extends AbstractResultAction<WarningsResult> {
      * @param parserName the name of the parser
      */
     public WarningsResultAction(final Run<?, ?> owner, final HealthDescriptor healthDescriptor, final WarningsResult result, final String parserName) {
+        this(owner, healthDescriptor, result, parserName, Collections.<ParserStatistics>emptyList());
+    }
+
+    /**
+     * Creates a new instance of <code>WarningsResultAction</code>.
+     *
+     * @param owner
+     *            the associated build of this action
+     * @param healthDescriptor
+     *            health descriptor to use
+     * @param result
+     *            the result in this build
+     * @param parserName the name of the parser
+     * @param statistics
+     *            the performance figures of the parsers that created the result
+     */
+    public WarningsResultAction(final Run<?, ?> owner, final HealthDescriptor healthDescriptor,
+            final WarningsResult result, final String parserName, final List<ParserStatistics> statistics) {
         super(owner, new WarningsHealthDescriptor(healthDescriptor, ParserRegistry.getParser(parserName).getParserName()), result);
 
         this.parserName = parserName;
+        this.statistics = statistics;
     }
     
     /**
@@ -70,6 +94,19 @@ public class WarningsResultAction extends AbstractResultAction<WarningsResult> {
         return parserName;
     }
 
+    /**
+     * Returns the performance figures of the parsers that created this result.
+     *
+     * @return the statistics of the parsers
+     */
+    @Exported
+    public List<ParserStatistics> getParserStatistics() {
+        if (statistics == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(statistics);
+    }
+
     @Override
     public String getDisplayName() {
         return ParserRegistry.getParser(parserName).getLinkName().toString();
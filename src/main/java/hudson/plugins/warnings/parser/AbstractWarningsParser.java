@@ -4,12 +4,15 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.jvnet.localizer.Localizable;
 
+import com.google.common.collect.Lists;
+
 import hudson.ExtensionPoint;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
@@ -174,6 +177,27 @@ public abstract class AbstractWarningsParser implements ExtensionPoint, Serializ
         return name;
     }
 
+    /**
+     * Returns the configuration of this parser that determines the found warnings, in addition to the class of this
+     * parser. Two parsers of the same class with the same configuration find the same warnings in a report, so the
+     * configuration is part of the key of cached results, see {@link ParseResultCache}.
+     *
+     * @return the configuration, might be modified by the receiver
+     */
+    List<String> getConfiguration() {
+        return Lists.newArrayList(StringUtils.defaultString(getGroup()));
+    }
+
+    /**
+     * Returns the classes that scan the reports for this parser. The versions of the plug-ins that provide these
+     * classes are part of the key of cached results, see {@link ParseResultCache}.
+     *
+     * @return the classes, might be modified by the receiver
+     */
+    List<Class<?>> getImplementationClasses() {
+        return Lists.<Class<?>>newArrayList(getClass());
+    }
+
     /**
      * Creates a new instance of {@link Warning} using the parser's group as
      * warning type.
@@ -189,7 +213,7 @@ public abstract class AbstractWarningsParser implements ExtensionPoint, Serializ
      * @return the warning
      */
     public Warning createWarning(final String fileName, final int start, final String category, final String message) {
-        return new Warning(fileName, start, getGroup(), category, message);
+        return createWarning(fileName, start, getGroup(), category, message, Priority.NORMAL);
     }
 
     /**
@@ -224,7 +248,7 @@ public abstract class AbstractWarningsParser implements ExtensionPoint, Serializ
      * @return the warning
      */
     public Warning createWarning(final String fileName, final int start, final String category, final String message, final Priority priority) {
-        return new Warning(fileName, start, getGroup(), category, message, priority);
+        return createWarning(fileName, start, getGroup(), category, message, priority);
     }
 
     /**
@@ -246,7 +270,8 @@ public abstract class AbstractWarningsParser implements ExtensionPoint, Serializ
      * @since 4.24
      */
     public Warning createWarning(final String fileName, final int start, final String type, final String category, final String message, final Priority priority) {
-        return new Warning(fileName, start, type, category, message, priority);
+        return new Warning(StringPool.intern(fileName), start, StringPool.intern(type), StringPool.intern(category),
+                message, priority);
     }
 
     /**
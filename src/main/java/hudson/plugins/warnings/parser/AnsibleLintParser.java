@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -26,8 +28,8 @@ public class AnsibleLintParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("[");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("[");
     }
 
     @Override
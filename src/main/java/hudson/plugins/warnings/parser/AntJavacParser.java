@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import org.apache.commons.lang.StringUtils;
@@ -43,8 +45,8 @@ public class AntJavacParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("warning") || line.contains("\u8b66\u544a");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("warning", "\u8b66\u544a");
     }
 
     @Override
@@ -67,5 +69,9 @@ public class AntJavacParser extends RegexpLineParser {
         return "Java Compiler"; // old ID in serialization
     }
 
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
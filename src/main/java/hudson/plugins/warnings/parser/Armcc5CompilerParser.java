@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -28,8 +30,8 @@ public class Armcc5CompilerParser extends RegexpLineParser {
     }
     
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("#");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("#");
     }
 
     @Override
@@ -50,5 +52,10 @@ public class Armcc5CompilerParser extends RegexpLineParser {
 
         return createWarning(fileName, lineNumber, errorCode + " - " + message, priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
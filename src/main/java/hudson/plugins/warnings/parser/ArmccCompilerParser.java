@@ -50,5 +50,10 @@ public class ArmccCompilerParser extends RegexpLineParser {
 
         return createWarning(fileName, lineNumber, errorCode + " - " + message, priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -31,6 +33,11 @@ public class BuckminsterParser extends RegexpLineParser {
         return "Buckminster Compiler";
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("Warning: file ", "Error: file ");
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         Priority priority = "Error".equalsIgnoreCase(matcher.group(1)) ? Priority.HIGH : Priority.NORMAL;
@@ -42,6 +42,16 @@ public class CadenceIncisiveParser extends RegexpLineParser {
                 CADENCE_MESSAGE_PATTERN);
     }
 
+    /**
+     * Resets the current directory of make, since each input starts in the workspace.
+     */
+    @Override
+    void startScan() {
+        super.startScan();
+
+        directory = "";
+    }
+
     private Warning handleDirectory(final Matcher matcher, int offset) {
         directory = matcher.group(offset) + SLASH; //17
         return FALSE_POSITIVE;
@@ -64,4 +64,9 @@ public class ClangParser extends RegexpLineParser {
     protected String getId() {
         return "Apple LLVM Compiler (Clang)"; // old ID in serialization
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
@@ -0,0 +1,274 @@
+package hudson.plugins.warnings.parser;
+
+import javax.annotation.CheckForNull;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Compiled include and exclude patterns of a {@link WarningsFilter}. The file patterns of the includes and of the
+ * excludes as well as the message and the category patterns are each merged into a single regular expression. Every
+ * warning is checked once: the checks stop as soon as the outcome is known. If the shared {@link WorkerPool} is
+ * enabled, then sets of at least twice the chunk size warnings are checked in chunks by the worker threads, the order
+ * of the accepted warnings is the order of the input.
+ * <p>
+ * Compiled filters are cached by their patterns, so the patterns of a publisher configuration are compiled only once
+ * for all parsers and builds. The number of warnings of each chunk can be set with the system property
+ * {@code hudson.plugins.warnings.parser.CompiledWarningsFilter.chunkSize}.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+final class CompiledWarningsFilter {
+    private static final String PROPERTY_PREFIX = CompiledWarningsFilter.class.getName();
+    private static final int CHUNK_SIZE = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + ".chunkSize", 10000));
+    private static final int CACHE_SIZE = 100;
+
+    private static final Cache<List<String>, CompiledWarningsFilter> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
+
+    /**
+     * Returns the compiled filter for the specified patterns.
+     *
+     * @param includePattern
+     *            comma separated patterns of files to include, might be {@code null}
+     * @param excludePattern
+     *            comma separated patterns of files to exclude, might be {@code null}
+     * @param messagesPattern
+     *            regexp patterns (one per line) of warning messages to exclude, might be {@code null}
+     * @param categoriesPattern
+     *            regexp patterns (one per line) of warning categories to exclude, might be {@code null}
+     * @return the compiled filter
+     * @throws PatternSyntaxException
+     *             if one of the patterns is not a valid regular expression
+     */
+    static CompiledWarningsFilter compile(@CheckForNull final String includePattern,
+            @CheckForNull final String excludePattern, @CheckForNull final String messagesPattern,
+            @CheckForNull final String categoriesPattern) {
+        List<String> key = Arrays.asList(includePattern, excludePattern, messagesPattern, categoriesPattern);
+        CompiledWarningsFilter filter = CACHE.getIfPresent(key);
+        if (filter == null) {
+            filter = new CompiledWarningsFilter(includePattern, excludePattern, messagesPattern, categoriesPattern);
+            CACHE.put(key, filter);
+        }
+        return filter;
+    }
+
+    private final PatternSet includes;
+    private final PatternSet excludes;
+    private final PatternSet messages;
+    private final PatternSet categories;
+
+    private CompiledWarningsFilter(final String includePattern, final String excludePattern,
+            final String messagesPattern, final String categoriesPattern) {
+        includes = new PatternSet(compileFilePatterns(includePattern));
+        excludes = new PatternSet(compileFilePatterns(excludePattern));
+        messages = new PatternSet(compileStringPatterns(messagesPattern));
+        categories = new PatternSet(compileStringPatterns(categoriesPattern));
+    }
+
+    private static List<Pattern> compileFilePatterns(@CheckForNull final String pattern) {
+        List<Pattern> patterns = Lists.newArrayList();
+        if (StringUtils.isNotBlank(pattern)) {
+            for (String singlePattern : StringUtils.split(pattern, ',')) {
+                String trimmed = StringUtils.trim(singlePattern);
+                String directoriesReplaced = StringUtils.replace(trimmed, "**", "*"); // NOCHECKSTYLE
+                patterns.add(Pattern.compile(StringUtils.replace(directoriesReplaced, "*", ".*"))); // NOCHECKSTYLE
+            }
+        }
+        return patterns;
+    }
+
+    private static List<Pattern> compileStringPatterns(@CheckForNull final String pattern) {
+        List<Pattern> patterns = Lists.newArrayList();
+        if (StringUtils.isNotBlank(pattern)) {
+            for (String singlePattern : StringUtils.split(pattern, '\n')) {
+                patterns.add(Pattern.compile(StringUtils.trim(singlePattern)));
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Returns whether this filter removes warnings that are not included.
+     *
+     * @return {@code true} if there are include patterns
+     */
+    boolean hasIncludes() {
+        return !includes.isEmpty();
+    }
+
+    /**
+     * Returns whether this filter removes excluded warnings.
+     *
+     * @return {@code true} if there are exclude, message or category patterns
+     */
+    boolean hasExcludes() {
+        return !excludes.isEmpty() || !messages.isEmpty() || !categories.isEmpty();
+    }
+
+    /**
+     * Returns the warnings that are accepted by this filter.
+     *
+     * @param annotations
+     *            the warnings to filter
+     * @return the accepted warnings, in the order of the input
+     */
+    List<FileAnnotation> apply(final Collection<FileAnnotation> annotations) {
+        FileAnnotation[] all = annotations.toArray(new FileAnnotation[annotations.size()]);
+        if (all.length < 2 * CHUNK_SIZE || !WorkerPool.isEnabled()) {
+            return new ChunkFilter(all, 0, all.length).call();
+        }
+
+        ExecutorService executor = WorkerPool.getExecutor();
+        List<ChunkFilter> chunks = Lists.newArrayList();
+        List<Future<List<FileAnnotation>>> futures = Lists.newArrayList();
+        for (int start = 0; start < all.length; start += CHUNK_SIZE) {
+            ChunkFilter chunk = new ChunkFilter(all, start, Math.min(all.length, start + CHUNK_SIZE));
+            chunks.add(chunk);
+            futures.add(executor.submit(chunk));
+        }
+
+        List<FileAnnotation> accepted = Lists.newArrayListWithExpectedSize(all.length);
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                accepted.addAll(futures.get(i).get());
+            }
+            catch (InterruptedException exception) {
+                interrupted = true;
+                accepted.addAll(chunks.get(i).call());
+            }
+            catch (ExecutionException exception) {
+                for (Future<List<FileAnnotation>> future : futures) {
+                    future.cancel(true);
+                }
+                Throwable cause = exception.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return accepted;
+    }
+
+    /**
+     * Filters a range of warnings with matchers that are reused for all warnings of the range.
+     */
+    private class ChunkFilter implements Callable<List<FileAnnotation>> {
+        private final FileAnnotation[] annotations;
+        private final int start;
+        private final int end;
+
+        ChunkFilter(final FileAnnotation[] annotations, final int start, final int end) {
+            this.annotations = annotations;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public List<FileAnnotation> call() {
+            Matcher[] includeMatchers = includes.createMatchers();
+            Matcher[] excludeMatchers = excludes.createMatchers();
+            Matcher[] messageMatchers = messages.createMatchers();
+            Matcher[] categoryMatchers = categories.createMatchers();
+
+            List<FileAnnotation> accepted = Lists.newArrayListWithExpectedSize(end - start);
+            for (int i = start; i < end; i++) {
+                FileAnnotation annotation = annotations[i];
+                String fileName = StringUtils.defaultString(annotation.getFileName());
+                if ((includeMatchers.length == 0 || matches(includeMatchers, fileName))
+                        && !matches(excludeMatchers, fileName)
+                        && !matches(messageMatchers, StringUtils.defaultString(annotation.getMessage()))
+                        && !matches(categoryMatchers, StringUtils.defaultString(annotation.getCategory()))) {
+                    accepted.add(annotation);
+                }
+            }
+            return accepted;
+        }
+
+        private boolean matches(final Matcher[] matchers, final String value) {
+            for (Matcher matcher : matchers) {
+                if (matcher.reset(value).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A set of patterns that matches a value if one of the patterns matches the whole value. The patterns are
+     * merged into a single alternation. Patterns with back references are kept separate since merging shifts the
+     * numbers of their groups.
+     */
+    private static final class PatternSet {
+        private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(\\d|k<)");
+
+        private final Pattern[] patterns;
+
+        PatternSet(final List<Pattern> all) {
+            List<Pattern> separate = Lists.newArrayList();
+            StringBuilder merged = new StringBuilder();
+            int mergedCount = 0;
+            for (Pattern pattern : all) {
+                if (BACK_REFERENCE.matcher(pattern.pattern()).find()) {
+                    separate.add(pattern);
+                }
+                else {
+                    if (mergedCount > 0) {
+                        merged.append('|');
+                    }
+                    merged.append("(?:").append(pattern.pattern()).append(')');
+                    mergedCount++;
+                }
+            }
+            if (mergedCount > 1) {
+                try {
+                    separate.add(0, Pattern.compile(merged.toString()));
+                }
+                catch (PatternSyntaxException exception) {
+                    separate = all; // e.g., named groups that are defined in several patterns
+                }
+            }
+            else {
+                separate = all;
+            }
+            patterns = separate.toArray(new Pattern[separate.size()]);
+        }
+
+        boolean isEmpty() {
+            return patterns.length == 0;
+        }
+
+        Matcher[] createMatchers() {
+            Matcher[] matchers = new Matcher[patterns.length];
+            for (int i = 0; i < patterns.length; i++) {
+                matchers[i] = patterns[i].matcher(StringUtils.EMPTY);
+            }
+            return matchers;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import hudson.plugins.analysis.util.EncodingValidator;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Computes the context hash codes of all annotations of a source file in a single pass over the file. The context
+ * hash code of an annotation is the hash code of the source lines around its primary line (three lines before and
+ * four lines after, just like {@link hudson.plugins.analysis.util.ContextHashCode}). It is used to track an
+ * annotation across builds, even if its line number changes. The file is read only once, no matter how many
+ * annotations refer to it. Annotations on the same line share the computed hash code. Just like
+ * {@link hudson.plugins.analysis.util.ContextHashCode} the file is read with a buffered reader, so the file is not
+ * locked after the hash codes have been computed.
+ *
+ * @author Ulli Hafner
+ */
+public final class ContextHashCalculator {
+    private static final int LINES_BEFORE = 3;
+    private static final int LINES_AFTER = 4;
+    private static final int BUFFER_SIZE = 1000;
+
+    private final Charset charset;
+
+    /**
+     * Creates a new instance of {@link ContextHashCalculator}.
+     *
+     * @param defaultEncoding
+     *            the encoding of the source files
+     */
+    public ContextHashCalculator(final String defaultEncoding) {
+        charset = EncodingValidator.defaultCharset(defaultEncoding);
+    }
+
+    /**
+     * Sets the context hash codes of the specified annotations. All annotations need to refer to the specified file.
+     * Annotations without a line number are skipped.
+     *
+     * @param file
+     *            the source file of the annotations
+     * @param annotations
+     *            the annotations of the file
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public void setContextHashCodes(final File file, final Collection<? extends FileAnnotation> annotations)
+            throws IOException {
+        Map<Integer, Integer> hashCodes = computeHashCodes(file, getLines(annotations));
+        for (FileAnnotation annotation : annotations) {
+            Integer hashCode = hashCodes.get(annotation.getPrimaryLineNumber());
+            if (hashCode != null) {
+                annotation.setContextHashCode(hashCode);
+            }
+        }
+    }
+
+    private int[] getLines(final Collection<? extends FileAnnotation> annotations) {
+        int[] lines = new int[annotations.size()];
+        int size = 0;
+        for (FileAnnotation annotation : annotations) {
+            if (annotation.getPrimaryLineNumber() > 0) {
+                lines[size++] = annotation.getPrimaryLineNumber();
+            }
+        }
+        Arrays.sort(lines, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || lines[distinct - 1] != lines[i]) {
+                lines[distinct++] = lines[i];
+            }
+        }
+        return Arrays.copyOf(lines, distinct);
+    }
+
+    /**
+     * Computes the hash codes of the specified lines. The lines of the file are read one by one, each line is added
+     * to the contexts of the (at most eight) requested lines that it surrounds.
+     */
+    private Map<Integer, Integer> computeHashCodes(final File file, final int[] lines) throws IOException {
+        Map<Integer, Integer> hashCodes = Maps.newHashMap();
+        if (lines.length == 0) {
+            return hashCodes;
+        }
+
+        Deque<Context> open = new ArrayDeque<Context>();
+        int next = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), charset));
+        try {
+            int index = 0;
+            for (String line = reader.readLine(); line != null && (next < lines.length || !open.isEmpty());
+                    line = reader.readLine()) {
+                while (next < lines.length && lines[next] - LINES_BEFORE <= index) {
+                    open.add(new Context(lines[next]));
+                    next++;
+                }
+                for (Context context : open) {
+                    context.text.append(line);
+                }
+                while (!open.isEmpty() && open.peek().line + LINES_AFTER <= index) {
+                    open.poll().store(hashCodes);
+                }
+                index++;
+            }
+        }
+        finally {
+            reader.close();
+        }
+
+        for (Context context : open) {
+            context.store(hashCodes);
+        }
+        for (int i = next; i < lines.length; i++) {
+            new Context(lines[i]).store(hashCodes);
+        }
+        return hashCodes;
+    }
+
+    /**
+     * The source lines around a line of an annotation.
+     */
+    private static final class Context {
+        private final int line;
+        private final StringBuilder text = new StringBuilder(BUFFER_SIZE);
+
+        Context(final int line) {
+            this.line = line;
+        }
+
+        void store(final Map<Integer, Integer> hashCodes) {
+            hashCodes.put(line, text.toString().hashCode());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -32,8 +34,8 @@ public class CoolfluxChessccParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("Warning");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("Warning");
     }
 
     @Override
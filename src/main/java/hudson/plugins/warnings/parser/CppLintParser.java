@@ -43,5 +43,10 @@ public class CppLintParser extends RegexpLineParser {
         }
         return Priority.LOW;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
@@ -1,16 +1,24 @@
 package hudson.plugins.warnings.parser;
 
+import javax.annotation.CheckForNull;
+import java.util.List;
 import java.util.regex.Matcher;
 
+import org.apache.commons.lang.StringUtils;
+
 /**
  * A multi-line parser that uses a configurable regular expression and Groovy
- * script to parse warnings.
+ * script to parse warnings. Instead of the script, the warnings may be created from
+ * the named groups of the regular expression, see {@link WarningMapping}.
  *
  * @author Ulli Hafner
  */
 public class DynamicDocumentParser extends RegexpDocumentParser {
     private static final long serialVersionUID = -690643673847390322L;
+    @CheckForNull
     private final GroovyExpressionMatcher expressionMatcher;
+    @CheckForNull
+    private final WarningMapping mapping;
 
     /**
      * Creates a new instance of {@link DynamicDocumentParser}.
@@ -27,9 +35,50 @@ public class DynamicDocumentParser extends RegexpDocumentParser {
      *            the name of the trend report
      */
     public DynamicDocumentParser(final String name, final String regexp, final String script, final String linkName, final String trendName) {
+        this(name, regexp, script, StringUtils.EMPTY, linkName, trendName);
+    }
+
+    /**
+     * Creates a new instance of {@link DynamicDocumentParser}. If the script is empty, then the warnings are created from the
+     * named groups of the regular expression, see {@link WarningMapping}.
+     *
+     * @param name
+     *            name of the parser
+     * @param regexp
+     *            regular expression
+     * @param script
+     *            Groovy script, might be empty
+     * @param lookupTable
+     *            the lookup table of the named groups, see {@link WarningMapping}
+     * @param linkName
+     *            the name of the ProjectAction (link name)
+     * @param trendName
+     *            the name of the trend report
+     */
+    public DynamicDocumentParser(final String name, final String regexp, final String script, final String lookupTable,
+            final String linkName, final String trendName) {
         super(localize(name), localize(linkName), localize(trendName), regexp, true);
 
-        expressionMatcher = new GroovyExpressionMatcher(script, FALSE_POSITIVE);
+        if (StringUtils.isBlank(script)) {
+            expressionMatcher = null;
+            mapping = new WarningMapping(regexp, lookupTable, name);
+        }
+        else {
+            expressionMatcher = new GroovyExpressionMatcher(script, FALSE_POSITIVE);
+            mapping = null;
+        }
+    }
+
+    @Override
+    List<String> getConfiguration() {
+        List<String> configuration = super.getConfiguration();
+        if (mapping == null) {
+            configuration.add(expressionMatcher.getScript());
+        }
+        else {
+            configuration.add(mapping.getLookupTable().toString());
+        }
+        return configuration;
     }
 
     /**
@@ -41,6 +90,9 @@ public class DynamicDocumentParser extends RegexpDocumentParser {
      */
     @Override
     protected Warning createWarning(final Matcher matcher) {
+        if (mapping != null) {
+            return mapping.createWarning(matcher);
+        }
         return expressionMatcher.createWarning(matcher);
     }
 }
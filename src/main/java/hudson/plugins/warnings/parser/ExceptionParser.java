@@ -1,6 +1,8 @@
 package hudson.plugins.warnings.parser;
 
 import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
+import hudson.plugins.warnings.parser.RegexpLineParser.RecordAssembler;
 import hudson.Extension;
 
 import java.io.BufferedReader;
@@ -17,6 +19,9 @@ public class ExceptionParser extends AbstractWarningsParser {
     private static final String stRegex =  ".*(\\[testng\\])?\\s*[\\w\\.]*Exception[\\w\\.]*:.*";
     // Match the following lines of a stack trace with an optional "[testng]" prefix
     private static final String stlRegex = "\\s*(\\[testng\\])?\\s*((at)|(Caused by:)|(\\.\\.\\.)) [\\w<>.]+.*";
+    private static final Pattern stPattern = Pattern.compile(stRegex);
+    private static final Pattern stlPattern = Pattern.compile(stlRegex);
+    private static final int MAX_MESSAGE_LENGTH = 32 * 1024;
     public ExceptionParser(){
         super("Java Exceptions","Exceptions","Exceptions");
     }
@@ -25,22 +30,21 @@ public class ExceptionParser extends AbstractWarningsParser {
         BufferedReader br = new BufferedReader(reader);
         String line;
         int currentLine = 0;
-        Warning cw = null;
+        RecordAssembler cw = new RecordAssembler(MAX_MESSAGE_LENGTH);
         while((line = br.readLine()) != null) {
-            if(Pattern.matches(stRegex, line)){
-                if(cw != null)
-                    fas.add(cw);
-                cw = new Warning("", currentLine, "Exception","Exceptions",line);
-            } else if(Pattern.matches(stlRegex, line) && cw != null) {
-                cw = new Warning(cw, "<br>" + line, currentLine);
-            } else if (cw != null){
-                fas.add(cw);
-                cw = null;
+            if(stPattern.matcher(line).matches()){
+                if(cw.isStarted())
+                    fas.add(cw.finish());
+                cw.start("", currentLine, "Exception", "Exceptions", line, Priority.NORMAL);
+            } else if(cw.isStarted() && stlPattern.matcher(line).matches()) {
+                cw.append(currentLine, "<br>" + line);
+            } else if (cw.isStarted()){
+                fas.add(cw.finish());
             }
             currentLine++;
         }
-        if(cw != null)
-            fas.add(cw);
+        if(cw.isStarted())
+            fas.add(cw.finish());
 
         return fas;
     }
@@ -0,0 +1,227 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Scans an input only once for warnings of several parsers. Each line of the input is read, decoded and stripped
+ * from console notes only once and then handed over to every registered {@link RegexpLineParser}. The
+ * {@link RegexpDocumentParser document parsers} share a single sliding window of the input. Lines that contain
+ * none of the required literals of a line parser are not handed over to its regular expression. The found warnings
+ * are reported for each parser separately.
+ *
+ * @author Ulli Hafner
+ */
+class FanOutScanner {
+    private final List<RegexpLineParser> lineParsers = Lists.newArrayList();
+    private final List<RegexpDocumentParser> documentParsers = Lists.newArrayList();
+
+    /**
+     * Returns whether the specified parser can be part of a single pass scan. This is the case for all line and
+     * document parsers that do not provide their own implementation of {@link AbstractWarningsParser#parse(Reader)}.
+     *
+     * @param parser
+     *            the parser to check
+     * @return {@code true} if the parser can be part of a single pass scan, {@code false} if the parser needs to
+     *         read the input on its own
+     */
+    static boolean canScan(final AbstractWarningsParser parser) {
+        if (parser instanceof RegexpLineParser) {
+            return isParseMethodDeclaredBy(parser, RegexpLineParser.class);
+        }
+        if (parser instanceof RegexpDocumentParser) {
+            return isParseMethodDeclaredBy(parser, RegexpDocumentParser.class);
+        }
+        return false;
+    }
+
+    private static boolean isParseMethodDeclaredBy(final AbstractWarningsParser parser, final Class<?> type) {
+        try {
+            return parser.getClass().getMethod("parse", Reader.class).getDeclaringClass() == type;
+        }
+        catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a new instance of {@link FanOutScanner}. Parsers that can't be part of a single pass scan are
+     * skipped.
+     *
+     * @param parsers
+     *            the parsers to hand the input over
+     * @see #canScan(AbstractWarningsParser)
+     */
+    FanOutScanner(final Collection<? extends AbstractWarningsParser> parsers) {
+        for (AbstractWarningsParser parser : parsers) {
+            if (canScan(parser)) {
+                if (parser instanceof RegexpLineParser) {
+                    if (!lineParsers.contains(parser)) {
+                        lineParsers.add((RegexpLineParser)parser);
+                    }
+                }
+                else if (!documentParsers.contains(parser)) {
+                    documentParsers.add((RegexpDocumentParser)parser);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether this scanner has any parsers to hand the input over.
+     *
+     * @return {@code true} if there is at least one parser, {@code false} otherwise
+     */
+    boolean hasParsers() {
+        return !lineParsers.isEmpty() || !documentParsers.isEmpty();
+    }
+
+    /**
+     * Compiles the required literals of the specified line parsers into a single automaton. The owner of each
+     * literal is the index of the corresponding parser.
+     *
+     * @param parsers
+     *            the line parsers
+     * @param unfiltered
+     *            the indices of the parsers that do not require any literals will be set in this bit set
+     * @return the automaton, or {@code null} if no parser requires any literals
+     */
+    static KeywordAutomaton createRequiredLiteralsAutomaton(final List<RegexpLineParser> parsers,
+            final BitSet unfiltered) {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        boolean hasLiterals = false;
+        for (int i = 0; i < parsers.size(); i++) {
+            Collection<String> literals = parsers.get(i).getRequiredLiterals();
+            if (literals.isEmpty()) {
+                unfiltered.set(i);
+            }
+            else {
+                for (String literal : literals) {
+                    builder.add(literal, i);
+                }
+                hasLiterals = true;
+            }
+        }
+        return hasLiterals ? builder.build() : null;
+    }
+
+    /**
+     * Scans the specified input for warnings. The input is read only once. Lines are only copied into a
+     * {@link String} if a parser checks them with {@link RegexpLineParser#isLineInteresting(String)} or scans them in
+     * parallel. Each line is checked only once for the
+     * required literals of all line parsers, see {@link RegexpLineParser#getRequiredLiterals()}. If enabled, the
+     * {@link RegexpLineParser#isStateless() stateless} line parsers scan the lines in parallel, see
+     * {@link ParallelLineScanner}.
+     *
+     * @param reader
+     *            the input to scan
+     * @return the found warnings, mapped by parser
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws ParsingCanceledException
+     *             Signals that the user canceled this operation
+     */
+    Map<AbstractWarningsParser, Collection<FileAnnotation>> scan(final Reader reader)
+            throws IOException, ParsingCanceledException {
+        List<RegexpLineParser> sequentialParsers = Lists.newArrayList();
+        List<RegexpLineParser> parallelParsers = Lists.newArrayList();
+        for (RegexpLineParser parser : lineParsers) {
+            if (parser.isStateless() && ParallelLineScanner.isEnabled()) {
+                parallelParsers.add(parser);
+            }
+            else {
+                sequentialParsers.add(parser);
+            }
+        }
+
+        int size = sequentialParsers.size();
+        List<List<FileAnnotation>> lineWarnings = Lists.newArrayListWithCapacity(size);
+        List<Matcher> matchers = Lists.newArrayListWithCapacity(size);
+        for (RegexpLineParser parser : sequentialParsers) {
+            parser.startScan();
+            lineWarnings.add(Lists.<FileAnnotation>newArrayList());
+            matchers.add(parser.createMatcher());
+        }
+        BitSet unfiltered = new BitSet(size);
+        KeywordAutomaton literals = createRequiredLiteralsAutomaton(sequentialParsers, unfiltered);
+        BitSet interested = new BitSet(size);
+        ParallelLineScanner parallelScanner = null;
+        if (!parallelParsers.isEmpty()) {
+            parallelScanner = new ParallelLineScanner(parallelParsers);
+        }
+        SlidingWindowScanner documentScanner = null;
+        if (!documentParsers.isEmpty()) {
+            documentScanner = new SlidingWindowScanner(documentParsers);
+        }
+
+        Map<RegexpLineParser, Collection<FileAnnotation>> lineResults = Maps.newHashMap();
+        LineSource lines = LineSource.create(reader);
+        long count = 0;
+        try {
+            for (CharSequence line = lines.readLine(); line != null; line = lines.readLine()) {
+                count++;
+                interested.clear();
+                interested.or(unfiltered);
+                if (literals != null) {
+                    literals.findOwners(line, interested);
+                }
+                for (int i = 0; i < size; i++) {
+                    RegexpLineParser parser = sequentialParsers.get(i);
+                    if (interested.get(i)) {
+                        parser.scanCheckedLine(line, matchers.get(i), lineWarnings.get(i));
+                    }
+                    else {
+                        parser.skipLine();
+                    }
+                }
+                if (parallelScanner != null) {
+                    parallelScanner.scanLine(line.toString());
+                }
+                if (documentScanner != null) {
+                    documentScanner.scanLine(line);
+                }
+            }
+            if (parallelScanner != null) {
+                List<Collection<FileAnnotation>> parallelWarnings = parallelScanner.finish();
+                for (int i = 0; i < parallelParsers.size(); i++) {
+                    lineResults.put(parallelParsers.get(i), parallelWarnings.get(i));
+                }
+                parallelScanner = null;
+            }
+        }
+        finally {
+            lines.close();
+            if (parallelScanner != null) {
+                parallelScanner.cancel();
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            lineResults.put(sequentialParsers.get(i), sequentialParsers.get(i).finishScan(lineWarnings.get(i)));
+        }
+        Map<AbstractWarningsParser, Collection<FileAnnotation>> results = Maps.newLinkedHashMap();
+        for (RegexpLineParser parser : lineParsers) {
+            results.put(parser, lineResults.get(parser));
+        }
+        if (documentScanner != null) {
+            List<Collection<FileAnnotation>> documentWarnings = documentScanner.finish();
+            for (int i = 0; i < documentParsers.size(); i++) {
+                results.put(documentParsers.get(i), documentWarnings.get(i));
+            }
+        }
+        for (AbstractWarningsParser parser : results.keySet()) {
+            StatisticsRecorder.addLines(parser, count);
+        }
+        return results;
+    }
+}
@@ -1,10 +1,20 @@
 package hudson.plugins.warnings.parser;
 
+import javax.annotation.CheckForNull;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Maps;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -12,7 +22,11 @@ import hudson.plugins.analysis.core.AnnotationParser;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 
 /**
- * Uses a collection of {@link AbstractWarningsParser parsers} to scans a set of files for warnings.
+ * Uses a collection of {@link AbstractWarningsParser parsers} to scans a set of files for warnings. All files are
+ * parsed with the same {@link ParserRegistry}, concurrent parses use their own copies of the parsers. The files may
+ * be parsed in parallel ahead of the file that is processed, see {@link #parseInParallel(Collection, int)}. The
+ * warnings of report files that did not change since a previous build may be taken from a cache, see
+ * {@link #enableCache(File)}.
  *
  * @author Ulli Hafner
  */
@@ -24,9 +38,23 @@ public class FileWarningsParser implements AnnotationParser {
     private final List<AbstractWarningsParser> parsers;
     /** The default encoding to be used when reading and parsing files. */
     private final String defaultEncoding;
+    /** The versions of the plug-ins that provide the parsers, {@code null} if unknown. */
+    private final String parserVersion;
+
+    private transient ParserRegistry registry;
+    private transient ParseResultCache cache;
+    /** The worker threads of the parallel parse, {@code null} if the files are parsed one by one. */
+    private transient ExecutorService executor;
+    /** The files that still need to be handed over to the workers, mapped by their absolute path. */
+    private transient Map<String, File> pendingFiles;
+    /** The results of the files that have been handed over to the workers, mapped by the absolute path. */
+    private transient Map<String, Future<Collection<FileAnnotation>>> parsedFiles;
+    /** The maximum number of files that are handed over to the workers but not processed yet. */
+    private transient int lookAhead;
 
     /**
-     * Creates a new instance of {@link FileWarningsParser}.
+     * Creates a new instance of {@link FileWarningsParser}. Needs to be called on the controller: the versions of the
+     * parsers that are part of the keys of the cache are not known on an agent.
      *
      * @param parsers
      *            the parsers to scan the files with
@@ -34,14 +62,95 @@ public class FileWarningsParser implements AnnotationParser {
      *            the default encoding to be used when reading and parsing files
      */
     public FileWarningsParser(final List<AbstractWarningsParser> parsers, final String defaultEncoding) {
+        this(parsers, defaultEncoding, ParseResultCache.getVersion(parsers));
+    }
+
+    /**
+     * Creates a new instance of {@link FileWarningsParser}.
+     *
+     * @param parsers
+     *            the parsers to scan the files with
+     * @param defaultEncoding
+     *            the default encoding to be used when reading and parsing files
+     * @param parserVersion
+     *            the versions of the plug-ins that provide the parsers, {@code null} if unknown
+     */
+    FileWarningsParser(final List<AbstractWarningsParser> parsers, final String defaultEncoding,
+            @CheckForNull final String parserVersion) {
         this.parsers = parsers;
         this.defaultEncoding = defaultEncoding;
+        this.parserVersion = parserVersion;
+    }
+
+    /**
+     * Enables the cache of the warnings of unchanged report files in the specified workspace, see {@link
+     * ParseResultCache}. Has no effect if the cache has been disabled or if the versions of the parsers are unknown.
+     *
+     * @param workspace
+     *            the workspace that contains the report files
+     */
+    public void enableCache(final File workspace) {
+        if (ParseResultCache.isEnabled() && parserVersion != null) {
+            ParseResultCache workspaceCache = new ParseResultCache(ParseResultCache.getDirectory(workspace),
+                    parsers, parserVersion, defaultEncoding);
+            workspaceCache.removeStaleEntries();
+            cache = workspaceCache;
+        }
+    }
+
+    /**
+     * Starts to parse the specified files in parallel on a bounded pool of worker threads. The files are handed over
+     * to the workers in the specified order, but at most twice the parallelism ahead of the files that have been
+     * processed with {@link #parse(File, String)}. So only a bounded number of results is kept in memory, and the
+     * caller may still process the files one by one in a deterministic order. The workers need to be stopped with
+     * {@link #stopParallel()} after all files have been processed.
+     *
+     * @param files
+     *            the files to parse
+     * @param parallelism
+     *            the maximum number of files that are parsed at the same time
+     */
+    public synchronized void parseInParallel(final Collection<File> files, final int parallelism) {
+        if (files.isEmpty() || parallelism <= 1 || executor != null) {
+            return;
+        }
+
+        executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()));
+        pendingFiles = Maps.newLinkedHashMap();
+        for (File file : files) {
+            pendingFiles.put(file.getAbsolutePath(), file);
+        }
+        parsedFiles = Maps.newHashMap();
+        lookAhead = 2 * parallelism;
+        submitPendingFiles();
+    }
+
+    /**
+     * Stops the worker threads of the parallel parse. Results of files that have not been processed yet are
+     * discarded.
+     */
+    public synchronized void stopParallel() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            pendingFiles = null;
+            parsedFiles = null;
+        }
+    }
+
+    private void submitPendingFiles() {
+        Iterator<File> pending = pendingFiles.values().iterator();
+        while (parsedFiles.size() < lookAhead && pending.hasNext()) {
+            File file = pending.next();
+            pending.remove();
+            parsedFiles.put(file.getAbsolutePath(), executor.submit(new FileParse(file)));
+        }
     }
 
     @Override
     public Collection<FileAnnotation> parse(final File file, final String moduleName) throws InvocationTargetException {
         try {
-            Collection<FileAnnotation> annotations = new ParserRegistry(parsers, defaultEncoding).parse(file);
+            Collection<FileAnnotation> annotations = getParsedFile(file);
             for (FileAnnotation annotation : annotations) {
                 annotation.setModuleName(moduleName);
             }
@@ -51,5 +160,103 @@ public class FileWarningsParser implements AnnotationParser {
             throw new InvocationTargetException(exception, "Can't scan file for warnings: " + file.getAbsolutePath());
         }
     }
-}
 
+    private Collection<FileAnnotation> getParsedFile(final File file) throws IOException {
+        Future<Collection<FileAnnotation>> parsed = takeParsedFile(file);
+        if (parsed == null) {
+            return parseFile(file);
+        }
+        try {
+            return parsed.get();
+        }
+        catch (InterruptedException exception) {
+            stopParallel();
+            Thread.currentThread().interrupt();
+            throw new ParsingCanceledException();
+        }
+        catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Returns the performance figures of the parsers, accumulated over all files that have been parsed so far. Files
+     * whose warnings have been taken from the cache are not part of the figures.
+     *
+     * @return the statistics of the parsers
+     */
+    public List<ParserStatistics> getStatistics() {
+        return getRegistry().getStatistics();
+    }
+
+    /**
+     * Parses the specified file. Uses the warnings of the cache if the file did not change.
+     */
+    private Collection<FileAnnotation> parseFile(final File file) throws IOException {
+        ParseResultCache resultCache = cache;
+        if (resultCache == null) {
+            return getRegistry().parse(file);
+        }
+
+        String key = resultCache.getKey(file);
+        Collection<FileAnnotation> cached = resultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Collection<FileAnnotation> warnings = getRegistry().parse(file);
+        resultCache.put(key, warnings);
+        return warnings;
+    }
+
+    /**
+     * Returns the registry that is shared by all files. The registry is created on the agent.
+     */
+    private synchronized ParserRegistry getRegistry() {
+        if (registry == null) {
+            registry = new ParserRegistry(parsers, defaultEncoding);
+        }
+        return registry;
+    }
+
+    /**
+     * Returns the result of the parallel parse of the specified file and hands over the next files to the workers.
+     *
+     * @return the result of the file, or {@code null} if the file is not parsed in parallel
+     */
+    private synchronized Future<Collection<FileAnnotation>> takeParsedFile(final File file) {
+        if (executor == null) {
+            return null;
+        }
+        String path = file.getAbsolutePath();
+        Future<Collection<FileAnnotation>> parsed = parsedFiles.remove(path);
+        pendingFiles.remove(path);
+        submitPendingFiles();
+        return parsed;
+    }
+
+    /**
+     * Parses a single file with the shared registry.
+     */
+    private class FileParse implements Callable<Collection<FileAnnotation>> {
+        private final File file;
+
+        FileParse(final File file) {
+            this.file = file;
+        }
+
+        @Override
+        public Collection<FileAnnotation> call() throws IOException {
+            return parseFile(file);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,6 +36,11 @@ public class Gcc4CompilerParser extends RegexpLineParser {
         return "GNU compiler 4 (gcc)";
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("warning: ", "error: ");
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         String fileName = matcher.group(1);
@@ -61,5 +68,10 @@ public class Gcc4CompilerParser extends RegexpLineParser {
         warning.setColumnPosition(column);
         return warning;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
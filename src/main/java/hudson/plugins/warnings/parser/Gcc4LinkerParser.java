@@ -78,5 +78,10 @@ public class Gcc4LinkerParser extends RegexpLineParser {
         int lineNumber = getLineNumber(matcher.group(2));
         return createWarning(fileName, lineNumber, WARNING_CATEGORY, message, priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
@@ -66,5 +66,9 @@ public class GccParser extends RegexpLineParser {
         return createWarning(fileName, getLineNumber(matcher.group(2)), category, escapeXml(matcher.group(6)), priority);
     }
 
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
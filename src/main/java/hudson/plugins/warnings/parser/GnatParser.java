@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -26,6 +28,11 @@ public class GnatParser extends RegexpLineParser {
                 GNAT_WARNING_PATTERN);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("ads", "adb");
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         Priority priority;
@@ -45,4 +52,9 @@ public class GnatParser extends RegexpLineParser {
         }
         return createWarning(matcher.group(1), getLineNumber(matcher.group(2)), category, matcher.group(5), priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
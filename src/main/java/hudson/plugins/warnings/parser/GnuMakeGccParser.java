@@ -55,6 +55,16 @@ public class GnuMakeGccParser extends RegexpLineParser {
         return "GNU Make + GNU Compiler (gcc)";
     }
 
+    /**
+     * Resets the current directory of make, since each input starts in the workspace.
+     */
+    @Override
+    void startScan() {
+        super.startScan();
+
+        directory = "";
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         if (matcher.group(1) == null) {
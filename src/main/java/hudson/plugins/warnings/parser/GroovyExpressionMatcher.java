@@ -1,11 +1,19 @@
 package hudson.plugins.warnings.parser;
 
+import javax.annotation.CheckForNull;
 import java.io.Serializable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 
 import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import groovy.lang.Binding;
 import groovy.lang.GroovyShell;
@@ -14,17 +22,25 @@ import groovy.lang.Script;
 import hudson.plugins.warnings.WarningsDescriptor;
 
 /**
- * Creates a warning based on a regular expression match and groovy script.
+ * Creates a warning based on a regular expression match and groovy script. The script is compiled once into a class
+ * that is shared by all matchers with the same script. Each thread runs its own instance of the script with its own
+ * binding, so a matcher may be used by several threads at the same time without locking.
  *
  * @author Ulli Hafner
  */
 public class GroovyExpressionMatcher implements Serializable {
     private static final long serialVersionUID = -2218299240520838315L;
+    private static final int CACHE_SIZE = 100;
+    /** The compiled classes of the scripts. */
+    private static final Cache<String, Class<? extends Script>> SCRIPT_CLASSES = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
 
     private final Warning falsePositive;
     private final String script;
 
-    private transient Script compiled;
+    /** The script instances of the threads that use this matcher, each with its own binding. */
+    private transient volatile ThreadLocal<Script> scripts;
+    private transient volatile boolean invalid;
 
     /**
      * Creates a new instance of {@link GroovyExpressionMatcher}.
@@ -39,16 +55,37 @@ public class GroovyExpressionMatcher implements Serializable {
         this.falsePositive = falsePositive;
     }
 
-    private void compileScriptIfNotYetDone() {
-        synchronized (script) {
-             if (compiled == null) {
-                 try {
-                     compiled = compile();
-                 }
-                 catch (CompilationFailedException exception) {
-                     LOGGER.log(Level.SEVERE, "Groovy dynamic warnings parser: exception during compiling: ", exception);
-                 }
+    /**
+     * Returns the Groovy script.
+     *
+     * @return the Groovy script
+     */
+    String getScript() {
+        return script;
+    }
+
+    /**
+     * Returns the class of the specified script. The script is compiled only once, all matchers with the same script
+     * share the compiled class.
+     */
+    private static Class<? extends Script> getScriptClass(final String script) throws CompilationFailedException {
+        try {
+            return SCRIPT_CLASSES.get(script, new Callable<Class<? extends Script>>() {
+                @Override
+                public Class<? extends Script> call() throws CompilationFailedException {
+                    GroovyShell shell = new GroovyShell(WarningsDescriptor.class.getClassLoader());
+                    return shell.parse(script).getClass();
+                }
+            });
+        }
+        catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+        catch (UncheckedExecutionException exception) {
+            if (exception.getCause() instanceof CompilationFailedException) {
+                throw (CompilationFailedException)exception.getCause();
             }
+            throw exception;
         }
     }
 
@@ -61,8 +98,37 @@ public class GroovyExpressionMatcher implements Serializable {
     public Script compile() throws CompilationFailedException {
         Binding binding = new Binding();
         binding.setVariable("falsePositive", falsePositive);
-        GroovyShell shell = new GroovyShell(WarningsDescriptor.class.getClassLoader(), binding);
-        return shell.parse(script);
+        return InvokerHelper.createScript(getScriptClass(script), binding);
+    }
+
+    /**
+     * Returns the script instance of the calling thread. The instance is created when the thread runs the script for
+     * the first time.
+     *
+     * @return the script of the calling thread, or {@code null} if the script contains compile errors
+     */
+    @CheckForNull
+    private Script getScriptOfCurrentThread() {
+        if (invalid) {
+            return null;
+        }
+        ThreadLocal<Script> local = scripts;
+        if (local == null) {
+            local = new ThreadLocal<Script>();
+            scripts = local; // a concurrent thread might replace the instance, it just creates its script again
+        }
+        Script compiled = local.get();
+        if (compiled == null) {
+            try {
+                compiled = compile();
+                local.set(compiled);
+            }
+            catch (CompilationFailedException exception) {
+                invalid = true;
+                LOGGER.log(Level.SEVERE, "Groovy dynamic warnings parser: exception during compiling: ", exception);
+            }
+        }
+        return compiled;
     }
 
     /**
@@ -97,7 +163,10 @@ public class GroovyExpressionMatcher implements Serializable {
      * @return unchecked result of the script
      */
     public Object run(final Matcher matcher, final int lineNumber) {
-        compileScriptIfNotYetDone();
+        Script compiled = getScriptOfCurrentThread();
+        if (compiled == null) {
+            return falsePositive;
+        }
 
         Binding binding = compiled.getBinding();
         binding.setVariable("matcher", matcher);
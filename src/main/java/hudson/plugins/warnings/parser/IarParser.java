@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import org.apache.commons.lang.StringUtils;
@@ -37,8 +39,8 @@ public class IarParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("Warning") || line.contains("rror") || line.contains("Remark") || line.contains("[");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("Warning", "rror", "Remark", "[");
     }
 
     @Override
@@ -73,4 +75,9 @@ public class IarParser extends RegexpLineParser {
             return Priority.LOW;
         }
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
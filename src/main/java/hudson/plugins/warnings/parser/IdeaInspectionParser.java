@@ -1,19 +1,13 @@
 package hudson.plugins.warnings.parser;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Collection;
-import java.util.List;
 
 import org.apache.commons.lang.StringEscapeUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 import com.google.common.collect.Lists;
 
@@ -21,7 +15,7 @@ import hudson.Extension;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
 import hudson.plugins.warnings.WarningsDescriptor;
-import hudson.plugins.warnings.util.XmlElementUtil;
+import hudson.plugins.warnings.util.XmlStreamUtil;
 
 /**
  * A parser for IntelliJ IDEA inspections.
@@ -45,38 +39,59 @@ public class IdeaInspectionParser extends AbstractWarningsParser {
     }
 
     @Override
-    public Collection<FileAnnotation> parse(Reader reader) throws IOException {
+    public Collection<FileAnnotation> parse(final Reader reader) throws IOException {
+        XMLStreamReader xml = null;
         try {
-            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(reader));
+            xml = XmlStreamUtil.createReader(reader);
 
-            Element rootElement = (Element) document.getElementsByTagName("problems").item(0);
-            return parseProblems(XmlElementUtil.getNamedChildElements(rootElement, "problem"));
+            Collection<FileAnnotation> problems = Lists.newArrayList();
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "problem".equals(xml.getLocalName())) {
+                    problems.add(parseProblem(xml));
+                }
+            }
+            return problems;
         }
-        catch (ParserConfigurationException exception) {
+        catch (XMLStreamException exception) {
             throw new IOException(exception);
         }
-        catch (SAXException exception) {
-            throw new IOException(exception);
+        finally {
+            XmlStreamUtil.closeQuietly(xml);
         }
     }
 
-    private List<FileAnnotation> parseProblems(List<Element> elements) {
-        List<FileAnnotation> problems = Lists.newArrayList();
-        for (Element element : elements) {
-            String file = getChildValue(element, "file");
-            int line = Integer.parseInt(getChildValue(element, "line"));
-            Element problemClass = XmlElementUtil.getFirstElementByTagName(element, "problem_class");
-            String severity = problemClass.getAttribute("severity");
-            String category = StringEscapeUtils.unescapeXml(getValue(problemClass));
-            String description = StringEscapeUtils.unescapeXml(getChildValue(element, "description"));
-            problems.add(createWarning(file, line, category, description, getPriority(severity)));
+    private FileAnnotation parseProblem(final XMLStreamReader xml) throws XMLStreamException {
+        String file = "-";
+        String line = "-";
+        String severity = "-";
+        String category = "-";
+        String description = "-";
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("file".equals(name)) {
+                    file = getValue(xml);
+                }
+                else if ("line".equals(name)) {
+                    line = getValue(xml);
+                }
+                else if ("problem_class".equals(name)) {
+                    severity = XmlStreamUtil.getAttribute(xml, "severity");
+                    category = getValue(xml);
+                }
+                else if ("description".equals(name)) {
+                    description = getValue(xml);
+                }
+                else {
+                    XmlStreamUtil.skipElement(xml);
+                }
+            }
         }
-        return problems;
+        return createWarning(file, getLineNumber(line), StringEscapeUtils.unescapeXml(category),
+                StringEscapeUtils.unescapeXml(description), getPriority(severity));
     }
 
-    private Priority getPriority(String severity) {
+    private Priority getPriority(final String severity) {
         Priority priority = Priority.LOW;
         if (severity.equals("WARNING")) {
             priority = Priority.NORMAL;
@@ -87,19 +102,12 @@ public class IdeaInspectionParser extends AbstractWarningsParser {
         return priority;
     }
 
-    private String getValue(Element element) {
-        return element.getFirstChild().getNodeValue();
-    }
-
-    private String getChildValue(Element element, String childTag) {
-        Element firstElement = XmlElementUtil.getFirstElementByTagName(element, childTag);
-        if (firstElement != null) {
-            Node child = firstElement.getFirstChild();
-            if (child != null) {
-                return child.getNodeValue();
-            }
+    private String getValue(final XMLStreamReader xml) throws XMLStreamException {
+        String value = XmlStreamUtil.getTextContent(xml);
+        if (value.isEmpty()) {
+            return "-";
         }
-        return "-";
+        return value;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import org.apache.commons.lang.StringUtils;
@@ -47,8 +49,8 @@ public class IntelParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("warning") || line.contains("error") || line.contains("remark");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("warning", "error", "remark");
     }
 
     @Override
@@ -70,4 +72,9 @@ public class IntelParser extends RegexpLineParser {
         warning.setColumnPosition(getLineNumber(matcher.group(3)));
         return warning;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import org.apache.commons.lang.StringUtils;
@@ -27,6 +29,11 @@ public class JavaDocParser extends RegexpLineParser {
                 JAVA_DOC_WARNING_PATTERN, true);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("javadoc", "@", "ERROR");
+    }
+
     @Override
     protected boolean isLineInteresting(final String line) {
         return line.contains("javadoc") || line.contains("@") || (line.contains("error") && line.contains("ERROR"));
@@ -52,5 +59,10 @@ public class JavaDocParser extends RegexpLineParser {
 
         return createWarning(fileName, getLineNumber(matcher.group(2)), message, priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -39,8 +41,8 @@ public class JavacParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("[");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("[");
     }
 
     @Override
@@ -67,5 +69,10 @@ public class JavacParser extends RegexpLineParser {
     protected String getId() {
         return "Java Compiler"; // old ID in serialization
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
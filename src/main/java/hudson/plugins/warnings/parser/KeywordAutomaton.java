@@ -0,0 +1,232 @@
+package hudson.plugins.warnings.parser;
+
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Aho-Corasick automaton that finds the keywords of several owners in a single pass over a text. Each keyword is
+ * registered for an owner (identified by a non-negative number), a scan reports all owners that have at least one
+ * keyword occurring in the text.
+ *
+ * @author Ulli Hafner
+ */
+final class KeywordAutomaton {
+    private static final int ROOT = 0;
+    private static final int ASCII = 128;
+    private static final int[] NO_OWNERS = new int[0];
+
+    /** Transitions of the root state for ASCII characters. */
+    private final int[] rootTransitions;
+    /** Sorted transition characters of each state. */
+    private final char[][] labels;
+    /** Target states of the transitions of each state. */
+    private final int[][] targets;
+    /** Failure link of each state. */
+    private final int[] failure;
+    /** Owners of the keywords that end in each state, including the keywords of the failure links. */
+    private final int[][] owners;
+
+    /**
+     * Creates a new builder for a {@link KeywordAutomaton}.
+     *
+     * @return the builder
+     */
+    static Builder builder() {
+        return new Builder();
+    }
+
+    private KeywordAutomaton(final List<SortedMap<Character, Integer>> goTo, final int[] failure,
+            final List<BitSet> outputs) {
+        int size = goTo.size();
+        labels = new char[size][];
+        targets = new int[size][];
+        owners = new int[size][];
+        for (int state = 0; state < size; state++) {
+            SortedMap<Character, Integer> transitions = goTo.get(state);
+            labels[state] = new char[transitions.size()];
+            targets[state] = new int[transitions.size()];
+            int index = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                labels[state][index] = transition.getKey();
+                targets[state][index] = transition.getValue();
+                index++;
+            }
+            owners[state] = toArray(outputs.get(state));
+        }
+        this.failure = failure;
+
+        rootTransitions = new int[ASCII];
+        for (char character = 0; character < ASCII; character++) {
+            Integer target = goTo.get(ROOT).get(character);
+            rootTransitions[character] = target == null ? ROOT : target;
+        }
+    }
+
+    private static int[] toArray(final BitSet bits) {
+        if (bits.isEmpty()) {
+            return NO_OWNERS;
+        }
+        int[] values = new int[bits.cardinality()];
+        int index = 0;
+        for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+            values[index++] = bit;
+        }
+        return values;
+    }
+
+    /**
+     * Finds all owners that have at least one keyword occurring in the specified text.
+     *
+     * @param text
+     *            the text to scan
+     * @param found
+     *            the owners that have a matching keyword will be set in this bit set
+     */
+    void findOwners(final CharSequence text, final BitSet found) {
+        int state = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            state = next(state, text.charAt(i));
+            for (int owner : owners[state]) {
+                found.set(owner);
+            }
+        }
+    }
+
+    /**
+     * Returns whether at least one keyword occurs in the specified text.
+     *
+     * @param text
+     *            the text to scan
+     * @return {@code true} if at least one keyword occurs in the text, {@code false} otherwise
+     */
+    boolean containsAny(final CharSequence text) {
+        int state = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            state = next(state, text.charAt(i));
+            if (owners[state].length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int next(final int start, final char character) {
+        int state = start;
+        while (true) {
+            if (state == ROOT) {
+                if (character < ASCII) {
+                    return rootTransitions[character];
+                }
+                int target = transition(ROOT, character);
+                return target < 0 ? ROOT : target;
+            }
+            int target = transition(state, character);
+            if (target >= 0) {
+                return target;
+            }
+            state = failure[state];
+        }
+    }
+
+    private int transition(final int state, final char character) {
+        char[] stateLabels = labels[state];
+        int low = 0;
+        int high = stateLabels.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = stateLabels[middle];
+            if (label < character) {
+                low = middle + 1;
+            }
+            else if (label > character) {
+                high = middle - 1;
+            }
+            else {
+                return targets[state][middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the keywords of a {@link KeywordAutomaton}.
+     */
+    static final class Builder {
+        private final List<SortedMap<Character, Integer>> goTo = Lists.newArrayList();
+        private final List<BitSet> outputs = Lists.newArrayList();
+
+        private Builder() {
+            addState();
+        }
+
+        private int addState() {
+            goTo.add(Maps.<Character, Integer>newTreeMap());
+            outputs.add(new BitSet());
+            return goTo.size() - 1;
+        }
+
+        /**
+         * Adds a keyword for the specified owner. Empty keywords are ignored.
+         *
+         * @param keyword
+         *            the keyword
+         * @param owner
+         *            the owner of the keyword
+         * @return this builder
+         */
+        Builder add(final String keyword, final int owner) {
+            if (StringUtils.isNotEmpty(keyword)) {
+                int state = ROOT;
+                for (int i = 0; i < keyword.length(); i++) {
+                    Integer next = goTo.get(state).get(keyword.charAt(i));
+                    if (next == null) {
+                        next = addState();
+                        goTo.get(state).put(keyword.charAt(i), next);
+                    }
+                    state = next;
+                }
+                outputs.get(state).set(owner);
+            }
+            return this;
+        }
+
+        /**
+         * Creates the automaton for the registered keywords.
+         *
+         * @return the automaton
+         */
+        KeywordAutomaton build() {
+            int[] failure = new int[goTo.size()];
+            LinkedList<Integer> queue = new LinkedList<Integer>();
+            for (Integer state : goTo.get(ROOT).values()) {
+                failure[state] = ROOT;
+                queue.add(state);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.removeFirst();
+                for (Map.Entry<Character, Integer> transition : goTo.get(state).entrySet()) {
+                    int target = transition.getValue();
+                    int fallback = failure[state];
+                    while (fallback != ROOT && !goTo.get(fallback).containsKey(transition.getKey())) {
+                        fallback = failure[fallback];
+                    }
+                    Integer fallbackTarget = goTo.get(fallback).get(transition.getKey());
+                    failure[target] = fallbackTarget == null || fallbackTarget == target ? ROOT : fallbackTarget;
+                    outputs.get(target).or(outputs.get(failure[target]));
+                    queue.add(target);
+                }
+            }
+            return new KeywordAutomaton(goTo, failure, outputs);
+        }
+    }
+}
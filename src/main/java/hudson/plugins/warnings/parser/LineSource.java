@@ -0,0 +1,123 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+
+import hudson.console.ConsoleNote;
+
+/**
+ * Provides the lines of an input without console notes. The lines of a {@link MappedFileReader} are read without
+ * creating a {@link String} for each line. Lines that contain no console note are not copied.
+ *
+ * @author Ulli Hafner
+ */
+abstract class LineSource implements Closeable {
+    private static final char PREAMBLE_START = ConsoleNote.PREAMBLE_STR.charAt(0);
+
+    /**
+     * Creates the source of the lines of the specified input.
+     *
+     * @param reader
+     *            the input
+     * @return the lines of the input
+     */
+    static LineSource create(final Reader reader) {
+        if (reader instanceof MappedFileReader) {
+            return new MappedFileLineSource((MappedFileReader)reader);
+        }
+        return new IteratorLineSource(reader);
+    }
+
+    /**
+     * Removes the console notes from the specified line. Lines without the console note preamble are returned
+     * as such.
+     *
+     * @param line
+     *            the line
+     * @return the line without console notes
+     */
+    static CharSequence removeNotes(final CharSequence line) {
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) == PREAMBLE_START) {
+                return ConsoleNote.removeNotes(line.toString());
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Reads the next line of the input and removes the console notes. The returned character sequence is only valid
+     * until the next line is read; use {@link CharSequence#toString()} to get a copy.
+     *
+     * @return the next line, or {@code null} if the end of the input has been reached
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    CharSequence readLine() throws IOException {
+        CharSequence line = readRawLine();
+        if (line == null) {
+            return null;
+        }
+        return removeNotes(line);
+    }
+
+    /**
+     * Reads the next line of the input.
+     *
+     * @return the next line, or {@code null} if the end of the input has been reached
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    protected abstract CharSequence readRawLine() throws IOException;
+
+    /**
+     * Reads the lines of a {@link MappedFileReader}.
+     */
+    private static class MappedFileLineSource extends LineSource {
+        private final MappedFileReader reader;
+
+        MappedFileLineSource(final MappedFileReader reader) {
+            super();
+
+            this.reader = reader;
+        }
+
+        @Override
+        protected CharSequence readRawLine() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Reads the lines of any reader using a {@link LineIterator}.
+     */
+    private static class IteratorLineSource extends LineSource {
+        private final LineIterator iterator;
+
+        IteratorLineSource(final Reader reader) {
+            super();
+
+            iterator = IOUtils.lineIterator(reader);
+        }
+
+        @Override
+        protected CharSequence readRawLine() {
+            return iterator.hasNext() ? iterator.nextLine() : null;
+        }
+
+        @Override
+        public void close() {
+            iterator.close();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Reads a file using a {@link FileChannel} and memory mapped segments of the file. Small files are read into a heap
+ * buffer, since mapping them costs more than it saves. A mapped segment is unmapped as soon as the next segment is
+ * mapped or the reader is closed, so the file is not locked after reading it. The bytes are decoded in large
+ * chunks with a single {@link CharsetDecoder}, ASCII characters of ASCII compatible character sets are copied
+ * without decoder. A byte order mark at the start of the file is skipped and determines the character set of the
+ * file. Besides the {@link Reader} methods, the lines of the file can be read with {@link #readLine()} without
+ * creating a {@link String} for each line.
+ * <p>
+ * The size of the memory mapped segments can be set with the system property
+ * {@code hudson.plugins.warnings.parser.MappedFileReader.segmentSize}. Files smaller than the system property
+ * {@code hudson.plugins.warnings.parser.MappedFileReader.mappingThreshold} (in bytes, defaults to 1 MB) are not
+ * mapped. If the system property {@code hudson.plugins.warnings.parser.MappedFileReader.disableMapping} is set, no
+ * file is mapped at all.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class MappedFileReader extends Reader {
+    private static final Logger LOGGER = Logger.getLogger(MappedFileReader.class.getName());
+    private static final String PROPERTY_PREFIX = MappedFileReader.class.getName();
+    private static final int SEGMENT_SIZE = Math.max(1024,
+            Integer.getInteger(PROPERTY_PREFIX + ".segmentSize", 32 * 1024 * 1024));
+    private static final boolean IS_MAPPING_DISABLED = Boolean.getBoolean(PROPERTY_PREFIX + ".disableMapping");
+    private static final long MAPPING_THRESHOLD = Long.getLong(PROPERTY_PREFIX + ".mappingThreshold", 1024 * 1024);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    /** Maximum number of bytes the decoder handles at once before the ASCII fast path is tried again. */
+    private static final int DECODER_SLICE = 64;
+    /** Maximum number of bytes of a single character in all supported character sets. */
+    private static final int MAX_BYTES_PER_CHAR = 4;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset UTF_16BE = Charset.forName("UTF-16BE");
+    private static final Charset UTF_16LE = Charset.forName("UTF-16LE");
+    private static final Set<String> ASCII_COMPATIBLE = ImmutableSet.of("UTF-8", "US-ASCII", "ISO-8859-1",
+            "ISO-8859-15", "windows-1252");
+
+    private final File file;
+    private final FileInputStream stream;
+    private final FileChannel channel;
+    private final Line line = new Line();
+
+    private Charset charset;
+    private CharsetDecoder decoder;
+    private boolean isAsciiCompatible;
+    private boolean isStarted;
+
+    private long size;
+    private boolean isMapped;
+    private ByteBuffer bytes;
+    private ByteBuffer readBuffer;
+    /** Position of the current segment in the file. */
+    private long segmentStart;
+    private boolean isLastSegment;
+    private boolean isEndOfInput;
+
+    private char[] chars = new char[CHAR_BUFFER_SIZE];
+    /** Position of the first character that has not been read yet. */
+    private int charStart;
+    /** Position after the last decoded character. */
+    private int charEnd;
+
+    /**
+     * Creates a new instance of {@link MappedFileReader}.
+     *
+     * @param file
+     *            the file to read
+     * @param charset
+     *            the character set of the file, if the file does not start with a byte order mark
+     * @throws FileNotFoundException
+     *             if the file does not exist
+     */
+    MappedFileReader(final File file, final Charset charset) throws FileNotFoundException {
+        super();
+
+        this.file = file;
+        stream = new FileInputStream(file);
+        channel = stream.getChannel();
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the file that is read by this reader.
+     *
+     * @return the file
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns whether characters have been read from this reader already.
+     *
+     * @return {@code true} if the reader has been started, {@code false} if the reader is still at the start of the
+     *         file
+     */
+    boolean isStarted() {
+        return isStarted;
+    }
+
+    /**
+     * Returns the character set the file is decoded with.
+     *
+     * @return the character set
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    Charset getCharset() throws IOException {
+        start();
+
+        return charset;
+    }
+
+    /**
+     * Reads the next line of the file. Lines are terminated by a line feed, a carriage return, or a carriage return
+     * followed by a line feed. The returned character sequence is only valid until the next read operation on this
+     * reader; use {@link CharSequence#toString()} to get a copy.
+     *
+     * @return the next line (without line terminator), or {@code null} if the end of the file has been reached
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    CharSequence readLine() throws IOException {
+        start();
+
+        int position = charStart;
+        while (true) {
+            while (position < charEnd) {
+                char character = chars[position];
+                if (character == '\n' || character == '\r') {
+                    if (character == '\r' && position + 1 == charEnd && !isEndOfInput) {
+                        break; // need to look ahead for a line feed
+                    }
+                    line.set(charStart, position - charStart);
+                    int next = position + 1;
+                    if (character == '\r' && next < charEnd && chars[next] == '\n') {
+                        next++;
+                    }
+                    charStart = next;
+                    return line;
+                }
+                position++;
+            }
+
+            int shift = charStart;
+            boolean hasMoreCharacters = compactAndFill();
+            position -= shift;
+            if (!hasMoreCharacters && position >= charEnd) {
+                if (charStart == charEnd) {
+                    return null;
+                }
+                line.set(charStart, charEnd - charStart);
+                charStart = charEnd;
+                return line;
+            }
+        }
+    }
+
+    @Override
+    public int read(final char[] buffer, final int offset, final int length) throws IOException {
+        start();
+
+        if (length == 0) {
+            return 0;
+        }
+        if (charStart == charEnd && !compactAndFill()) {
+            return -1;
+        }
+        int count = Math.min(length, charEnd - charStart);
+        System.arraycopy(chars, charStart, buffer, offset, count);
+        charStart += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            unmapSegment();
+            channel.close();
+        }
+        finally {
+            stream.close();
+        }
+    }
+
+    private void start() throws IOException {
+        if (isStarted) {
+            return;
+        }
+        isStarted = true;
+        size = channel.size();
+        isMapped = !IS_MAPPING_DISABLED && size >= MAPPING_THRESHOLD;
+
+        ByteBuffer bom = ByteBuffer.allocate(3);
+        while (bom.hasRemaining() && channel.read(bom, bom.position()) > 0) {
+            // read the first bytes of the file
+        }
+        int length = bom.position();
+        if (length >= 3 && bom.get(0) == (byte)0xEF && bom.get(1) == (byte)0xBB && bom.get(2) == (byte)0xBF) {
+            charset = UTF_8;
+            segmentStart = 3;
+        }
+        else if (length >= 2 && bom.get(0) == (byte)0xFE && bom.get(1) == (byte)0xFF) {
+            charset = UTF_16BE;
+            segmentStart = 2;
+        }
+        else if (length >= 2 && bom.get(0) == (byte)0xFF && bom.get(1) == (byte)0xFE) {
+            charset = UTF_16LE;
+            segmentStart = 2;
+        }
+
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        isAsciiCompatible = ASCII_COMPATIBLE.contains(charset.name());
+    }
+
+    /**
+     * Moves the unread characters to the start of the character buffer and decodes more characters.
+     *
+     * @return {@code true} if more characters have been decoded, {@code false} if the end of the input has been
+     *         reached
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private boolean compactAndFill() throws IOException {
+        if (charStart > 0) {
+            System.arraycopy(chars, charStart, chars, 0, charEnd - charStart);
+            charEnd -= charStart;
+            charStart = 0;
+        }
+        if (chars.length - charEnd < MAX_BYTES_PER_CHAR) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+
+        int start = charEnd;
+        while (charEnd == start && !isEndOfInput) {
+            decode();
+        }
+        return charEnd > start;
+    }
+
+    private void decode() throws IOException {
+        if (bytes == null || bytes.remaining() < MAX_BYTES_PER_CHAR && !isLastSegment) {
+            loadSegment();
+        }
+
+        CharBuffer target = CharBuffer.wrap(chars, charEnd, chars.length - charEnd);
+        if (isAsciiCompatible) {
+            copyAscii(target);
+        }
+        if (bytes.hasRemaining() && target.hasRemaining()) {
+            int limit = bytes.limit();
+            if (isAsciiCompatible) {
+                bytes.limit(Math.min(limit, bytes.position() + DECODER_SLICE));
+            }
+            decoder.decode(bytes, target, isLastSegment && bytes.limit() == limit);
+            bytes.limit(limit);
+        }
+        if (isLastSegment && !bytes.hasRemaining()) {
+            decoder.decode(bytes, target, true);
+            decoder.flush(target);
+            isEndOfInput = true;
+        }
+        charEnd = target.position();
+    }
+
+    private void copyAscii(final CharBuffer target) {
+        int from = bytes.position();
+        int to = target.position();
+        int count = Math.min(bytes.remaining(), target.remaining());
+        int copied = 0;
+        while (copied < count) {
+            byte value = bytes.get(from + copied);
+            if (value < 0) {
+                break;
+            }
+            chars[to + copied] = (char)value;
+            copied++;
+        }
+        bytes.position(from + copied);
+        target.position(to + copied);
+    }
+
+    /**
+     * Loads the next segment of the file, starting at the first byte that has not been decoded yet.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void loadSegment() throws IOException {
+        if (bytes != null) {
+            segmentStart += bytes.position();
+        }
+        long length = Math.min(SEGMENT_SIZE, Math.max(0, size - segmentStart));
+        if (isMapped) {
+            unmapSegment();
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, length);
+        }
+        else {
+            if (readBuffer == null) {
+                readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            }
+            readBuffer.clear();
+            readBuffer.limit((int)Math.min(length, READ_BUFFER_SIZE));
+            while (readBuffer.hasRemaining() && channel.read(readBuffer, segmentStart + readBuffer.position()) > 0) {
+                // fill the buffer
+            }
+            readBuffer.flip();
+            bytes = readBuffer;
+        }
+        isLastSegment = segmentStart + bytes.limit() >= size;
+    }
+
+    /**
+     * Unmaps the current segment. Otherwise the segment would be unmapped by the garbage collector only, and the file
+     * stays locked until then on Windows. The segment must not be accessed afterwards.
+     */
+    private void unmapSegment() {
+        if (isMapped && bytes != null) {
+            ByteBuffer segment = bytes;
+            bytes = null;
+            unmap(segment);
+        }
+    }
+
+    /**
+     * Releases the memory of the specified mapped buffer using the cleaner of the buffer (Java 8) or
+     * {@code sun.misc.Unsafe.invokeCleaner} (Java 9 and later). If both are not accessible, then the buffer is
+     * released by the garbage collector.
+     */
+    private static void unmap(final ByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+            return;
+        }
+        catch (Exception exception) { // NOPMD: not accessible in Java 9 and later
+            // try the unsafe API of Java 9
+        }
+        catch (LinkageError error) { // NOPMD
+            // try the unsafe API of Java 9
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        }
+        catch (Exception exception) { // NOPMD
+            LOGGER.log(Level.FINE, "Can't unmap buffer, the buffer is released by the garbage collector", exception);
+        }
+        catch (LinkageError error) {
+            LOGGER.log(Level.FINE, "Can't unmap buffer, the buffer is released by the garbage collector", error);
+        }
+    }
+
+    /**
+     * A line of the file, backed by the character buffer of the reader.
+     */
+    private final class Line implements CharSequence {
+        private int offset;
+        private int length;
+
+        void set(final int start, final int count) {
+            offset = start;
+            length = count;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            return chars[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new StringIndexOutOfBoundsException(start);
+            }
+            return new String(chars, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Matcher;
 
@@ -40,8 +40,8 @@ public class MavenConsoleParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains(WARNING) || line.contains(ERROR);
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList(WARNING, ERROR);
     }
 
     @Override
@@ -59,39 +59,37 @@ public class MavenConsoleParser extends RegexpLineParser {
         return createWarning(CONSOLE, getCurrentLine(), category, matcher.group(2), priority);
     }
 
-    // FIXME: post processing is quite slow for large number of warnings, see JENKINS-25278
+    /**
+     * Condenses the warnings of consecutive lines with the same priority into a single warning. Warnings with a blank
+     * message are removed.
+     */
     @Override
     protected Collection<FileAnnotation> postProcessWarnings(final List<FileAnnotation> warnings) {
-        LinkedList<FileAnnotation> condensed = new LinkedList<FileAnnotation>();
-        int line = -1;
+        List<FileAnnotation> condensed = Lists.newArrayList();
+        RecordAssembler record = new RecordAssembler(MAX_MESSAGE_LENGTH);
         for (FileAnnotation warning : warnings) {
-            if (warning.getPrimaryLineNumber() == line + 1 && !condensed.isEmpty()) {
-                FileAnnotation previous = condensed.getLast();
-                if (previous.getPriority() == warning.getPriority()) {
-                    condensed.removeLast();
-                    if (previous.getMessage().length() + warning.getMessage().length() >= MAX_MESSAGE_LENGTH) {
-                        condensed.add(new Warning(previous, warning.getPrimaryLineNumber()));
-                    }
-                    else {
-                        condensed.add(new Warning(previous, previous.getMessage() + "\n" + warning.getMessage(), warning.getPrimaryLineNumber()));
-                    }
-                }
-                else {
-                    condensed.add(warning);
-                }
+            if (record.isStarted() && warning.getPrimaryLineNumber() == record.getEnd() + 1
+                    && warning.getPriority() == record.getPriority()) {
+                record.append(warning.getPrimaryLineNumber(), warning.getMessage());
             }
             else {
-                condensed.add(warning);
+                addNotBlank(condensed, record.finish());
+                record.start(warning);
             }
-            line = warning.getPrimaryLineNumber();
         }
-        List<FileAnnotation> noBlank = Lists.newArrayList();
-        for (FileAnnotation warning : condensed) {
-            if (StringUtils.isNotBlank(warning.getMessage())) {
-                noBlank.add(warning);
-            }
+        addNotBlank(condensed, record.finish());
+        return condensed;
+    }
+
+    private void addNotBlank(final List<FileAnnotation> condensed, final Warning warning) {
+        if (warning != null && StringUtils.isNotBlank(warning.getMessage())) {
+            condensed.add(warning);
         }
-        return noBlank;
+    }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
     }
 }
 
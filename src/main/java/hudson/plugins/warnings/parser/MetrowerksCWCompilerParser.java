@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,6 +29,11 @@ public class MetrowerksCWCompilerParser extends RegexpLineParser {
                 CW_COMPILER_WARNING_PATTERN);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("INFORMATION", "WARNING", "ERROR");
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         String fileName = matcher.group(1);
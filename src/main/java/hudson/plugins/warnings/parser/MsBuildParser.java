@@ -140,5 +140,10 @@ public class MsBuildParser extends RegexpLineParser {
     private boolean isOfType(final Matcher matcher, final String type) {
         return StringUtils.containsIgnoreCase(matcher.group(8), type);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
@@ -0,0 +1,103 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hudson.plugins.analysis.util.PackageDetectors;
+
+/**
+ * Resolves the package names of source files for the parsers. The package name of a source file is detected by
+ * reading the file, see {@link PackageDetectors}. The package names of existing source files are kept in a cache that
+ * is shared by all parsers and builds, so a source file is read only once, no matter how many warnings refer to this
+ * file. An entry of this cache is used as long as the modification time and the size of the file do not change.
+ * <p>
+ * The number of entries of the shared cache can be set with the system property
+ * {@code hudson.plugins.warnings.parser.PackageNameResolver.cacheSize}, 0 disables the cache.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+final class PackageNameResolver {
+    private static final int CACHE_SIZE = Math.max(0,
+            Integer.getInteger(PackageNameResolver.class.getName() + ".cacheSize", 10000));
+
+    private static final Map<String, CachedPackageName> CACHE = new LinkedHashMap<String, CachedPackageName>(16,
+            0.75f, true) {
+        private static final long serialVersionUID = -2848434434473155218L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedPackageName> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Returns the package name of the specified source file.
+     *
+     * @param fileName
+     *            the name of the source file
+     * @return the package name, or "-" if the package name could not be detected
+     */
+    static String getPackageName(final String fileName) {
+        return StringPool.intern(detectPackageName(fileName));
+    }
+
+    private static String detectPackageName(final String fileName) {
+        File file = new File(fileName);
+        if (CACHE_SIZE == 0 || !file.isFile()) {
+            return PackageDetectors.detectPackageName(fileName);
+        }
+
+        String key = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        synchronized (CACHE) {
+            CachedPackageName cached = CACHE.get(key);
+            if (cached != null && cached.isValid(lastModified, length)) {
+                return cached.packageName;
+            }
+        }
+        String packageName = PackageDetectors.detectPackageName(fileName);
+        synchronized (CACHE) {
+            CACHE.put(key, new CachedPackageName(lastModified, length, packageName));
+        }
+        return packageName;
+    }
+
+    /**
+     * Removes all entries of the cache that is shared by all builds.
+     */
+    static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * Creates a new instance of {@link PackageNameResolver}.
+     */
+    private PackageNameResolver() {
+        // prevents instantiation
+    }
+
+    /**
+     * The package name of a source file, along with the properties of the file at the time the package name has been
+     * detected.
+     */
+    private static final class CachedPackageName {
+        private final long lastModified;
+        private final long length;
+        private final String packageName;
+
+        CachedPackageName(final long lastModified, final long length, final String packageName) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.packageName = packageName;
+        }
+
+        boolean isValid(final long currentLastModified, final long currentLength) {
+            return lastModified == currentLastModified && length == currentLength;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+
+import com.google.common.collect.Lists;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Scans the lines of an input in parallel for warnings of {@link RegexpLineParser#isStateless() stateless} line
+ * parsers. The lines are collected in chunks that are scanned by the shared {@link WorkerPool}. The line number
+ * offset of each chunk is tracked, so the parsers see the same line numbers as in a sequential scan. The results of
+ * the chunks are merged in input order. If the scan is canceled, the workers stop scanning the pending chunks.
+ * <p>
+ * The parallel mode is disabled unless the worker pool is enabled, see {@link WorkerPool}. The number of lines of
+ * each chunk can be set with the system property
+ * {@code hudson.plugins.warnings.parser.ParallelLineScanner.chunkSize}.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class ParallelLineScanner {
+    private static final String PROPERTY_PREFIX = ParallelLineScanner.class.getName();
+    private static final int CHUNK_SIZE = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + ".chunkSize", 4096));
+
+    /** The line within the input that is currently scanned by a worker thread. */
+    private static final ThreadLocal<LinePosition> POSITION = new ThreadLocal<LinePosition>();
+
+    /**
+     * Returns whether the parallel mode is enabled.
+     *
+     * @return {@code true} if the parallel mode is enabled, {@code false} otherwise
+     */
+    static boolean isEnabled() {
+        return WorkerPool.isEnabled();
+    }
+
+    /**
+     * Returns the number of the line that is currently scanned by the calling worker thread.
+     *
+     * @return the current line, or -1 if the calling thread does not scan a chunk
+     */
+    static int getLineOfCurrentChunk() {
+        LinePosition position = POSITION.get();
+        return position == null ? -1 : position.line;
+    }
+
+    private final List<RegexpLineParser> parsers;
+    private final int chunkSize;
+    private final ExecutorService executor;
+    /** Maximum number of chunks that are queued or scanned at the same time. */
+    private final int maxPendingChunks;
+    private final BitSet unfiltered = new BitSet();
+    private final KeywordAutomaton literals;
+    private final List<List<FileAnnotation>> warnings = Lists.newArrayList();
+    private final LinkedList<Future<List<List<FileAnnotation>>>> pending = Lists.newLinkedList();
+
+    private List<String> chunk;
+    private int chunkStart;
+    private int lineNumber;
+
+    /**
+     * Creates a new instance of {@link ParallelLineScanner}.
+     *
+     * @param parsers
+     *            the stateless parsers to hand the lines over
+     */
+    ParallelLineScanner(final List<RegexpLineParser> parsers) {
+        this(parsers, CHUNK_SIZE, WorkerPool.getExecutor(), WorkerPool.getParallelism());
+    }
+
+    /**
+     * Creates a new instance of {@link ParallelLineScanner}.
+     *
+     * @param parsers
+     *            the stateless parsers to hand the lines over
+     * @param chunkSize
+     *            the number of lines of each chunk
+     * @param executor
+     *            the executor that scans the chunks
+     * @param parallelism
+     *            the number of worker threads of the executor
+     */
+    ParallelLineScanner(final List<RegexpLineParser> parsers, final int chunkSize, final ExecutorService executor,
+            final int parallelism) {
+        this.parsers = parsers;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        maxPendingChunks = 2 * Math.max(1, parallelism);
+        chunk = new ArrayList<String>(chunkSize);
+
+        literals = FanOutScanner.createRequiredLiteralsAutomaton(parsers, unfiltered);
+        for (RegexpLineParser parser : parsers) {
+            parser.startScan();
+            warnings.add(Lists.<FileAnnotation>newArrayList());
+        }
+    }
+
+    /**
+     * Adds the next line of the input. Console notes need to be removed from the line by the caller.
+     *
+     * @param line
+     *            the line to scan
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws ParsingCanceledException
+     *             Signals that the user canceled this operation
+     */
+    void scanLine(final String line) throws IOException, ParsingCanceledException {
+        chunk.add(line);
+        lineNumber++;
+        if (chunk.size() >= chunkSize) {
+            submitChunk();
+        }
+    }
+
+    /**
+     * Waits until all lines have been scanned and returns the found warnings.
+     *
+     * @return the post processed warnings of each parser (in the order of the parsers)
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws ParsingCanceledException
+     *             Signals that the user canceled this operation
+     */
+    List<Collection<FileAnnotation>> finish() throws IOException, ParsingCanceledException {
+        if (!chunk.isEmpty()) {
+            submitChunk();
+        }
+        while (!pending.isEmpty()) {
+            mergeFirstChunk();
+        }
+
+        List<Collection<FileAnnotation>> results = Lists.newArrayList();
+        for (int i = 0; i < parsers.size(); i++) {
+            results.add(parsers.get(i).finishScan(warnings.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Cancels all chunks that are not yet scanned.
+     */
+    void cancel() {
+        for (Future<List<List<FileAnnotation>>> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private void submitChunk() throws IOException, ParsingCanceledException {
+        if (Thread.currentThread().isInterrupted()) {
+            cancel();
+            throw new ParsingCanceledException();
+        }
+        pending.add(executor.submit(new ChunkScan(chunk, chunkStart)));
+        chunk = new ArrayList<String>(chunkSize);
+        chunkStart = lineNumber;
+
+        while (pending.size() > maxPendingChunks) {
+            mergeFirstChunk();
+        }
+    }
+
+    private void mergeFirstChunk() throws IOException, ParsingCanceledException {
+        try {
+            List<List<FileAnnotation>> found = pending.removeFirst().get();
+            for (int i = 0; i < parsers.size(); i++) {
+                warnings.get(i).addAll(found.get(i));
+            }
+        }
+        catch (InterruptedException exception) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new ParsingCanceledException();
+        }
+        catch (ExecutionException exception) {
+            cancel();
+            Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Scans a chunk of lines with all parsers.
+     */
+    private class ChunkScan implements Callable<List<List<FileAnnotation>>> {
+        private final List<String> lines;
+        private final int start;
+
+        private final StatisticsRecorder recorder;
+
+        ChunkScan(final List<String> lines, final int start) {
+            this.lines = lines;
+            this.start = start;
+            recorder = StatisticsRecorder.current();
+        }
+
+        @Override
+        public List<List<FileAnnotation>> call() throws ParsingCanceledException {
+            List<List<FileAnnotation>> found = Lists.newArrayList();
+            for (int i = 0; i < parsers.size(); i++) {
+                found.add(Lists.<FileAnnotation>newArrayList());
+            }
+
+            List<Matcher> matchers = Lists.newArrayList();
+            for (RegexpLineParser parser : parsers) {
+                matchers.add(parser.createMatcher());
+            }
+
+            LinePosition position = new LinePosition();
+            POSITION.set(position);
+            StatisticsRecorder worker = recorder == null ? null : recorder.startWorker();
+            StatisticsRecorder.Usage usage = worker == null ? null : new StatisticsRecorder.Usage();
+            try {
+                BitSet interested = new BitSet(parsers.size());
+                for (int i = 0; i < lines.size(); i++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new ParsingCanceledException();
+                    }
+                    String line = lines.get(i);
+                    position.line = start + i;
+
+                    interested.clear();
+                    interested.or(unfiltered);
+                    if (literals != null) {
+                        literals.findOwners(line, interested);
+                    }
+                    for (int parser = interested.nextSetBit(0); parser >= 0; parser = interested.nextSetBit(parser + 1)) {
+                        parsers.get(parser).scanLineOfChunk(line, matchers.get(parser), found.get(parser));
+                    }
+                }
+                return found;
+            }
+            finally {
+                POSITION.remove();
+                if (worker != null) {
+                    worker.addWorkerUsage(usage);
+                    worker.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * Mutable line number of a worker thread.
+     */
+    private static final class LinePosition {
+        private int line;
+    }
+}
@@ -0,0 +1,299 @@
+package hudson.plugins.warnings.parser;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.Lists;
+
+import jenkins.model.Jenkins;
+
+import hudson.PluginWrapper;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Caches the warnings of report files by the content of the files. The key of an entry is a hash of the content of
+ * the file, of the parsers (their class and their configuration, see
+ * {@link AbstractWarningsParser#getConfiguration()}), of the versions of the plug-ins that provide the parsers and
+ * of the encoding. So a report file that did not change since a previous build is not parsed again. The versions of
+ * the plug-ins are known on the controller only, see {@link #getVersion(List)}: if a version is unknown, then the
+ * cache is not used at all. The entries are stored as serialized warnings in a directory next to the workspace (in
+ * the temporary directory {@code <workspace>@tmp} that Jenkins uses for each workspace). Entries that have not been
+ * used for a week are removed.
+ * <p>
+ * The cache can be disabled with the system property
+ * {@code hudson.plugins.warnings.parser.ParseResultCache.disabled}.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class ParseResultCache {
+    private static final Logger LOGGER = Logger.getLogger(ParseResultCache.class.getName());
+    /** Version of the format of the entries, needs to be changed if the format changes. */
+    private static final int FORMAT_VERSION = 3;
+    private static final String SUFFIX = ".warnings";
+    private static final long MAXIMUM_AGE = TimeUnit.DAYS.toMillis(7);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns whether the cache is enabled.
+     *
+     * @return {@code true} if the cache is enabled, {@code false} otherwise
+     */
+    static boolean isEnabled() {
+        return !Boolean.getBoolean(ParseResultCache.class.getName() + ".disabled");
+    }
+
+    /**
+     * Returns the versions of the plug-ins that provide the classes of the specified parsers (see {@link
+     * AbstractWarningsParser#getImplementationClasses()}). Needs to be called on the controller, the plug-ins are
+     * not known on an agent.
+     *
+     * @param parsers
+     *            the parsers
+     * @return the versions, or {@code null} if a version is unknown
+     */
+    @CheckForNull
+    static String getVersion(final List<? extends AbstractWarningsParser> parsers) {
+        Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins == null) {
+            return null;
+        }
+        List<String> versions = Lists.newArrayList();
+        for (AbstractWarningsParser parser : parsers) {
+            for (Class<?> type : parser.getImplementationClasses()) {
+                PluginWrapper plugin = jenkins.getPluginManager().whichPlugin(type);
+                if (plugin == null || StringUtils.isBlank(plugin.getVersion())) {
+                    return null;
+                }
+                versions.add(plugin.getShortName() + ":" + plugin.getVersion());
+            }
+        }
+        return StringUtils.join(versions, ',');
+    }
+
+    /**
+     * Returns the cache directory of the specified workspace.
+     *
+     * @param workspace
+     *            the workspace
+     * @return the cache directory
+     */
+    static File getDirectory(final File workspace) {
+        return new File(new File(workspace.getParentFile(), workspace.getName() + "@tmp"), "warnings-cache");
+    }
+
+    private final File directory;
+    private final byte[] configuration;
+
+    /**
+     * Creates a new instance of {@link ParseResultCache}.
+     *
+     * @param directory
+     *            the directory of the entries
+     * @param parsers
+     *            the parsers that create the warnings
+     * @param version
+     *            the versions of the plug-ins that provide the parsers, see {@link #getVersion(List)}
+     * @param encoding
+     *            the encoding that is used to read the files
+     */
+    ParseResultCache(final File directory, final List<? extends AbstractWarningsParser> parsers,
+            final String version, final String encoding) {
+        this.directory = directory;
+        configuration = createConfiguration(parsers, version, encoding);
+    }
+
+    private static byte[] createConfiguration(final List<? extends AbstractWarningsParser> parsers,
+            final String version, final String encoding) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ObjectOutputStream output = new ObjectOutputStream(bytes);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(StringUtils.defaultString(encoding));
+            output.writeUTF(version);
+            for (AbstractWarningsParser parser : parsers) {
+                output.writeUTF(parser.getClass().getName());
+                output.writeObject(new ArrayList<String>(parser.getConfiguration()));
+            }
+            output.close();
+        }
+        catch (IOException exception) {
+            throw new IllegalArgumentException("Can't write configuration of parsers " + parsers, exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the key of the entry of the specified file.
+     *
+     * @param file
+     *            the report file
+     * @return the key of the entry
+     * @throws IOException
+     *             if the file could not be read
+     */
+    String getKey(final File file) throws IOException {
+        MessageDigest digest = createDigest();
+        digest.update(configuration);
+
+        InputStream input = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        finally {
+            input.close();
+        }
+
+        byte[] hash = digest.digest();
+        char[] key = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            key[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            key[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(key);
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Returns the cached warnings of the specified key.
+     *
+     * @param key
+     *            the key of the entry
+     * @return the warnings, or {@code null} if there is no valid entry
+     */
+    @CheckForNull
+    Collection<FileAnnotation> get(final String key) {
+        File entry = getEntry(key);
+        if (!entry.isFile()) {
+            return null;
+        }
+        ObjectInputStream input = null;
+        try {
+            input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(entry), BUFFER_SIZE));
+            int size = input.readInt();
+            List<FileAnnotation> warnings = new ArrayList<FileAnnotation>(size);
+            for (int i = 0; i < size; i++) {
+                warnings.add((FileAnnotation)input.readObject());
+            }
+            if (!entry.setLastModified(System.currentTimeMillis())) {
+                LOGGER.log(Level.FINE, "Can't touch cached warnings " + entry);
+            }
+            StringPool.intern(warnings);
+            return warnings;
+        }
+        catch (IOException exception) {
+            discard(entry, exception);
+        }
+        catch (ClassNotFoundException exception) {
+            discard(entry, exception);
+        }
+        catch (ClassCastException exception) {
+            discard(entry, exception);
+        }
+        finally {
+            IOUtils.closeQuietly(input);
+        }
+        return null;
+    }
+
+    private void discard(final File entry, final Exception exception) {
+        LOGGER.log(Level.FINE, "Discarding invalid cached warnings " + entry, exception);
+        if (!entry.delete()) {
+            entry.deleteOnExit();
+        }
+    }
+
+    /**
+     * Stores the warnings of the specified key. The warnings are written to a temporary file first, so concurrent
+     * readers never see an incomplete entry.
+     *
+     * @param key
+     *            the key of the entry
+     * @param warnings
+     *            the warnings to store
+     */
+    void put(final String key, final Collection<FileAnnotation> warnings) {
+        File entry = getEntry(key);
+        File temp = new File(directory, key + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                throw new IOException("Can't create cache directory " + directory);
+            }
+            OutputStream stream = new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE);
+            ObjectOutputStream output = new ObjectOutputStream(stream);
+            try {
+                output.writeInt(warnings.size());
+                for (FileAnnotation warning : warnings) {
+                    output.writeObject(warning);
+                }
+            }
+            finally {
+                output.close();
+            }
+            if (!temp.renameTo(entry) && !entry.isFile()) {
+                throw new IOException("Can't rename " + temp + " to " + entry);
+            }
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.FINE, "Can't cache warnings in " + entry, exception);
+        }
+        finally {
+            if (temp.exists() && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    private File getEntry(final String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    /**
+     * Removes the entries that have not been used for a week.
+     */
+    void removeStaleEntries() {
+        File[] entries = directory.listFiles();
+        if (entries == null) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - MAXIMUM_AGE;
+        for (File entry : entries) {
+            if (entry.lastModified() < oldest && !entry.delete()) {
+                LOGGER.log(Level.FINE, "Can't remove stale cached warnings " + entry);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package hudson.plugins.warnings.parser;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Collection;
+import java.util.List;
 
 import hudson.plugins.analysis.util.model.FileAnnotation;
 
@@ -30,6 +31,22 @@ public class ParserAdapter extends AbstractWarningsParser {
         this.wrapped = wrapped;
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    List<String> getConfiguration() {
+        List<String> configuration = super.getConfiguration();
+        configuration.add(wrapped.getClass().getName());
+        return configuration;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    List<Class<?>> getImplementationClasses() {
+        List<Class<?>> classes = super.getImplementationClasses();
+        classes.add(wrapped.getClass());
+        return classes;
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public Collection<FileAnnotation> parse(final Reader reader) throws IOException, ParsingCanceledException {
@@ -1,32 +1,44 @@
 package hudson.plugins.warnings.parser; // NOPMD
 
 import javax.annotation.CheckForNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang.StringUtils;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jenkins.model.Jenkins;
 
+import hudson.ExtensionListListener;
 import hudson.plugins.analysis.core.PluginDescriptor;
 import hudson.plugins.analysis.util.EncodingValidator;
 import hudson.plugins.analysis.util.NullLogger;
@@ -34,17 +46,41 @@ import hudson.plugins.analysis.util.PluginLogger;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.warnings.GroovyParser;
 import hudson.plugins.warnings.WarningsDescriptor;
+import hudson.plugins.warnings.parser.ParserSnapshot.ParserFactory;
+import hudson.plugins.warnings.parser.ParserSnapshot.SharedParser;
 import hudson.util.ListBoxModel;
 
 /**
  * Registry of parsers that are available for the warnings plug-in.
+ * <p>
+ * Parsers keep the state of the input they are scanning (e.g., the current line or the current directory of make).
+ * So a parser instance is never used by two parses at the same time: if the parsers of a registry are already in use
+ * by another parse (of this or of any other registry), then the parse uses a copy of the parsers. Copies are reused
+ * by later parses of the same registry. So a registry may parse several files at the same time.
+ * </p>
  *
  * @author Ulli Hafner
  */
 // CHECKSTYLE:COUPLING-OFF
 public class ParserRegistry {
+    private static final Logger LOGGER = Logger.getLogger(ParserRegistry.class.getName());
+
+    private static volatile ParserSnapshot snapshot;
+    /** The generation of the available parsers, incremented whenever the parsers change. */
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+    private static Jenkins listenedInstance;
+    /** The parser instances that are used by a parse of any registry right now. */
+    private static final Set<AbstractWarningsParser> PARSERS_IN_USE = Collections.newSetFromMap(
+            new IdentityHashMap<AbstractWarningsParser, Boolean>());
+
     private final List<AbstractWarningsParser> parsers;
     private final Charset defaultCharset;
+    /** The statistics of all parses of this registry, mapped by parser. */
+    private final Map<AbstractWarningsParser, ParserStatistics> statistics = Maps.newIdentityHashMap();
+    /** Copies of the parsers that are not used by a parse right now. */
+    private final Deque<List<AbstractWarningsParser>> idleCopies = new ArrayDeque<List<AbstractWarningsParser>>();
+    /** Determines whether the parsers can be copied, otherwise concurrent parses wait for each other. */
+    private boolean isCopyable = true;
 
     /**
      * Returns all warning parsers registered by extension points
@@ -93,7 +129,7 @@ public class ParserRegistry {
      */
     public static List<ParserDescription> getAvailableParsers() {
         Set<String> groups = Sets.newHashSet();
-        for (AbstractWarningsParser parser : getAllParsers()) {
+        for (AbstractWarningsParser parser : getSnapshot().getParsers()) {
             groups.add(parser.getGroup());
         }
 
@@ -118,12 +154,13 @@ public class ParserRegistry {
             return new NullWarnigsParser("NULL");
         }
 
-        List<AbstractWarningsParser> parsers = ParserRegistry.getParsers(group);
-        if (parsers.isEmpty()) {
+        ParserSnapshot current = getSnapshot();
+        int position = current.getPosition(group);
+        if (position < 0) {
             return new NullWarnigsParser(group);
         }
         else {
-            return parsers.get(0);
+            return current.getParsers().get(position);
         }
     }
 
@@ -146,13 +183,11 @@ public class ParserRegistry {
      * @return the ID
      */
     public static int getUrl(final String group) {
-        List<AbstractWarningsParser> allParsers = getAllParsers();
-        for (int number = 0; number < allParsers.size(); number++) {
-            if (allParsers.get(number).isInGroup(group)) {
-                return number;
-            }
+        int number = getSnapshot().getPosition(group);
+        if (number < 0) {
+            throw new NoSuchElementException("No parser found for group: " + group);
         }
-        throw new NoSuchElementException("No parser found for group: " + group);
+        return number;
     }
 
     /**
@@ -164,13 +199,10 @@ public class ParserRegistry {
      * @return a list of parsers, might be modified by the receiver
      */
     public static List<AbstractWarningsParser> getParsers(final Collection<String> parserGroups) {
+        ParserSnapshot snapshot = getSnapshot();
         List<AbstractWarningsParser> actualParsers = new ArrayList<AbstractWarningsParser>();
         for (String name : parserGroups) {
-            for (AbstractWarningsParser warningsParser : getAllParsers()) {
-                if (warningsParser.isInGroup(name)) {
-                    actualParsers.add(warningsParser);
-                }
-            }
+            actualParsers.addAll(snapshot.getParsers(name));
         }
         return actualParsers;
     }
@@ -183,32 +215,101 @@ public class ParserRegistry {
      * @return true if the parser exist, <code>false</code> otherwise
      */
     public static boolean exists(final String parserName) {
-        return !getParsers(parserName).isEmpty();
+        return getSnapshot().getPosition(parserName) >= 0;
     }
 
     /**
-     * Returns all available parsers. Parsers are automatically detected using
-     * the extension point mechanism.
+     * Returns the snapshot of all available parsers. The snapshot is created on the first call and reused until the
+     * parser extensions or the Groovy parsers change, see {@link #invalidate()}. A snapshot that is created while
+     * the parsers change belongs to the previous generation, so it is replaced on the next call.
      *
-     * @return all available parsers
+     * @return the snapshot of all available parsers
      */
-    private static List<AbstractWarningsParser> getAllParsers() {
-        List<AbstractWarningsParser> parsers = Lists.newArrayList();
-        parsers.add(new MsBuildParser(Messages._Warnings_PCLint_ParserName(),
-                            Messages._Warnings_PCLint_LinkName(),
-                            Messages._Warnings_PCLint_TrendName()));
-        parsers.add(new IntelParser(Messages._Warnings_IntelFortran_ParserName(),
-                                    Messages._Warnings_IntelFortran_LinkName(),
-                                    Messages._Warnings_IntelFortran_TrendName()));
+    private static ParserSnapshot getSnapshot() {
+        Jenkins instance = Jenkins.getInstance();
+        ParserSnapshot current = snapshot;
+        if (current == null || !current.isCurrent(instance, GENERATION.get())) {
+            synchronized (ParserRegistry.class) {
+                int generation = GENERATION.get();
+                current = snapshot;
+                if (current == null || !current.isCurrent(instance, generation)) {
+                    listenToExtensions(instance);
+                    current = new ParserSnapshot(instance, generation, getAllFactories());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Discards the snapshot of the available parsers. The next access to the registry creates a new snapshot. Needs
+     * to be called whenever the Groovy parsers have been changed; changes of the parser extensions are detected
+     * automatically.
+     */
+    public static void invalidate() {
+        GENERATION.incrementAndGet();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void listenToExtensions(@CheckForNull final Jenkins instance) {
+        if (instance != null && listenedInstance != instance) {
+            ExtensionListListener listener = new ExtensionListListener() {
+                @Override
+                public void onChange() {
+                    invalidate();
+                }
+            };
+            instance.getExtensionList(AbstractWarningsParser.class).addListener(listener);
+            instance.getExtensionList(WarningsParser.class).addListener(listener);
+            listenedInstance = instance;
+        }
+    }
+
+    /**
+     * Returns the factories of all available parsers. Parsers are automatically detected using
+     * the extension point mechanism. The parsers of this plug-in and the Groovy parsers are created for each
+     * parse, the parsers that are registered as extensions are shared.
+     *
+     * @return the factories of all available parsers
+     */
+    private static List<ParserFactory> getAllFactories() {
+        List<ParserFactory> factories = Lists.newArrayList();
+        factories.add(new ParserFactory() {
+            @Override
+            public AbstractWarningsParser create() {
+                return new MsBuildParser(Messages._Warnings_PCLint_ParserName(),
+                        Messages._Warnings_PCLint_LinkName(),
+                        Messages._Warnings_PCLint_TrendName());
+            }
+        });
+        factories.add(new ParserFactory() {
+            @Override
+            public AbstractWarningsParser create() {
+                return new IntelParser(Messages._Warnings_IntelFortran_ParserName(),
+                        Messages._Warnings_IntelFortran_LinkName(),
+                        Messages._Warnings_IntelFortran_TrendName());
+            }
+        });
 
         if (PluginDescriptor.isPluginInstalled("violations")) {
-            ViolationsRegistry.addParsers(parsers);
+            ViolationsRegistry.addFactories(factories);
+        }
+        for (final GroovyParser description : getDynamicParserDescriptions()) {
+            if (description.isValid()) {
+                factories.add(new ParserFactory() {
+                    @Override
+                    public AbstractWarningsParser create() {
+                        return description.newParser();
+                    }
+                });
+            }
+        }
+        for (AbstractWarningsParser parser : all()) {
+            factories.add(new SharedParser(parser));
         }
-        Iterable<GroovyParser> parserDescriptions = getDynamicParserDescriptions();
-        parsers.addAll(getDynamicParsers(parserDescriptions));
-        parsers.addAll(all());
 
-        return ImmutableList.copyOf(parsers);
+        return factories;
     }
 
     private static Iterable<GroovyParser> getDynamicParserDescriptions() {
@@ -226,7 +327,7 @@ public class ParserRegistry {
         List<AbstractWarningsParser> parsers = Lists.newArrayList();
         for (GroovyParser description : parserDescriptions) {
             if (description.isValid()) {
-                parsers.add(description.getParser());
+                parsers.add(description.newParser());
             }
         }
         return parsers;
@@ -244,7 +345,7 @@ public class ParserRegistry {
         defaultCharset = EncodingValidator.defaultCharset(defaultEncoding);
         this.parsers = new ArrayList<AbstractWarningsParser>(parsers);
         if (this.parsers.isEmpty()) {
-            this.parsers.addAll(getAllParsers());
+            this.parsers.addAll(getSnapshot().createParsers());
         }
     }
 
@@ -275,19 +376,224 @@ public class ParserRegistry {
      */
     public Collection<FileAnnotation> parse(final File file, final PluginLogger logger) throws IOException {
         Set<FileAnnotation> allAnnotations = Sets.newHashSet();
-        for (AbstractWarningsParser parser : parsers) {
-            Reader input = null;
-            try {
-                input = createReader(file);
-                Collection<FileAnnotation> warnings = parser.parse(input);
+        for (Collection<FileAnnotation> warnings : parseSeparately(file, logger).values()) {
+            allAnnotations.addAll(warnings);
+        }
+        return allAnnotations;
+    }
+
+    /**
+     * Parses the specified file with each of the available parsers. The file is read and decoded only once for
+     * all line and document parsers, see {@link FanOutScanner}. Other parsers read the file on their own.
+     * Returns the found warnings of each parser separately. This method may be called by several threads at the same
+     * time.
+     *
+     * @param file
+     *            the file to parse
+     * @param logger
+     *            the logger to write to
+     * @return the found warnings, mapped by parser (in the order of the available parsers)
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public Map<AbstractWarningsParser, Collection<FileAnnotation>> parseSeparately(final File file,
+            final PluginLogger logger) throws IOException {
+        List<AbstractWarningsParser> scanners = acquireParsers();
+        StatisticsRecorder recorder = StatisticsRecorder.start();
+        try {
+            Map<AbstractWarningsParser, Collection<FileAnnotation>> scanned = Maps.newHashMap();
+            FanOutScanner scanner = new FanOutScanner(scanners);
+            if (scanner.hasParsers()) {
+                StatisticsRecorder.Usage usage = new StatisticsRecorder.Usage();
+                Reader input = null;
+                try {
+                    input = createReader(file);
+                    scanned.putAll(scanner.scan(input));
+                }
+                finally {
+                    IOUtils.closeQuietly(input);
+                }
+                recorder.endPass(scanned.keySet(), usage);
+            }
+
+            Map<AbstractWarningsParser, Collection<FileAnnotation>> results = Maps.newLinkedHashMap();
+            for (int i = 0; i < scanners.size(); i++) {
+                AbstractWarningsParser parser = scanners.get(i);
+                Collection<FileAnnotation> warnings = scanned.get(parser);
+                if (warnings == null) {
+                    StatisticsRecorder.Usage usage = new StatisticsRecorder.Usage();
+                    Reader input = null;
+                    try {
+                        input = createReader(file);
+                        warnings = parser.parse(input);
+                    }
+                    finally {
+                        IOUtils.closeQuietly(input);
+                    }
+                    recorder.endPass(Collections.singleton(parser), usage);
+                }
                 logger.log(String.format("%s : Found %d warnings.", parser.getParserName(), warnings.size()));
-                allAnnotations.addAll(warnings);
+                recorder.getStatistics(parser).addInput(file.length(), warnings.size());
+                results.put(parsers.get(i), warnings);
             }
-            finally {
-                IOUtils.closeQuietly(input);
+            addStatistics(recorder, scanners);
+            return results;
+        }
+        finally {
+            recorder.stop();
+            releaseParsers(scanners);
+        }
+    }
+
+    /**
+     * Returns parsers that are not used by any other parse: the parsers of this registry if they are not in use,
+     * otherwise an idle or new copy of the parsers. If the parsers can't be copied, then this method waits until
+     * the parsers of this registry are not in use anymore. The parsers need to be released with
+     * {@link #releaseParsers(List)}.
+     */
+    private List<AbstractWarningsParser> acquireParsers() throws ParsingCanceledException {
+        synchronized (PARSERS_IN_USE) {
+            if (!isInUse(parsers)) {
+                PARSERS_IN_USE.addAll(parsers);
+                return parsers;
             }
         }
-        return allAnnotations;
+        synchronized (idleCopies) {
+            if (!idleCopies.isEmpty()) {
+                return idleCopies.pop();
+            }
+        }
+        if (isCopyable()) {
+            try {
+                return copy(parsers);
+            }
+            catch (IOException exception) {
+                disableCopies(exception);
+            }
+            catch (ClassNotFoundException exception) {
+                disableCopies(exception);
+            }
+        }
+        synchronized (PARSERS_IN_USE) {
+            try {
+                while (isInUse(parsers)) {
+                    PARSERS_IN_USE.wait();
+                }
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ParsingCanceledException();
+            }
+            PARSERS_IN_USE.addAll(parsers);
+            return parsers;
+        }
+    }
+
+    private static boolean isInUse(final List<AbstractWarningsParser> selectedParsers) {
+        for (AbstractWarningsParser parser : selectedParsers) {
+            if (PARSERS_IN_USE.contains(parser)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseParsers(final List<AbstractWarningsParser> used) {
+        if (used == parsers) { // NOPMD: the parsers of this registry, not a copy
+            synchronized (PARSERS_IN_USE) {
+                for (AbstractWarningsParser parser : parsers) {
+                    PARSERS_IN_USE.remove(parser);
+                }
+                PARSERS_IN_USE.notifyAll();
+            }
+        }
+        else {
+            synchronized (idleCopies) {
+                idleCopies.push(used);
+            }
+        }
+    }
+
+    private synchronized boolean isCopyable() {
+        return isCopyable;
+    }
+
+    private synchronized void disableCopies(final Exception exception) {
+        LOGGER.log(Level.FINE, "Can't copy the parsers, concurrent parses will wait for each other", exception);
+        isCopyable = false;
+    }
+
+    /**
+     * Creates a copy of the specified parsers by serializing them, just like the parsers are copied when they are
+     * sent to an agent. Parsers that are contained several times are contained several times in the copy as well.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<AbstractWarningsParser> copy(final List<AbstractWarningsParser> original)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        try {
+            output.writeObject(new ArrayList<AbstractWarningsParser>(original));
+        }
+        finally {
+            output.close();
+        }
+        ObjectInputStream input = new ParserInputStream(new ByteArrayInputStream(bytes.toByteArray()), original);
+        try {
+            return (List<AbstractWarningsParser>)input.readObject();
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    private synchronized void addStatistics(final StatisticsRecorder recorder,
+            final List<AbstractWarningsParser> scanners) {
+        Map<AbstractWarningsParser, ParserStatistics> recorded = recorder.getStatistics();
+        Set<AbstractWarningsParser> added = Sets.newIdentityHashSet();
+        for (int i = 0; i < scanners.size(); i++) {
+            ParserStatistics parserStatistics = recorded.get(scanners.get(i));
+            if (parserStatistics != null && added.add(scanners.get(i))) {
+                AbstractWarningsParser parser = parsers.get(i);
+                ParserStatistics existing = statistics.get(parser);
+                if (existing == null) {
+                    statistics.put(parser, parserStatistics);
+                }
+                else {
+                    existing.add(parserStatistics);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the performance figures of the parsers of this registry, accumulated over all files that have been
+     * parsed with {@link #parseSeparately(File, PluginLogger)} so far.
+     *
+     * @return the statistics of the parsers (in the order of the parsers)
+     */
+    public List<ParserStatistics> getStatistics() {
+        return getStatistics(parsers);
+    }
+
+    /**
+     * Returns the performance figures of the specified parsers, accumulated over all files that have been parsed
+     * with {@link #parseSeparately(File, PluginLogger)} so far. Parsers that did not parse any file are skipped.
+     *
+     * @param selectedParsers
+     *            the parsers to get the statistics for
+     * @return the statistics of the parsers (in the order of the specified parsers)
+     */
+    public synchronized List<ParserStatistics> getStatistics(
+            final Collection<? extends AbstractWarningsParser> selectedParsers) {
+        List<ParserStatistics> selected = Lists.newArrayList();
+        for (AbstractWarningsParser parser : Sets.newLinkedHashSet(selectedParsers)) {
+            ParserStatistics parserStatistics = statistics.get(parser);
+            if (parserStatistics != null) {
+                selected.add(parserStatistics);
+            }
+        }
+        return selected;
     }
 
     /**
@@ -300,21 +606,26 @@ public class ParserRegistry {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public Set<FileAnnotation> parse(final InputStream file) throws IOException {
+        List<AbstractWarningsParser> scanners = null;
         try {
+            scanners = acquireParsers();
             Set<FileAnnotation> allAnnotations = Sets.newHashSet();
-            for (AbstractWarningsParser parser : parsers) {
+            for (AbstractWarningsParser parser : scanners) {
                 allAnnotations.addAll(parser.parse(createReader(file)));
             }
             return allAnnotations;
         }
         finally {
             IOUtils.closeQuietly(file);
+            if (scanners != null) {
+                releaseParsers(scanners);
+            }
         }
     }
 
     /**
      * Creates a reader from the specified file. Uses the defined character set to
-     * read the content of the input stream.
+     * read the content of the file, unless the file starts with a byte order mark.
      *
      * @param file the file
      * @return the reader
@@ -322,7 +633,7 @@ public class ParserRegistry {
      */
     @SuppressFBWarnings("OBL")
     protected Reader createReader(final File file) throws FileNotFoundException {
-        return createReader(new FileInputStream(file));
+        return new MappedFileReader(file, defaultCharset);
     }
 
     /**
@@ -336,6 +647,39 @@ public class ParserRegistry {
         return new InputStreamReader(new BOMInputStream(inputStream), defaultCharset);
     }
 
+    /**
+     * Resolves the classes of copied parsers with the class loaders of the original parsers, since the parsers might
+     * be provided by other plug-ins.
+     */
+    private static final class ParserInputStream extends ObjectInputStream {
+        private final Set<ClassLoader> classLoaders = Sets.newLinkedHashSet();
+
+        ParserInputStream(final InputStream input, final List<AbstractWarningsParser> original) throws IOException {
+            super(input);
+
+            for (AbstractWarningsParser parser : original) {
+                ClassLoader classLoader = parser.getClass().getClassLoader();
+                if (classLoader != null) {
+                    classLoaders.add(classLoader);
+                }
+            }
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass description)
+                throws IOException, ClassNotFoundException {
+            for (ClassLoader classLoader : classLoaders) {
+                try {
+                    return Class.forName(description.getName(), false, classLoader);
+                }
+                catch (ClassNotFoundException exception) {
+                    // try the next class loader
+                }
+            }
+            return super.resolveClass(description);
+        }
+    }
+
     /**
      * Null object pattern.
      *
@@ -0,0 +1,266 @@
+package hudson.plugins.warnings.parser;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Immutable snapshot of all available parsers. The snapshot indexes the parsers by group and by ID, so the parsers of
+ * a group (see {@link AbstractWarningsParser#isInGroup(String)}) and the URL number of a group are found without
+ * iterating over all parsers. Only parsers that override the group matching are checked one by one.
+ * <p>
+ * The snapshot keeps the {@link ParserFactory factories} of the parsers and one prototype of each parser that
+ * provides the names and the group. The parsers that are used to scan files are created by the factories, so
+ * parsers that keep the state of a parse are not shared by the builds that use the snapshot.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class ParserSnapshot {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Object owner;
+    private final int generation;
+    private final List<ParserFactory> factories;
+    /** The prototypes of the parsers, one for each factory. */
+    private final List<AbstractWarningsParser> parsers;
+    /** The positions of the parsers with a given group. */
+    private final Map<String, int[]> positionsByGroup;
+    /** The positions of the parsers with a given ID (in lower case). */
+    private final Map<String, int[]> positionsById;
+    /** The positions of the parsers that override the group matching. */
+    private final int[] customPositions;
+
+    /**
+     * Creates a new instance of {@link ParserSnapshot} that shares the specified parser instances.
+     *
+     * @param owner
+     *            the Jenkins instance that provides the parsers, might be {@code null}
+     * @param parsers
+     *            the available parsers
+     */
+    ParserSnapshot(final Object owner, final List<AbstractWarningsParser> parsers) {
+        this(owner, 0, share(parsers));
+    }
+
+    /**
+     * Creates a new instance of {@link ParserSnapshot}.
+     *
+     * @param owner
+     *            the Jenkins instance that provides the parsers, might be {@code null}
+     * @param generation
+     *            the generation of the available parsers, see {@link #isCurrent(Object, int)}
+     * @param factories
+     *            the factories of the available parsers
+     */
+    ParserSnapshot(final Object owner, final int generation, final List<? extends ParserFactory> factories) {
+        this.owner = owner;
+        this.generation = generation;
+        this.factories = ImmutableList.copyOf(factories);
+
+        List<AbstractWarningsParser> prototypes = Lists.newArrayList();
+        for (ParserFactory factory : factories) {
+            prototypes.add(factory.create());
+        }
+        parsers = ImmutableList.copyOf(prototypes);
+
+        Map<String, List<Integer>> groups = Maps.newHashMap();
+        Map<String, List<Integer>> ids = Maps.newHashMap();
+        List<Integer> custom = Lists.newArrayList();
+        for (int position = 0; position < parsers.size(); position++) {
+            AbstractWarningsParser parser = parsers.get(position);
+            if (hasDefaultGroupMatching(parser)) {
+                add(groups, parser.getGroup(), position);
+                add(ids, parser.getId().toLowerCase(Locale.ENGLISH), position);
+            }
+            else {
+                custom.add(position);
+            }
+        }
+        positionsByGroup = toArrays(groups);
+        positionsById = toArrays(ids);
+        customPositions = toArray(custom);
+    }
+
+    private static List<ParserFactory> share(final List<AbstractWarningsParser> parsers) {
+        List<ParserFactory> factories = Lists.newArrayList();
+        for (AbstractWarningsParser parser : parsers) {
+            factories.add(new SharedParser(parser));
+        }
+        return factories;
+    }
+
+    private boolean hasDefaultGroupMatching(final AbstractWarningsParser parser) {
+        try {
+            Class<?> type = parser.getClass();
+            return type.getMethod("isInGroup", String.class).getDeclaringClass() == AbstractWarningsParser.class
+                    && type.getMethod("getGroup").getDeclaringClass() == AbstractWarningsParser.class
+                    && parser.getGroup() != null && parser.getId() != null;
+        }
+        catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    private void add(final Map<String, List<Integer>> index, final String key, final int position) {
+        List<Integer> positions = index.get(key);
+        if (positions == null) {
+            positions = Lists.newArrayList();
+            index.put(key, positions);
+        }
+        positions.add(position);
+    }
+
+    private Map<String, int[]> toArrays(final Map<String, List<Integer>> index) {
+        ImmutableMap.Builder<String, int[]> builder = ImmutableMap.builder();
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            builder.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private int[] toArray(final List<Integer> values) {
+        int[] positions = new int[values.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = values.get(i);
+        }
+        return positions;
+    }
+
+    /**
+     * Returns whether this snapshot has been created for the specified Jenkins instance and generation of the
+     * available parsers.
+     *
+     * @param instance
+     *            the Jenkins instance, might be {@code null}
+     * @param currentGeneration
+     *            the current generation of the available parsers
+     * @return {@code true} if this snapshot is up to date, {@code false} otherwise
+     */
+    boolean isCurrent(final Object instance, final int currentGeneration) {
+        return owner == instance && generation == currentGeneration;
+    }
+
+    /**
+     * Returns the prototypes of all parsers. The prototypes provide the names and the group of the parsers, they
+     * should not be used to scan files.
+     *
+     * @return the prototypes of the parsers
+     */
+    List<AbstractWarningsParser> getParsers() {
+        return parsers;
+    }
+
+    /**
+     * Creates all parsers.
+     *
+     * @return the created parsers, might be modified by the receiver
+     */
+    List<AbstractWarningsParser> createParsers() {
+        List<AbstractWarningsParser> created = Lists.newArrayList();
+        for (ParserFactory factory : factories) {
+            created.add(factory.create());
+        }
+        return created;
+    }
+
+    /**
+     * Creates the parsers that are in the specified group, in the order of all parsers.
+     *
+     * @param group
+     *            the group
+     * @return the created parsers of the group, might be modified by the receiver
+     */
+    List<AbstractWarningsParser> getParsers(final String group) {
+        List<AbstractWarningsParser> matches = Lists.newArrayList();
+        for (int position : getPositions(group)) {
+            matches.add(factories.get(position).create());
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the position of the first parser of the specified group.
+     *
+     * @param group
+     *            the group
+     * @return the position, or -1 if there is no such parser
+     */
+    int getPosition(final String group) {
+        int[] positions = getPositions(group);
+        return positions.length == 0 ? -1 : positions[0];
+    }
+
+    /**
+     * Returns the positions of the parsers that match either the group or the ID, in ascending order.
+     */
+    private int[] getPositions(final String group) {
+        if (group == null) {
+            return NO_POSITIONS;
+        }
+        int[] byGroup = get(positionsByGroup, group);
+        int[] byId = get(positionsById, group.toLowerCase(Locale.ENGLISH));
+        if (byId.length == 0 && customPositions.length == 0) {
+            return byGroup;
+        }
+
+        BitSet matches = new BitSet(parsers.size());
+        for (int position : byGroup) {
+            matches.set(position);
+        }
+        for (int position : byId) {
+            matches.set(position);
+        }
+        for (int position : customPositions) {
+            if (parsers.get(position).isInGroup(group)) {
+                matches.set(position);
+            }
+        }
+        int[] positions = new int[matches.cardinality()];
+        int index = 0;
+        for (int position = matches.nextSetBit(0); position >= 0; position = matches.nextSetBit(position + 1)) {
+            positions[index++] = position;
+        }
+        return positions;
+    }
+
+    private int[] get(final Map<String, int[]> index, final String key) {
+        int[] positions = index.get(key);
+        return positions == null ? NO_POSITIONS : positions;
+    }
+
+    /**
+     * Creates the parsers of a snapshot.
+     */
+    interface ParserFactory {
+        /**
+         * Creates a parser. The parser may be a new instance or a shared instance, depending on whether the parser
+         * keeps the state of a parse.
+         *
+         * @return the parser
+         */
+        AbstractWarningsParser create();
+    }
+
+    /**
+     * Factory that returns always the same parser instance, e.g. a parser that is registered as extension.
+     */
+    static final class SharedParser implements ParserFactory {
+        private final AbstractWarningsParser parser;
+
+        SharedParser(final AbstractWarningsParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public AbstractWarningsParser create() {
+            return parser;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Performance figures of a single parser, accumulated over all inputs of a build. The figures show which parser
+ * makes the parsing of a build slow: the amount of input, how many lines have been handed over to the regular
+ * expression of the parser, how many matches have been found and how much time and memory the parser used.
+ * <p>
+ * If several parsers scan an input in a single pass (see {@link FanOutScanner}), then the time and memory of the
+ * pass are distributed over these parsers: each parser gets its matching time plus an equal share of the time
+ * that has been required to read and decode the input.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+@ExportedBean
+public class ParserStatistics implements Serializable {
+    private static final long serialVersionUID = 3620781413577713424L;
+    private static final String ROW_FORMAT = "%-30s %7s %10s %10s %11s %8s %8s %8s %9s %9s %11s";
+
+    /**
+     * Returns the rows of a table that shows the specified statistics, e.g. to print them in the console log.
+     *
+     * @param statistics
+     *            the statistics to show
+     * @return the rows of the table, including a header row
+     */
+    public static List<String> formatTable(final Collection<ParserStatistics> statistics) {
+        List<String> rows = Lists.newArrayList();
+        rows.add(String.format(ROW_FORMAT, "Parser", "Inputs", "KB read", "Lines", "Interesting", "Matches",
+                "Ignored", "Warnings", "Wall ms", "CPU ms", "KB alloc"));
+        for (ParserStatistics parser : statistics) {
+            rows.add(String.format(ROW_FORMAT, StringUtils.abbreviate(parser.getParserName(), 30),
+                    parser.getInputs(), parser.getBytesRead() / 1024, parser.getLinesScanned(),
+                    parser.getInterestingLines(), parser.getMatches(), parser.getFalsePositives(),
+                    parser.getWarnings(), parser.getWallTime(), parser.getCpuTime(),
+                    parser.getAllocatedBytes() / 1024));
+        }
+        return rows;
+    }
+
+    private final String parserName;
+    private int inputs;
+    private long bytesRead;
+    private long linesScanned;
+    private long interestingLines;
+    private long matches;
+    private long falsePositives;
+    private long warnings;
+    private int skippedInputs;
+    private long wallTime;
+    private long cpuTime;
+    private long allocatedBytes;
+    /** Time of the regular expression matches of the current pass, in nanoseconds. */
+    private transient long matchTime;
+
+    /**
+     * Creates a new instance of {@link ParserStatistics}.
+     *
+     * @param parserName
+     *            the name of the parser
+     */
+    public ParserStatistics(final String parserName) {
+        this.parserName = parserName;
+    }
+
+    /**
+     * Returns the name of the parser.
+     *
+     * @return the name of the parser
+     */
+    @Exported
+    public String getParserName() {
+        return parserName;
+    }
+
+    /**
+     * Returns the number of inputs (files or console logs) that have been parsed.
+     *
+     * @return the number of inputs
+     */
+    @Exported
+    public int getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Returns the number of bytes of the parsed inputs.
+     *
+     * @return the number of bytes
+     */
+    @Exported
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the number of lines that have been scanned. Only available for parsers that scan the input line by
+     * line or in a sliding window.
+     *
+     * @return the number of lines
+     */
+    @Exported
+    public long getLinesScanned() {
+        return linesScanned;
+    }
+
+    /**
+     * Returns the number of lines (or records) that have been handed over to the regular expression of the parser,
+     * i.e. the lines that contain the required literals and pass {@link RegexpLineParser#isLineInteresting(String)}.
+     * For document parsers, this is the number of scanned windows of the input.
+     *
+     * @return the number of interesting lines
+     */
+    @Exported
+    public long getInterestingLines() {
+        return interestingLines;
+    }
+
+    /**
+     * Returns the number of matches of the regular expression of the parser.
+     *
+     * @return the number of matches
+     */
+    @Exported
+    public long getMatches() {
+        return matches;
+    }
+
+    /**
+     * Returns the number of matches that have been ignored as false positives.
+     *
+     * @return the number of false positives
+     */
+    @Exported
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * Returns the number of warnings that have been found.
+     *
+     * @return the number of warnings
+     */
+    @Exported
+    public long getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * Returns the number of lines or records that have been skipped since they are too long or since a match
+     * exceeded its time budget.
+     *
+     * @return the number of skipped inputs
+     */
+    @Exported
+    public int getSkippedInputs() {
+        return skippedInputs;
+    }
+
+    /**
+     * Returns the elapsed time of the parser in milliseconds.
+     *
+     * @return the elapsed time
+     */
+    @Exported
+    public long getWallTime() {
+        return TimeUnit.NANOSECONDS.toMillis(wallTime);
+    }
+
+    /**
+     * Returns the CPU time of the parser in milliseconds. Returns 0 if the JVM does not measure the CPU time of
+     * threads.
+     *
+     * @return the CPU time
+     */
+    @Exported
+    public long getCpuTime() {
+        return TimeUnit.NANOSECONDS.toMillis(cpuTime);
+    }
+
+    /**
+     * Returns the number of bytes that the parser allocated on the heap. Returns 0 if the JVM does not measure the
+     * allocations of threads.
+     *
+     * @return the allocated bytes
+     */
+    @Exported
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Adds a parsed input.
+     *
+     * @param size
+     *            the size of the input in bytes
+     * @param found
+     *            the number of warnings that have been found in the input
+     */
+    void addInput(final long size, final int found) {
+        inputs++;
+        bytesRead += size;
+        warnings += found;
+    }
+
+    /**
+     * Adds the specified number of scanned lines.
+     *
+     * @param lines
+     *            the number of lines
+     */
+    void addLines(final long lines) {
+        linesScanned += lines;
+    }
+
+    /**
+     * Adds a line (or record) that has been handed over to the regular expression.
+     *
+     * @param nanos
+     *            the time of the matches in nanoseconds
+     */
+    void addInterestingLine(final long nanos) {
+        interestingLines++;
+        matchTime += nanos;
+    }
+
+    /**
+     * Adds a match of the regular expression.
+     *
+     * @param isFalsePositive
+     *            determines whether the match has been ignored
+     */
+    void addMatch(final boolean isFalsePositive) {
+        matches++;
+        if (isFalsePositive) {
+            falsePositives++;
+        }
+    }
+
+    /**
+     * Adds a line or record that has been skipped.
+     */
+    void addSkippedInput() {
+        skippedInputs++;
+    }
+
+    /**
+     * Returns the time of the regular expression matches since the last call of
+     * {@link #addUsage(long, long, long)}.
+     *
+     * @return the time in nanoseconds
+     */
+    long getMatchTime() {
+        return matchTime;
+    }
+
+    /**
+     * Adds the used resources of a pass over an input.
+     *
+     * @param nanos
+     *            the elapsed time in nanoseconds
+     * @param cpuNanos
+     *            the CPU time in nanoseconds
+     * @param bytes
+     *            the allocated bytes
+     */
+    void addUsage(final long nanos, final long cpuNanos, final long bytes) {
+        wallTime += nanos;
+        cpuTime += cpuNanos;
+        allocatedBytes += bytes;
+        matchTime = 0;
+    }
+
+    /**
+     * Adds the figures of the specified statistics to this statistics.
+     *
+     * @param other
+     *            the statistics to add
+     */
+    void add(final ParserStatistics other) {
+        inputs += other.inputs;
+        bytesRead += other.bytesRead;
+        linesScanned += other.linesScanned;
+        interestingLines += other.interestingLines;
+        matches += other.matches;
+        falsePositives += other.falsePositives;
+        warnings += other.warnings;
+        skippedInputs += other.skippedInputs;
+        wallTime += other.wallTime;
+        cpuTime += other.cpuTime;
+        allocatedBytes += other.allocatedBytes;
+        matchTime += other.matchTime;
+    }
+}
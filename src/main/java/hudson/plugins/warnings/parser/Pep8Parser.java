@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -38,8 +40,8 @@ public class Pep8Parser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains(":");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList(":");
     }
 
     private Priority mapPriority(final String priority) {
@@ -50,5 +52,10 @@ public class Pep8Parser extends RegexpLineParser {
             return Priority.LOW;
         }
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
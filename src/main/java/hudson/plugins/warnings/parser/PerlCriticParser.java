@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -25,6 +27,11 @@ public class PerlCriticParser extends RegexpLineParser {
                 Messages._Warnings_PerlCritic_TrendName(), PERLCRITIC_WARNING_PATTERN, true);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("Severity:");
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         String filename;
@@ -64,4 +71,9 @@ public class PerlCriticParser extends RegexpLineParser {
             return Priority.HIGH;
         }
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
\ No newline at end of file
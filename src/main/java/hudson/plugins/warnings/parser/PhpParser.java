@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -33,8 +35,8 @@ public class PhpParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("PHP");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("PHP");
     }
 
     @Override
@@ -57,4 +59,9 @@ public class PhpParser extends RegexpLineParser {
             return createWarning(fileName, Integer.parseInt(start), category, message, priority);
         }
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
\ No newline at end of file
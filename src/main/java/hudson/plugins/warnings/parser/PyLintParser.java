@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.plugins.analysis.util.model.Priority;
@@ -28,8 +30,8 @@ public class PyLintParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("[");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("[");
     }
 
     @Override
@@ -63,4 +65,9 @@ public class PyLintParser extends RegexpLineParser {
 
         return createWarning(matcher.group(1), getLineNumber(matcher.group(2)), category, message, priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
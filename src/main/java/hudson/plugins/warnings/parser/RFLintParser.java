@@ -1,17 +1,8 @@
 package hudson.plugins.warnings.parser;
 
 import hudson.Extension;
-import hudson.console.ConsoleNote;
-import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
 
-import java.io.IOException;
-import java.io.Reader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,36 +18,24 @@ import java.util.regex.Pattern;
 public class RFLintParser extends RegexpLineParser {
 
     private static final String RFLINT_ERROR_PATTERN = "([W|E|I]): (\\d+), (\\d+): (.*) \\((.*)\\)";
-    private static final String RFLINT_FILE_PATTERN = "\\+\\s(.*)";
+    private static final Pattern FILE_PATTERN = Pattern.compile("\\+\\s(.*)");
     private String fileName;
 
     public RFLintParser(){
         super(Messages._Warnings_RFLint_ParserName(),
                 Messages._Warnings_RFLint_LinkName(),
                 Messages._Warnings_RFLint_TrendName(),
-                RFLINT_ERROR_PATTERN);
+                RFLINT_ERROR_PATTERN, true);
     }
 
     @Override
-    public Collection<FileAnnotation> parse(Reader file) throws IOException {
-        List<FileAnnotation> warnings = new ArrayList<FileAnnotation>();
-        LineIterator iterator = IOUtils.lineIterator(file);
-        Pattern filePattern = Pattern.compile(RFLINT_FILE_PATTERN);
-        try {
-            while (iterator.hasNext()) {
-                String line = ConsoleNote.removeNotes(iterator.nextLine());
-                // check if line contains file name.
-                Matcher matcher = filePattern.matcher(line);
-                if (matcher.find()) {
-                    fileName = matcher.group(1);
-                }
-                findAnnotations(line, warnings);
-            }
+    protected boolean isLineInteresting(final String line) {
+        // check if line contains file name.
+        Matcher matcher = FILE_PATTERN.matcher(line);
+        if (matcher.find()) {
+            fileName = matcher.group(1);
         }
-        finally {
-            iterator.close();
-        }
-        return warnings;
+        return true;
     }
 
     @Override
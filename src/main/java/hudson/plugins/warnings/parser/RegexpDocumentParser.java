@@ -1,26 +1,32 @@
 package hudson.plugins.warnings.parser;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import org.jvnet.localizer.Localizable;
 
-import hudson.console.ConsoleNote;
-
 import hudson.plugins.analysis.util.model.FileAnnotation;
 
 /**
  * Parses an input stream as a whole document for compiler warnings using the provided
- * regular expression.
+ * regular expression. The document is scanned in a sliding window that is bounded by the
+ * {@link #getMaxRecordSpan() maximum record span}, see {@link SlidingWindowScanner}.
  *
  * @author Ulli Hafner
  */
 public abstract class RegexpDocumentParser extends RegexpParser {
     private static final long serialVersionUID = -4985090860783261124L;
 
+    /**
+     * Default maximum number of characters of a single warning record. Can be changed with the system property
+     * {@code hudson.plugins.warnings.parser.RegexpDocumentParser.maxRecordSpan}, a value of 0 scans the whole
+     * document at once.
+     */
+    private static final int MAX_RECORD_SPAN = Integer.getInteger(
+            RegexpDocumentParser.class.getName() + ".maxRecordSpan", 1024 * 1024);
+
     /**
      * Creates a new instance of {@link RegexpDocumentParser}.
      *
@@ -46,22 +52,33 @@ public abstract class RegexpDocumentParser extends RegexpParser {
 
     @Override
     public Collection<FileAnnotation> parse(final Reader file) throws IOException, ParsingCanceledException {
-        BufferedReader reader = new BufferedReader(file);
-        StringBuilder buf = new StringBuilder();
-        String line = reader.readLine();
-        while (line != null) {
-            buf.append(ConsoleNote.removeNotes(line)).append('\n');
-            line = reader.readLine();
+        SlidingWindowScanner scanner = new SlidingWindowScanner(Collections.singletonList(this));
+        LineSource lines = LineSource.create(file);
+        long count = 0;
+        try {
+            for (CharSequence line = lines.readLine(); line != null; line = lines.readLine()) {
+                scanner.scanLine(line);
+                count++;
+            }
         }
+        finally {
+            lines.close();
+        }
+        StatisticsRecorder.addLines(this, count);
 
-        String content = buf.toString();
-
-        file.close();
-
-        ArrayList<FileAnnotation> warnings = new ArrayList<FileAnnotation>();
-        findAnnotations(content, warnings);
+        return scanner.finish().get(0);
+    }
 
-        return warnings;
+    /**
+     * Returns the maximum number of characters a single warning record of this parser may span. The document
+     * is scanned in a window of twice this size, text that has been scanned is dropped from the window. Records
+     * that are longer might be truncated or missed. This default implementation returns the value of the system
+     * property {@code hudson.plugins.warnings.parser.RegexpDocumentParser.maxRecordSpan} (1 MB by default).
+     *
+     * @return the maximum record span in characters, or 0 if the whole document should be scanned at once
+     */
+    protected int getMaxRecordSpan() {
+        return MAX_RECORD_SPAN;
     }
 
     /**
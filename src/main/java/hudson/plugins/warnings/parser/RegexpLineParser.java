@@ -4,19 +4,21 @@ import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Matcher;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
 import org.jvnet.localizer.Localizable;
 
-import hudson.console.ConsoleNote;
 import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
 
 /**
  * Parses an input stream line by line for compiler warnings using the provided
  * regular expression. Multi-line regular expressions are not supported, each
- * warning has to be one a single line.
+ * warning has to be one a single line. Warnings that span several consecutive
+ * lines can be combined with a {@link RecordAssembler} in
+ * {@link #postProcessWarnings(List)}.
  *
  * @author Ulli Hafner
  */
@@ -33,6 +35,11 @@ public abstract class RegexpLineParser extends RegexpParser {
 
     private int currentLine;
 
+    /** Matches the required literals of this parser, {@code null} if no literals are required. */
+    private transient KeywordAutomaton requiredLiteralsMatcher;
+    /** Determines whether the lines need to be checked with an overridden {@link #isLineInteresting(String)}. */
+    private transient boolean isLineCheckRequired;
+
     /**
      * Creates a new instance of {@link RegexpDocumentParser}.
      *
@@ -74,31 +81,166 @@ public abstract class RegexpLineParser extends RegexpParser {
 
     @Override
     public Collection<FileAnnotation> parse(final Reader file) throws IOException, ParsingCanceledException {
-        ArrayList<FileAnnotation> warnings = new ArrayList<FileAnnotation>();
+        if (isStateless() && ParallelLineScanner.isEnabled()) {
+            return parseInParallel(file);
+        }
+
+        List<FileAnnotation> warnings = new ArrayList<FileAnnotation>();
+        Matcher matcher = createMatcher();
 
-        LineIterator iterator = IOUtils.lineIterator(file);
+        LineSource lines = LineSource.create(file);
         try {
-            currentLine = 0;
-            if (isStringMatchActivated) {
-                while (iterator.hasNext()) {
-                    String line = getNextLine(iterator);
-                    if (isLineInteresting(line)) {
-                        findAnnotations(line, warnings);
-                    }
-                    currentLine++;
-                }
+            startScan();
+            for (CharSequence line = lines.readLine(); line != null; line = lines.readLine()) {
+                scanLine(line, matcher, warnings);
             }
-            else {
-                while (iterator.hasNext()) {
-                    findAnnotations(getNextLine(iterator), warnings);
-                    currentLine++;
-                }
+        }
+        finally {
+            lines.close();
+        }
+        StatisticsRecorder.addLines(this, currentLine);
+
+        return finishScan(warnings);
+    }
+
+    private Collection<FileAnnotation> parseInParallel(final Reader file) throws IOException, ParsingCanceledException {
+        ParallelLineScanner scanner = new ParallelLineScanner(Collections.singletonList(this));
+        boolean isFinished = false;
+        LineSource lines = LineSource.create(file);
+        try {
+            long count = 0;
+            for (CharSequence line = lines.readLine(); line != null; line = lines.readLine()) {
+                scanner.scanLine(line.toString());
+                count++;
             }
+            Collection<FileAnnotation> warnings = scanner.finish().get(0);
+            StatisticsRecorder.addLines(this, count);
+            isFinished = true;
+            return warnings;
         }
         finally {
-            iterator.close();
+            lines.close();
+            if (!isFinished) {
+                scanner.cancel();
+            }
+        }
+    }
+
+    /**
+     * Returns whether this parser keeps no state across the lines of an input, i.e. whether the warnings of a line
+     * only depend on the line itself and on its line number. Stateless parsers may scan the chunks of large inputs in
+     * parallel, see {@link ParallelLineScanner}. Since the lines of a chunk are scanned on a different thread,
+     * {@link #isLineInteresting(String)}, {@link #createWarning(Matcher)} and
+     * {@link #getCurrentLine()} must not modify any fields of the parser. This default implementation returns
+     * {@code false}.
+     *
+     * @return {@code true} if this parser is stateless, {@code false} otherwise
+     */
+    protected boolean isStateless() {
+        return false;
+    }
+
+    /**
+     * Prepares this parser for a new scan of an input. Afterwards, the lines of the input need to be handed over
+     * one by one using {@link #scanLine(CharSequence, Matcher, List)}.
+     */
+    void startScan() {
+        currentLine = 0;
+        isLineCheckRequired = isStringMatchActivated && overridesLineCheck();
+
+        Collection<String> literals = getRequiredLiterals();
+        if (literals.isEmpty()) {
+            requiredLiteralsMatcher = null;
+        }
+        else {
+            KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+            for (String literal : literals) {
+                builder.add(literal, 0);
+            }
+            requiredLiteralsMatcher = builder.build();
+        }
+    }
+
+    /**
+     * Scans the specified line for warnings. Console notes need to be removed from the line by the caller.
+     *
+     * @param line
+     *            the line to scan, only valid during this call
+     * @param matcher
+     *            the matcher of this scan, see {@link #createMatcher()}
+     * @param warnings
+     *            the found annotations
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     */
+    void scanLine(final CharSequence line, final Matcher matcher, final List<FileAnnotation> warnings)
+            throws ParsingCanceledException {
+        if (requiredLiteralsMatcher == null || requiredLiteralsMatcher.containsAny(line)) {
+            scanCheckedLine(line, matcher, warnings);
+        }
+        else {
+            skipLine();
+        }
+    }
+
+    /**
+     * Scans the specified line for warnings. Console notes need to be removed from the line by the caller. This
+     * method is used if the caller already has checked that the line contains at least one of the
+     * {@link #getRequiredLiterals() required literals}.
+     *
+     * @param line
+     *            the line to scan, only valid during this call
+     * @param matcher
+     *            the matcher of this scan, see {@link #createMatcher()}
+     * @param warnings
+     *            the found annotations
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     */
+    void scanCheckedLine(final CharSequence line, final Matcher matcher, final List<FileAnnotation> warnings)
+            throws ParsingCanceledException {
+        scanLineOfChunk(line, matcher, warnings);
+        currentLine++;
+    }
+
+    /**
+     * Skips the current line of the input since it contains none of the {@link #getRequiredLiterals() required
+     * literals}.
+     */
+    void skipLine() {
+        currentLine++;
+    }
+
+    /**
+     * Scans the specified line of a chunk for warnings. The required literals need to be checked by the caller, the
+     * line counter of this parser is not changed. A {@link String} copy of the line is only created if this parser
+     * checks the lines with {@link #isLineInteresting(String)}.
+     *
+     * @param line
+     *            the line to scan, only valid during this call
+     * @param matcher
+     *            the matcher of this scan, see {@link #createMatcher()}
+     * @param warnings
+     *            the found annotations
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     * @see ParallelLineScanner
+     */
+    void scanLineOfChunk(final CharSequence line, final Matcher matcher, final List<FileAnnotation> warnings)
+            throws ParsingCanceledException {
+        if (!isLineCheckRequired || isLineInteresting(line.toString())) {
+            findAnnotations(line, matcher, warnings);
         }
+    }
 
+    /**
+     * Finishes the scan of the input.
+     *
+     * @param warnings
+     *            the warnings that have been found during the scan
+     * @return the post processed warnings
+     */
+    Collection<FileAnnotation> finishScan(final List<FileAnnotation> warnings) {
         return postProcessWarnings(warnings);
     }
 
@@ -119,11 +261,24 @@ public abstract class RegexpLineParser extends RegexpParser {
      * @return the current line
      */
     public int getCurrentLine() {
+        int lineOfChunk = ParallelLineScanner.getLineOfCurrentChunk();
+        if (lineOfChunk >= 0) {
+            return lineOfChunk;
+        }
         return currentLine;
     }
 
-    private String getNextLine(final LineIterator iterator) {
-        return ConsoleNote.removeNotes(iterator.nextLine());
+    /**
+     * Returns the literals that are required by the regular expression of this parser: only lines that contain at
+     * least one of these literals will be handed over to {@link #isLineInteresting(String)} and the regular
+     * expression scanner. When several parsers scan the same input, the literals of all parsers are checked in a
+     * single pass over each line. This default implementation returns an empty collection, i.e. every line is
+     * scanned.
+     *
+     * @return the required literals, an empty collection if every line should be scanned
+     */
+    protected Collection<String> getRequiredLiterals() {
+        return Collections.emptyList();
     }
 
     /**
@@ -142,6 +297,19 @@ public abstract class RegexpLineParser extends RegexpParser {
         return true;
     }
 
+    private boolean overridesLineCheck() {
+        for (Class<?> type = getClass(); type != RegexpLineParser.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod("isLineInteresting", String.class);
+                return true;
+            }
+            catch (NoSuchMethodException exception) {
+                // continue with the super class
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates a new instance of {@link RegexpLineParser}. Uses a single line
      * matcher.
@@ -180,4 +348,131 @@ public abstract class RegexpLineParser extends RegexpParser {
 
         this.isStringMatchActivated = isStringMatchActivated;
     }
+
+    /**
+     * Assembles a single warning from several consecutive lines, e.g. a message that has been split over several
+     * lines of the console log. The message of the current record is accumulated in a builder and the warning is
+     * created only once when the record is finished, so the time to assemble a record is linear in the number of its
+     * lines. The length of the message is limited: lines that would exceed the limit are not added to the message,
+     * but still extend the line range of the warning.
+     */
+    public static final class RecordAssembler {
+        private final int maxMessageLength;
+        private final StringBuilder message = new StringBuilder();
+
+        private boolean isStarted;
+        private String fileName;
+        private int start;
+        private int end;
+        private String type;
+        private String category;
+        private Priority priority;
+
+        /**
+         * Creates a new instance of {@link RecordAssembler}.
+         *
+         * @param maxMessageLength
+         *            the maximum length of the message of a record
+         */
+        public RecordAssembler(final int maxMessageLength) {
+            this.maxMessageLength = maxMessageLength;
+        }
+
+        /**
+         * Starts a new record with the properties of the specified warning. A record that has not been finished yet
+         * is discarded.
+         *
+         * @param first
+         *            the warning of the first line of the record
+         */
+        public void start(final FileAnnotation first) {
+            start(first.getFileName(), first.getPrimaryLineNumber(), first.getType(), first.getCategory(),
+                    first.getMessage(), first.getPriority());
+        }
+
+        /**
+         * Starts a new record. A record that has not been finished yet is discarded.
+         *
+         * @param recordFileName
+         *            the name of the file
+         * @param line
+         *            the first line of the record
+         * @param recordType
+         *            the identifier of the warning type
+         * @param recordCategory
+         *            the warning category
+         * @param text
+         *            the message of the first line
+         * @param recordPriority
+         *            the priority of the warning
+         */
+        public void start(final String recordFileName, final int line, final String recordType,
+                final String recordCategory, final CharSequence text, final Priority recordPriority) {
+            isStarted = true;
+            fileName = recordFileName;
+            start = line;
+            end = line;
+            type = recordType;
+            category = recordCategory;
+            priority = recordPriority;
+            message.setLength(0);
+            message.append(text);
+        }
+
+        /**
+         * Returns whether a record has been started and not been finished yet.
+         *
+         * @return {@code true} if there is a current record, {@code false} otherwise
+         */
+        public boolean isStarted() {
+            return isStarted;
+        }
+
+        /**
+         * Returns the last line of the current record.
+         *
+         * @return the last line
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * Returns the priority of the current record.
+         *
+         * @return the priority
+         */
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Appends the specified line to the current record. The text is separated by a newline from the message of
+         * the record, unless the message would exceed the maximum length.
+         *
+         * @param line
+         *            the number of the line
+         * @param text
+         *            the message text of the line
+         */
+        public void append(final int line, final CharSequence text) {
+            if (message.length() + text.length() < maxMessageLength) {
+                message.append('\n').append(text);
+            }
+            end = line;
+        }
+
+        /**
+         * Finishes the current record.
+         *
+         * @return the warning of the record, or {@code null} if no record has been started
+         */
+        public Warning finish() {
+            if (!isStarted) {
+                return null;
+            }
+            isStarted = false;
+            return new Warning(fileName, start, end, type, category, message.toString(), priority);
+        }
+    }
 }
@@ -1,14 +1,16 @@
 package hudson.plugins.warnings.parser;
 
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.jvnet.localizer.Localizable;
 
-import hudson.plugins.analysis.util.PackageDetectors;
 import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.warnings.parser.TimeLimitedCharSequence.MatchAbortedException;
 
 /**
  * Parses an input stream for compiler warnings using the provided regular expression.
@@ -28,6 +30,24 @@ public abstract class RegexpParser extends AbstractWarningsParser implements War
     /** Pattern identifying an ant task debug output prefix. */
     protected static final String ANT_TASK = "^(?:.*\\[.*\\])?\\s*";
 
+    private static final Logger LOGGER = Logger.getLogger(RegexpParser.class.getName());
+    /**
+     * Maximum number of characters of a line or record that is scanned, longer inputs (e.g., minified scripts or
+     * encoded binaries) are skipped. Can be changed with the system property
+     * {@code hudson.plugins.warnings.parser.RegexpParser.maxInputLength}, a value of 0 disables the limit.
+     */
+    private static final int MAX_INPUT_LENGTH = Integer.getInteger(
+            RegexpParser.class.getName() + ".maxInputLength", 256 * 1024);
+    /**
+     * Time budget of a single match in milliseconds, the rest of an input is skipped if a match takes longer. Can
+     * be changed with the system property {@code hudson.plugins.warnings.parser.RegexpParser.matchTimeout}, a value
+     * of 0 disables the limit.
+     */
+    private static final long MATCH_TIMEOUT = Long.getLong(
+            RegexpParser.class.getName() + ".matchTimeout", 10000);
+    /** Number of characters of a skipped input that are shown in the log. */
+    private static final int EXCERPT_LENGTH = 80;
+
     /** Pattern of compiler warnings. */
     private Pattern pattern;
 
@@ -69,6 +89,14 @@ public abstract class RegexpParser extends AbstractWarningsParser implements War
         setPattern(warningPattern, useMultiLine);
     }
 
+    @Override
+    List<String> getConfiguration() {
+        List<String> configuration = super.getConfiguration();
+        configuration.add(pattern.pattern());
+        configuration.add(String.valueOf(pattern.flags()));
+        return configuration;
+    }
+
     /**
      * Parses the specified string content and creates annotations for each
      * found warning.
@@ -81,28 +109,162 @@ public abstract class RegexpParser extends AbstractWarningsParser implements War
      *             indicates that the user canceled the operation
      */
     protected void findAnnotations(final String content, final List<FileAnnotation> warnings) throws ParsingCanceledException {
-        Matcher matcher = pattern.matcher(content);
+        findAnnotations(content, pattern.matcher(content), warnings);
+    }
+
+    /**
+     * Creates a matcher for the pattern of this parser. The matcher can be reused for all inputs of a single scan
+     * using {@link #findAnnotations(CharSequence, Matcher, List)}.
+     *
+     * @return the matcher
+     */
+    Matcher createMatcher() {
+        return pattern.matcher(StringUtils.EMPTY);
+    }
 
-        while (matcher.find()) {
-            Warning warning = createWarning(matcher);
-            if (warning != FALSE_POSITIVE) { // NOPMD
-                detectPackageName(warning);
-                warnings.add(warning);
+    /**
+     * Parses the specified content and creates annotations for each found warning. The specified matcher is reset
+     * onto the content, so no objects are created unless a warning is found. Contents that exceed the maximum input
+     * length are skipped, as is the rest of a content once a match exceeds its time budget.
+     *
+     * @param content
+     *            the content to scan
+     * @param matcher
+     *            the matcher to use, see {@link #createMatcher()}
+     * @param warnings
+     *            the found annotations
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     */
+    void findAnnotations(final CharSequence content, final Matcher matcher, final List<FileAnnotation> warnings)
+            throws ParsingCanceledException {
+        ParserStatistics statistics = StatisticsRecorder.get(this);
+        if (MAX_INPUT_LENGTH > 0 && content.length() > MAX_INPUT_LENGTH) {
+            LOGGER.log(Level.WARNING, String.format("%s: skipped input of %d characters (maximum is %d): %s",
+                    getName(), content.length(), MAX_INPUT_LENGTH, getExcerpt(content, 0)));
+            if (statistics != null) {
+                statistics.addSkippedInput();
             }
-            if (Thread.interrupted()) {
-                throw new ParsingCanceledException();
+            return;
+        }
+
+        long start = statistics == null ? 0 : System.nanoTime();
+        TimeLimitedCharSequence input = TimeLimitedCharSequence.get(MATCH_TIMEOUT);
+        matcher.reset(input.wrap(content));
+        try {
+            while (matcher.find()) {
+                addWarning(matcher, warnings, statistics);
+                input.startMatch();
             }
         }
+        catch (MatchAbortedException exception) {
+            handleAbortedMatch(exception, content, 0, statistics);
+        }
+        finally {
+            input.clear();
+            if (statistics != null) {
+                statistics.addInterestingLine(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Parses a part of the specified window of a larger input and creates annotations for each found warning. Only
+     * matches that start before the specified limit are accepted, all other matches are left for a subsequent scan
+     * when more of the input is available. Matches that depend on the end of the window (e.g., a {@code $} anchor)
+     * are left for a subsequent scan as well, if the window does not end at the limit. Anchors and look-arounds see
+     * the text before the start position, so the start of the scan is not treated as the start of the input. If a
+     * match exceeds its time budget, then the rest of the window up to the limit is skipped.
+     *
+     * @param window
+     *            the window of the input to scan
+     * @param start
+     *            the position in the window to start the scan at
+     * @param limit
+     *            the position in the window where matches must start before
+     * @param warnings
+     *            the found annotations
+     * @return the position in the window to continue a subsequent scan at
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     */
+    int findAnnotations(final CharSequence window, final int start, final int limit,
+            final List<FileAnnotation> warnings) throws ParsingCanceledException {
+        ParserStatistics statistics = StatisticsRecorder.get(this);
+        long begin = statistics == null ? 0 : System.nanoTime();
+        TimeLimitedCharSequence input = TimeLimitedCharSequence.get(MATCH_TIMEOUT);
+        Matcher matcher = pattern.matcher(input.wrap(window));
+        matcher.useAnchoringBounds(false);
+        matcher.useTransparentBounds(true);
+        matcher.region(start, window.length());
+
+        int next = limit;
+        try {
+            boolean hasMatch = matcher.find();
+            while (hasMatch && matcher.start() < limit) {
+                if (limit < window.length() && matcher.requireEnd()) {
+                    next = matcher.start();
+                    break;
+                }
+                next = Math.max(limit, matcher.end());
+                addWarning(matcher, warnings, statistics);
+                input.startMatch();
+                hasMatch = matcher.find();
+            }
+        }
+        catch (MatchAbortedException exception) {
+            handleAbortedMatch(exception, window, start, statistics);
+        }
+        finally {
+            input.clear();
+            if (statistics != null) {
+                statistics.addInterestingLine(System.nanoTime() - begin);
+            }
+        }
+        return next;
+    }
+
+    private void handleAbortedMatch(final MatchAbortedException exception, final CharSequence input,
+            final int start, final ParserStatistics statistics) throws ParsingCanceledException {
+        if (exception.isCanceled()) {
+            throw new ParsingCanceledException();
+        }
+        if (statistics != null) {
+            statistics.addSkippedInput();
+        }
+        LOGGER.log(Level.WARNING, String.format("%s: skipped input since a match took longer than %d ms: %s",
+                getName(), MATCH_TIMEOUT, getExcerpt(input, start)));
+    }
+
+    private String getExcerpt(final CharSequence input, final int start) {
+        int end = Math.min(input.length(), start + EXCERPT_LENGTH);
+        return StringUtils.abbreviate(input.subSequence(Math.min(start, end), end).toString(), EXCERPT_LENGTH);
+    }
+
+    private void addWarning(final Matcher matcher, final List<FileAnnotation> warnings,
+            final ParserStatistics statistics) throws ParsingCanceledException {
+        Warning warning = createWarning(matcher);
+        if (statistics != null) {
+            statistics.addMatch(warning == FALSE_POSITIVE); // NOPMD
+        }
+        if (warning != FALSE_POSITIVE) { // NOPMD
+            detectPackageName(warning);
+            warnings.add(warning);
+        }
+        if (Thread.interrupted()) {
+            throw new ParsingCanceledException();
+        }
     }
 
     /**
-     * Detects the package name for the specified warning.
+     * Detects the package name for the specified warning. The package name of a source file is read only once, see
+     * {@link PackageNameResolver}.
      *
      * @param warning the warning
      */
     private void detectPackageName(final Warning warning) {
         if (!warning.hasPackageName()) {
-            warning.setPackageName(PackageDetectors.detectPackageName(warning.getFileName()));
+            warning.setPackageName(PackageNameResolver.getPackageName(warning.getFileName()));
         }
     }
 
@@ -1,28 +1,23 @@
 package hudson.plugins.warnings.parser;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
-import java.io.StringReader;
-import java.util.List;
-import java.util.HashMap;
+import java.io.Reader;
+import java.util.Collection;
 import java.util.Map;
-import java.util.regex.Matcher;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 import org.jvnet.localizer.Localizable;
 
-import hudson.Extension;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
+import hudson.Extension;
+import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
-import hudson.plugins.warnings.util.XmlElementUtil;
 import hudson.plugins.warnings.WarningsDescriptor;
+import hudson.plugins.warnings.util.XmlStreamUtil;
 
 /**
  * A parser for the Resharper InspectCode compiler warnings.
@@ -30,15 +25,12 @@ import hudson.plugins.warnings.WarningsDescriptor;
  * @author Rafal Jasica
  */
 @Extension
-public class ResharperInspectCodeParser extends RegexpLineParser {
+public class ResharperInspectCodeParser extends AbstractWarningsParser {
     private static final String RESHAPER_SMALL_ICON = WarningsDescriptor.IMAGE_PREFIX + "resharper-24x24.png";
     private static final String RESHAPER_LARGE_ICON = WarningsDescriptor.IMAGE_PREFIX + "resharper-48x48.png";
 
     private static final long serialVersionUID = 526872513348892L;
     private static final String WARNING_TYPE = "ResharperInspectCode";
-    private static final String WARNING_PATTERN = "\\<Issue.*?TypeId=\"(.*?)\".*?File=\"(.*?)\".*?Line=\"(.*?)\".*?Message=\"(.*?)\"";
-    
-    private final Map<String, Priority> priorityByTypeId = new HashMap<String, Priority>();
 
     /**
      * Creates a new instance of {@link ResharperInspectCodeParser}.
@@ -60,18 +52,64 @@ public class ResharperInspectCodeParser extends RegexpLineParser {
      *            name of the trend graph
      */
     public ResharperInspectCodeParser(final Localizable parserName, final Localizable linkName, final Localizable trendName) {
-        super(parserName, linkName, trendName, WARNING_PATTERN, true);
+        super(parserName, linkName, trendName);
     }
 
     @Override
-    protected Warning createWarning(final Matcher matcher) {
-        return createWarning(
-            matcher.group(2),
-            getLineNumber(matcher.group(3)),
-            WARNING_TYPE,
-            matcher.group(1),
-            matcher.group(4),
-            GetPriority(matcher.group(1)));
+    public Collection<FileAnnotation> parse(final Reader reader) throws IOException, ParsingCanceledException {
+        XMLStreamReader xml = null;
+        try {
+            xml = XmlStreamUtil.createReader(reader);
+
+            Map<String, Priority> priorityByTypeId = Maps.newHashMap();
+            Collection<FileAnnotation> warnings = Lists.newArrayList();
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("IssueType".equals(name)) {
+                        addIssueType(xml, priorityByTypeId);
+                    }
+                    else if ("Issue".equals(name)) {
+                        String typeId = XmlStreamUtil.getAttribute(xml, "TypeId");
+                        warnings.add(createWarning(XmlStreamUtil.getAttribute(xml, "File"),
+                                getLineNumber(XmlStreamUtil.getAttribute(xml, "Line")), WARNING_TYPE, typeId,
+                                XmlStreamUtil.getAttribute(xml, "Message"), getPriority(priorityByTypeId, typeId)));
+                    }
+                }
+            }
+            return warnings;
+        }
+        catch (XMLStreamException exception) {
+            throw new IOException(exception);
+        }
+        finally {
+            XmlStreamUtil.closeQuietly(xml);
+        }
+    }
+
+    private void addIssueType(final XMLStreamReader xml, final Map<String, Priority> priorityByTypeId) {
+        String id = XmlStreamUtil.getAttribute(xml, "Id");
+        if (!id.isEmpty()) {
+            String severity = XmlStreamUtil.getAttribute(xml, "Severity");
+            if ("ERROR".equals(severity)) {
+                priorityByTypeId.put(id, Priority.HIGH);
+            }
+            else if ("WARNING".equals(severity)) {
+                priorityByTypeId.put(id, Priority.NORMAL);
+            }
+            else if ("SUGGESTION".equals(severity)) {
+                priorityByTypeId.put(id, Priority.LOW);
+            }
+        }
+    }
+
+    private Priority getPriority(final Map<String, Priority> priorityByTypeId, final String typeId) {
+        if (priorityByTypeId.containsKey(typeId)) {
+            return priorityByTypeId.get(typeId);
+        }
+        else {
+            return Priority.NORMAL;
+        }
     }
 
     @Override
@@ -88,59 +126,4 @@ public class ResharperInspectCodeParser extends RegexpLineParser {
     public String getLargeImage() {
         return RESHAPER_LARGE_ICON;
     }
-
-    @Override
-    protected boolean isLineInteresting(final String line) {
-        if (line.contains("<IssueType Id=")){
-            try {
-                // This is a quick workaround to get the IssueType parsing
-                // to work for this parser (which is a RegexpLineParser)
-                // It should probably be entirely xml-based instead
-                DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-                DocumentBuilder docBuilder;
-                docBuilder = docBuilderFactory.newDocumentBuilder();
-                
-                InputSource is = new InputSource();
-                is.setCharacterStream(new StringReader("<IssueTypes>" + line + "</IssueTypes>"));
-                Document doc = docBuilder.parse(is);
-                
-                NodeList mainNode = doc.getElementsByTagName("IssueTypes");
-                Element issueTypesElement = (Element)mainNode.item(0);
-                parseIssueTypes(XmlElementUtil.getNamedChildElements(issueTypesElement, "IssueType"));
-            } catch (ParserConfigurationException ex) {
-            } catch (SAXException ex) {
-            } catch (IOException ex) {
-            }
-            return false;
-        }        
-        return line.contains("<Issue");
-    }
-    
-    private void parseIssueTypes(final List<Element> issueTypeElements) {
-        for (Element issueTypeElement : issueTypeElements) {
-            String id = issueTypeElement.getAttribute("Id");
-            if (!"".equals(id)) {
-                String severity = issueTypeElement.getAttribute("Severity");
-                if ("ERROR".equals(severity)){
-                    priorityByTypeId.put(id, Priority.HIGH);
-                }
-                else if ("WARNING".equals(severity)) {
-                    priorityByTypeId.put(id, Priority.NORMAL);
-                }
-                else if ("SUGGESTION".equals(severity)) {
-                    priorityByTypeId.put(id, Priority.LOW);
-                }
-            }
-        }
-    }
-    
-    private Priority GetPriority(final String typeId)
-    {
-        if (priorityByTypeId.containsKey(typeId)) {
-            return priorityByTypeId.get(typeId); 
-        }
-        else {
-            return Priority.NORMAL;
-        }
-    }
 }
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -46,8 +48,8 @@ public class RobocopyParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("        ");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("        ");
     }
 }
 
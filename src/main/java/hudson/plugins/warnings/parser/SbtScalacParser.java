@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -29,6 +31,11 @@ public class SbtScalacParser extends RegexpLineParser {
                 SBT_WARNING_PATTERN, true);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("[warn]", "[error]");
+    }
+
     @Override
     protected Warning createWarning(Matcher matcher) {
         Priority p = matcher.group(1).equals("[error]") ? Priority.HIGH : Priority.NORMAL;
@@ -47,4 +54,9 @@ public class SbtScalacParser extends RegexpLineParser {
     public String getLargeImage() {
         return SCALA_LARGE_ICON;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -29,6 +31,11 @@ public class ScalacParser extends RegexpLineParser {
                 JAVAC_WARNING_PATTERN, true);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("[WARNING]", "[ERROR]");
+    }
+
     @Override
     protected Warning createWarning(Matcher matcher) {
         Priority p = matcher.group(1).equals("[ERROR]") ? Priority.HIGH : Priority.NORMAL;
@@ -48,4 +55,9 @@ public class ScalacParser extends RegexpLineParser {
     public String getLargeImage() {
         return SCALA_LARGE_ICON;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
@@ -0,0 +1,98 @@
+package hudson.plugins.warnings.parser;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Scans an input for warnings of several {@link RegexpDocumentParser document parsers} using a sliding window of
+ * bounded size. The lines of the input are appended to a window that is shared by all parsers. As soon as the window
+ * contains twice the {@link RegexpDocumentParser#getMaxRecordSpan() maximum record span}, every parser scans the
+ * window for warnings that start at least one record span before the end of the window. These warnings are complete,
+ * all later warnings are left for the next scan. Afterwards, the scanned text is dropped from the window. The line
+ * terminator before the retained text is kept in the window, so anchors like {@code ^} do not match at the start of
+ * the window unless it is the start of the input. So the memory required to scan an input does not depend on the
+ * size of the input.
+ *
+ * @author Ulli Hafner
+ */
+class SlidingWindowScanner {
+    private final List<RegexpDocumentParser> parsers;
+    /** The maximum record span of all parsers, 0 if the whole input should be scanned at once. */
+    private final int maxRecordSpan;
+    private final StringBuilder window = new StringBuilder();
+    /** The position in the window to continue the scan of each parser at. */
+    private final int[] positions;
+    private final List<List<FileAnnotation>> warnings = Lists.newArrayList();
+
+    /**
+     * Creates a new instance of {@link SlidingWindowScanner}.
+     *
+     * @param parsers
+     *            the parsers to hand the input over
+     */
+    SlidingWindowScanner(final List<RegexpDocumentParser> parsers) {
+        this.parsers = parsers;
+
+        int span = 0;
+        for (RegexpDocumentParser parser : parsers) {
+            warnings.add(Lists.<FileAnnotation>newArrayList());
+            if (span >= 0) {
+                int parserSpan = parser.getMaxRecordSpan();
+                span = parserSpan > 0 ? Math.max(span, parserSpan) : -1;
+            }
+        }
+        maxRecordSpan = Math.max(span, 0);
+        positions = new int[parsers.size()];
+    }
+
+    /**
+     * Adds the next line of the input. Console notes need to be removed from the line by the caller.
+     *
+     * @param line
+     *            the line to add
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     */
+    void scanLine(final CharSequence line) throws ParsingCanceledException {
+        window.append(line).append('\n');
+        if (maxRecordSpan > 0 && window.length() - maxRecordSpan >= maxRecordSpan) {
+            slide();
+        }
+    }
+
+    /**
+     * Scans the remaining text of the window and returns the found warnings.
+     *
+     * @return the found warnings of each parser (in the order of the parsers)
+     * @throws ParsingCanceledException
+     *             indicates that the user canceled the operation
+     */
+    List<Collection<FileAnnotation>> finish() throws ParsingCanceledException {
+        List<Collection<FileAnnotation>> results = Lists.newArrayList();
+        for (int i = 0; i < parsers.size(); i++) {
+            parsers.get(i).findAnnotations(window, positions[i], Integer.MAX_VALUE, warnings.get(i));
+            results.add(warnings.get(i));
+        }
+        window.setLength(0);
+        return results;
+    }
+
+    private void slide() throws ParsingCanceledException {
+        int limit = window.length() - maxRecordSpan;
+        int scanned = limit;
+        for (int i = 0; i < parsers.size(); i++) {
+            positions[i] = parsers.get(i).findAnnotations(window, positions[i], limit, warnings.get(i));
+            scanned = Math.min(scanned, positions[i]);
+        }
+
+        int dropped = Math.max(window.lastIndexOf("\n", scanned - 1), 0);
+        window.delete(0, dropped);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] -= dropped;
+        }
+    }
+}
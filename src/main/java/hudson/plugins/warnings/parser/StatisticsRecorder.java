@@ -0,0 +1,227 @@
+package hudson.plugins.warnings.parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Records the {@link ParserStatistics} of the parsers that run on the current thread. A recorder is bound to the
+ * thread that parses an input, see {@link #start()}. The parsers look up their statistics using
+ * {@link #get(AbstractWarningsParser)}, so the parsers (that are shared by all builds) do not need to keep any
+ * state. Worker threads that scan parts of an input in parallel use their own recorders that are merged into the
+ * recorder of the parsing thread, see {@link #startWorker()}.
+ *
+ * @author Ulli Hafner
+ */
+final class StatisticsRecorder {
+    private static final ThreadLocal<StatisticsRecorder> CURRENT = new ThreadLocal<StatisticsRecorder>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Starts a new recorder for the current thread.
+     *
+     * @return the new recorder
+     */
+    static StatisticsRecorder start() {
+        StatisticsRecorder recorder = new StatisticsRecorder(CURRENT.get());
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Returns the recorder of the current thread.
+     *
+     * @return the recorder, or {@code null} if the current thread does not record any statistics
+     */
+    static StatisticsRecorder current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the statistics of the specified parser in the recorder of the current thread.
+     *
+     * @param parser
+     *            the parser
+     * @return the statistics, or {@code null} if the current thread does not record any statistics
+     */
+    static ParserStatistics get(final AbstractWarningsParser parser) {
+        StatisticsRecorder recorder = CURRENT.get();
+        if (recorder == null) {
+            return null;
+        }
+        return recorder.getStatistics(parser);
+    }
+
+    /**
+     * Adds the specified number of scanned lines to the statistics of the specified parser in the recorder of the
+     * current thread.
+     *
+     * @param parser
+     *            the parser
+     * @param lines
+     *            the number of lines
+     */
+    static void addLines(final AbstractWarningsParser parser, final long lines) {
+        ParserStatistics statistics = get(parser);
+        if (statistics != null) {
+            statistics.addLines(lines);
+        }
+    }
+
+    private final StatisticsRecorder previous;
+    private final Map<AbstractWarningsParser, ParserStatistics> statistics = Maps.newIdentityHashMap();
+    private final Queue<StatisticsRecorder> workers = new ConcurrentLinkedQueue<StatisticsRecorder>();
+    /** CPU time of the worker threads of this recorder in nanoseconds. */
+    private long workerCpuTime;
+    /** Allocated bytes of the worker threads of this recorder. */
+    private long workerAllocatedBytes;
+
+    private StatisticsRecorder(final StatisticsRecorder previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Stops this recorder. The recorder of the current thread is reset to the recorder that has been active before
+     * this recorder has been started.
+     */
+    void stop() {
+        if (previous == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Starts a new recorder for a worker thread of this recorder. The worker recorder is merged into this recorder
+     * on the next call of {@link #endPass(Collection, Usage)}.
+     *
+     * @return the new recorder
+     */
+    StatisticsRecorder startWorker() {
+        StatisticsRecorder worker = start();
+        workers.add(worker);
+        return worker;
+    }
+
+    /**
+     * Adds the resources that the calling worker thread used since the specified sample.
+     *
+     * @param start
+     *            the sample that has been taken at the start of the work
+     */
+    void addWorkerUsage(final Usage start) {
+        Usage end = new Usage();
+        workerCpuTime += end.cpuTime - start.cpuTime;
+        workerAllocatedBytes += end.allocatedBytes - start.allocatedBytes;
+    }
+
+    /**
+     * Returns the statistics of the specified parser.
+     *
+     * @param parser
+     *            the parser
+     * @return the statistics of the parser
+     */
+    ParserStatistics getStatistics(final AbstractWarningsParser parser) {
+        ParserStatistics parserStatistics = statistics.get(parser);
+        if (parserStatistics == null) {
+            parserStatistics = new ParserStatistics(parser.getParserName().toString());
+            statistics.put(parser, parserStatistics);
+        }
+        return parserStatistics;
+    }
+
+    /**
+     * Returns the recorded statistics of all parsers.
+     *
+     * @return the statistics, mapped by parser
+     */
+    Map<AbstractWarningsParser, ParserStatistics> getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Ends a pass of the specified parsers over an input. The resources that have been used since the specified
+     * sample are distributed over the parsers: each parser gets its matching time plus an equal share of the
+     * remaining time of the pass.
+     *
+     * @param parsers
+     *            the parsers that scanned the input in the pass
+     * @param start
+     *            the sample that has been taken at the start of the pass
+     */
+    void endPass(final Collection<? extends AbstractWarningsParser> parsers, final Usage start) {
+        Usage end = new Usage();
+        mergeWorkers();
+
+        long wallTime = end.wallTime - start.wallTime;
+        long cpuTime = end.cpuTime - start.cpuTime + workerCpuTime;
+        long allocatedBytes = end.allocatedBytes - start.allocatedBytes + workerAllocatedBytes;
+        workerCpuTime = 0;
+        workerAllocatedBytes = 0;
+
+        List<ParserStatistics> passStatistics = Lists.newArrayList();
+        long matchTime = 0;
+        for (AbstractWarningsParser parser : parsers) {
+            ParserStatistics parserStatistics = getStatistics(parser);
+            passStatistics.add(parserStatistics);
+            matchTime += parserStatistics.getMatchTime();
+        }
+        int size = passStatistics.size();
+        long sharedTime = Math.max(0, wallTime - matchTime);
+        double total = matchTime + sharedTime;
+        for (ParserStatistics parserStatistics : passStatistics) {
+            double share = total > 0 ? (parserStatistics.getMatchTime() + sharedTime / size) / total : 1.0 / size;
+            parserStatistics.addUsage(Math.round(wallTime * share), Math.round(cpuTime * share),
+                    Math.round(allocatedBytes * share));
+        }
+    }
+
+    private void mergeWorkers() {
+        // the results of the workers have been retrieved, so the recorders of the workers are visible
+        for (StatisticsRecorder worker = workers.poll(); worker != null; worker = workers.poll()) {
+            for (Map.Entry<AbstractWarningsParser, ParserStatistics> entry : worker.statistics.entrySet()) {
+                getStatistics(entry.getKey()).add(entry.getValue());
+            }
+            workerCpuTime += worker.workerCpuTime;
+            workerAllocatedBytes += worker.workerAllocatedBytes;
+        }
+    }
+
+    /**
+     * A sample of the time and the allocated memory of the current thread.
+     */
+    static final class Usage {
+        private final long wallTime;
+        private final long cpuTime;
+        private final long allocatedBytes;
+
+        /**
+         * Takes a new sample.
+         */
+        Usage() {
+            wallTime = System.nanoTime();
+            cpuTime = THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+            allocatedBytes = getAllocatedBytes();
+        }
+
+        private static long getAllocatedBytes() {
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean)THREADS;
+                if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                    return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+                }
+            }
+            return 0;
+        }
+    }
+}
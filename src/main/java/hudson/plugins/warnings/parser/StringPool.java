@@ -0,0 +1,110 @@
+package hudson.plugins.warnings.parser;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.basic.AbstractSingleValueConverter;
+
+import hudson.plugins.analysis.util.model.AbstractAnnotation;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Pool of the strings of warnings that are repeated in nearly every warning of a build: file names, types,
+ * categories, package names, module names and origins. Other strings, e.g. messages or tool tips, are mostly unique
+ * and are not interned. The pool holds its values using weak references, so values are
+ * removed as soon as the results of the builds that refer to them are discarded.
+ *
+ * @author Ulli Hafner
+ */
+public final class StringPool {
+    private static final Interner<String> POOL = Interners.newWeakInterner();
+    /** The fields of {@link AbstractAnnotation} that are interned. */
+    private static final Set<String> INTERNED_FIELDS = ImmutableSet.of("fileName", "moduleName", "packageName",
+            "category", "type", "origin");
+
+    /**
+     * Returns the canonical representation of the specified value.
+     *
+     * @param value
+     *            the value to intern, might be {@code null}
+     * @return the canonical representation of the value, or {@code null} if the value is {@code null}
+     */
+    public static String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        return POOL.intern(value);
+    }
+
+    /**
+     * Replaces the file, package and module names of the specified annotations with their canonical
+     * representations. Additionally, the common directory prefixes of the file names are shared between all
+     * annotations.
+     *
+     * @param annotations
+     *            the annotations to intern
+     */
+    public static void intern(final Collection<? extends FileAnnotation> annotations) {
+        for (FileAnnotation annotation : annotations) {
+            if (annotation.hasPackageName()) {
+                annotation.setPackageName(intern(annotation.getPackageName()));
+            }
+            annotation.setModuleName(intern(annotation.getModuleName()));
+        }
+        AbstractAnnotation.intern(annotations);
+    }
+
+    /**
+     * Returns whether the values of the specified field of an annotation are interned.
+     *
+     * @param field
+     *            the field of the annotation
+     * @return {@code true} if the values of the field are interned, {@code false} otherwise
+     */
+    public static boolean isInterned(final Field field) {
+        return field.getType() == String.class && field.getDeclaringClass() == AbstractAnnotation.class
+                && INTERNED_FIELDS.contains(field.getName());
+    }
+
+    /**
+     * Registers a converter in the specified {@link XStream} instance that interns the strings of the interned fields
+     * of annotations that are read, see {@link #isInterned(Field)}. Results that are loaded from disk will share
+     * these strings in the same way as newly parsed results. All other strings are read unchanged.
+     *
+     * @param xstream
+     *            the XStream instance to configure
+     */
+    public static void configure(final XStream xstream) {
+        InterningStringConverter converter = new InterningStringConverter();
+        for (Field field : AbstractAnnotation.class.getDeclaredFields()) {
+            if (isInterned(field)) {
+                xstream.registerLocalConverter(AbstractAnnotation.class, field.getName(), converter);
+            }
+        }
+    }
+
+    /**
+     * Converts strings and interns each string that is read.
+     */
+    private static class InterningStringConverter extends AbstractSingleValueConverter {
+        @Override
+        @SuppressWarnings("rawtypes")
+        public boolean canConvert(final Class type) {
+            return String.class.equals(type);
+        }
+
+        @Override
+        public Object fromString(final String value) {
+            return intern(value);
+        }
+    }
+
+    private StringPool() {
+        // prevents instantiation
+    }
+}
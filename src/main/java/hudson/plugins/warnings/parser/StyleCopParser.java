@@ -1,26 +1,18 @@
 package hudson.plugins.warnings.parser;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Collection;
-import java.util.List;
-
-import org.apache.commons.lang.StringUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 import com.google.common.collect.Lists;
 
 import hudson.Extension;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
-import hudson.plugins.warnings.util.XmlElementUtil;
+import hudson.plugins.warnings.util.XmlStreamUtil;
 
 /**
  * Parses a StyleCop (http://code.msdn.microsoft.com/sourceanalysis/) xml report file.
@@ -42,62 +34,74 @@ public class StyleCopParser extends AbstractWarningsParser {
 
     @Override
     public Collection<FileAnnotation> parse(final Reader reader) throws IOException, ParsingCanceledException {
-        DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder docBuilder;
+        XMLStreamReader xml = null;
         try {
+            xml = XmlStreamUtil.createReader(reader);
 
-            docBuilder = docBuilderFactory.newDocumentBuilder();
-            Document doc = docBuilder.parse(new InputSource(reader));
-
-            // Pre v4.3 uses SourceAnalysisViolations as the parent node name
-            NodeList mainNode = doc.getElementsByTagName("SourceAnalysisViolations");
-            if (mainNode.getLength() == 0) {
-                // v4.3 uses StyleCopViolations as the parent node name
-                mainNode = doc.getElementsByTagName("StyleCopViolations");
+            Collection<FileAnnotation> warnings = Lists.newArrayList();
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && isRootElement(xml.getLocalName())) {
+                    parseViolations(xml, warnings);
+                }
             }
-
-            Element rootElement = (Element)mainNode.item(0);
-            return parseViolations(XmlElementUtil.getNamedChildElements(rootElement, "Violation"));
+            return warnings;
         }
-        catch (ParserConfigurationException exception) {
+        catch (XMLStreamException exception) {
             throw new IOException(exception);
         }
-        catch (SAXException exception) {
-            throw new IOException(exception);
+        finally {
+            XmlStreamUtil.closeQuietly(xml);
         }
     }
 
     /**
-     * Parses the "Violation" tag and adds one warning for each element.
-     *
-     * @param elements
-     *            list of Violation tags
-     * @return the corresponding warnings
+     * Returns whether the specified element contains the violations. Pre v4.3 uses SourceAnalysisViolations as the
+     * parent node name, v4.3 uses StyleCopViolations.
      */
-    private Collection<FileAnnotation> parseViolations(final List<Element> elements) {
-        Collection<FileAnnotation> warnings = Lists.newArrayList();
-        for (Element element : elements) {
-            Warning warning = createWarning(getString(element, "Source"), getLineNumber(element),
-                    getString(element, "Rule"), getCategory(element), element.getTextContent(), Priority.NORMAL);
+    private boolean isRootElement(final String name) {
+        return "SourceAnalysisViolations".equals(name) || "StyleCopViolations".equals(name);
+    }
 
-            warnings.add(warning);
+    /**
+     * Parses the "Violation" tags of the current element and adds one warning for each element.
+     *
+     * @param xml
+     *            the reader, positioned at the start of the parent of the violations
+     * @param warnings
+     *            the corresponding warnings
+     */
+    private void parseViolations(final XMLStreamReader xml, final Collection<FileAnnotation> warnings)
+            throws XMLStreamException {
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("Violation".equals(xml.getLocalName())) {
+                    String fileName = getString(xml, "Source");
+                    int line = getLineNumber(getString(xml, "LineNumber"));
+                    String type = getString(xml, "Rule");
+                    String category = getCategory(xml);
+                    warnings.add(createWarning(fileName, line, type, category, XmlStreamUtil.getTextContent(xml),
+                            Priority.NORMAL));
+                }
+                else {
+                    XmlStreamUtil.skipElement(xml);
+                }
+            }
         }
-        return warnings;
     }
 
     /**
      * Returns the Category of a StyleCop Violation.
      *
-     * @param element
-     *            The Element which represents the violation
+     * @param xml
+     *            the reader, positioned at the start of the violation
      * @return Category of violation
      */
-    private String getCategory(final Element element) {
-        String ruleNameSpace = getString(element, "RuleNamespace");
+    private String getCategory(final XMLStreamReader xml) {
+        String ruleNameSpace = getString(xml, "RuleNamespace");
 
         int i = ruleNameSpace.lastIndexOf('.');
         if (i == -1) {
-            return getString(element, "RuleId");
+            return getString(xml, "RuleId");
         }
         else {
             return ruleNameSpace.substring(i + 1);
@@ -107,35 +111,13 @@ public class StyleCopParser extends AbstractWarningsParser {
     /***
      * Returns the value for the named attribute if it exists.
      *
-     * @param element
-     *            the element to check for an attribute
+     * @param xml
+     *            the reader, positioned at the start of the element to check for an attribute
      * @param name
      *            the name of the attribute
      * @return the value of the attribute; "" if there is no such attribute.
      */
-    private String getString(final Element element, final String name) {
-        if (element.hasAttribute(name)) {
-            return element.getAttribute(name);
-        }
-        else {
-            return StringUtils.EMPTY;
-        }
-    }
-
-    /***
-     * Returns the LineNumber for the given violation.
-     *
-     * @param violation
-     *            the xml Element "violation" to get the Linenumber from.
-     * @return the lineNumber of the violation. 0 if there is no LineNumber or the LineNumber cant't be parsed into an
-     *         Integer.
-     */
-    private int getLineNumber(final Element violation) {
-        if (violation.hasAttribute("LineNumber")) {
-            return getLineNumber(violation.getAttribute("LineNumber"));
-        }
-        else {
-            return 0;
-        }
+    private String getString(final XMLStreamReader xml, final String name) {
+        return XmlStreamUtil.getAttribute(xml, name);
     }
 }
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -27,6 +29,11 @@ public class SunCParser extends RegexpLineParser {
                 SUN_CPP_WARNING_PATTERN);
     }
 
+    @Override
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("line");
+    }
+
     @Override
     protected Warning createWarning(final Matcher matcher) {
         Priority priority;
@@ -38,5 +45,10 @@ public class SunCParser extends RegexpLineParser {
         }
         return createWarning(matcher.group(1), getLineNumber(matcher.group(2)), matcher.group(4), matcher.group(5), priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
@@ -69,5 +69,10 @@ public class TaskingVXCompilerParser extends RegexpLineParser {
         }
         return createWarning(fileName, lineNumber, category, message, priority);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
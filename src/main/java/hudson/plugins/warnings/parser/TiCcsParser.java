@@ -63,5 +63,10 @@ public class TiCcsParser extends RegexpLineParser {
     private boolean isOfType(final Matcher matcher, final String type) {
         return StringUtils.containsIgnoreCase(matcher.group(7), type);
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
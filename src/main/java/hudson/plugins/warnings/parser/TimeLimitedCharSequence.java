@@ -0,0 +1,151 @@
+package hudson.plugins.warnings.parser;
+
+/**
+ * Wraps the input of a regular expression scan and limits the time of each match. The matcher of a
+ * {@link java.util.regex.Pattern} reads the input using {@link #charAt(int)}, so every few thousand characters the
+ * time that has been spent since the start of the match is checked. If the time budget is exceeded or the thread has
+ * been interrupted, the match is aborted with a {@link MatchAbortedException}. So patterns that backtrack
+ * catastrophically on an input cannot block a build for minutes.
+ * <p>
+ * An instance is bound to a single thread and reused for all inputs of this thread, see {@link #get(long)}. So
+ * no objects are created for the inputs of a scan.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+final class TimeLimitedCharSequence implements CharSequence {
+    /** Number of characters that are read before the time is checked. */
+    private static final int CHECK_INTERVAL = 4096;
+
+    private static final ThreadLocal<TimeLimitedCharSequence> INSTANCES = new ThreadLocal<TimeLimitedCharSequence>();
+
+    /**
+     * Returns the instance of the current thread.
+     *
+     * @param timeout
+     *            the time budget of a match in milliseconds, 0 disables the time limit
+     * @return the instance of the current thread
+     */
+    static TimeLimitedCharSequence get(final long timeout) {
+        TimeLimitedCharSequence sequence = INSTANCES.get();
+        if (sequence == null || sequence.timeout != timeout * 1000000L) {
+            sequence = new TimeLimitedCharSequence(timeout);
+            INSTANCES.set(sequence);
+        }
+        return sequence;
+    }
+
+    private final long timeout;
+    private CharSequence content = "";
+    private int remaining;
+    /** The end of the time budget of the current match, 0 if the time has not been checked yet. */
+    private long deadline;
+
+    /**
+     * Creates a new instance of {@link TimeLimitedCharSequence}.
+     *
+     * @param timeout
+     *            the time budget of a match in milliseconds, 0 disables the time limit
+     */
+    TimeLimitedCharSequence(final long timeout) {
+        this.timeout = timeout * 1000000L;
+    }
+
+    /**
+     * Sets the input to wrap. Afterwards, the first match needs to be started with {@link #startMatch()}.
+     *
+     * @param input
+     *            the input to wrap
+     * @return this
+     */
+    TimeLimitedCharSequence wrap(final CharSequence input) {
+        content = input;
+        startMatch();
+        return this;
+    }
+
+    /**
+     * Starts the time budget of the next match.
+     */
+    void startMatch() {
+        remaining = CHECK_INTERVAL;
+        deadline = 0;
+    }
+
+    /**
+     * Releases the wrapped input.
+     */
+    void clear() {
+        content = "";
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (--remaining <= 0) {
+            checkBudget();
+        }
+        return content.charAt(index);
+    }
+
+    private void checkBudget() {
+        remaining = CHECK_INTERVAL;
+        if (Thread.currentThread().isInterrupted()) {
+            throw new MatchAbortedException(true);
+        }
+        if (timeout > 0) {
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + timeout;
+            }
+            else if (now - deadline > 0) {
+                throw new MatchAbortedException(false);
+            }
+        }
+    }
+
+    @Override
+    public int length() {
+        return content.length();
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return content.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return content.toString();
+    }
+
+    /**
+     * Indicates that a match has been aborted since the time budget has been exceeded or the thread has been
+     * interrupted.
+     */
+    static class MatchAbortedException extends RuntimeException {
+        private static final long serialVersionUID = -2430913370541306117L;
+
+        private final boolean isCanceled;
+
+        /**
+         * Creates a new instance of {@link MatchAbortedException}.
+         *
+         * @param isCanceled
+         *            determines whether the thread has been interrupted
+         */
+        MatchAbortedException(final boolean isCanceled) {
+            super(isCanceled ? "Match canceled" : "Time budget of match exceeded", null, false, false);
+
+            this.isCanceled = isCanceled;
+        }
+
+        /**
+         * Returns whether the thread has been interrupted.
+         *
+         * @return {@code true} if the thread has been interrupted, {@code false} if the time budget has been exceeded
+         */
+        boolean isCanceled() {
+            return isCanceled;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.regex.Matcher;
 
 import hudson.Extension;
@@ -28,8 +30,8 @@ public class TnsdlParser extends RegexpLineParser {
     }
 
     @Override
-    protected boolean isLineInteresting(final String line) {
-        return line.contains("tnsdl");
+    protected Collection<String> getRequiredLiterals() {
+        return Arrays.asList("tnsdl");
     }
 
     @Override
@@ -1,7 +1,6 @@
 package hudson.plugins.warnings.parser;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.Reader;
@@ -9,6 +8,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.TreeSet;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jvnet.localizer.Localizable;
@@ -24,14 +24,16 @@ import hudson.plugins.violations.model.Severity;
 import hudson.plugins.violations.model.Violation;
 
 /**
- * Adapter for warnings parsers of the violations plug-in.
+ * Adapter for warnings parsers of the violations plug-in. The parsers of the violations plug-in read the report from
+ * a file. If the report is read from a file (see {@link ParserRegistry}), then this original file is handed over to
+ * the violations parser, so the report is read only once and on the machine where it has been created. Otherwise,
+ * the content of the reader is copied into a temporary file that is deleted after parsing.
  *
  * @author Ulli Hafner
  */
 public class ViolationsAdapter extends AbstractWarningsParser {
     private static final long serialVersionUID = -4655802222866500913L;
 
-    // FIXME: this will not work if the file to parse is on the slave
     private final ViolationsParser parser;
 
     /**
@@ -52,12 +54,40 @@ public class ViolationsAdapter extends AbstractWarningsParser {
         this.parser = parser;
     }
 
+    @Override
+    List<String> getConfiguration() {
+        List<String> configuration = super.getConfiguration();
+        configuration.add(parser.getClass().getName());
+        return configuration;
+    }
+
+    @Override
+    List<Class<?>> getImplementationClasses() {
+        List<Class<?>> classes = super.getImplementationClasses();
+        classes.add(parser.getClass());
+        return classes;
+    }
+
     @Override
     public Collection<FileAnnotation> parse(final Reader reader) throws IOException, ParsingCanceledException {
+        if (reader instanceof MappedFileReader && !((MappedFileReader)reader).isStarted()) {
+            return parse(((MappedFileReader)reader).getFile());
+        }
+
         File temp = copyContentToTemporaryFile(reader);
+        try {
+            return parse(temp);
+        }
+        finally {
+            if (!temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
 
+    private List<FileAnnotation> parse(final File report) throws IOException {
         FullBuildModel model = new FullBuildModel();
-        parser.parse(model, temp.getParentFile(), temp.getName(), new String[] {});
+        parser.parse(model, report.getAbsoluteFile().getParentFile(), report.getName(), new String[] {});
 
         return convertToWarnings(model);
     }
@@ -95,17 +125,20 @@ public class ViolationsAdapter extends AbstractWarningsParser {
         return Priority.LOW;
     }
 
-    private File copyContentToTemporaryFile(final Reader reader) throws IOException, FileNotFoundException {
+    private File copyContentToTemporaryFile(final Reader reader) throws IOException {
         File temp = File.createTempFile("warnings", "log");
-        temp.deleteOnExit();
-        FileOutputStream output = new FileOutputStream(temp);
+        FileOutputStream output = null;
         try {
+            output = new FileOutputStream(temp);
             IOUtils.copy(reader, output, "UTF-8");
+            output.close();
+            return temp;
         }
-        finally {
+        catch (IOException exception) {
             IOUtils.closeQuietly(output);
+            FileUtils.deleteQuietly(temp);
+            throw exception;
         }
-        return temp;
     }
 }
 
@@ -3,6 +3,7 @@ package hudson.plugins.warnings.parser;
 import java.util.List;
 
 import hudson.plugins.violations.types.codenarc.CodenarcParser;
+import hudson.plugins.warnings.parser.ParserSnapshot.ParserFactory;
 
 /**
  * Registers the parsers of the violations plug-in.
@@ -24,6 +25,24 @@ public final class ViolationsRegistry {
                 Messages._Warnings_Codenarc_TrendName()));
     }
 
+    /**
+     * Appends the factories of the parsers of the violations plug-in to the specified list of factories.
+     *
+     * @param factories
+     *            the list of factories that will be modified
+     */
+    static void addFactories(final List<ParserFactory> factories) {
+        factories.add(new ParserFactory() {
+            @Override
+            public AbstractWarningsParser create() {
+                return new ViolationsAdapter(new CodenarcParser(),
+                        Messages._Warnings_Codenarc_ParserName(),
+                        Messages._Warnings_Codenarc_LinkName(),
+                        Messages._Warnings_Codenarc_TrendName());
+            }
+        });
+    }
+
     /**
      * Creates a new instance of {@link ViolationsRegistry}.
      */
@@ -0,0 +1,158 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Creates a warning from the named groups of a regular expression match without running a script. The groups
+ * {@code file}, {@code line}, {@code column}, {@code category}, {@code type}, {@code priority} and {@code message}
+ * are copied into the properties of the warning, missing groups use default values. The values of the groups may be
+ * replaced using a lookup table. Each line of the table has the format {@code group:value=replacement}, e.g.,
+ * {@code priority:error=HIGH} or {@code category:W0612=Unused variable}. Empty lines and lines that start with
+ * {@code #} are ignored. The priority is one of {@code HIGH}, {@code NORMAL} or {@code LOW} (ignoring the case),
+ * other values are mapped to {@code NORMAL}.
+ *
+ * @author Ulli Hafner
+ */
+public class WarningMapping implements Serializable {
+    private static final long serialVersionUID = -5420380468395418037L;
+
+    /** Name of the group with the file name. */
+    public static final String FILE = "file";
+    /** Name of the group with the line number. */
+    public static final String LINE = "line";
+    /** Name of the group with the column. */
+    public static final String COLUMN = "column";
+    /** Name of the group with the category. */
+    public static final String CATEGORY = "category";
+    /** Name of the group with the type. */
+    public static final String TYPE = "type";
+    /** Name of the group with the priority. */
+    public static final String PRIORITY = "priority";
+    /** Name of the group with the message. */
+    public static final String MESSAGE = "message";
+
+    private static final Set<String> GROUPS = ImmutableSet.of(FILE, LINE, COLUMN, CATEGORY, TYPE, PRIORITY, MESSAGE);
+    private static final Pattern NAMED_GROUP = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+
+    /**
+     * Returns whether the specified regular expression defines at least one of the named groups of a warning.
+     *
+     * @param regexp
+     *            the regular expression
+     * @return {@code true} if the expression contains a named group of a warning, {@code false} otherwise
+     */
+    public static boolean hasNamedGroups(final String regexp) {
+        return !findGroups(regexp).isEmpty();
+    }
+
+    private static Set<String> findGroups(final String regexp) {
+        ImmutableSet.Builder<String> groups = ImmutableSet.builder();
+        Matcher matcher = NAMED_GROUP.matcher(StringUtils.defaultString(regexp));
+        while (matcher.find()) {
+            if (GROUPS.contains(matcher.group(1))) {
+                groups.add(matcher.group(1));
+            }
+        }
+        return groups.build();
+    }
+
+    private final Set<String> groups;
+    private final Map<String, String> lookup;
+    private final String defaultType;
+
+    /**
+     * Creates a new instance of {@link WarningMapping}.
+     *
+     * @param regexp
+     *            the regular expression with the named groups
+     * @param lookupTable
+     *            the lookup table, might be empty
+     * @param defaultType
+     *            the type of warnings if there is no group {@code type}
+     * @throws IllegalArgumentException
+     *             if a line of the lookup table is invalid
+     */
+    public WarningMapping(final String regexp, final String lookupTable, final String defaultType) {
+        groups = findGroups(regexp);
+        lookup = parseLookupTable(lookupTable);
+        this.defaultType = defaultType;
+    }
+
+    private static Map<String, String> parseLookupTable(final String lookupTable) {
+        ImmutableMap.Builder<String, String> lookup = ImmutableMap.builder();
+        for (String line : StringUtils.split(StringUtils.defaultString(lookupTable), "\r\n")) {
+            String entry = line.trim();
+            if (entry.isEmpty() || entry.startsWith("#")) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            int equals = entry.indexOf('=', colon + 1);
+            if (colon <= 0 || equals < 0 || !GROUPS.contains(entry.substring(0, colon).trim())) {
+                throw new IllegalArgumentException(entry);
+            }
+            lookup.put(entry.substring(0, colon).trim() + ':' + entry.substring(colon + 1, equals).trim(),
+                    entry.substring(equals + 1).trim());
+        }
+        return lookup.build();
+    }
+
+    /**
+     * Returns the lookup table of the named groups, see {@link #WarningMapping(String, String, String)}.
+     *
+     * @return the lookup table, each key has the format {@code group:value}
+     */
+    Map<String, String> getLookupTable() {
+        return lookup;
+    }
+
+    /**
+     * Creates a new warning for the specified match.
+     *
+     * @param matcher
+     *            the regular expression matcher
+     * @return the new warning
+     */
+    public Warning createWarning(final Matcher matcher) {
+        Warning warning = new Warning(get(matcher, FILE, StringUtils.EMPTY),
+                AbstractWarningsParser.convertLineNumber(get(matcher, LINE, "0")),
+                get(matcher, TYPE, defaultType), get(matcher, CATEGORY, StringUtils.EMPTY),
+                get(matcher, MESSAGE, StringUtils.EMPTY), toPriority(get(matcher, PRIORITY, Priority.NORMAL.name())));
+        if (groups.contains(COLUMN)) {
+            warning.setColumnPosition(AbstractWarningsParser.convertLineNumber(get(matcher, COLUMN, "0")));
+        }
+        return warning;
+    }
+
+    private String get(final Matcher matcher, final String group, final String defaultValue) {
+        if (!groups.contains(group)) {
+            return defaultValue;
+        }
+        String value = matcher.group(group);
+        if (value == null) {
+            return defaultValue;
+        }
+        String replacement = lookup.get(group + ':' + value.trim());
+        return replacement == null ? value : replacement;
+    }
+
+    private Priority toPriority(final String value) {
+        try {
+            return Priority.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        }
+        catch (IllegalArgumentException exception) {
+            return Priority.NORMAL;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package hudson.plugins.warnings.parser;
 import javax.annotation.CheckForNull;
 import java.util.Collection;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -13,39 +12,12 @@ import hudson.plugins.analysis.util.PluginLogger;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 
 /**
- * Filters warnings by exclude and include patterns.
+ * Filters warnings by exclude and include patterns. The patterns are compiled once and cached, see {@link
+ * CompiledWarningsFilter}.
  *
  * @author Ullrich Hafner
  */
 public class WarningsFilter {
-    private final Set<Pattern> includePatterns = Sets.newHashSet();
-    private final Set<Pattern> excludePatterns = Sets.newHashSet();
-
-    private Set<Pattern> addFilePatterns(final @CheckForNull String pattern) {
-        Set<Pattern> patterns = Sets.newHashSet();
-        if (StringUtils.isNotBlank(pattern)) {
-            String[] split = StringUtils.split(pattern, ',');
-            for (String singlePattern : split) {
-                String trimmed = StringUtils.trim(singlePattern);
-                String directoriesReplaced = StringUtils.replace(trimmed, "**", "*"); // NOCHECKSTYLE
-                patterns.add(Pattern.compile(StringUtils.replace(directoriesReplaced, "*", ".*"))); // NOCHECKSTYLE
-            }
-        }
-        return patterns;
-    }
-
-    private Set<Pattern> addStringPatterns(final @CheckForNull String pattern) {
-        Set<Pattern> patterns = Sets.newHashSet();
-        if (StringUtils.isNotBlank(pattern)) {
-            String[] split = StringUtils.split(pattern, '\n');
-            for (String singlePattern : split) {
-                String trimmed = StringUtils.trim(singlePattern);
-                patterns.add(Pattern.compile(trimmed)); // NOCHECKSTYLE
-            }
-        }
-        return patterns;
-    }
-
     /**
      *  Filters te specified warnings by exclude and include patterns.
      *
@@ -68,50 +40,17 @@ public class WarningsFilter {
                                      final @CheckForNull String messagesPattern,
                                      final @CheckForNull String categoriesPattern,
                                      final PluginLogger logger) {
-        Collection<Pattern> includePatterns = addFilePatterns(includePattern);
-        Collection<Pattern> excludePatterns = addFilePatterns(excludePattern);
-        Collection<Pattern> messagesPatterns = addStringPatterns(messagesPattern);
-        Collection<Pattern> categoriesPatterns = addStringPatterns(categoriesPattern);
-
-        Collection<FileAnnotation> includedAnnotations;
-        if (includePatterns.isEmpty()) {
-            includedAnnotations = allAnnotations;
-        }
-        else {
-            includedAnnotations = Sets.newHashSet();
-            for (FileAnnotation annotation : allAnnotations) {
-                for (Pattern include : includePatterns) {
-                    if (include.matcher(annotation.getFileName()).matches()) {
-                        includedAnnotations.add(annotation);
-                    }
-                }
-            }
+        CompiledWarningsFilter filter = CompiledWarningsFilter.compile(includePattern, excludePattern,
+                messagesPattern, categoriesPattern);
+        if (!filter.hasIncludes() && !filter.hasExcludes()) {
+            return allAnnotations;
         }
-        if (excludePatterns.isEmpty() && messagesPatterns.isEmpty() && categoriesPatterns.isEmpty()) {
-            return includedAnnotations;
-        }
-        else {
-            Set<FileAnnotation> excludedAnnotations = Sets.newHashSet(includedAnnotations);
-            for (FileAnnotation annotation : includedAnnotations) {
-                for (Pattern exclude : excludePatterns) {
-                    if (exclude.matcher(annotation.getFileName()).matches()) {
-                        excludedAnnotations.remove(annotation);
-                    }
-                }
-                for (Pattern exclude : messagesPatterns) {
-                    if (exclude.matcher(annotation.getMessage()).matches()) {
-                        excludedAnnotations.remove(annotation);
-                    }
-                }
-                for (Pattern exclude : categoriesPatterns) {
-                    if (exclude.matcher(annotation.getCategory()).matches()) {
-                        excludedAnnotations.remove(annotation);
-                    }
-                }
-            }
-            logger.log(String.format("Found %d warnings after exclusion.", excludedAnnotations.size()));
-            return excludedAnnotations;
+
+        Set<FileAnnotation> filtered = Sets.newHashSet(filter.apply(allAnnotations));
+        if (filter.hasExcludes()) {
+            logger.log(String.format("Found %d warnings after exclusion.", filtered.size()));
         }
+        return filtered;
     }
 
     public boolean isActive(final String includePattern, final String excludePattern, final String messagesPattern, final String categoriesPattern) {
@@ -0,0 +1,93 @@
+package hudson.plugins.warnings.parser;
+
+import javax.annotation.CheckForNull;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Pool of worker threads that is shared by all parallel scans of the warnings plug-in, see
+ * {@link ParallelLineScanner} and {@link CompiledWarningsFilter}. The parallel mode is opt-in: it is enabled by setting the system property
+ * {@code hudson.plugins.warnings.parser.WorkerPool.parallelism} to the number of worker threads (defaults to 1, which
+ * disables the parallel mode). The workers are daemon threads that terminate after they have been idle for a minute,
+ * so the pool does not keep any threads while no scan is running. Instead of the pool of this class another executor
+ * can be injected with {@link #setExecutor(ExecutorService, int)}, e.g. an executor that is managed by Jenkins.
+ *
+ * @author Ulli Hafner
+ */
+final class WorkerPool {
+    private static final int PARALLELISM = Math.max(1,
+            Integer.getInteger(WorkerPool.class.getName() + ".parallelism", 1));
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static ExecutorService executor;
+    /** Determines whether the executor has been created by this pool. */
+    private static boolean isOwnExecutor;
+    private static int parallelism = PARALLELISM;
+
+    /**
+     * Returns whether the parallel mode is enabled.
+     *
+     * @return {@code true} if the parallel mode is enabled, {@code false} otherwise
+     */
+    static boolean isEnabled() {
+        return getParallelism() > 1;
+    }
+
+    /**
+     * Returns the number of worker threads.
+     *
+     * @return the number of worker threads
+     */
+    static synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the executor of the worker threads. Unless an executor has been injected, the executor is created on
+     * the first call.
+     *
+     * @return the executor
+     */
+    static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "Warnings worker"));
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+            isOwnExecutor = true;
+        }
+        return executor;
+    }
+
+    /**
+     * Replaces the executor of the worker threads. An injected executor is not shut down by this pool, the previous
+     * executor is shut down if it has been created by this pool.
+     *
+     * @param injected
+     *            the executor to use, or {@code null} to use the pool of this class again
+     * @param injectedParallelism
+     *            the number of worker threads of the executor
+     */
+    static synchronized void setExecutor(@CheckForNull final ExecutorService injected,
+            final int injectedParallelism) {
+        if (isOwnExecutor) {
+            executor.shutdown();
+        }
+        executor = injected;
+        isOwnExecutor = false;
+        parallelism = injected == null ? PARALLELISM : Math.max(1, injectedParallelism);
+    }
+
+    /**
+     * Creates a new instance of {@link WorkerPool}.
+     */
+    private WorkerPool() {
+        // prevents instantiation
+    }
+}
@@ -78,5 +78,10 @@ public class XlcCompilerParser extends RegexpLineParser {
         }
         return FALSE_POSITIVE;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
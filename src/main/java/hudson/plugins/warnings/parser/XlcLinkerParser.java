@@ -71,5 +71,10 @@ public class XlcLinkerParser extends RegexpLineParser {
         }
         return FALSE_POSITIVE;
     }
+
+    @Override
+    protected boolean isStateless() {
+        return true;
+    }
 }
 
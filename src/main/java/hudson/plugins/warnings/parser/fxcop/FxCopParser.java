@@ -1,23 +1,15 @@
 package hudson.plugins.warnings.parser.fxcop;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Collection;
 import java.util.List;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-
 import com.google.common.collect.Lists;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-
 import hudson.Extension;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
@@ -25,25 +17,18 @@ import hudson.plugins.warnings.parser.AbstractWarningsParser;
 import hudson.plugins.warnings.parser.Messages;
 import hudson.plugins.warnings.parser.ParsingCanceledException;
 import hudson.plugins.warnings.parser.Warning;
-import hudson.plugins.warnings.util.XmlElementUtil;
+import hudson.plugins.warnings.util.XmlStreamUtil;
 
 /**
- * Parses a fxcop xml report file. This does not uses the XML Pull parser as it
- * can not handle the FxCop XML files. The bug is registered at Sun as http:
- * //bugs.sun.com/bugdatabase/view_bug.do?bug_id=4508058
- * <p>
- * Note that instances of this parser are not thread safe.
- * </p>
+ * Parses a fxcop xml report file. The report is read with a streaming parser, so the memory that is required does
+ * not depend on the size of the report. Since the rules are listed after the issues, the issues are kept until the
+ * end of the report, the warnings are created afterwards.
  */
 @SuppressWarnings("unused")
 @Extension
 public class FxCopParser extends AbstractWarningsParser {
     private static final long serialVersionUID = -7208558002331355408L;
 
-    private transient FxCopRuleSet ruleSet;
-    @SuppressFBWarnings("SE")
-    private transient List<FileAnnotation> warnings;
-
     /**
      * Creates a new instance of {@link FxCopParser}.
      */
@@ -56,173 +41,110 @@ public class FxCopParser extends AbstractWarningsParser {
     @Override
     public Collection<FileAnnotation> parse(final Reader reader)
             throws IOException, ParsingCanceledException {
+        XMLStreamReader xml = null;
         try {
-            ruleSet = new FxCopRuleSet();
-            warnings = Lists.newArrayList();
-
-            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder docBuilder;
-            docBuilder = docBuilderFactory.newDocumentBuilder();
-
-            Document doc = docBuilder.parse(new InputSource(reader));
-
-            NodeList mainNode = doc.getElementsByTagName("FxCopReport");
-
-            Element rootElement = (Element)mainNode.item(0);
-            parseRules(XmlElementUtil.getFirstElementByTagName(rootElement, "Rules"));
-            parseNamespaces(XmlElementUtil.getFirstElementByTagName(rootElement, "Namespaces"), null);
-            parseTargets(XmlElementUtil.getFirstElementByTagName(rootElement, "Targets"));
+            xml = XmlStreamUtil.createReader(reader);
+
+            FxCopRuleSet ruleSet = new FxCopRuleSet();
+            List<Issue> issues = Lists.newArrayList();
+            Issue message = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("Message".equals(name)) {
+                        message = new Issue(getString(xml, "TypeName"), getString(xml, "Category"),
+                                getString(xml, "CheckId"));
+                    }
+                    else if ("Issue".equals(name) && message != null) {
+                        issues.add(parseIssue(xml, message));
+                    }
+                    else if ("Rule".equals(name)) {
+                        ruleSet.addRule(parseRule(xml));
+                    }
+                }
+                else if (event == XMLStreamConstants.END_ELEMENT && "Message".equals(xml.getLocalName())) {
+                    message = null;
+                }
+            }
 
+            List<FileAnnotation> warnings = Lists.newArrayList();
+            for (Issue issue : issues) {
+                warnings.add(createWarning(issue, ruleSet));
+            }
             return warnings;
         }
-        catch (ParserConfigurationException exception) {
+        catch (XMLStreamException exception) {
             throw new IOException(exception);
         }
-        catch (SAXException exception) {
-            throw new IOException(exception);
-        }
-    }
-
-    private void parseRules(final Element rulesElement) {
-        if (rulesElement != null) {
-            for (Element rule : XmlElementUtil.getNamedChildElements(rulesElement, "Rule")) {
-                ruleSet.addRule(rule);
-            }
-        }
-    }
-
-    private void parseTargets(final Element targetsElement) {
-        if (targetsElement != null) {
-            for (Element target : XmlElementUtil.getNamedChildElements(targetsElement, "Target")) {
-                String name = getString(target, "Name");
-                parseMessages(XmlElementUtil.getFirstElementByTagName(target, "Messages"), name);
-                parseModules(XmlElementUtil.getFirstElementByTagName(target, "Modules"), name);
-                parseResources(XmlElementUtil.getFirstElementByTagName(target, "Resources"), name);
-            }
-        }
-    }
-
-    private void parseResources(final Element resources, final String parentName) {
-        if (resources != null) {
-            for (Element target : XmlElementUtil.getNamedChildElements(resources, "Resource")) {
-                String name = getString(target, "Name");
-                parseMessages(XmlElementUtil.getFirstElementByTagName(target, "Messages"), name);
-            }
+        finally {
+            XmlStreamUtil.closeQuietly(xml);
         }
     }
 
-    private void parseModules(final Element modulesElement, final String parentName) {
-        if (modulesElement != null) {
-            for (Element module : XmlElementUtil.getNamedChildElements(modulesElement, "Module")) {
-                String name = getString(module, "Name");
-                parseMessages(XmlElementUtil.getFirstElementByTagName(module, "Messages"), name);
-                parseNamespaces(XmlElementUtil.getFirstElementByTagName(module, "Namespaces"), name);
+    private FxCopRule parseRule(final XMLStreamReader xml) throws XMLStreamException {
+        FxCopRule rule = new FxCopRule(getString(xml, "TypeName"), getString(xml, "Category"),
+                getString(xml, "CheckId"));
+        rule.setUrl("");
+        rule.setDescription("");
+        rule.setName("");
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
             }
-        }
-    }
-
-    private void parseNamespaces(final Element namespacesElement, final String parentName) {
-        if (namespacesElement != null) {
-            for (Element namespace : XmlElementUtil.getNamedChildElements(namespacesElement,
-                    "Namespace")) {
-                String name = getString(namespace, "Name");
-
-                parseMessages(XmlElementUtil.getFirstElementByTagName(namespace, "Messages"), name);
-                parseTypes(XmlElementUtil.getFirstElementByTagName(namespace, "Types"), name);
+            String name = xml.getLocalName();
+            if ("Url".equals(name)) {
+                rule.setUrl(XmlStreamUtil.getTextContent(xml));
             }
-        }
-    }
-
-    private void parseTypes(final Element typesElement, final String parentName) {
-        if (typesElement != null) {
-            for (Element type : XmlElementUtil.getNamedChildElements(typesElement, "Type")) {
-                String name = parentName + "." + getString(type, "Name");
-
-                parseMessages(XmlElementUtil.getFirstElementByTagName(type, "Messages"), name);
-                parseMembers(XmlElementUtil.getFirstElementByTagName(type, "Members"), name);
+            else if ("Description".equals(name)) {
+                rule.setDescription(XmlStreamUtil.getTextContent(xml));
             }
-        }
-    }
-
-    private void parseMembers(final Element membersElement, final String parentName) {
-        if (membersElement != null) {
-            for (Element member : XmlElementUtil.getNamedChildElements(membersElement, "Member")) {
-                parseMember(member, parentName);
+            else if ("Name".equals(name)) {
+                rule.setName(XmlStreamUtil.getTextContent(xml));
             }
-        }
-    }
-
-    private void parseAccessors(final Element accessorsElement, final String parentName) {
-        if (accessorsElement != null) {
-            for (Element member : XmlElementUtil
-                    .getNamedChildElements(accessorsElement, "Accessor")) {
-                parseMember(member, parentName);
+            else {
+                XmlStreamUtil.skipElement(xml);
             }
         }
+        return rule;
     }
 
-    private void parseMember(final Element member, final String parentName) {
-        parseMessages(XmlElementUtil.getFirstElementByTagName(member, "Messages"), parentName);
-        parseAccessors(XmlElementUtil.getFirstElementByTagName(member, "Accessors"), parentName);
-    }
-
-    private void parseMessages(final Element messages, final String parentName) {
-        parseMessages(messages, parentName, null);
-    }
-
-    private void parseMessages(final Element messages, final String parentName, final String subName) {
-        if (messages != null) {
-            for (Element message : XmlElementUtil.getNamedChildElements(messages, "Message")) {
-                for (Element issue : XmlElementUtil.getNamedChildElements(message, "Issue")) {
-                    parseIssue(issue, message, parentName, subName);
-                }
-            }
-        }
+    private Issue parseIssue(final XMLStreamReader xml, final Issue message) throws XMLStreamException {
+        Issue issue = new Issue(message.typeName, message.category, message.checkId);
+        issue.level = getString(xml, "Level");
+        issue.path = getString(xml, "Path");
+        issue.file = getString(xml, "File");
+        issue.line = getString(xml, "Line");
+        issue.text = XmlStreamUtil.getTextContent(xml);
+        return issue;
     }
 
-    private void parseIssue(final Element issue, final Element parent, final String parentName, final String subName) {
-        String typeName = getString(parent, "TypeName");
-        String category = getString(parent, "Category");
-        String checkId = getString(parent, "CheckId");
-        String issueLevel = getString(issue, "Level");
-
+    private Warning createWarning(final Issue issue, final FxCopRuleSet ruleSet) {
         StringBuilder msgBuilder = new StringBuilder();
-        if (subName != null) {
-            msgBuilder.append(subName);
-            msgBuilder.append(' ');
-        }
-        FxCopRule rule = ruleSet.getRule(category, checkId);
+        FxCopRule rule = ruleSet.getRule(issue.category, issue.checkId);
         if (rule == null) {
-            msgBuilder.append(typeName);
+            msgBuilder.append(issue.typeName);
         }
         else {
             msgBuilder.append("<a href=\"");
             msgBuilder.append(rule.getUrl());
             msgBuilder.append("\">");
-            msgBuilder.append(typeName);
+            msgBuilder.append(issue.typeName);
             msgBuilder.append("</a>");
         }
         msgBuilder.append(" - ");
-        msgBuilder.append(issue.getTextContent());
-
-        String filePath = getString(issue, "Path");
-        String fileName = getString(issue, "File");
-        String fileLine = getString(issue, "Line");
+        msgBuilder.append(issue.text);
 
-        Warning warning = createWarning(filePath + "/" + fileName, getLineNumber(fileLine), category, msgBuilder.toString(), getPriority(issueLevel));
+        Warning warning = createWarning(issue.path + "/" + issue.file, getLineNumber(issue.line), issue.category,
+                msgBuilder.toString(), getPriority(issue.level));
         if (rule != null) {
             warning.setToolTip(rule.getDescription());
         }
-        warnings.add(warning);
+        return warning;
     }
 
-    private String getString(final Element element, final String name) {
-        if (element.hasAttribute(name)) {
-            return element.getAttribute(name);
-        }
-        else {
-            return "";
-        }
+    private String getString(final XMLStreamReader xml, final String name) {
+        return XmlStreamUtil.getAttribute(xml, name);
     }
 
     private Priority getPriority(final String issueLevel) {
@@ -242,4 +164,24 @@ public class FxCopParser extends AbstractWarningsParser {
             return Priority.LOW;
         }
     }
+
+    /**
+     * An issue of a message, the warning is created when all rules are known.
+     */
+    private static final class Issue {
+        private final String typeName;
+        private final String category;
+        private final String checkId;
+        private String level;
+        private String path;
+        private String file;
+        private String line;
+        private String text;
+
+        Issue(final String typeName, final String category, final String checkId) {
+            this.typeName = typeName;
+            this.category = category;
+            this.checkId = checkId;
+        }
+    }
 }
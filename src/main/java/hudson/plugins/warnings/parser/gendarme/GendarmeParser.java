@@ -1,8 +1,8 @@
 package hudson.plugins.warnings.parser.gendarme;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.net.MalformedURLException;
@@ -16,22 +16,18 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 import hudson.Extension;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.Priority;
-import hudson.plugins.violations.types.fxcop.XmlElementUtil;
 import hudson.plugins.warnings.parser.AbstractWarningsParser;
 import hudson.plugins.warnings.parser.Messages;
 import hudson.plugins.warnings.parser.ParsingCanceledException;
+import hudson.plugins.warnings.util.XmlStreamUtil;
 
 /**
- * Parses Gendarme violations.
+ * Parses Gendarme violations. The report is read with a streaming parser, so only the rules are kept in memory
+ * while the violations are read.
  *
  * @author mathias.kluba@gmail.com
  */
@@ -52,52 +48,98 @@ public class GendarmeParser extends AbstractWarningsParser {
 
     @Override
     public Collection<FileAnnotation> parse(final Reader reader) throws IOException, ParsingCanceledException {
+        XMLStreamReader xml = null;
         try {
-            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-            Document doc = docBuilder.parse(new InputSource(reader));
-
-            NodeList mainNode = doc.getElementsByTagName("gendarme-output");
-
-            Element rootElement = (Element)mainNode.item(0);
-            Element resultsElement = (Element)rootElement.getElementsByTagName("results").item(0);
-            Element rulesElement = (Element)rootElement.getElementsByTagName("rules").item(0);
-
-            Map<String, GendarmeRule> rules = parseRules(XmlElementUtil.getNamedChildElements(rulesElement, "rule"));
-            return parseViolations(XmlElementUtil.getNamedChildElements(resultsElement, "rule"), rules);
+            xml = XmlStreamUtil.createReader(reader);
+
+            Map<String, GendarmeRule> rules = new HashMap<String, GendarmeRule>();
+            List<FileAnnotation> warnings = new ArrayList<FileAnnotation>();
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                    if ("rules".equals(xml.getLocalName())) {
+                        parseRules(xml, rules);
+                    }
+                    else if ("results".equals(xml.getLocalName())) {
+                        parseResults(xml, rules, warnings);
+                    }
+                }
+            }
+            return warnings;
         }
-        catch (ParserConfigurationException pce) {
-            throw new IOException(pce);
+        catch (XMLStreamException exception) {
+            throw new IOException(exception);
         }
-        catch (SAXException se) {
-            throw new IOException(se);
+        finally {
+            XmlStreamUtil.closeQuietly(xml);
         }
     }
 
-    private List<FileAnnotation> parseViolations(final List<Element> ruleElements, final Map<String, GendarmeRule> rules) {
-        List<FileAnnotation> warnings = new ArrayList<FileAnnotation>();
-        for (Element ruleElement : ruleElements) {
-            String ruleName = ruleElement.getAttribute("Name");
-            String problem = ruleElement.getElementsByTagName("problem").item(0).getTextContent();
-            List<Element> targetElements = XmlElementUtil.getNamedChildElements(ruleElement, "target");
+    private void parseResults(final XMLStreamReader xml, final Map<String, GendarmeRule> rules,
+            final List<FileAnnotation> warnings) throws XMLStreamException {
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("rule".equals(xml.getLocalName())) {
+                    parseViolations(xml, rules, warnings);
+                }
+                else {
+                    XmlStreamUtil.skipElement(xml);
+                }
+            }
+        }
+    }
+
+    private void parseViolations(final XMLStreamReader xml, final Map<String, GendarmeRule> rules,
+            final List<FileAnnotation> warnings) throws XMLStreamException {
+        String ruleName = XmlStreamUtil.getAttribute(xml, "Name");
+        String problem = null;
+        List<String[]> defects = new ArrayList<String[]>();
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("problem".equals(xml.getLocalName()) && problem == null) {
+                    problem = XmlStreamUtil.getTextContent(xml);
+                }
+                else if ("target".equals(xml.getLocalName())) {
+                    String[] defect = parseTarget(xml);
+                    if (defect != null) {
+                        defects.add(defect);
+                    }
+                }
+                else {
+                    XmlStreamUtil.skipElement(xml);
+                }
+            }
+        }
 
-            GendarmeRule rule = rules.get(ruleName);
-            for (Element targetElement : targetElements) {
-                Element defectElement = (Element)targetElement.getElementsByTagName("defect").item(0);
-                String source = defectElement.getAttribute("Source");
+        GendarmeRule rule = rules.get(ruleName);
+        String category = rule == null ? ruleName : rule.getName();
+        for (String[] defect : defects) {
+            String source = defect[1];
+            String fileName = extractFileNameMatch(rule, source, 1);
+            Priority priority = extractPriority(defect[0]);
+            int line = convertLineNumber(extractFileNameMatch(rule, source, 2));
 
-                String fileName = extractFileNameMatch(rule, source, 1);
-                Priority priority = extractPriority(defectElement);
-                int line = convertLineNumber(extractFileNameMatch(rule, source, 2));
+            warnings.add(createWarning(fileName, line, category, StringUtils.defaultString(problem), priority));
+        }
+    }
 
-                warnings.add(createWarning(fileName, line, rule.getName(), problem, priority));
+    /**
+     * Returns the severity and the source of the first defect of a target.
+     */
+    private String[] parseTarget(final XMLStreamReader xml) throws XMLStreamException {
+        String[] defect = null;
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("defect".equals(xml.getLocalName()) && defect == null) {
+                    defect = new String[] {XmlStreamUtil.getAttribute(xml, "Severity"),
+                            XmlStreamUtil.getAttribute(xml, "Source")};
+                }
+                XmlStreamUtil.skipElement(xml);
             }
         }
-        return warnings;
+        return defect;
     }
 
-    private Priority extractPriority(final Element defectElement) {
-        String severityString = defectElement.getAttribute("Severity");
+    private Priority extractPriority(final String severityString) {
         Priority priority;
         if ("Low".equals(severityString)) {
             priority = Priority.LOW;
@@ -113,7 +155,7 @@ public class GendarmeParser extends AbstractWarningsParser {
 
     private String extractFileNameMatch(final GendarmeRule rule, final String source, final int group) {
         String fileName = StringUtils.EMPTY;
-        if (rule.getType() == GendarmeRuleType.Method) {
+        if (rule != null && rule.getType() == GendarmeRuleType.Method) {
             Matcher matcher = FILE_PATTERN.matcher(source);
             if (matcher.matches()) {
                 fileName = matcher.group(group);
@@ -122,15 +164,20 @@ public class GendarmeParser extends AbstractWarningsParser {
         return fileName;
     }
 
-    private Map<String, GendarmeRule> parseRules(final List<Element> ruleElements) {
-        Map<String, GendarmeRule> rules = new HashMap<String, GendarmeRule>();
-
-        for (Element ruleElement : ruleElements) {
+    private void parseRules(final XMLStreamReader xml, final Map<String, GendarmeRule> rules)
+            throws XMLStreamException {
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if (!"rule".equals(xml.getLocalName())) {
+                XmlStreamUtil.skipElement(xml);
+                continue;
+            }
             GendarmeRule rule = new GendarmeRule();
-            rule.setName(ruleElement.getAttribute("Name"));
-            rule.setTypeName(ruleElement.getTextContent());
+            rule.setName(XmlStreamUtil.getAttribute(xml, "Name"));
 
-            String typeString = ruleElement.getAttribute("Type");
+            String typeString = XmlStreamUtil.getAttribute(xml, "Type");
             if ("Type".equals(typeString)) {
                 rule.setType(GendarmeRuleType.Type);
             }
@@ -141,16 +188,15 @@ public class GendarmeParser extends AbstractWarningsParser {
                 rule.setType(GendarmeRuleType.Assembly);
             }
             try {
-                rule.setUrl(new URL(ruleElement.getAttribute("Uri")));
+                rule.setUrl(new URL(XmlStreamUtil.getAttribute(xml, "Uri")));
             }
             catch (MalformedURLException e) {
                 rule.setUrl(null);
             }
+            rule.setTypeName(XmlStreamUtil.getTextContent(xml));
 
             // add the rule to the cache
             rules.put(rule.getName(), rule);
         }
-
-        return rules;
     }
 }
@@ -0,0 +1,128 @@
+package hudson.plugins.warnings.util;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Utilities to read XML reports with a streaming StAX parser. In contrast to a DOM the memory that is required to
+ * read a report does not depend on the size of the report. Document type definitions are not supported, so neither
+ * external nor internal entities are expanded.
+ *
+ * @author Ulli Hafner
+ */
+public final class XmlStreamUtil {
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Creates a new stream reader for the specified XML document.
+     *
+     * @param reader
+     *            the XML document
+     * @return the stream reader
+     * @throws XMLStreamException
+     *             if the reader could not be created
+     */
+    public static XMLStreamReader createReader(final Reader reader) throws XMLStreamException {
+        synchronized (FACTORY) {
+            return FACTORY.createXMLStreamReader(reader);
+        }
+    }
+
+    /**
+     * Closes the specified stream reader. Exceptions are ignored.
+     *
+     * @param reader
+     *            the stream reader to close, might be {@code null}
+     */
+    public static void closeQuietly(final XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            }
+            catch (XMLStreamException exception) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the named attribute of the current element.
+     *
+     * @param reader
+     *            the stream reader, positioned at the start of an element
+     * @param name
+     *            the local name of the attribute
+     * @return the value of the attribute, or an empty string if there is no such attribute
+     */
+    public static String getAttribute(final XMLStreamReader reader, final String name) {
+        return StringUtils.defaultString(reader.getAttributeValue(null, name));
+    }
+
+    /**
+     * Returns the text content of the current element, including the text of all nested elements. Afterwards, the
+     * reader is positioned at the end of the element.
+     *
+     * @param reader
+     *            the stream reader, positioned at the start of an element
+     * @return the text content
+     * @throws XMLStreamException
+     *             if the document could not be read
+     */
+    public static String getTextContent(final XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+            else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                text.append(reader.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Skips the current element including all nested elements. Afterwards, the reader is positioned at the end of
+     * the element.
+     *
+     * @param reader
+     *            the stream reader, positioned at the start of an element
+     * @throws XMLStreamException
+     *             if the document could not be read
+     */
+    public static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private XmlStreamUtil() {
+        // prevents instantiation
+    }
+}
@@ -0,0 +1,138 @@
+package hudson.plugins.warnings;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.thoughtworks.xstream.XStream;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.LineRange;
+import hudson.plugins.analysis.util.model.Priority;
+import hudson.plugins.warnings.parser.Gcc4CompilerParser;
+import hudson.plugins.warnings.parser.Warning;
+
+/**
+ * Tests the class {@link BinaryAnnotationsConverter}.
+ */
+public class BinaryAnnotationsConverterTest {
+    /**
+     * Verifies that annotations written in the binary format are read with all properties.
+     *
+     * @throws IOException
+     *             if the warnings could not be parsed
+     */
+    @Test
+    public void shouldReadBinaryFormat() throws IOException {
+        FileAnnotation[] annotations = createAnnotations();
+
+        String xml = createXStream(true).toXML(annotations);
+        assertTrue("No binary format", xml.contains("format=\"binary\""));
+        assertFalse("Warnings written as XML", xml.contains("<warning>"));
+
+        assertSameAnnotations(annotations, (FileAnnotation[])createXStream(false).fromXML(xml));
+    }
+
+    /**
+     * Verifies that annotations with several line ranges, different priorities and without module or package name
+     * are read with all properties from the binary format.
+     *
+     * @throws IOException
+     *             if the annotations could not be written
+     * @throws IllegalAccessException
+     *             if a field could not be accessed
+     * @throws InstantiationException
+     *             if a line range list could not be created
+     */
+    @Test
+    public void shouldRoundTripLineRanges() throws IOException, IllegalAccessException, InstantiationException {
+        Warning first = new Warning("/workspace/src/A.java", 30, "type", "category", "first", Priority.LOW);
+        first.addLineRanges(Lists.newArrayList(new LineRange(5, 7), new LineRange(100), new LineRange(2, 40)));
+        first.setModuleName("module");
+        first.setPackageName("edu.hm.hafner");
+        Warning second = new Warning("/workspace/src/B.java", 1, "type", "category", "second", Priority.HIGH);
+        second.addLineRanges(Lists.newArrayList(new LineRange(1000, 1001), new LineRange(3)));
+        Warning third = new Warning("/workspace/src/C.java", 0, "type", "category", "third", Priority.NORMAL);
+        FileAnnotation[] annotations = {first, second, third};
+
+        BinaryAnnotationsConverter converter = new BinaryAnnotationsConverter(createXStream(true), true);
+        FileAnnotation[] actual = (FileAnnotation[])converter.read(converter.write(annotations), FileAnnotation.class);
+
+        assertSameAnnotations(annotations, actual);
+        assertEquals("Wrong number of line ranges", 4, actual[0].getLineRanges().size());
+        assertEquals("Wrong number of line ranges", 3, actual[1].getLineRanges().size());
+    }
+
+    /**
+     * Verifies that annotations written as XML are still read.
+     *
+     * @throws IOException
+     *             if the warnings could not be parsed
+     */
+    @Test
+    public void shouldReadXmlFormat() throws IOException {
+        FileAnnotation[] annotations = createAnnotations();
+
+        String xml = createXStream(false).toXML(annotations);
+        assertTrue("Warnings not written as XML", xml.contains("<warning>"));
+
+        assertSameAnnotations(annotations, (FileAnnotation[])createXStream(true).fromXML(xml));
+    }
+
+    /**
+     * Verifies that the binary format is much smaller than the XML format.
+     *
+     * @throws IOException
+     *             if the warnings could not be parsed
+     */
+    @Test
+    public void shouldWriteCompactFormat() throws IOException {
+        FileAnnotation[] annotations = createAnnotations();
+
+        int binary = createXStream(true).toXML(annotations).length();
+        int xml = createXStream(false).toXML(annotations).length();
+        assertTrue(String.format("Binary format with %d bytes not smaller than XML with %d bytes", binary, xml),
+                binary * 4 < xml);
+    }
+
+    private void assertSameAnnotations(final FileAnnotation[] expected, final FileAnnotation[] actual) {
+        assertEquals("Wrong number of warnings", expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Wrong warning", expected[i], actual[i]);
+            assertEquals("Wrong key", expected[i].getKey(), actual[i].getKey());
+            assertEquals("Wrong message", expected[i].getMessage(), actual[i].getMessage());
+            assertEquals("Wrong priority", expected[i].getPriority(), actual[i].getPriority());
+            assertEquals("Wrong line ranges", expected[i].getLineRanges(), actual[i].getLineRanges());
+            assertEquals("Wrong column", expected[i].getColumnStart(), actual[i].getColumnStart());
+            assertEquals("Wrong module", expected[i].getModuleName(), actual[i].getModuleName());
+            assertEquals("Wrong package", expected[i].getPackageName(), actual[i].getPackageName());
+            assertEquals("Wrong tool tip", expected[i].getToolTip(), actual[i].getToolTip());
+        }
+    }
+
+    private FileAnnotation[] createAnnotations() throws IOException {
+        List<FileAnnotation> warnings = Lists.newArrayList(new Gcc4CompilerParser().parse(new InputStreamReader(
+                BinaryAnnotationsConverterTest.class.getResourceAsStream("issue14821.txt"), "UTF-8")));
+        int index = 0;
+        for (FileAnnotation warning : warnings) {
+            warning.setModuleName("module-" + index % 3);
+            ((Warning)warning).setToolTip("tool tip " + index);
+            index++;
+        }
+        Warning multiLine = new Warning("/workspace/src/Main.java", 10, "type", "category", "message", Priority.HIGH);
+        warnings.add(new Warning(multiLine, "additional message", 20));
+        return warnings.toArray(new FileAnnotation[warnings.size()]);
+    }
+
+    private XStream createXStream(final boolean useBinaryFormat) {
+        XStream xstream = new XStream();
+        xstream.alias("warning", Warning.class);
+        BinaryAnnotationsConverter.configure(xstream, useBinaryFormat);
+        return xstream;
+    }
+}
@@ -91,7 +91,7 @@ public class GroovyParserTest {
         assertTrue("Wrong multi line support guess", parser.hasMultiLineSupport());
 
         DescriptorImpl descriptor = createDescriptor();
-        assertOk(descriptor.doCheckExample(textToMatch, multiLineRegexp, script));
+        assertOk(descriptor.doCheckExample(textToMatch, multiLineRegexp, script, null));
 
         AbstractWarningsParser instance = parser.getParser();
         Collection<FileAnnotation> warnings = instance.parse(new StringReader(textToMatch));
@@ -157,11 +157,11 @@ public class GroovyParserTest {
     public void testScriptValidationWithoutExample() throws IOException {
         DescriptorImpl descriptor = createDescriptor();
 
-        assertError(descriptor.doCheckScript(null));
-        assertError(descriptor.doCheckScript(StringUtils.EMPTY));
-        assertError(descriptor.doCheckScript("Hello World"));
+        assertError(descriptor.doCheckScript(null, null));
+        assertError(descriptor.doCheckScript(StringUtils.EMPTY, null));
+        assertError(descriptor.doCheckScript("Hello World", null));
 
-        assertOk(descriptor.doCheckScript(readScript()));
+        assertOk(descriptor.doCheckScript(readScript(), null));
     }
 
     private String readScript() throws IOException {
@@ -180,7 +180,7 @@ public class GroovyParserTest {
     public void testScriptValidationOneWarning() throws IOException {
         DescriptorImpl descriptor = createDescriptor();
 
-        assertOk(descriptor.doCheckExample(SINGLE_LINE_EXAMPLE, SINGLE_LINE_REGEXP, readScript()));
+        assertOk(descriptor.doCheckExample(SINGLE_LINE_EXAMPLE, SINGLE_LINE_REGEXP, readScript(), null));
     }
 
     /**
@@ -195,7 +195,7 @@ public class GroovyParserTest {
     public void testScriptValidationNoMatchesFound() throws IOException {
         DescriptorImpl descriptor = createDescriptor();
 
-        assertError(descriptor.doCheckExample("this is a warning message", SINGLE_LINE_REGEXP, readScript()));
+        assertError(descriptor.doCheckExample("this is a warning message", SINGLE_LINE_REGEXP, readScript(), null));
     }
 
     /**
@@ -210,7 +210,7 @@ public class GroovyParserTest {
     public void testScriptValidationIllegalMatchAccess() throws IOException {
         DescriptorImpl descriptor = createDescriptor();
 
-        assertError(descriptor.doCheckExample(SINGLE_LINE_EXAMPLE, "^\\s*(.*):(\\d+):(.*)$", readScript()));
+        assertError(descriptor.doCheckExample(SINGLE_LINE_EXAMPLE, "^\\s*(.*):(\\d+):(.*)$", readScript(), null));
     }
 
     /**
@@ -225,7 +225,22 @@ public class GroovyParserTest {
     public void testMultiLineExpressionWillMatch() throws IOException {
         DescriptorImpl descriptor = createDescriptor();
 
-        assertOk(descriptor.doCheckExample(MULTI_LINE_EXAMPLE, MULTI_LINE_REGEXP, MULTILINE_SCRIPT));
+        assertOk(descriptor.doCheckExample(MULTI_LINE_EXAMPLE, MULTI_LINE_REGEXP, MULTILINE_SCRIPT, null));
+    }
+
+    /**
+     * Verifies that an empty script is accepted only if the regular expression contains named groups.
+     */
+    @Test
+    public void testScriptValidationWithNamedGroups() {
+        DescriptorImpl descriptor = createDescriptor();
+        String namedGroups = "^\\s*(?<file>.*):(?<line>\\d+):(?<category>.*):\\s*(?<message>.*)$";
+
+        assertOk(descriptor.doCheckScript(StringUtils.EMPTY, namedGroups));
+        assertError(descriptor.doCheckScript(StringUtils.EMPTY, SINGLE_LINE_REGEXP));
+        assertError(descriptor.doCheckScript(null, SINGLE_LINE_REGEXP));
+
+        assertOk(descriptor.doCheckExample(SINGLE_LINE_EXAMPLE, namedGroups, StringUtils.EMPTY, null));
     }
 
     private DescriptorImpl createDescriptor() {
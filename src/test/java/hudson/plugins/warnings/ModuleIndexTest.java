@@ -0,0 +1,138 @@
+package hudson.plugins.warnings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the class {@link ModuleIndex}.
+ */
+public class ModuleIndexTest {
+    private File parent;
+    private File workspace;
+
+    /**
+     * Creates an empty workspace.
+     *
+     * @throws IOException
+     *             if the workspace could not be created
+     */
+    @Before
+    public void createWorkspace() throws IOException {
+        parent = File.createTempFile("modules", "");
+        FileUtils.deleteQuietly(parent);
+        workspace = new File(parent, "workspace");
+        assertTrue("Can't create workspace", workspace.mkdirs());
+        ModuleIndex.clearCache();
+    }
+
+    /**
+     * Deletes the workspace.
+     */
+    @After
+    public void deleteWorkspace() {
+        FileUtils.deleteQuietly(parent);
+        ModuleIndex.clearCache();
+    }
+
+    /**
+     * Verifies that the modules of Maven, Ant and OSGi descriptors are found and that the nearest module wins.
+     *
+     * @throws IOException
+     *             if the workspace could not be written
+     */
+    @Test
+    public void shouldFindNearestModule() throws IOException {
+        write("pom.xml", "<project><parent><artifactId>parent</artifactId></parent>"
+                + "<artifactId>root</artifactId></project>");
+        write("core/pom.xml", "<project><artifactId>core-artifact</artifactId><name>Core</name></project>");
+        write("tools/build.xml", "<project name=\"Tools\" default=\"all\"/>");
+        write("bundle/META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nBundle-Name: %name\n"
+                + "Bundle-SymbolicName: org.example.bundle;singleton:=true\n");
+        write("bundle/plugin.properties", "name=Example Bundle\n");
+        write("symbolic/META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nBundle-SymbolicName: org.example.other\n");
+
+        ModuleIndex index = ModuleIndex.get(workspace);
+
+        assertEquals("Wrong module", "root", index.guessModuleName(path("Main.java")));
+        assertEquals("Wrong module", "Core", index.guessModuleName(path("core/src/main/java/Core.java")));
+        assertEquals("Wrong module", "Core", index.guessModuleName("core\\src\\Windows.java"));
+        assertEquals("Wrong module", "Tools", index.guessModuleName(path("tools/src/Tool.java")));
+        assertEquals("Wrong module", "Example Bundle", index.guessModuleName(path("bundle/src/Bundle.java")));
+        assertEquals("Wrong module", "org.example.other", index.guessModuleName(path("symbolic/Other.java")));
+        assertEquals("Wrong module", "", index.guessModuleName(new File(parent, "Outside.java").getAbsolutePath()));
+    }
+
+    /**
+     * Verifies that new, changed and removed descriptors are detected by a refresh and that the index is stored
+     * in the temporary directory of the workspace.
+     *
+     * @throws IOException
+     *             if the workspace could not be written
+     */
+    @Test
+    public void shouldRefreshChangedDescriptors() throws IOException {
+        write("a/pom.xml", "<project><artifactId>a</artifactId></project>");
+        write("b/build.xml", "<project name=\"b\"/>");
+
+        ModuleIndex index = ModuleIndex.get(workspace);
+        assertEquals("Wrong module", "a", index.guessModuleName(path("a/A.java")));
+        assertEquals("Wrong module", "b", index.guessModuleName(path("b/B.java")));
+        assertTrue("Index not stored", new File(parent, "workspace@tmp/warnings-modules.index").isFile());
+
+        write("a/pom.xml", "<project><artifactId>changed</artifactId></project>");
+        FileUtils.deleteQuietly(new File(workspace, "b"));
+        write("c/d/pom.xml", "<project><artifactId>d</artifactId></project>");
+
+        ModuleIndex.clearCache();
+        ModuleIndex refreshed = ModuleIndex.get(workspace);
+        assertEquals("Wrong module", "changed", refreshed.guessModuleName(path("a/A.java")));
+        assertEquals("Wrong module", "", refreshed.guessModuleName(path("b/B.java")));
+        assertEquals("Wrong module", "d", refreshed.guessModuleName(path("c/d/D.java")));
+    }
+
+    /**
+     * Verifies that symbolic links to directories are not followed, so a link to a parent directory does not result
+     * in an endless scan.
+     *
+     * @throws IOException
+     *             if the workspace could not be written
+     */
+    @Test
+    public void shouldSkipSymbolicLinks() throws IOException {
+        write("a/pom.xml", "<project><artifactId>a</artifactId></project>");
+        write("linked/pom.xml", "<project><artifactId>linked</artifactId></project>");
+        try {
+            Files.createSymbolicLink(new File(workspace, "a/loop").toPath(), workspace.toPath());
+            Files.createSymbolicLink(new File(workspace, "link").toPath(), new File(workspace, "linked").toPath());
+        }
+        catch (UnsupportedOperationException exception) {
+            Assume.assumeNoException(exception);
+        }
+        catch (IOException exception) {
+            Assume.assumeNoException(exception);
+        }
+
+        ModuleIndex index = ModuleIndex.get(workspace);
+
+        assertEquals("Wrong module", "a", index.guessModuleName(path("a/A.java")));
+        assertEquals("Wrong module", "linked", index.guessModuleName(path("linked/L.java")));
+        assertEquals("Link followed", "", index.guessModuleName(path("link/L.java")));
+    }
+
+    private String path(final String relative) {
+        return new File(workspace, relative).getAbsolutePath();
+    }
+
+    private void write(final String relative, final String content) throws IOException {
+        FileUtils.writeStringToFile(new File(workspace, relative), content, "UTF-8");
+    }
+}
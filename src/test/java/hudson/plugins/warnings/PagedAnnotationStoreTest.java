@@ -0,0 +1,163 @@
+package hudson.plugins.warnings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.thoughtworks.xstream.XStream;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
+import hudson.plugins.warnings.AnnotationIndex.Property;
+import hudson.plugins.warnings.parser.Gcc4CompilerParser;
+import hudson.plugins.warnings.parser.Warning;
+
+/**
+ * Tests the class {@link PagedAnnotationStore}.
+ */
+public class PagedAnnotationStoreTest {
+    private static final int PAGE_SIZE = 3;
+
+    private File directory;
+    private PagedAnnotationStore store;
+    private List<FileAnnotation> warnings;
+
+    /**
+     * Stores the warnings of a parser in pages of three warnings.
+     *
+     * @throws IOException
+     *             if the warnings could not be stored
+     */
+    @Before
+    public void storeWarnings() throws IOException {
+        directory = File.createTempFile("warnings", "pages");
+        FileUtils.forceDelete(directory);
+        FileUtils.forceMkdir(directory);
+
+        Collection<FileAnnotation> parsed = new Gcc4CompilerParser().parse(new InputStreamReader(
+                PagedAnnotationStoreTest.class.getResourceAsStream("issue14821.txt"), "UTF-8"));
+        XStream xstream = new XStream();
+        xstream.alias("warning", Warning.class);
+        store = new PagedAnnotationStore(new File(directory, "compiler-1-warnings.xml"), xstream);
+        store.write(parsed, PAGE_SIZE);
+
+        warnings = Lists.newArrayList(parsed);
+    }
+
+    /**
+     * Removes the stored pages.
+     *
+     * @throws IOException
+     *             if the pages could not be removed
+     */
+    @After
+    public void deletePages() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    /**
+     * Verifies that the index contains the number of warnings of each file and category.
+     *
+     * @throws IOException
+     *             if the index could not be read
+     */
+    @Test
+    public void shouldCountWarningsInIndex() throws IOException {
+        AnnotationIndex index = store.getIndex();
+
+        assertTrue("Pages not stored", store.exists());
+        assertEquals("Wrong number of warnings", warnings.size(), index.size());
+        for (Property property : new Property[] {Property.FILE, Property.CATEGORY, Property.PRIORITY}) {
+            int total = 0;
+            for (String value : index.getValues(property)) {
+                assertEquals("Wrong count of " + property + " " + value, filter(property, value).size(),
+                        index.getCount(property, value));
+                total += index.getCount(property, value);
+            }
+            assertEquals("Wrong total of " + property, warnings.size(), total);
+        }
+    }
+
+    /**
+     * Verifies that the warnings of a file are read from the pages that contain the file.
+     *
+     * @throws IOException
+     *             if the warnings could not be read
+     */
+    @Test
+    public void shouldReadWarningsOfFile() throws IOException {
+        for (String fileName : store.getIndex().getValues(Property.FILE)) {
+            List<FileAnnotation> expected = filter(Property.FILE, fileName);
+            List<FileAnnotation> actual = store.read(Property.FILE, fileName);
+
+            assertEquals("Wrong warnings of " + fileName, expected.size(), actual.size());
+            assertTrue("Wrong warnings of " + fileName, actual.containsAll(expected));
+        }
+    }
+
+    /**
+     * Verifies that a range of warnings spanning several pages is read in the order of file names and lines.
+     *
+     * @throws IOException
+     *             if the warnings could not be read
+     */
+    @Test
+    public void shouldReadRangeOfWarnings() throws IOException {
+        List<FileAnnotation> all = store.read(0, Integer.MAX_VALUE);
+        assertEquals("Wrong number of warnings", warnings.size(), all.size());
+        assertTrue("Wrong warnings", all.containsAll(warnings));
+        for (int i = 1; i < all.size(); i++) {
+            String previous = all.get(i - 1).getFileName();
+            String current = all.get(i).getFileName();
+            assertTrue("Wrong order", previous.compareTo(current) < 0 || previous.equals(current)
+                    && all.get(i - 1).getPrimaryLineNumber() <= all.get(i).getPrimaryLineNumber());
+        }
+
+        assertEquals("Wrong range", all.subList(2, 8), store.read(2, 8));
+        assertTrue("Wrong empty range", store.read(8, 2).isEmpty());
+    }
+
+    /**
+     * Verifies that the warnings of the detail view of a link are read from the pages and that unsupported links are
+     * rejected.
+     *
+     * @throws IOException
+     *             if the warnings could not be read
+     */
+    @Test
+    public void shouldReadWarningsOfDetailView() throws IOException {
+        for (String category : store.getIndex().getValues(Property.CATEGORY)) {
+            List<FileAnnotation> actual = store.readDetails("category." + category.hashCode());
+
+            assertEquals("Wrong warnings of " + category, filter(Property.CATEGORY, category).size(), actual.size());
+            assertTrue("Wrong warnings of " + category, actual.containsAll(filter(Property.CATEGORY, category)));
+        }
+        for (Priority priority : Priority.values()) {
+            assertEquals("Wrong warnings of " + priority, filter(Property.PRIORITY, priority.name()).size(),
+                    store.readDetails(priority.name()).size());
+        }
+        assertTrue("Warnings of unknown module", store.readDetails("module.1").isEmpty());
+        assertNull("Link to new warnings supported", store.readDetails("new"));
+        assertNull("Invalid link supported", store.readDetails("file.abc"));
+    }
+
+    private List<FileAnnotation> filter(final Property property, final String value) {
+        List<FileAnnotation> filtered = Lists.newArrayList();
+        for (FileAnnotation warning : warnings) {
+            if (property.matches(warning, value)) {
+                filtered.add(warning);
+            }
+        }
+        return filtered;
+    }
+}
@@ -0,0 +1,198 @@
+package hudson.plugins.warnings;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.warnings.ParseScheduler.Permit;
+
+/**
+ * Tests the class {@link ParseScheduler}.
+ */
+public class ParseSchedulerTest {
+    private static final long TIMEOUT = 10;
+    private static final long KILO_BYTE = 1024;
+
+    /**
+     * Verifies that no more than the maximum number of parses run at the same time.
+     *
+     * @throws InterruptedException
+     *             if the test has been interrupted
+     */
+    @Test
+    public void shouldLimitConcurrentParses() throws InterruptedException {
+        ParseScheduler scheduler = new ParseScheduler();
+        scheduler.configure(2, 100);
+
+        Permit first = scheduler.acquire(0);
+        Permit second = scheduler.acquire(0);
+        Waiter third = new Waiter(scheduler, 0);
+
+        assertQueued(scheduler, 1);
+        assertEquals("Wrong number of running parses", 2, scheduler.getRunning());
+
+        first.release();
+        first.release();
+
+        third.awaitStart();
+        assertEquals("Wrong number of running parses", 2, scheduler.getRunning());
+        assertEquals("Wrong queue length", 0, scheduler.getQueueLength());
+
+        second.release();
+        third.permit.release();
+        assertEquals("Wrong number of running parses", 0, scheduler.getRunning());
+    }
+
+    /**
+     * Verifies that a parse waits until its estimated memory fits into the budget and that a parse that exceeds the
+     * budget on its own starts when no other parse is running.
+     *
+     * @throws InterruptedException
+     *             if the test has been interrupted
+     */
+    @Test
+    public void shouldEnforceMemoryBudget() throws InterruptedException {
+        ParseScheduler scheduler = new ParseScheduler();
+        scheduler.configure(10, 1);
+
+        Permit small = scheduler.acquire(300 * KILO_BYTE);
+        Waiter large = new Waiter(scheduler, 300 * KILO_BYTE);
+        assertQueued(scheduler, 1);
+
+        small.release();
+        large.awaitStart();
+        large.permit.release();
+
+        Permit huge = scheduler.acquire(10 * 1024 * KILO_BYTE);
+        assertEquals("Wrong number of running parses", 1, scheduler.getRunning());
+        huge.release();
+    }
+
+    /**
+     * Verifies that the estimated memory of a parse is based on the bounded working set of the scanners rather than
+     * on the whole input, and that the memory is not limited without a budget.
+     *
+     * @throws InterruptedException
+     *             if the test has been interrupted
+     */
+    @Test
+    public void shouldEstimateWorkingSetOfScanners() throws InterruptedException {
+        ParseScheduler scheduler = new ParseScheduler();
+        scheduler.configure(10, 200);
+
+        Permit first = scheduler.acquire(1024 * 1024 * KILO_BYTE);
+        Permit second = scheduler.acquire(1024 * 1024 * KILO_BYTE);
+        assertEquals("Wrong number of running parses", 2, scheduler.getRunning());
+        assertTrue("Estimate exceeds budget", scheduler.getReservedMegaBytes() <= 200);
+        first.release();
+        second.release();
+
+        scheduler.configure(10, 0);
+        first = scheduler.acquire(Long.MAX_VALUE / 2);
+        second = scheduler.acquire(Long.MAX_VALUE / 2);
+        assertEquals("Wrong number of running parses", 2, scheduler.getRunning());
+        first.release();
+        second.release();
+    }
+
+    /**
+     * Verifies that waiting parses start in the order of their requests, even if a later request would fit.
+     *
+     * @throws InterruptedException
+     *             if the test has been interrupted
+     */
+    @Test
+    public void shouldStartParsesInOrderOfRequests() throws InterruptedException {
+        ParseScheduler scheduler = new ParseScheduler();
+        scheduler.configure(10, 1);
+
+        Permit running = scheduler.acquire(300 * KILO_BYTE);
+        Waiter large = new Waiter(scheduler, 300 * KILO_BYTE);
+        assertQueued(scheduler, 1);
+        Waiter small = new Waiter(scheduler, 0);
+        assertQueued(scheduler, 2);
+        assertFalse("Small parse overtook large parse", small.isStarted());
+
+        running.release();
+        large.awaitStart();
+        small.awaitStart();
+
+        large.permit.release();
+        small.permit.release();
+        assertTrue("Wrong wait time", scheduler.getMaximumWaitTime() >= scheduler.getAverageWaitTime());
+    }
+
+    /**
+     * Verifies that an interrupted parse is removed from the queue.
+     *
+     * @throws InterruptedException
+     *             if the test has been interrupted
+     */
+    @Test
+    public void shouldRemoveInterruptedParseFromQueue() throws InterruptedException {
+        ParseScheduler scheduler = new ParseScheduler();
+        scheduler.configure(1, 100);
+
+        Permit running = scheduler.acquire(0);
+        Waiter waiter = new Waiter(scheduler, 0);
+        assertQueued(scheduler, 1);
+
+        waiter.thread.interrupt();
+        waiter.thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+
+        assertTrue("Not interrupted", waiter.interrupted);
+        assertEquals("Wrong queue length", 0, scheduler.getQueueLength());
+        running.release();
+        assertEquals("Wrong number of running parses", 0, scheduler.getRunning());
+    }
+
+    private void assertQueued(final ParseScheduler scheduler, final int expected) throws InterruptedException {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        while (scheduler.getQueueLength() != expected && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals("Wrong queue length", expected, scheduler.getQueueLength());
+    }
+
+    /**
+     * Acquires a permit in a separate thread.
+     */
+    private static class Waiter implements Runnable {
+        private final ParseScheduler scheduler;
+        private final long inputSize;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final Thread thread;
+        private volatile Permit permit;
+        private volatile boolean interrupted;
+
+        Waiter(final ParseScheduler scheduler, final long inputSize) {
+            this.scheduler = scheduler;
+            this.inputSize = inputSize;
+
+            thread = new Thread(this);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                permit = scheduler.acquire(inputSize);
+                started.countDown();
+            }
+            catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+
+        boolean isStarted() {
+            return started.getCount() == 0;
+        }
+
+        void awaitStart() throws InterruptedException {
+            assertTrue("Parse not started", started.await(TIMEOUT, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.ContextHashCode;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link ContextHashCalculator}.
+ */
+public class ContextHashCalculatorTest {
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * Verifies that the hash codes of all annotations of a file are the same as the hash codes of
+     * {@link ContextHashCode}, which reads the file once for each annotation.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldComputeSameHashCodesAsContextHashCode() throws IOException {
+        File file = File.createTempFile("context", ".java");
+        try {
+            StringBuilder content = new StringBuilder();
+            for (int line = 1; line <= 20; line++) {
+                content.append("line ").append(line).append(line % 3 == 0 ? "\r\n" : "\n");
+            }
+            FileUtils.writeStringToFile(file, content.toString(), ENCODING);
+
+            List<FileAnnotation> annotations = Lists.newArrayList();
+            for (int line : new int[] {20, 1, 2, 5, 5, 6, 10, 17, 19, 25}) {
+                annotations.add(new Warning(file.getAbsolutePath(), line, "Type", "Category", "Message"));
+            }
+            Warning withoutLine = new Warning(file.getAbsolutePath(), 0, "Type", "Category", "Message");
+            annotations.add(withoutLine);
+
+            new ContextHashCalculator(ENCODING).setContextHashCodes(file, annotations);
+
+            ContextHashCode expected = new ContextHashCode();
+            for (FileAnnotation annotation : annotations) {
+                if (annotation != withoutLine) { // NOPMD
+                    assertEquals("Wrong hash code of line " + annotation.getPrimaryLineNumber(),
+                            expected.create(file.getAbsolutePath(), annotation.getPrimaryLineNumber(), ENCODING),
+                            annotation.getContextHashCode());
+                }
+            }
+            assertEquals("Hash code of annotation without line", 0, withoutLine.getContextHashCode());
+        }
+        finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+}
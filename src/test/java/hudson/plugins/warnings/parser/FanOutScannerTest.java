@@ -0,0 +1,81 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link FanOutScanner}.
+ */
+public class FanOutScannerTest extends ParserTester {
+    /**
+     * Verifies that a single pass scan finds the same warnings as running each parser on its own.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldFindSameWarningsAsSeparateParsers() throws IOException {
+        List<AbstractWarningsParser> parsers = Lists.<AbstractWarningsParser>newArrayList(new JavacParser(),
+                new AntJavacParser(), new PhpParser(), new MsBuildParser(), new EclipseParser(), new JavaDocParser());
+
+        Map<AbstractWarningsParser, Collection<FileAnnotation>> scanned = new FanOutScanner(parsers).scan(openFile());
+
+        assertEquals("Wrong number of results", parsers.size(), scanned.size());
+        int total = 0;
+        for (AbstractWarningsParser parser : parsers) {
+            Collection<FileAnnotation> expected = parser.parse(openFile());
+            Collection<FileAnnotation> actual = scanned.get(parser);
+
+            assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED + parser, expected.size(), actual.size());
+            assertEquals("Wrong warnings found by " + parser, describe(expected), describe(actual));
+            total += actual.size();
+        }
+        assertTrue("No warnings found", total > 0);
+    }
+
+    /**
+     * Verifies that parsers with their own implementation of the parse method are skipped.
+     */
+    @Test
+    public void shouldSkipParsersThatReadTheInputOnTheirOwn() {
+        AbstractWarningsParser custom = new JavacParser() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Collection<FileAnnotation> parse(final Reader file) throws IOException {
+                return Lists.newArrayList();
+            }
+        };
+
+        assertTrue(FanOutScanner.canScan(new JavacParser()));
+        assertTrue(FanOutScanner.canScan(new EclipseParser()));
+        assertFalse(FanOutScanner.canScan(custom));
+        assertFalse(FanOutScanner.canScan(new ExceptionParser()));
+        assertFalse(new FanOutScanner(Lists.newArrayList(custom, new ExceptionParser())).hasParsers());
+    }
+
+    private List<String> describe(final Collection<FileAnnotation> warnings) {
+        List<String> descriptions = Lists.newArrayList();
+        for (FileAnnotation warning : warnings) {
+            descriptions.add(warning.getFileName() + ":" + warning.getPrimaryLineNumber() + ":"
+                    + warning.getCategory() + ":" + warning.getMessage());
+        }
+        return descriptions;
+    }
+
+    @Override
+    protected String getWarningsFile() {
+        return "all.txt";
+    }
+}
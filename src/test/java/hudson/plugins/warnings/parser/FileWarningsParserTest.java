@@ -0,0 +1,142 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link FileWarningsParser}.
+ */
+public class FileWarningsParserTest {
+    private static final String MODULE = "module";
+    private static final String[] FILES = {"gcc4.txt", "gcc4ld.txt", "gnuMakeGcc.txt", "all.txt"};
+    private static final int LOGS = 6;
+
+    /**
+     * Verifies that files that have been parsed in parallel provide the same warnings as files that are parsed one
+     * by one.
+     *
+     * @throws Exception
+     *             if the files could not be parsed
+     */
+    @Test
+    public void shouldFindSameWarningsInParallel() throws Exception {
+        List<File> files = getFiles();
+        List<AbstractWarningsParser> parsers = Lists.<AbstractWarningsParser>newArrayList(new Gcc4CompilerParser(),
+                new Gcc4LinkerParser());
+
+        FileWarningsParser sequential = new FileWarningsParser(parsers, "UTF-8");
+        FileWarningsParser parallel = new FileWarningsParser(parsers, "UTF-8");
+        parallel.parseInParallel(files, 3);
+
+        int total = 0;
+        for (File file : files) {
+            Collection<FileAnnotation> expected = sequential.parse(file, MODULE);
+            Collection<FileAnnotation> actual = parallel.parse(file, MODULE);
+
+            assertEquals("Wrong warnings of " + file, Sets.newHashSet(expected), Sets.newHashSet(actual));
+            for (FileAnnotation warning : actual) {
+                assertEquals("Wrong module", MODULE, warning.getModuleName());
+            }
+            total += actual.size();
+        }
+        assertTrue("No warnings found", total > 0);
+    }
+
+    /**
+     * Verifies that a file that can't be read in parallel is reported when the file is processed.
+     *
+     * @throws Exception
+     *             the expected exception
+     */
+    @Test(expected = InvocationTargetException.class)
+    public void shouldReportErrorOfParallelParse() throws Exception {
+        File missing = new File("does-not-exist.txt");
+        FileWarningsParser parser = new FileWarningsParser(
+                Lists.<AbstractWarningsParser>newArrayList(new Gcc4CompilerParser()), "UTF-8");
+        parser.parseInParallel(Lists.newArrayList(missing, missing.getAbsoluteFile()), 2);
+
+        parser.parse(missing, MODULE);
+    }
+
+    /**
+     * Verifies that the make logs of several builds that are parsed at the same time do not share the state of the
+     * parsers: each warning gets the directory of its own log, and the line numbers of a custom parser refer to the
+     * log of the warning.
+     *
+     * @throws Exception
+     *             if the files could not be parsed
+     */
+    @Test
+    public void shouldNotShareStateOfParsersInParallel() throws Exception {
+        File directory = File.createTempFile("make", "");
+        FileUtils.deleteQuietly(directory);
+        try {
+            List<File> files = Lists.newArrayList();
+            List<Set<String>> expected = Lists.newArrayList();
+            for (int log = 0; log < LOGS; log++) {
+                List<String> lines = Lists.newArrayList();
+                String path = "src/file" + log + ".c";
+                if (log > 0) {
+                    lines.add("make[1]: Entering directory `/build/dir" + log + "'");
+                    path = "/build/dir" + log + "/" + path;
+                }
+                for (int filler = 0; filler < log * 500; filler++) {
+                    lines.add("Compiling " + filler);
+                }
+                lines.add("src/file" + log + ".c:10: warning: unused variable");
+                lines.add("MARKER " + log);
+                lines.add("make[1]: Leaving directory");
+
+                File file = new File(directory, "make" + log + ".log");
+                FileUtils.writeLines(file, "UTF-8", lines);
+                files.add(file);
+                expected.add(Sets.newHashSet(path + ":10", "marker.txt:" + (lines.size() - 2)));
+            }
+
+            List<AbstractWarningsParser> parsers = Lists.<AbstractWarningsParser>newArrayList(
+                    new GnuMakeGccParser("Linux"), new DynamicParser("Marker", "^MARKER (\\d+)$",
+                            "import hudson.plugins.warnings.parser.Warning\n"
+                            + "return new Warning('marker.txt', lineNumber, 'Marker', 'Marker', matcher.group(1))",
+                            "Marker", "Marker"));
+            FileWarningsParser parser = new FileWarningsParser(parsers, "UTF-8");
+            parser.parseInParallel(files, LOGS);
+            try {
+                for (int log = 0; log < LOGS; log++) {
+                    Set<String> actual = Sets.newHashSet();
+                    for (FileAnnotation warning : parser.parse(files.get(log), MODULE)) {
+                        actual.add(warning.getFileName() + ":" + warning.getPrimaryLineNumber());
+                    }
+                    assertEquals("Wrong warnings of log " + log, expected.get(log), actual);
+                }
+            }
+            finally {
+                parser.stopParallel();
+            }
+        }
+        finally {
+            FileUtils.deleteQuietly(directory);
+        }
+    }
+
+    private List<File> getFiles() throws URISyntaxException {
+        List<File> files = Lists.newArrayList();
+        for (String name : FILES) {
+            files.add(new File(FileWarningsParserTest.class.getResource(name).toURI()));
+        }
+        return files;
+    }
+}
@@ -1,8 +1,20 @@
 package hudson.plugins.warnings.parser;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
 /**
  * Tests the class {@link GroovyExpressionMatcher}.
  *
@@ -11,6 +23,10 @@ import org.junit.Test;
 public class GroovyExpressionMatcherTest {
     private static final String LEGAL_PARSER_SCRIPT = "import hudson.plugins.warnings.parser.Warning";
     private static final String ILLEGAL_PARSER_SCRIPT = "0:0";
+    private static final String LINE_NUMBER_SCRIPT = "import hudson.plugins.warnings.parser.Warning\n"
+            + "return new Warning(matcher.group(1), lineNumber, \"type\", \"category\", \"message\")";
+    private static final int THREADS = 8;
+    private static final int RUNS = 500;
 
     /**
      * Compiles a valid Groovy snippet.
@@ -29,4 +45,45 @@ public class GroovyExpressionMatcherTest {
         GroovyExpressionMatcher matcher = new GroovyExpressionMatcher(ILLEGAL_PARSER_SCRIPT, null);
         matcher.compile();
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs the same matcher concurrently in several threads and verifies that each thread sees its own binding.
+     *
+     * @throws Exception
+     *             if the script could not be run
+     */
+    @Test
+    public void shouldRunScriptConcurrently() throws Exception {
+        final GroovyExpressionMatcher matcher = new GroovyExpressionMatcher(LINE_NUMBER_SCRIPT, null);
+        final Pattern pattern = Pattern.compile("(.*)");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = Lists.newArrayList();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final String fileName = "file" + thread;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int line = 1; line <= RUNS; line++) {
+                            Matcher input = pattern.matcher(fileName);
+                            assertTrue(input.matches());
+
+                            Warning warning = matcher.createWarning(input, line);
+                            if (!fileName.equals(warning.getFileName()) || warning.getPrimaryLineNumber() != line) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue("Binding of another thread used", result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hudson.plugins.warnings.parser;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the class {@link KeywordAutomaton}.
+ */
+public class KeywordAutomatonTest {
+    private static final int HE = 0;
+    private static final int SHE = 1;
+    private static final int HIS = 2;
+    private static final int HERS = 3;
+
+    /**
+     * Verifies that overlapping keywords are found in a single pass.
+     */
+    @Test
+    public void shouldFindOverlappingKeywords() {
+        KeywordAutomaton automaton = createAutomaton();
+
+        assertOwners(automaton, "ushers", HE, SHE, HERS);
+        assertOwners(automaton, "this is it", HIS);
+        assertOwners(automaton, "h e r s");
+        assertOwners(automaton, "");
+        assertOwners(automaton, "hishe", HIS, SHE, HE);
+    }
+
+    /**
+     * Verifies that the quick check stops at the first keyword.
+     */
+    @Test
+    public void shouldDetectAnyKeyword() {
+        KeywordAutomaton automaton = createAutomaton();
+
+        assertTrue(automaton.containsAny("washer"));
+        assertTrue(automaton.containsAny("his"));
+        assertFalse(automaton.containsAny("hi"));
+        assertFalse(automaton.containsAny(""));
+    }
+
+    /**
+     * Verifies that keywords with non ASCII characters are found and that several owners can share a keyword.
+     */
+    @Test
+    public void shouldHandleNonAsciiCharactersAndSharedKeywords() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("\u8b66\u544a", 0)
+                .add("[", 1)
+                .add("[", 2)
+                .add("", 3)
+                .build();
+
+        assertOwners(automaton, "Foo.java:1: \u8b66\u544a: deprecated", 0);
+        assertOwners(automaton, "[javac] Foo.java", 1, 2);
+        assertOwners(automaton, "\u8b66[\u8b66\u544a", 0, 1, 2);
+        assertOwners(automaton, "nothing");
+    }
+
+    private KeywordAutomaton createAutomaton() {
+        return KeywordAutomaton.builder()
+                .add("he", HE)
+                .add("she", SHE)
+                .add("his", HIS)
+                .add("hers", HERS)
+                .build();
+    }
+
+    private void assertOwners(final KeywordAutomaton automaton, final String text, final int... expected) {
+        BitSet found = new BitSet();
+        automaton.findOwners(text, found);
+
+        BitSet expectedOwners = new BitSet();
+        for (int owner : expected) {
+            expectedOwners.set(owner);
+        }
+        assertEquals("Wrong owners for " + text, expectedOwners, found);
+    }
+}
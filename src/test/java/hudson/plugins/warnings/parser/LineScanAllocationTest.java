@@ -0,0 +1,88 @@
+package hudson.plugins.warnings.parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Measures the allocation rate of the line scanning hot path of {@link RegexpLineParser}: lines that contain a
+ * required literal but no warning must be scanned without allocating any objects.
+ */
+public class LineScanAllocationTest {
+    private static final int WARM_UP_LINES = 200000;
+    private static final int MEASURED_LINES = 100000;
+
+    /**
+     * Verifies that the Java compiler parser does not allocate for non matching lines.
+     *
+     * @throws ParsingCanceledException
+     *             if the scan has been canceled
+     */
+    @Test
+    public void shouldNotAllocateForNonMatchingJavacLines() throws ParsingCanceledException {
+        assertNoAllocation(new JavacParser(), "[javac] Compiling 12 source files to /build/classes");
+    }
+
+    /**
+     * Verifies that the Ant Java compiler parser does not allocate for non matching lines.
+     *
+     * @throws ParsingCanceledException
+     *             if the scan has been canceled
+     */
+    @Test
+    public void shouldNotAllocateForNonMatchingAntJavacLines() throws ParsingCanceledException {
+        assertNoAllocation(new AntJavacParser(),
+                "    [javac] Note: Some input files use unchecked operations with warning flags");
+    }
+
+    /**
+     * Verifies that the GCC parser does not allocate for non matching lines.
+     *
+     * @throws ParsingCanceledException
+     *             if the scan has been canceled
+     */
+    @Test
+    public void shouldNotAllocateForNonMatchingGccLines() throws ParsingCanceledException {
+        assertNoAllocation(new Gcc4CompilerParser(), "make[1]: warning: jobserver unavailable, using -j1");
+    }
+
+    private void assertNoAllocation(final RegexpLineParser parser, final String content)
+            throws ParsingCanceledException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean)threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        CharSequence line = new StringBuilder(content);
+        List<FileAnnotation> warnings = Lists.newArrayList();
+        Matcher matcher = parser.createMatcher();
+        parser.startScan();
+
+        scan(parser, line, matcher, warnings, WARM_UP_LINES);
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        scan(parser, line, matcher, warnings, MEASURED_LINES);
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Line is a warning: " + content, warnings.isEmpty());
+        assertTrue(String.format("Scanning %d lines allocated %d bytes", MEASURED_LINES, allocated),
+                allocated < MEASURED_LINES);
+    }
+
+    private void scan(final RegexpLineParser parser, final CharSequence line, final Matcher matcher,
+            final List<FileAnnotation> warnings, final int count) throws ParsingCanceledException {
+        for (int i = 0; i < count; i++) {
+            parser.scanLine(line, matcher, warnings);
+        }
+    }
+}
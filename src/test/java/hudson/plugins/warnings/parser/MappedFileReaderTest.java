@@ -0,0 +1,133 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the class {@link MappedFileReader}.
+ */
+public class MappedFileReaderTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+    private static final String WARNING = "Foo.java:1: \u8b66\u544a: [deprecation] \u00e4\u00f6\u00fc";
+
+    /**
+     * Verifies that all kinds of line terminators are detected.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldSplitLinesAtAllLineTerminators() throws IOException {
+        File file = createFile(UTF_8, "first\nsecond\r\nthird\rfourth\r\n\nlast");
+
+        assertEquals("Wrong lines", Lists.newArrayList("first", "second", "third", "fourth", "", "last"),
+                readLines(new MappedFileReader(file, UTF_8)));
+    }
+
+    /**
+     * Verifies that non ASCII characters are decoded with the specified character set.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldDecodeNonAsciiCharacters() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(WARNING).append('\n');
+        }
+        File file = createFile(UTF_8, content.toString());
+
+        List<String> lines = readLines(new MappedFileReader(file, UTF_8));
+        assertEquals("Wrong number of lines", 1000, lines.size());
+        for (String line : lines) {
+            assertEquals("Wrong line", WARNING, line);
+        }
+        assertEquals("Wrong content", content.toString(), IOUtils.toString(new MappedFileReader(file, UTF_8)));
+    }
+
+    /**
+     * Verifies that a byte order mark is skipped and overrides the specified character set.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldDetectByteOrderMark() throws IOException {
+        File utf8 = createFile(UTF_8, "\ufeff" + WARNING);
+        assertEquals("Wrong lines", Lists.newArrayList(WARNING), readLines(new MappedFileReader(utf8, ISO_8859_1)));
+
+        File utf16 = createFile(Charset.forName("UTF-16LE"), "\ufeff" + WARNING + "\r\n");
+        MappedFileReader reader = new MappedFileReader(utf16, ISO_8859_1);
+        assertEquals("Wrong character set", Charset.forName("UTF-16LE"), reader.getCharset());
+        assertEquals("Wrong lines", Lists.newArrayList(WARNING), readLines(reader));
+    }
+
+    /**
+     * Verifies that an empty file has no lines.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldReadEmptyFile() throws IOException {
+        File file = createFile(UTF_8, "");
+
+        assertTrue("Empty file has lines", readLines(new MappedFileReader(file, UTF_8)).isEmpty());
+        assertEquals("Empty file has characters", -1, new MappedFileReader(file, UTF_8).read());
+    }
+
+    /**
+     * Verifies that a file that exceeds the mapping threshold is read completely and can be deleted after the reader
+     * has been closed.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldReadMappedFile() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int count = 0;
+        while (content.length() < 3 * 1024 * 1024) {
+            content.append(WARNING).append(count++).append('\n');
+        }
+        File file = createFile(UTF_8, content.toString());
+
+        List<String> lines = readLines(new MappedFileReader(file, UTF_8));
+        assertEquals("Wrong number of lines", count, lines.size());
+        assertEquals("Wrong first line", WARNING + 0, lines.get(0));
+        assertEquals("Wrong last line", WARNING + (count - 1), lines.get(count - 1));
+        assertTrue("File is locked", file.delete());
+    }
+
+    private File createFile(final Charset charset, final String content) throws IOException {
+        File file = File.createTempFile("warnings", "test");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, content, charset.name());
+        return file;
+    }
+
+    private List<String> readLines(final MappedFileReader reader) throws IOException {
+        try {
+            List<String> lines = Lists.newArrayList();
+            for (CharSequence line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line.toString());
+            }
+            return lines;
+        }
+        finally {
+            reader.close();
+        }
+    }
+}
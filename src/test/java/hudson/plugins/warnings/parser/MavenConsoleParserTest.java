@@ -1,7 +1,9 @@
 package hudson.plugins.warnings.parser;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.Collection;
+import java.util.Iterator;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -49,6 +51,54 @@ public class MavenConsoleParserTest extends ParserTester {
         assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED, 1, warnings.size());
     }
 
+    /**
+     * Verifies that the messages of consecutive lines with the same priority are combined into a single warning.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldCondenseConsecutiveLines() throws IOException {
+        Collection<FileAnnotation> warnings = new MavenConsoleParser().parse(new StringReader(
+                "[WARNING] first\n[WARNING] second\n[WARNING] third\n[ERROR] error\n[INFO] info\n[WARNING] last\n"));
+
+        assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED, 3, warnings.size());
+        Iterator<FileAnnotation> iterator = warnings.iterator();
+        checkCondensedWarning(iterator.next(), 0, 2, "first\nsecond\nthird", Priority.NORMAL);
+        checkCondensedWarning(iterator.next(), 3, 3, "error", Priority.HIGH);
+        checkCondensedWarning(iterator.next(), 5, 5, "last", Priority.NORMAL);
+    }
+
+    /**
+     * Verifies that a long run of warnings is condensed into a single warning with a limited message.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldLimitMessageOfLongRun() throws IOException {
+        StringBuilder log = new StringBuilder();
+        int lines = 50000;
+        for (int line = 0; line < lines; line++) {
+            log.append("[WARNING] Some warning message of line ").append(line).append('\n');
+        }
+        Collection<FileAnnotation> warnings = new MavenConsoleParser().parse(new StringReader(log.toString()));
+
+        assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED, 1, warnings.size());
+        FileAnnotation warning = warnings.iterator().next();
+        assertEquals("Wrong first line", 0, warning.getPrimaryLineNumber());
+        assertEquals("Wrong last line", lines - 1, warning.getLineRanges().iterator().next().getEnd());
+        assertTrue("Message not limited", warning.getMessage().length() < 4000);
+    }
+
+    private void checkCondensedWarning(final FileAnnotation warning, final int start, final int end,
+            final String message, final Priority priority) {
+        assertEquals("Wrong first line", start, warning.getPrimaryLineNumber());
+        assertEquals("Wrong last line", end, warning.getLineRanges().iterator().next().getEnd());
+        assertEquals("Wrong message", message, warning.getMessage());
+        assertEquals("Wrong priority", priority, warning.getPriority());
+    }
+
     /**
      * Parses a file with three warnings, two of them will be ignored beacuse they are blank.
      *
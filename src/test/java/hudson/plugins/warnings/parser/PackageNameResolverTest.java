@@ -0,0 +1,92 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link PackageNameResolver}.
+ */
+public class PackageNameResolverTest {
+    private File source;
+
+    /**
+     * Creates the source file of the warnings.
+     *
+     * @throws IOException
+     *             if the file could not be created
+     */
+    @Before
+    public void createSource() throws IOException {
+        source = File.createTempFile("Resolver", ".java");
+        PackageNameResolver.clearCache();
+    }
+
+    /**
+     * Deletes the source file of the warnings.
+     */
+    @After
+    public void deleteSource() {
+        FileUtils.deleteQuietly(source);
+    }
+
+    /**
+     * Verifies that the warnings of a parser get the package name of their source file.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldResolveAllWarningsOfFile() throws IOException {
+        writeSource("package hudson.plugins.first;");
+
+        String report = "[WARNING] " + getPath() + ":[1,0] first\n[WARNING] " + getPath() + ":[2,0] second\n";
+        Collection<FileAnnotation> warnings = new JavacParser().parse(new StringReader(report));
+
+        assertEquals("Wrong number of warnings", 2, warnings.size());
+        for (FileAnnotation warning : warnings) {
+            assertEquals("Wrong package name", "hudson.plugins.first", warning.getPackageName());
+        }
+        assertEquals("Wrong package name of missing file", "-",
+                PackageNameResolver.getPackageName(getPath() + ".missing"));
+    }
+
+    /**
+     * Verifies that the package name of an unchanged source file is taken from the cache and that a changed source
+     * file is read again.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldReadChangedFilesOnly() throws IOException {
+        writeSource("package hudson.plugins.aaaaa;");
+        long lastModified = source.lastModified();
+        assertEquals("Wrong package name", "hudson.plugins.aaaaa", PackageNameResolver.getPackageName(getPath()));
+
+        writeSource("package hudson.plugins.bbbbb;");
+        assertTrue("Could not set modification time", source.setLastModified(lastModified));
+        assertEquals("Package name not cached", "hudson.plugins.aaaaa", PackageNameResolver.getPackageName(getPath()));
+
+        assertTrue("Could not set modification time", source.setLastModified(lastModified - 10000));
+        assertEquals("Changed file not read", "hudson.plugins.bbbbb", PackageNameResolver.getPackageName(getPath()));
+    }
+
+    private String getPath() {
+        return source.getPath();
+    }
+
+    private void writeSource(final String packageDeclaration) throws IOException {
+        FileUtils.writeStringToFile(source, packageDeclaration + "\n\npublic class Resolver {\n}\n", "UTF-8");
+    }
+}
@@ -0,0 +1,149 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.console.ConsoleNote;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link ParallelLineScanner}.
+ */
+public class ParallelLineScannerTest extends ParserTester {
+    private static final int PARALLELISM = 4;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+
+    /**
+     * Stops the worker threads.
+     */
+    @After
+    public void stopWorkers() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Verifies that scanning small chunks in parallel finds the same warnings (with the same line numbers and in
+     * the same order) as a sequential scan.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldFindSameWarningsAsSequentialScan() throws IOException {
+        List<RegexpLineParser> parsers = Lists.<RegexpLineParser>newArrayList(new JavacParser(),
+                new AntJavacParser(), new MsBuildParser(), new Gcc4CompilerParser(), new MavenConsoleParser(),
+                new JavaDocParser());
+        for (RegexpLineParser parser : parsers) {
+            assertTrue("Parser should be stateless: " + parser, parser.isStateless());
+        }
+
+        List<Collection<FileAnnotation>> scanned = scanInParallel(parsers, 7);
+
+        int total = 0;
+        for (int i = 0; i < parsers.size(); i++) {
+            List<String> expected = describe(scanSequentially(parsers.get(i)));
+
+            assertEquals("Wrong warnings found by " + parsers.get(i), expected, describe(scanned.get(i)));
+            total += expected.size();
+        }
+        assertTrue("No warnings found", total > 0);
+    }
+
+    /**
+     * Verifies that the line number of a chunk is only visible while the chunk is scanned.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldResetLineNumberAfterScan() throws IOException {
+        scanInParallel(Lists.<RegexpLineParser>newArrayList(new MavenConsoleParser()), 1);
+
+        assertEquals("Line number of chunk still set", -1, ParallelLineScanner.getLineOfCurrentChunk());
+    }
+
+    /**
+     * Verifies that the scan is canceled if the scanning thread is interrupted and that the interruption is kept.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldCancelScanIfInterrupted() throws IOException {
+        ParallelLineScanner scanner = new ParallelLineScanner(
+                Lists.<RegexpLineParser>newArrayList(new MavenConsoleParser()), 1, executor, PARALLELISM);
+        scanner.scanLine("[WARNING] Foo.java:[1,1] warning");
+
+        Thread.currentThread().interrupt();
+        try {
+            scanner.scanLine("[WARNING] Foo.java:[2,1] warning");
+
+            fail("Scan not canceled");
+        }
+        catch (ParsingCanceledException exception) {
+            assertTrue("Interruption not kept", Thread.interrupted());
+        }
+        finally {
+            Thread.interrupted();
+        }
+    }
+
+    private List<Collection<FileAnnotation>> scanInParallel(final List<RegexpLineParser> parsers,
+            final int chunkSize) throws IOException {
+        ParallelLineScanner scanner = new ParallelLineScanner(parsers, chunkSize, executor, PARALLELISM);
+        LineIterator iterator = IOUtils.lineIterator(openFile());
+        try {
+            while (iterator.hasNext()) {
+                scanner.scanLine(ConsoleNote.removeNotes(iterator.nextLine()));
+            }
+        }
+        finally {
+            iterator.close();
+        }
+        return scanner.finish();
+    }
+
+    private Collection<FileAnnotation> scanSequentially(final RegexpLineParser parser) throws IOException {
+        List<FileAnnotation> warnings = Lists.newArrayList();
+        Matcher matcher = parser.createMatcher();
+        parser.startScan();
+        LineIterator iterator = IOUtils.lineIterator(openFile());
+        try {
+            while (iterator.hasNext()) {
+                parser.scanLine(ConsoleNote.removeNotes(iterator.nextLine()), matcher, warnings);
+            }
+        }
+        finally {
+            iterator.close();
+        }
+        return parser.finishScan(warnings);
+    }
+
+    private List<String> describe(final Collection<FileAnnotation> warnings) {
+        List<String> descriptions = Lists.newArrayList();
+        for (FileAnnotation warning : warnings) {
+            descriptions.add(warning.getFileName() + ":" + warning.getPrimaryLineNumber() + ":"
+                    + warning.getCategory() + ":" + warning.getMessage());
+        }
+        return descriptions;
+    }
+
+    @Override
+    protected String getWarningsFile() {
+        return "all.txt";
+    }
+}
@@ -0,0 +1,182 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link ParseResultCache}.
+ */
+public class ParseResultCacheTest {
+    private static final String ENCODING = "UTF-8";
+    private static final String VERSION = "warnings:4.65";
+
+    private File workspace;
+    private File report;
+    private File cacheDirectory;
+
+    /**
+     * Copies a report into a new workspace.
+     *
+     * @throws IOException
+     *             if the workspace could not be created
+     */
+    @Before
+    public void createWorkspace() throws IOException {
+        workspace = File.createTempFile("warnings", "workspace");
+        FileUtils.forceDelete(workspace);
+        FileUtils.forceMkdir(workspace);
+
+        report = new File(workspace, "gcc4.txt");
+        FileUtils.copyURLToFile(ParseResultCacheTest.class.getResource("gcc4.txt"), report);
+        cacheDirectory = ParseResultCache.getDirectory(workspace);
+    }
+
+    /**
+     * Removes the workspace and the cache.
+     *
+     * @throws IOException
+     *             if the workspace could not be removed
+     */
+    @After
+    public void deleteWorkspace() throws IOException {
+        FileUtils.deleteDirectory(workspace);
+        FileUtils.deleteDirectory(cacheDirectory.getParentFile());
+    }
+
+    /**
+     * Verifies that the warnings of an unchanged file are read from the cache.
+     *
+     * @throws Exception
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldReuseWarningsOfUnchangedFile() throws Exception {
+        Collection<FileAnnotation> parsed = createParser(new Gcc4CompilerParser()).parse(report, "module");
+        assertFalse("No warnings found", parsed.isEmpty());
+        assertEquals("Wrong number of entries", 1, cacheDirectory.list().length);
+
+        Collection<FileAnnotation> cached = createParser(new Gcc4CompilerParser()).parse(report, "module");
+        assertEquals("Wrong cached warnings", Sets.newHashSet(parsed), Sets.newHashSet(cached));
+        assertEquals("Wrong number of entries", 1, cacheDirectory.list().length);
+    }
+
+    /**
+     * Verifies that changed files and other parsers use different entries.
+     *
+     * @throws Exception
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldUseNewEntryForChangedFileOrParser() throws Exception {
+        createParser(new Gcc4CompilerParser()).parse(report, "module");
+
+        ParseResultCache cache = new ParseResultCache(cacheDirectory,
+                Lists.newArrayList(new Gcc4CompilerParser()), VERSION, ENCODING);
+        String key = cache.getKey(report);
+        assertEquals("Wrong key", key, cache.getKey(report));
+        assertNotNull("No entry", cache.get(key));
+
+        ParseResultCache otherParser = new ParseResultCache(cacheDirectory,
+                Lists.newArrayList(new Gcc4LinkerParser()), VERSION, ENCODING);
+        assertFalse("Same key for other parser", key.equals(otherParser.getKey(report)));
+
+        ParseResultCache otherVersion = new ParseResultCache(cacheDirectory,
+                Lists.newArrayList(new Gcc4CompilerParser()), "warnings:4.66", ENCODING);
+        assertFalse("Same key for other version", key.equals(otherVersion.getKey(report)));
+
+        FileUtils.writeStringToFile(report, "changed", ENCODING, true);
+        assertFalse("Same key for changed file", key.equals(cache.getKey(report)));
+    }
+
+    /**
+     * Verifies that the key depends on the configuration of the parsers, but not on the state of a previous parse.
+     *
+     * @throws Exception
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldUseConfigurationOfParsersInKey() throws Exception {
+        Gcc4CompilerParser used = new Gcc4CompilerParser();
+        String key = new ParseResultCache(cacheDirectory, Lists.newArrayList(used), VERSION, ENCODING)
+                .getKey(report);
+        new FileWarningsParser(Lists.<AbstractWarningsParser>newArrayList(used), ENCODING).parse(report, "module");
+        assertEquals("Key depends on state of parser", key,
+                new ParseResultCache(cacheDirectory, Lists.newArrayList(used), VERSION, ENCODING).getKey(report));
+
+        String dynamic = getKey(new DynamicParser("Dynamic", "^(.*):(\\d+): warning: (.*)$",
+                "return null", "Dynamic", "Dynamic"));
+        assertEquals("Wrong key", dynamic, getKey(new DynamicParser("Dynamic", "^(.*):(\\d+): warning: (.*)$",
+                "return null", "Dynamic", "Dynamic")));
+        assertFalse("Same key for other script", dynamic.equals(getKey(new DynamicParser("Dynamic",
+                "^(.*):(\\d+): warning: (.*)$", "return false", "Dynamic", "Dynamic"))));
+        assertFalse("Same key for other expression", dynamic.equals(getKey(new DynamicParser("Dynamic",
+                "^(.*):(\\d+): error: (.*)$", "return null", "Dynamic", "Dynamic"))));
+        assertFalse("Same key for other group", dynamic.equals(getKey(new DynamicParser("Other",
+                "^(.*):(\\d+): warning: (.*)$", "return null", "Dynamic", "Dynamic"))));
+
+        String mapped = getKey(new DynamicParser("Dynamic", "^(?<file>.*):(?<line>\\d+): (?<priority>\\w+)$",
+                "", "priority:warning=normal", "Dynamic", "Dynamic"));
+        assertFalse("Same key for other lookup table", mapped.equals(getKey(new DynamicParser("Dynamic",
+                "^(?<file>.*):(?<line>\\d+): (?<priority>\\w+)$", "", "priority:warning=high",
+                "Dynamic", "Dynamic"))));
+    }
+
+    private String getKey(final AbstractWarningsParser parser) throws IOException {
+        return new ParseResultCache(cacheDirectory, Lists.newArrayList(parser), VERSION, ENCODING).getKey(report);
+    }
+
+    /**
+     * Verifies that the cache is not used if the versions of the parsers are unknown.
+     *
+     * @throws Exception
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldSkipCacheIfVersionIsUnknown() throws Exception {
+        List<AbstractWarningsParser> parsers = Lists.<AbstractWarningsParser>newArrayList(new Gcc4CompilerParser());
+        assertNull("Version known without Jenkins", ParseResultCache.getVersion(parsers));
+
+        FileWarningsParser fileParser = new FileWarningsParser(parsers, ENCODING);
+        fileParser.enableCache(workspace);
+        assertFalse("No warnings found", fileParser.parse(report, "module").isEmpty());
+        assertFalse("Warnings cached", cacheDirectory.exists());
+    }
+
+    /**
+     * Verifies that an invalid entry is discarded.
+     *
+     * @throws Exception
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldDiscardInvalidEntry() throws Exception {
+        Collection<FileAnnotation> parsed = createParser(new Gcc4CompilerParser()).parse(report, "module");
+
+        File[] entries = cacheDirectory.listFiles();
+        FileUtils.writeStringToFile(entries[0], "invalid", ENCODING);
+
+        Collection<FileAnnotation> reparsed = createParser(new Gcc4CompilerParser()).parse(report, "module");
+        assertEquals("Wrong warnings", Sets.newHashSet(parsed), Sets.newHashSet(reparsed));
+    }
+
+    private FileWarningsParser createParser(final AbstractWarningsParser parser) {
+        List<AbstractWarningsParser> parsers = Lists.newArrayList(parser);
+        FileWarningsParser fileParser = new FileWarningsParser(parsers, ENCODING, VERSION);
+        fileParser.enableCache(workspace);
+        return fileParser;
+    }
+}
@@ -0,0 +1,118 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link ParserSnapshot}.
+ */
+public class ParserSnapshotTest {
+    private static final String CUSTOM_GROUP = "custom";
+
+    private final AbstractWarningsParser gcc = new Gcc4CompilerParser();
+    private final AbstractWarningsParser javac = new JavacParser();
+    private final AbstractWarningsParser antJavac = new AntJavacParser();
+    private final AbstractWarningsParser custom = new CustomGroupParser();
+    private final List<AbstractWarningsParser> parsers = Lists.newArrayList(gcc, javac, antJavac, custom);
+    private final ParserSnapshot snapshot = new ParserSnapshot(null, parsers);
+
+    /**
+     * Verifies that the parsers of a group are found by group name and by ID (ignoring the case).
+     */
+    @Test
+    public void shouldFindParsersByGroupAndId() {
+        assertEquals("Wrong parsers", Lists.newArrayList(javac, antJavac), snapshot.getParsers(javac.getGroup()));
+        assertEquals("Wrong parsers", Lists.newArrayList(antJavac), snapshot.getParsers("java compiler"));
+        assertEquals("Wrong parsers", Lists.newArrayList(custom), snapshot.getParsers(CUSTOM_GROUP));
+        assertTrue("Parsers found", snapshot.getParsers("undefined").isEmpty());
+        assertTrue("Parsers found", snapshot.getParsers(null).isEmpty());
+
+        for (AbstractWarningsParser parser : parsers) {
+            assertEquals("Wrong parsers of " + parser.getGroup(), filter(parser.getGroup()),
+                    snapshot.getParsers(parser.getGroup()));
+        }
+    }
+
+    /**
+     * Verifies that the URL number is the position of the first parser of a group.
+     */
+    @Test
+    public void shouldReturnPositionOfFirstParser() {
+        assertEquals("Wrong position", 0, snapshot.getPosition(gcc.getGroup()));
+        assertEquals("Wrong position", 1, snapshot.getPosition(javac.getGroup()));
+        assertEquals("Wrong position", 2, snapshot.getPosition("Java Compiler"));
+        assertEquals("Wrong position", 3, snapshot.getPosition(CUSTOM_GROUP));
+        assertEquals("Wrong position", -1, snapshot.getPosition("undefined"));
+    }
+
+    /**
+     * Verifies that the parsers of a group are created for each call, while the prototypes are kept.
+     */
+    @Test
+    public void shouldCreateParsersWithFactories() {
+        ParserSnapshot created = new ParserSnapshot(null, 1, Lists.newArrayList(new ParserSnapshot.ParserFactory() {
+            @Override
+            public AbstractWarningsParser create() {
+                return new Gcc4CompilerParser();
+            }
+        }, new ParserSnapshot.SharedParser(javac)));
+
+        AbstractWarningsParser prototype = created.getParsers().get(0);
+        List<AbstractWarningsParser> first = created.getParsers(gcc.getGroup());
+        List<AbstractWarningsParser> second = created.getParsers(gcc.getGroup());
+        assertEquals("Wrong number of parsers", 1, first.size());
+        assertNotSame("Parser shared", first.get(0), second.get(0));
+        assertNotSame("Prototype used", prototype, first.get(0));
+        assertSame("Prototype replaced", prototype, created.getParsers().get(0));
+        assertNotSame("Parser shared", prototype, created.createParsers().get(0));
+
+        assertSame("Extension not shared", javac, created.getParsers(javac.getGroup()).get(0));
+        assertSame("Extension not shared", javac, created.createParsers().get(1));
+
+        assertTrue("Snapshot outdated", created.isCurrent(null, 1));
+        assertFalse("Snapshot of old generation is current", created.isCurrent(null, 2));
+        assertFalse("Snapshot of other owner is current", created.isCurrent(new Object(), 1));
+    }
+
+    private List<AbstractWarningsParser> filter(final String group) {
+        List<AbstractWarningsParser> matches = Lists.newArrayList();
+        for (AbstractWarningsParser parser : parsers) {
+            if (parser.isInGroup(group)) {
+                matches.add(parser);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Parser that overrides the matching of groups.
+     */
+    @SuppressWarnings("serial")
+    private static class CustomGroupParser extends AbstractWarningsParser {
+        CustomGroupParser() {
+            super(Messages._Warnings_gcc4_ParserName(), Messages._Warnings_gcc4_LinkName(),
+                    Messages._Warnings_gcc4_TrendName());
+        }
+
+        @Override
+        public boolean isInGroup(final String group) {
+            return CUSTOM_GROUP.equals(group);
+        }
+
+        @Override
+        public Collection<FileAnnotation> parse(final Reader reader) throws IOException, ParsingCanceledException {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.NullLogger;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.warnings.parser.fxcop.FxCopParser;
+
+/**
+ * Tests the class {@link ParserStatistics} and the recording of the statistics in {@link ParserRegistry}.
+ */
+public class ParserStatisticsTest {
+    private static final String ENCODING = "UTF-8";
+
+    private File gcc;
+    private File fxcop;
+
+    /**
+     * Copies the report files into temporary files.
+     *
+     * @throws IOException
+     *             if the files could not be created
+     */
+    @Before
+    public void createFiles() throws IOException {
+        gcc = copyResource("gcc4.txt");
+        fxcop = copyResource("fxcop.xml");
+    }
+
+    private File copyResource(final String name) throws IOException {
+        File file = File.createTempFile("statistics", name);
+        FileUtils.copyURLToFile(ParserStatisticsTest.class.getResource(name), file);
+        return file;
+    }
+
+    /**
+     * Removes the temporary files.
+     */
+    @After
+    public void deleteFiles() {
+        FileUtils.deleteQuietly(gcc);
+        FileUtils.deleteQuietly(fxcop);
+    }
+
+    /**
+     * Verifies that the statistics of a line parser are recorded.
+     *
+     * @throws IOException
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldRecordStatisticsOfLineParser() throws IOException {
+        Gcc4CompilerParser parser = new Gcc4CompilerParser();
+        ParserRegistry registry = new ParserRegistry(Lists.newArrayList(parser), ENCODING);
+
+        Collection<FileAnnotation> warnings = registry.parseSeparately(gcc, new NullLogger()).get(parser);
+
+        List<ParserStatistics> statistics = registry.getStatistics();
+        assertEquals("Wrong number of statistics", 1, statistics.size());
+        ParserStatistics gccStatistics = statistics.get(0);
+        assertEquals("Wrong name", parser.getParserName().toString(), gccStatistics.getParserName());
+        assertEquals("Wrong number of inputs", 1, gccStatistics.getInputs());
+        assertEquals("Wrong number of bytes", gcc.length(), gccStatistics.getBytesRead());
+        assertEquals("Wrong number of lines", FileUtils.readLines(gcc, ENCODING).size(),
+                gccStatistics.getLinesScanned());
+        assertEquals("Wrong number of warnings", warnings.size(), gccStatistics.getWarnings());
+        assertTrue("Wrong number of matches", gccStatistics.getMatches() >= warnings.size());
+        assertTrue("Wrong number of interesting lines",
+                gccStatistics.getInterestingLines() > 0
+                && gccStatistics.getInterestingLines() <= gccStatistics.getLinesScanned());
+        assertEquals("Wrong number of skipped inputs", 0, gccStatistics.getSkippedInputs());
+
+        registry.parseSeparately(gcc, new NullLogger());
+        assertEquals("Wrong number of inputs", 2, registry.getStatistics().get(0).getInputs());
+    }
+
+    /**
+     * Verifies that the statistics of a parser that reads the input on its own are recorded separately.
+     *
+     * @throws IOException
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldRecordStatisticsOfEachParser() throws IOException {
+        Gcc4CompilerParser gccParser = new Gcc4CompilerParser();
+        FxCopParser fxcopParser = new FxCopParser();
+        ParserRegistry registry = new ParserRegistry(Lists.<AbstractWarningsParser>newArrayList(gccParser, fxcopParser),
+                ENCODING);
+
+        Map<AbstractWarningsParser, Collection<FileAnnotation>> warnings = registry.parseSeparately(fxcop,
+                new NullLogger());
+
+        List<ParserStatistics> statistics = registry.getStatistics();
+        assertEquals("Wrong number of statistics", 2, statistics.size());
+        assertEquals("Wrong number of warnings", 0, statistics.get(0).getWarnings());
+        ParserStatistics fxcopStatistics = statistics.get(1);
+        assertEquals("Wrong name", fxcopParser.getParserName().toString(), fxcopStatistics.getParserName());
+        assertEquals("Wrong number of warnings", warnings.get(fxcopParser).size(), fxcopStatistics.getWarnings());
+        assertEquals("Wrong number of lines", 0, fxcopStatistics.getLinesScanned());
+        assertEquals("Wrong number of bytes", fxcop.length(), fxcopStatistics.getBytesRead());
+
+        assertEquals("Wrong statistics", statistics.subList(1, 2),
+                registry.getStatistics(Lists.newArrayList(fxcopParser)));
+    }
+
+    /**
+     * Verifies that the recorder is removed from the thread after parsing and that parsers that run without a
+     * recorder do not record anything.
+     *
+     * @throws IOException
+     *             if the file could not be parsed
+     */
+    @Test
+    public void shouldStopRecorder() throws IOException {
+        Gcc4CompilerParser parser = new Gcc4CompilerParser();
+        new ParserRegistry(Lists.newArrayList(parser), ENCODING).parseSeparately(gcc, new NullLogger());
+        assertNull("Recorder still active", StatisticsRecorder.current());
+
+        Collection<FileAnnotation> warnings = parser.parse(new StringReader(FileUtils.readFileToString(gcc, ENCODING)));
+        assertFalse("No warnings found", warnings.isEmpty());
+        assertNull("Recorder active", StatisticsRecorder.get(parser));
+    }
+
+    /**
+     * Verifies that the table contains a header and a row for each parser.
+     */
+    @Test
+    public void shouldFormatTable() {
+        ParserStatistics statistics = new ParserStatistics("GNU C Compiler 4 (gcc)");
+        statistics.addInput(4096, 3);
+        statistics.addLines(100);
+
+        List<String> table = ParserStatistics.formatTable(Lists.newArrayList(statistics));
+
+        assertEquals("Wrong number of rows", 2, table.size());
+        assertTrue("Wrong header", table.get(0).startsWith("Parser"));
+        assertTrue("Wrong row", table.get(1).startsWith("GNU C Compiler 4 (gcc)"));
+        assertTrue("Wrong row", table.get(1).contains(" 100 "));
+    }
+}
@@ -1,6 +1,7 @@
 package hudson.plugins.warnings.parser;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -58,6 +59,55 @@ public class ResharperInspectCodeParserTest extends ParserTester {
                 Priority.LOW);
     }
 
+    /**
+     * Verifies that the severities of the issue types of a report are not used for other reports.
+     *
+     * @throws IOException
+     *      if the file could not be read
+     */
+    @Test
+    public void issueTypesAreScopedToReport() throws IOException {
+        ResharperInspectCodeParser parser = new ResharperInspectCodeParser();
+        parser.parse(openFile());
+
+        Collection<FileAnnotation> warnings = parser.parse(new StringReader("<Report><Issues><Project Name=\"P\">"
+                + "<Issue TypeId=\"CSharpErrors\" File=\"P\\A.cs\" Line=\"5\" Message=\"Error\" />"
+                + "</Project></Issues></Report>"));
+
+        assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED, 1, warnings.size());
+        checkWarning(warnings.iterator().next(), 5, "Error", "P/A.cs", "ResharperInspectCode", "CSharpErrors",
+                Priority.NORMAL);
+    }
+
+    /**
+     * Verifies that the entities of a document type definition are not expanded, so a report can't blow up the
+     * memory with nested entities.
+     *
+     * @throws IOException
+     *      if the file could not be read
+     */
+    @Test
+    public void entitiesAreNotExpanded() throws IOException {
+        String report = "<?xml version=\"1.0\"?><!DOCTYPE Report ["
+                + "<!ENTITY a \"aaaaaaaaaa\">"
+                + "<!ENTITY b \"&a;&a;&a;&a;&a;&a;&a;&a;&a;&a;\">"
+                + "<!ENTITY c \"&b;&b;&b;&b;&b;&b;&b;&b;&b;&b;\">]>"
+                + "<Report><Issues><Project Name=\"P\">"
+                + "<Issue TypeId=\"CSharpErrors\" File=\"P\\A.cs\" Line=\"5\" Message=\"&c;\" />"
+                + "</Project></Issues></Report>";
+
+        try {
+            Collection<FileAnnotation> warnings = new ResharperInspectCodeParser().parse(new StringReader(report));
+
+            for (FileAnnotation warning : warnings) {
+                assertFalse("Entity has been expanded", warning.getMessage().contains("aaaaaaaaaa"));
+            }
+        }
+        catch (IOException exception) {
+            // the reference to the entity is rejected
+        }
+    }
+
     @Override
     protected String getWarningsFile() {
         return "ResharperInspectCode.xml";
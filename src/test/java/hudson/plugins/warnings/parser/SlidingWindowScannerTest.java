@@ -0,0 +1,164 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.jvnet.localizer.Localizable;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link SlidingWindowScanner}.
+ */
+public class SlidingWindowScannerTest extends ParserTester {
+    /**
+     * Verifies that Eclipse warnings that span several lines are found in a small window.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldFindEclipseWarningsInSmallWindow() throws IOException {
+        assertSameWarnings("eclipse.txt", new EclipseParser(), new EclipseParser() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected int getMaxRecordSpan() {
+                return 1000;
+            }
+        });
+    }
+
+    /**
+     * Verifies that Doxygen warnings with continuation lines are found in a small window.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldFindDoxygenWarningsInSmallWindow() throws IOException {
+        assertSameWarnings("doxygen.txt", new DoxygenParser(), new DoxygenParser() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected int getMaxRecordSpan() {
+                return 1000;
+            }
+        });
+    }
+
+    /**
+     * Verifies that Dr. Memory errors with stack traces are found in a small window.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldFindDrMemoryWarningsInSmallWindow() throws IOException {
+        assertSameWarnings("drmemory.txt", new DrMemoryParser(), new DrMemoryParser() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected int getMaxRecordSpan() {
+                return 2100;
+            }
+        });
+    }
+
+    /**
+     * Verifies that the anchors of patterns without multi line mode match at the start and the end of the input
+     * only, and not at the boundaries of the window.
+     *
+     * @throws IOException
+     *             if the input could not be read
+     */
+    @Test
+    public void shouldNotMatchAnchorsAtWindowBoundaries() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int line = 1; line <= 200; line++) {
+            input.append("warning ").append(line).append('\n');
+        }
+
+        assertSameWarnings(input.toString(), "^warning (\\d+)");
+        assertSameWarnings(input.toString(), "(?s)warning (\\d+).*$");
+        assertSameWarnings(input.toString(), "(?m)^warning (\\d+)$");
+    }
+
+    private void assertSameWarnings(final String input, final String pattern) throws IOException {
+        List<FileAnnotation> expected = Lists.newArrayList();
+        new AnchoredParser(pattern, 0).findAnnotations(input, expected);
+        List<String> actual = describe(new AnchoredParser(pattern, 50).parse(new StringReader(input)));
+
+        assertFalse("No warnings found", expected.isEmpty());
+        assertEquals("Wrong warnings found", describe(expected), actual);
+    }
+
+    private void assertSameWarnings(final String fileName, final RegexpDocumentParser wholeDocument,
+            final RegexpDocumentParser window) throws IOException {
+        List<String> expected = describe(scanWholeDocument(fileName, wholeDocument));
+        List<String> actual = describe(window.parse(openFile(fileName)));
+
+        assertFalse("No warnings found", expected.isEmpty());
+        assertEquals("Wrong warnings found", expected, actual);
+    }
+
+    private Collection<FileAnnotation> scanWholeDocument(final String fileName, final RegexpDocumentParser parser)
+            throws IOException {
+        List<FileAnnotation> warnings = Lists.newArrayList();
+        StringBuilder content = new StringBuilder();
+        for (String line : IOUtils.readLines(openFile(fileName))) {
+            content.append(line).append('\n');
+        }
+        parser.findAnnotations(content.toString(), warnings);
+        return warnings;
+    }
+
+    private List<String> describe(final Collection<FileAnnotation> warnings) {
+        List<String> descriptions = Lists.newArrayList();
+        for (FileAnnotation warning : warnings) {
+            descriptions.add(warning.getFileName() + ":" + warning.getPrimaryLineNumber() + ":"
+                    + warning.getCategory() + ":" + warning.getMessage());
+        }
+        return descriptions;
+    }
+
+    @Override
+    protected String getWarningsFile() {
+        return "eclipse.txt";
+    }
+
+    /**
+     * Creates a warning for each match of a pattern, the first group is the line number.
+     */
+    private static class AnchoredParser extends RegexpDocumentParser {
+        private static final long serialVersionUID = 1L;
+        private static final Localizable NAME = Messages._Warnings_NotLocalizedName("Anchored");
+
+        private final int maxRecordSpan;
+
+        AnchoredParser(final String pattern, final int maxRecordSpan) {
+            super(NAME, NAME, NAME, pattern, false);
+
+            this.maxRecordSpan = maxRecordSpan;
+        }
+
+        @Override
+        protected int getMaxRecordSpan() {
+            return maxRecordSpan;
+        }
+
+        @Override
+        protected Warning createWarning(final Matcher matcher) {
+            return createWarning("file.txt", getLineNumber(matcher.group(1)), "Anchored", matcher.group());
+        }
+    }
+}
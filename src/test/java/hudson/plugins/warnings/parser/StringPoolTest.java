@@ -0,0 +1,79 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import com.thoughtworks.xstream.XStream;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Tests the class {@link StringPool}.
+ */
+public class StringPoolTest extends ParserTester {
+    /**
+     * Verifies that equal values are replaced by the same instance.
+     */
+    @Test
+    public void shouldReturnSameInstanceForEqualValues() {
+        String first = new String("category");
+        String second = new String("category");
+
+        assertSame("Values not interned", StringPool.intern(first), StringPool.intern(second));
+        assertNull("Null not preserved", StringPool.intern(null));
+    }
+
+    /**
+     * Verifies that the warnings of a parser share their file names, types and categories.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     */
+    @Test
+    public void shouldShareStringsOfParsedWarnings() throws IOException {
+        Collection<FileAnnotation> warnings = new Gcc4CompilerParser().parse(openFile());
+
+        Iterator<FileAnnotation> iterator = warnings.iterator();
+        FileAnnotation first = iterator.next();
+        while (iterator.hasNext()) {
+            FileAnnotation other = iterator.next();
+            assertSame("Type not shared", first.getType(), other.getType());
+            if (first.getCategory().equals(other.getCategory())) {
+                assertSame("Category not shared", first.getCategory(), other.getCategory());
+            }
+        }
+    }
+
+    /**
+     * Verifies that the module, package, category and type names of annotations read by an {@link XStream} instance
+     * are interned.
+     */
+    @Test
+    public void shouldInternDeserializedStrings() {
+        XStream xstream = new XStream();
+        StringPool.configure(xstream);
+
+        Warning warning = new Warning("File.java", 1, new String("Type"), new String("Category"), "Message");
+        warning.setModuleName(new String("module"));
+        warning.setPackageName(new String("hudson.plugins.warnings.parser"));
+        String xml = xstream.toXML(new FileAnnotation[] {warning, warning});
+
+        FileAnnotation[] copy = (FileAnnotation[])xstream.fromXML(xml);
+        assertEquals("Wrong value", warning.getPackageName(), copy[0].getPackageName());
+        assertSame("Package not interned", StringPool.intern("hudson.plugins.warnings.parser"),
+                copy[0].getPackageName());
+        assertSame("Module not interned", StringPool.intern("module"), copy[0].getModuleName());
+        assertSame("Category not interned", StringPool.intern("Category"), copy[0].getCategory());
+        assertSame("Type not interned", StringPool.intern("Type"), copy[0].getType());
+    }
+
+    @Override
+    protected String getWarningsFile() {
+        return "gcc4.txt";
+    }
+}
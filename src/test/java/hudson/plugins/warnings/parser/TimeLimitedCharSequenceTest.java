@@ -0,0 +1,95 @@
+package hudson.plugins.warnings.parser;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.warnings.parser.TimeLimitedCharSequence.MatchAbortedException;
+
+/**
+ * Tests the class {@link TimeLimitedCharSequence} and the input guards of {@link RegexpParser}.
+ */
+public class TimeLimitedCharSequenceTest {
+    /** Pattern that backtracks catastrophically on a sequence of 'a' characters that is not followed by 'b'. */
+    private static final Pattern CATASTROPHIC = Pattern.compile("(a|aa){1,100}b");
+    private static final String INPUT = StringUtils.repeat("a", 40) + "c";
+
+    /**
+     * Verifies that a match that backtracks catastrophically is aborted after the time budget.
+     */
+    @Test(timeout = 30000)
+    public void shouldAbortMatchAfterTimeBudget() {
+        TimeLimitedCharSequence input = new TimeLimitedCharSequence(100);
+        Matcher matcher = CATASTROPHIC.matcher(input.wrap(INPUT));
+        try {
+            matcher.find();
+            fail("Match not aborted");
+        }
+        catch (MatchAbortedException exception) {
+            assertFalse("Wrong reason", exception.isCanceled());
+        }
+    }
+
+    /**
+     * Verifies that a match is aborted if the thread has been interrupted.
+     */
+    @Test(timeout = 30000)
+    public void shouldAbortMatchOfInterruptedThread() {
+        TimeLimitedCharSequence input = new TimeLimitedCharSequence(0);
+        Matcher matcher = CATASTROPHIC.matcher(input.wrap(INPUT));
+        Thread.currentThread().interrupt();
+        try {
+            matcher.find();
+            fail("Match not aborted");
+        }
+        catch (MatchAbortedException exception) {
+            assertTrue("Wrong reason", exception.isCanceled());
+        }
+        finally {
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Verifies that the wrapper does not change the matches of a regular expression.
+     */
+    @Test
+    public void shouldFindSameMatches() {
+        TimeLimitedCharSequence input = new TimeLimitedCharSequence(100);
+        Matcher matcher = Pattern.compile("(\\w+)=(\\d+)").matcher(input.wrap("a=1, b=2, c=x"));
+
+        assertTrue("No match", matcher.find());
+        assertEquals("Wrong group", "a", matcher.group(1));
+        assertTrue("No match", matcher.find());
+        assertEquals("Wrong group", "2", matcher.group(2));
+        assertFalse("Unexpected match", matcher.find());
+    }
+
+    /**
+     * Verifies that lines that exceed the maximum input length are skipped.
+     *
+     * @throws ParsingCanceledException
+     *             if the scan has been canceled
+     */
+    @Test
+    public void shouldSkipOverlongLines() throws ParsingCanceledException {
+        String warning = "[WARNING] /src/Foo.java:[12,4] [deprecation] foo() has been deprecated";
+        JavacParser parser = new JavacParser();
+        List<FileAnnotation> warnings = Lists.newArrayList();
+        Matcher matcher = parser.createMatcher();
+
+        parser.findAnnotations(warning, matcher, warnings);
+        assertEquals("Wrong number of warnings", 1, warnings.size());
+
+        parser.findAnnotations(warning + StringUtils.repeat(" ", 512 * 1024), matcher, warnings);
+        assertEquals("Overlong line not skipped", 1, warnings.size());
+    }
+}
@@ -2,12 +2,15 @@ package hudson.plugins.warnings.parser;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.Set;
 
 import org.junit.Test;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Sets;
 
 import hudson.plugins.analysis.util.model.FileAnnotation;
@@ -67,6 +70,29 @@ public class ViolationsAdapterTest extends ParserTester {
         verify(new GendarmeParser(), "gendarme/Gendarme_unix.xml", 3, 2);
     }
 
+    /**
+     * Verifies that a report that is read from a file is handed over to the violations parser without copying.
+     *
+     * @throws IOException
+     *             if the file could not be read
+     * @throws URISyntaxException
+     *             if the file could not be found
+     */
+    @Test
+    public void testReportFile() throws IOException, URISyntaxException {
+        File report = new File(ViolationsAdapterTest.class.getResource("codenarc/CodeNarcXmlReport.xml").toURI());
+        MappedFileReader reader = new MappedFileReader(report, Charsets.UTF_8);
+        try {
+            Collection<FileAnnotation> result = createAdapter(new CodenarcParser()).parse(reader);
+
+            assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED, 10, result.size());
+            assertFalse("Report has been read by the adapter", reader.isStarted());
+        }
+        finally {
+            reader.close();
+        }
+    }
+
     private Collection<FileAnnotation> parse(final String fileName, final ViolationsAdapter violationsAdapter) throws IOException {
         return violationsAdapter.parse(openFile(fileName));
     }
@@ -77,11 +103,7 @@ public class ViolationsAdapterTest extends ParserTester {
     }
 
     private void verify(final ViolationsParser parser, final String fileName, final int expectedWarnings, final int expectedFiles) throws IOException {
-        Collection<FileAnnotation> result = parse(fileName,
-                new ViolationsAdapter(parser,
-                        Messages._Warnings_JSLint_ParserName(),
-                        Messages._Warnings_JSLint_LinkName(),
-                        Messages._Warnings_JSLint_TrendName()));
+        Collection<FileAnnotation> result = parse(fileName, createAdapter(parser));
 
         assertEquals(WRONG_NUMBER_OF_WARNINGS_DETECTED, expectedWarnings, result.size());
         Set<String> files = Sets.newHashSet();
@@ -91,5 +113,11 @@ public class ViolationsAdapterTest extends ParserTester {
         }
         assertEquals("Wrong number of files", expectedFiles, files.size());
     }
-}
 
+    private ViolationsAdapter createAdapter(final ViolationsParser parser) {
+        return new ViolationsAdapter(parser,
+                Messages._Warnings_JSLint_ParserName(),
+                Messages._Warnings_JSLint_LinkName(),
+                Messages._Warnings_JSLint_TrendName());
+    }
+}
@@ -0,0 +1,100 @@
+package hudson.plugins.warnings.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link WarningMapping}.
+ */
+public class WarningMappingTest {
+    private static final String REGEXP = "^(?<file>.*):(?<line>\\d+):(?<column>\\d+): (?<priority>error|warning): "
+            + "\\[(?<category>\\w+)\\] (?<message>.*)$";
+    private static final String LOOKUP_TABLE = "# priorities\npriority:error=HIGH\n\n"
+            + "category:W0612 = Unused variable\n";
+    private static final String TYPE = "Mapped Parser";
+
+    /**
+     * Verifies that the named groups are copied into the warning and replaced using the lookup table.
+     */
+    @Test
+    public void shouldMapNamedGroups() {
+        Warning warning = createWarning("src/main.c:42:7: error: [W0612] variable 'x' is never used");
+
+        assertEquals("Wrong file", "src/main.c", warning.getFileName());
+        assertEquals("Wrong line", 42, warning.getPrimaryLineNumber());
+        assertEquals("Wrong column", 7, warning.getColumnStart());
+        assertEquals("Wrong priority", Priority.HIGH, warning.getPriority());
+        assertEquals("Wrong category", "Unused variable", warning.getCategory());
+        assertEquals("Wrong type", TYPE, warning.getType());
+        assertEquals("Wrong message", "variable 'x' is never used", warning.getMessage());
+
+        warning = createWarning("src/main.c:1:1: warning: [W0611] unused import");
+        assertEquals("Wrong priority", Priority.NORMAL, warning.getPriority());
+        assertEquals("Wrong category", "W0611", warning.getCategory());
+    }
+
+    /**
+     * Verifies that only expressions with the named groups of a warning are detected.
+     */
+    @Test
+    public void shouldDetectNamedGroups() {
+        assertTrue(WarningMapping.hasNamedGroups(REGEXP));
+        assertTrue(WarningMapping.hasNamedGroups("(?<message>.*)"));
+        assertFalse(WarningMapping.hasNamedGroups("^\\s*(.*):(\\d+):(.*):\\s*(.*)$"));
+        assertFalse(WarningMapping.hasNamedGroups("(?<name>.*)"));
+        assertFalse(WarningMapping.hasNamedGroups(null));
+    }
+
+    /**
+     * Verifies that invalid lines of the lookup table are rejected.
+     */
+    @Test
+    public void shouldRejectInvalidLookupTable() {
+        for (String table : new String[] {"priority=HIGH", "unknown:a=b", ":a=b", "priority:error"}) {
+            try {
+                new WarningMapping(REGEXP, table, TYPE);
+                fail("Invalid table accepted: " + table);
+            }
+            catch (IllegalArgumentException exception) {
+                assertEquals("Wrong message", table, exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Verifies that a {@link DynamicParser} without script creates the warnings from the named groups.
+     *
+     * @throws IOException
+     *             if the input could not be read
+     */
+    @Test
+    public void shouldParseWithoutScript() throws IOException {
+        DynamicParser parser = new DynamicParser(TYPE, REGEXP, StringUtils.EMPTY, LOOKUP_TABLE, TYPE, TYPE);
+
+        Collection<FileAnnotation> warnings = parser.parse(new StringReader(
+                "src/a.c:1:2: error: [W0612] first\nno warning\nsrc/b.c:3:4: warning: [W0611] second\n"));
+
+        assertEquals("Wrong number of warnings", 2, warnings.size());
+        for (FileAnnotation warning : warnings) {
+            assertEquals("Wrong type", TYPE, warning.getType());
+        }
+    }
+
+    private Warning createWarning(final String line) {
+        Matcher matcher = Pattern.compile(REGEXP).matcher(line);
+        assertTrue("No match", matcher.matches());
+
+        return new WarningMapping(REGEXP, LOOKUP_TABLE, TYPE).createWarning(matcher);
+    }
+}
@@ -57,6 +57,36 @@ public class WarningsFilterTest {
         assertTrue(warnings.contains(w2));
     }
 
+    /**
+     * Tests the inclusion and exclusion of files and the exclusion by several merged message and category patterns.
+     */
+    @Test
+    public void testMergedPatterns() {
+        Warning included = new Warning("src/main/Included.java", 1, "type", "category", "message", Priority.LOW);
+        Warning excludedFile = new Warning("src/main/generated/Excluded.java", 1, "type", "category", "message",
+                Priority.LOW);
+        Warning otherFile = new Warning("src/test/Other.java", 1, "type", "category", "message", Priority.LOW);
+        Warning excludedMessage = new Warning("src/main/Message.java", 1, "type", "category", "unused import",
+                Priority.LOW);
+        Warning repeatedMessage = new Warning("src/main/Repeated.java", 1, "type", "category", "abab", Priority.LOW);
+        Warning excludedCategory = new Warning("src/main/Category.java", 1, "type", "deprecation", "message",
+                Priority.LOW);
+        Collection<FileAnnotation> warnings = new LinkedList<FileAnnotation>();
+        warnings.add(included);
+        warnings.add(excludedFile);
+        warnings.add(otherFile);
+        warnings.add(excludedMessage);
+        warnings.add(repeatedMessage);
+        warnings.add(excludedCategory);
+
+        Collection<FileAnnotation> filtered = new WarningsFilter().apply(warnings, "**/main/**, **/Other.java",
+                "**/generated/**", "Javadoc.*\nunused.*\n(ab)\\1", "unchecked\ndeprecation", new NullLogger());
+
+        assertEquals(2, filtered.size());
+        assertTrue(filtered.contains(included));
+        assertTrue(filtered.contains(otherFile));
+    }
+
     private Warning createDummyWarning(final String message) {
         return new Warning("dummyFile.java", 0, "warningType", "warningCategory", message, Priority.LOW);
     }